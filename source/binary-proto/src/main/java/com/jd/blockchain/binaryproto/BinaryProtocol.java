@@ -1,10 +1,12 @@
 package com.jd.blockchain.binaryproto;
 
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+import com.jd.blockchain.binaryproto.impl.BytesOutputBufferPool;
 import com.jd.blockchain.binaryproto.impl.DataContractContext;
+import com.jd.blockchain.binaryproto.impl.DataContractEncoderImpl;
 import com.jd.blockchain.binaryproto.impl.HeaderEncoder;
 import com.jd.blockchain.utils.io.BytesOutputBuffer;
 import com.jd.blockchain.utils.io.BytesSlice;
@@ -14,19 +16,97 @@ public class BinaryProtocol {
 	
 
 	public static void encode(Object data, Class<?> contractType, OutputStream out) {
-		DataContractEncoder encoder = DataContractContext.resolve(contractType);
-		if (encoder == null) {
-			throw new IllegalArgumentException("Contract Type not exist!--" + contractType.getName());
+		DataContractEncoder encoder = resolveEncoder(contractType);
+		BytesOutputBuffer buffer = BytesOutputBufferPool.acquire();
+		try {
+			encoder.encode(data, buffer);
+			buffer.writeTo(out);
+		} finally {
+			BytesOutputBufferPool.release(buffer);
 		}
-		BytesOutputBuffer buffer = new BytesOutputBuffer();
-		encoder.encode(data, buffer);
-		buffer.writeTo(out);
 	}
 
 	public static byte[] encode(Object data, Class<?> contractType) {
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		encode(data, contractType, out);
-		return out.toByteArray();
+		DataContractEncoder encoder = resolveEncoder(contractType);
+		BytesOutputBuffer buffer = BytesOutputBufferPool.acquire();
+		try {
+			encoder.encode(data, buffer);
+			return buffer.toBytes();
+		} finally {
+			BytesOutputBufferPool.release(buffer);
+		}
+	}
+
+	/**
+	 * 编码数据并写入调用者提供的缓冲区；<br>
+	 * 
+	 * 缓冲区直接引用编码产生的数组，调用者可以多次读取编码结果（例如先计算哈希再写入存储），而无需复制；
+	 * 
+	 * @param data
+	 * @param contractType
+	 * @param buffer
+	 * @return 写入的字节数；
+	 */
+	public static int encode(Object data, Class<?> contractType, BytesOutputBuffer buffer) {
+		return resolveEncoder(contractType).encode(data, buffer);
+	}
+
+	/**
+	 * 编码数据并写入指定的 {@link ByteBuffer}（可以是直接缓冲区）；<br>
+	 * 
+	 * 剩余空间不足时抛出 {@link java.nio.BufferOverflowException}；
+	 * 
+	 * @param data
+	 * @param contractType
+	 * @param out
+	 * @return 写入的字节数；
+	 */
+	public static int encode(Object data, Class<?> contractType, ByteBuffer out) {
+		DataContractEncoder encoder = resolveEncoder(contractType);
+		BytesOutputBuffer buffer = BytesOutputBufferPool.acquire();
+		try {
+			encoder.encode(data, buffer);
+			return buffer.writeTo(out);
+		} finally {
+			BytesOutputBufferPool.release(buffer);
+		}
+	}
+
+	/**
+	 * 以数据契约编码数据，复用数据已经以父契约编码的结果；<br>
+	 * 
+	 * 数据契约的字段必须以父契约的全部字段开头（父接口声明的字段在前），否则抛出 {@link IllegalArgumentException}；<br>
+	 * 用于先以父契约编码并计算哈希，再以包含哈希字段的数据契约编码的场景，避免重复编码父契约的字段；
+	 * 
+	 * @param data
+	 *            数据；以父契约编码之后，父契约的字段不能再发生变化；
+	 * @param contractType
+	 *            数据契约；
+	 * @param baseContractType
+	 *            父契约；
+	 * @param baseBytes
+	 *            数据以父契约编码的结果，通过 {@link #encode(Object, Class, BytesOutputBuffer)} 获得；
+	 * @return
+	 */
+	public static byte[] encode(Object data, Class<?> contractType, Class<?> baseContractType,
+			BytesOutputBuffer baseBytes) {
+		DataContractEncoderImpl encoder = (DataContractEncoderImpl) resolveEncoder(contractType);
+		DataContractEncoderImpl baseEncoder = (DataContractEncoderImpl) resolveEncoder(baseContractType);
+		BytesOutputBuffer buffer = BytesOutputBufferPool.acquire();
+		try {
+			encoder.encode(data, baseEncoder, baseBytes, buffer);
+			return buffer.toBytes();
+		} finally {
+			BytesOutputBufferPool.release(buffer);
+		}
+	}
+
+	private static DataContractEncoder resolveEncoder(Class<?> contractType) {
+		DataContractEncoder encoder = DataContractContext.resolve(contractType);
+		if (encoder == null) {
+			throw new IllegalArgumentException("Contract Type not exist!--" + contractType.getName());
+		}
+		return encoder;
 	}
 
 	public static <T> T decode(InputStream in) {
@@ -14,6 +14,11 @@ public abstract class AbstractFieldEncoder implements FieldEncoder {
 
 	protected Method reader;
 
+	// 生成的数据契约访问器；为 null 时通过反射读取字段；
+	private DataContractAccessor accessor;
+
+	private int fieldId;
+
 	public AbstractFieldEncoder(BinarySliceSpec sliceSpec, FieldSpec fieldSpec, Method reader) {
 		this.sliceSpec = sliceSpec;
 		this.fieldSpec = fieldSpec;
@@ -36,7 +41,15 @@ public abstract class AbstractFieldEncoder implements FieldEncoder {
 	}
 
 
+	void setAccessor(DataContractAccessor accessor, int fieldId) {
+		this.accessor = accessor;
+		this.fieldId = fieldId;
+	}
+
 	protected Object readValue(Object dataContract) {
+		if (accessor != null) {
+			return accessor.readField(dataContract, fieldId);
+		}
 		try {
 			return reader.invoke(dataContract);
 		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
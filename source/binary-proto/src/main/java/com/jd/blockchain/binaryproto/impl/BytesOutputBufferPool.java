@@ -0,0 +1,60 @@
+package com.jd.blockchain.binaryproto.impl;
+
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
+
+/**
+ * 线程本地的输出缓冲区池；<br>
+ *
+ * 编码数据契约时需要的临时缓冲区（包括嵌套的数据契约）从当前线程的池中获取，用完之后清空并归还；<br>
+ * 嵌套编码时按照嵌套的深度获取不同的缓冲区，因此获取和归还必须成对地按照后进先出的顺序进行；
+ *
+ * @author huanghaiquan
+ *
+ */
+public final class BytesOutputBufferPool {
+
+	// 每个线程缓存的缓冲区的最大数量，即支持复用的最大嵌套深度；
+	private static final int MAX_POOLED_BUFFERS = 16;
+
+	private static final ThreadLocal<BytesOutputBufferPool> LOCAL_POOL = ThreadLocal
+			.withInitial(BytesOutputBufferPool::new);
+
+	private final BytesOutputBuffer[] buffers = new BytesOutputBuffer[MAX_POOLED_BUFFERS];
+
+	private int depth;
+
+	private BytesOutputBufferPool() {
+	}
+
+	/**
+	 * 从当前线程的池中获取一个空的缓冲区；
+	 *
+	 * @return
+	 */
+	public static BytesOutputBuffer acquire() {
+		BytesOutputBufferPool pool = LOCAL_POOL.get();
+		int idx = pool.depth++;
+		if (idx >= MAX_POOLED_BUFFERS) {
+			return new BytesOutputBuffer();
+		}
+		BytesOutputBuffer buffer = pool.buffers[idx];
+		if (buffer == null) {
+			buffer = new BytesOutputBuffer();
+			pool.buffers[idx] = buffer;
+		}
+		return buffer;
+	}
+
+	/**
+	 * 清空缓冲区并归还到当前线程的池中；
+	 *
+	 * @param buffer 通过 {@link #acquire()} 获取的缓冲区；
+	 */
+	public static void release(BytesOutputBuffer buffer) {
+		BytesOutputBufferPool pool = LOCAL_POOL.get();
+		int idx = --pool.depth;
+		if (idx < MAX_POOLED_BUFFERS) {
+			buffer.reset();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.jd.blockchain.binaryproto.impl;
+
+import com.jd.blockchain.utils.io.BytesInputStream;
+
+/**
+ * 数据契约的访问器；<br>
+ *
+ * 由 {@link DataContractCodeGenerator} 为每一个数据契约生成实现，以直接的方法调用取代动态代理和反射；
+ *
+ * @author huanghaiquan
+ *
+ */
+public interface DataContractAccessor {
+
+	/**
+	 * 从字节流创建数据契约的实例；
+	 *
+	 * @param contractEncoder 数据契约的编码器；
+	 * @param bytesStream     数据契约的字节流，包含头部；
+	 * @return
+	 */
+	Object newContract(DataContractEncoderImpl contractEncoder, BytesInputStream bytesStream);
+
+	/**
+	 * 读取数据契约的指定字段的值；基本类型的值以包装类型返回；
+	 *
+	 * @param dataContract 数据契约的实例；
+	 * @param fieldId      字段序号；
+	 * @return
+	 */
+	Object readField(Object dataContract, int fieldId);
+
+}
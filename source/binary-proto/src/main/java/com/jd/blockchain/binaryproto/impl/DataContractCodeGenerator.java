@@ -0,0 +1,392 @@
+package com.jd.blockchain.binaryproto.impl;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jd.blockchain.utils.io.BytesInputStream;
+
+/**
+ * 数据契约的代码生成器；<br>
+ *
+ * 在数据契约首次解析时为其生成两个类：<br>
+ * 1、契约的实现类：继承 {@link GeneratedDataContract} 并实现契约接口，字段方法直接按序号解码对应的数据片段，取代基于
+ * {@link java.lang.reflect.Proxy} 的 {@link DynamicDataContract}；<br>
+ * 2、契约的访问器：实现 {@link DataContractAccessor}，用于创建实现类的实例，以及在编码时直接调用字段方法读取字段值，取代反射调用；<br>
+ *
+ * 契约接口或者字段类型不是 public 的，或者生成失败时，返回 null，由调用者沿用动态代理和反射的方式；
+ *
+ * @author huanghaiquan
+ *
+ */
+public final class DataContractCodeGenerator implements Opcodes {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataContractCodeGenerator.class);
+
+	private static final String CONTRACT_CLASS_SUFFIX = "$$BinaryContract";
+
+	private static final String ACCESSOR_CLASS_SUFFIX = "$$BinaryAccessor";
+
+	private static final String BASE_CLASS = Type.getInternalName(GeneratedDataContract.class);
+
+	private static final String ACCESSOR_INTERFACE = Type.getInternalName(DataContractAccessor.class);
+
+	private static final String CONSTRUCTOR_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+			Type.getType(DataContractEncoderImpl.class), Type.getType(BytesInputStream.class));
+
+	private static final String NEW_CONTRACT_DESC = Type.getMethodDescriptor(Type.getType(Object.class),
+			Type.getType(DataContractEncoderImpl.class), Type.getType(BytesInputStream.class));
+
+	private static final String READ_FIELD_DESC = Type.getMethodDescriptor(Type.getType(Object.class),
+			Type.getType(Object.class), Type.INT_TYPE);
+
+	private static final String DECODE_FIELD_DESC = Type.getMethodDescriptor(Type.getType(Object.class),
+			Type.INT_TYPE);
+
+	private static final Map<Class<?>, Class<?>> WRAPPER_TYPES = new HashMap<>();
+
+	static {
+		WRAPPER_TYPES.put(boolean.class, Boolean.class);
+		WRAPPER_TYPES.put(char.class, Character.class);
+		WRAPPER_TYPES.put(byte.class, Byte.class);
+		WRAPPER_TYPES.put(short.class, Short.class);
+		WRAPPER_TYPES.put(int.class, Integer.class);
+		WRAPPER_TYPES.put(long.class, Long.class);
+		WRAPPER_TYPES.put(float.class, Float.class);
+		WRAPPER_TYPES.put(double.class, Double.class);
+	}
+
+	private DataContractCodeGenerator() {
+	}
+
+	/**
+	 * 为数据契约生成实现类和访问器；
+	 *
+	 * @param contractEncoder 数据契约的编码器；
+	 * @return 访问器；如果数据契约不支持生成，则返回 null；
+	 */
+	public static DataContractAccessor generate(DataContractEncoderImpl contractEncoder) {
+		Class<?> contractType = contractEncoder.getContractType();
+		if (!isAccessible(contractType)) {
+			return null;
+		}
+		Method[] readers = new Method[contractEncoder.getFieldCount()];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = contractEncoder.getFieldEncoder(i).getReader();
+			if (!isAccessible(readers[i].getDeclaringClass()) || !isAccessible(readers[i].getReturnType())) {
+				return null;
+			}
+		}
+
+		String contractClassName = contractType.getName() + CONTRACT_CLASS_SUFFIX;
+		String accessorClassName = contractType.getName() + ACCESSOR_CLASS_SUFFIX;
+		try {
+			GeneratedClassLoader classLoader = new GeneratedClassLoader(contractType.getClassLoader());
+			classLoader.define(contractClassName,
+					generateContractClass(contractEncoder, toInternalName(contractClassName)));
+			Class<?> accessorClass = classLoader.define(accessorClassName,
+					generateAccessorClass(readers, toInternalName(contractClassName), toInternalName(accessorClassName)));
+			return (DataContractAccessor) accessorClass.getConstructor().newInstance();
+		} catch (Exception | LinkageError e) {
+			LOGGER.warn(String.format("Fail to generate the implementation of data contract[%s]! --%s",
+					contractType.getName(), e.getMessage()), e);
+			return null;
+		}
+	}
+
+	private static byte[] generateContractClass(DataContractEncoderImpl contractEncoder, String className) {
+		Class<?> contractType = contractEncoder.getContractType();
+		ClassWriter cw = new GeneratedClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, BASE_CLASS,
+				new String[] { Type.getInternalName(contractType) });
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", CONSTRUCTOR_DESC, false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// 按方法名和参数查找字段，同时覆盖字段方法在子接口中以协变返回类型重新声明的方法；
+		Map<String, Integer> fieldIds = new HashMap<>();
+		for (int i = 0; i < contractEncoder.getFieldCount(); i++) {
+			Method reader = contractEncoder.getFieldEncoder(i).getReader();
+			fieldIds.putIfAbsent(reader.getName() + Type.getMethodDescriptor(Type.VOID_TYPE,
+					Type.getArgumentTypes(reader)), i);
+		}
+
+		for (Method method : resolveAbstractMethods(contractEncoder)) {
+			Integer fieldId = contractEncoder.getFieldId(method) > -1 ? Integer.valueOf(contractEncoder.getFieldId(method))
+					: fieldIds.get(method.getName()
+							+ Type.getMethodDescriptor(Type.VOID_TYPE, Type.getArgumentTypes(method)));
+			Class<?> returnType = method.getReturnType();
+			mv = cw.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+			mv.visitCode();
+			if (fieldId != null) {
+				if (!isAccessible(returnType)) {
+					throw new IllegalStateException("The return type of method[" + method + "] is not public!");
+				}
+				mv.visitVarInsn(ALOAD, 0);
+				pushInt(mv, fieldId.intValue());
+				mv.visitMethodInsn(INVOKEVIRTUAL, BASE_CLASS, "decodeField", DECODE_FIELD_DESC, false);
+				unbox(mv, returnType);
+			} else {
+				// 与动态代理一致，非字段方法返回默认值；
+				pushDefault(mv, returnType);
+			}
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static byte[] generateAccessorClass(Method[] readers, String contractClassName, String className) {
+		ClassWriter cw = new GeneratedClassWriter();
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null,
+				Type.getInternalName(Object.class), new String[] { ACCESSOR_INTERFACE });
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "newContract", NEW_CONTRACT_DESC, null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, contractClassName);
+		mv.visitInsn(DUP);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, contractClassName, "<init>", CONSTRUCTOR_DESC, false);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "readField", READ_FIELD_DESC, null, null);
+		mv.visitCode();
+		if (readers.length > 0) {
+			Label[] cases = new Label[readers.length];
+			for (int i = 0; i < cases.length; i++) {
+				cases[i] = new Label();
+			}
+			Label defaultCase = new Label();
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitTableSwitchInsn(0, readers.length - 1, defaultCase, cases);
+			for (int i = 0; i < readers.length; i++) {
+				String owner = Type.getInternalName(readers[i].getDeclaringClass());
+				mv.visitLabel(cases[i]);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, owner);
+				mv.visitMethodInsn(INVOKEINTERFACE, owner, readers[i].getName(),
+						Type.getMethodDescriptor(readers[i]), true);
+				box(mv, readers[i].getReturnType());
+				mv.visitInsn(ARETURN);
+			}
+			mv.visitLabel(defaultCase);
+		}
+		String exceptionType = Type.getInternalName(IllegalArgumentException.class);
+		mv.visitTypeInsn(NEW, exceptionType);
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("The field id is out of range!");
+		mv.visitMethodInsn(INVOKESPECIAL, exceptionType, "<init>",
+				Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(String.class)), false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * 返回实现类需要实现的方法；<br>
+	 *
+	 * 相同签名的方法只实现一次，优先采用标注为字段的方法；有默认实现的非字段方法以及 {@link Object} 声明的方法沿用原有的实现；
+	 *
+	 * @param contractEncoder
+	 * @return
+	 */
+	private static Collection<Method> resolveAbstractMethods(DataContractEncoderImpl contractEncoder) {
+		Map<String, Method> methods = new LinkedHashMap<>();
+		Set<String> defaultMethods = new HashSet<>();
+		for (Method method : contractEncoder.getContractType().getMethods()) {
+			if (Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			String signature = method.getName() + Type.getMethodDescriptor(method);
+			if (method.isDefault()) {
+				defaultMethods.add(signature);
+				continue;
+			}
+			if (isObjectMethod(method)) {
+				continue;
+			}
+			Method existing = methods.get(signature);
+			if (existing == null
+					|| (contractEncoder.getFieldId(existing) < 0 && contractEncoder.getFieldId(method) > -1)) {
+				methods.put(signature, method);
+			}
+		}
+		methods.entrySet().removeIf(
+				entry -> defaultMethods.contains(entry.getKey()) && contractEncoder.getFieldId(entry.getValue()) < 0);
+		return methods.values();
+	}
+
+	private static boolean isObjectMethod(Method method) {
+		try {
+			Object.class.getMethod(method.getName(), method.getParameterTypes());
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static boolean isAccessible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		for (Class<?> t = type; t != null; t = t.getDeclaringClass()) {
+			if (!Modifier.isPublic(t.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String toInternalName(String className) {
+		return className.replace('.', '/');
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		} else if (value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		} else if (value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, value);
+		} else {
+			mv.visitLdcInsn(value);
+		}
+	}
+
+	private static void pushDefault(MethodVisitor mv, Class<?> type) {
+		switch (Type.getType(type).getSort()) {
+		case Type.VOID:
+			break;
+		case Type.LONG:
+			mv.visitInsn(LCONST_0);
+			break;
+		case Type.FLOAT:
+			mv.visitInsn(FCONST_0);
+			break;
+		case Type.DOUBLE:
+			mv.visitInsn(DCONST_0);
+			break;
+		case Type.BOOLEAN:
+		case Type.CHAR:
+		case Type.BYTE:
+		case Type.SHORT:
+		case Type.INT:
+			mv.visitInsn(ICONST_0);
+			break;
+		default:
+			mv.visitInsn(ACONST_NULL);
+		}
+	}
+
+	/**
+	 * 把栈顶的对象转换为指定的返回类型；
+	 */
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (!type.isPrimitive()) {
+			if (type != Object.class) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+			}
+			return;
+		}
+		Type primitiveType = Type.getType(type);
+		String owner;
+		if (type == boolean.class) {
+			owner = Type.getInternalName(Boolean.class);
+		} else if (type == char.class) {
+			owner = Type.getInternalName(Character.class);
+		} else {
+			owner = Type.getInternalName(Number.class);
+		}
+		mv.visitTypeInsn(CHECKCAST, owner);
+		mv.visitMethodInsn(INVOKEVIRTUAL, owner, primitiveType.getClassName() + "Value",
+				Type.getMethodDescriptor(primitiveType), false);
+	}
+
+	/**
+	 * 把栈顶的基本类型的值转换为包装类型；
+	 */
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (!type.isPrimitive()) {
+			return;
+		}
+		Type wrapperType = Type.getType(WRAPPER_TYPES.get(type));
+		mv.visitMethodInsn(INVOKESTATIC, wrapperType.getInternalName(), "valueOf",
+				Type.getMethodDescriptor(wrapperType, Type.getType(type)), false);
+	}
+
+	/**
+	 * 生成的类没有需要合并不同类型的分支，无需加载类型来计算公共父类；
+	 */
+	private static class GeneratedClassWriter extends ClassWriter {
+
+		public GeneratedClassWriter() {
+			super(ClassWriter.COMPUTE_FRAMES);
+		}
+
+		@Override
+		protected String getCommonSuperClass(String type1, String type2) {
+			return Type.getInternalName(Object.class);
+		}
+	}
+
+	/**
+	 * 生成的类的加载器；<br>
+	 *
+	 * 以契约接口的加载器为父加载器，父加载器不可见的类（例如契约接口由独立的加载器加载时的本模块的类）从本模块的加载器加载；
+	 */
+	private static class GeneratedClassLoader extends ClassLoader {
+
+		public GeneratedClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			return DataContractCodeGenerator.class.getClassLoader().loadClass(name);
+		}
+
+		public Class<?> define(String name, byte[] classBytes) {
+			return defineClass(name, classBytes, 0, classBytes.length);
+		}
+	}
+}
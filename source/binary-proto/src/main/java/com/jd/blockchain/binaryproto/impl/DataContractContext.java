@@ -32,6 +32,11 @@ public class DataContractContext {
 
 	public static DataContractEncoderLookup ENCODER_LOOKUP;
 
+	/**
+	 * 是否为数据契约生成实现类和访问器，以取代动态代理和反射；
+	 */
+	private static final boolean CODEGEN;
+
 	private static final Object MUTEX = new Object();
 
 	private static final BinarySliceSpec HEAD_SLICE = BinarySliceSpec.newFixedSlice(HeaderEncoder.HEAD_BYTES, "HEAD",
@@ -68,6 +73,8 @@ public class DataContractContext {
 	private static Map<PrimitiveType, Map<Class<?>, ValueConverter>> primitiveTypeConverters = new HashMap<>();
 
 	static {
+		CODEGEN = Boolean.getBoolean("binaryproto-codegen");
+
 		addConverterMapping(PrimitiveType.BOOLEAN, boolean.class, new BoolConverter());
 		addConverterMapping(PrimitiveType.BOOLEAN, Boolean.class, new BoolWrapperConverter());
 		addConverterMapping(PrimitiveType.INT8, byte.class, new Int8ByteConverter());
@@ -239,6 +246,14 @@ public class DataContractContext {
 		DataContractEncoderImpl contractEncoder = new DataContractEncoderImpl(contractType, spec, headerEncoder,
 				fieldEncoders);
 
+		if (CODEGEN) {
+			// 生成数据契约的实现类和访问器；不支持生成时沿用动态代理和反射；
+			DataContractAccessor accessor = DataContractCodeGenerator.generate(contractEncoder);
+			if (accessor != null) {
+				contractEncoder.setAccessor(accessor);
+			}
+		}
+
 		return contractEncoder;
 	}
 
@@ -25,6 +25,9 @@ public class DataContractEncoderImpl implements DataContractEncoder {
 	// 字段的 Get 方法与编码器的映射表；
 	private Map<Method, Integer> fieldIndexMap;
 
+	// 生成的数据契约访问器；为 null 时通过动态代理解码，通过反射读取字段；
+	private DataContractAccessor accessor;
+
 	/**
 	 * @param contractType
 	 * @param specification
@@ -64,6 +67,20 @@ public class DataContractEncoderImpl implements DataContractEncoder {
 		return fieldEncoders[id];
 	}
 
+	/**
+	 * 设置生成的数据契约访问器，用于解码时创建生成的实现类的实例，以及编码时读取字段的值；
+	 * 
+	 * @param accessor
+	 */
+	void setAccessor(DataContractAccessor accessor) {
+		this.accessor = accessor;
+		for (int i = 0; i < fieldEncoders.length; i++) {
+			if (fieldEncoders[i] instanceof AbstractFieldEncoder) {
+				((AbstractFieldEncoder) fieldEncoders[i]).setAccessor(accessor, i);
+			}
+		}
+	}
+
 	/**
 	 * 通过字段的声明方法返回字段的序号；
 	 * 
@@ -103,6 +120,16 @@ public class DataContractEncoderImpl implements DataContractEncoder {
 
 	@Override
 	public int encode(Object dataContract, BytesOutputBuffer buffer) {
+		if (dataContract != null) {
+			// 从字节流解码的数据契约直接输出原始字节；
+			DecodedDataContract decodedContract = DecodedDataContract.of(dataContract);
+			if (decodedContract != null) {
+				int size = decodedContract.writeTo(this, buffer);
+				if (size > -1) {
+					return size;
+				}
+			}
+		}
 		int size = 0;
 		size += headEncoder.encode(dataContract, buffer);
 		if (dataContract != null) {
@@ -113,6 +140,50 @@ public class DataContractEncoderImpl implements DataContractEncoder {
 		return size;
 	}
 
+	/**
+	 * 编码数据契约，复用数据已经以父契约编码的结果；<br>
+	 * 
+	 * 当前数据契约的字段必须以父契约的全部字段开头，即父契约的字段在前，当前数据契约新增的字段在后；<br>
+	 * 输出当前数据契约的头部、父契约编码结果中的全部字段，以及当前数据契约新增的字段；
+	 * 
+	 * @param dataContract
+	 *            数据；以父契约编码之后，父契约的字段不能再发生变化；
+	 * @param baseEncoder
+	 *            父契约的编码器；
+	 * @param baseBytes
+	 *            数据以父契约编码的结果；
+	 * @param buffer
+	 *            输出缓冲区；
+	 * @return 输出的字节数；
+	 */
+	public int encode(Object dataContract, DataContractEncoderImpl baseEncoder, BytesOutputBuffer baseBytes,
+			BytesOutputBuffer buffer) {
+		if (dataContract == null) {
+			return encode(null, buffer);
+		}
+		int baseFieldCount = baseEncoder.getFieldCount();
+		boolean extended = baseFieldCount <= fieldEncoders.length;
+		for (int i = 0; extended && i < baseFieldCount; i++) {
+			extended = fieldEncoders[i].getReader().equals(baseEncoder.getFieldEncoder(i).getReader());
+		}
+		if (!extended) {
+			throw new IllegalArgumentException(
+					String.format("The fields of data contract[%s] don't start with the fields of data contract[%s]!",
+							contractType.getName(), baseEncoder.getContractType().getName()));
+		}
+		if (baseBytes.getSize() < HeaderEncoder.HEAD_BYTES) {
+			throw new IllegalArgumentException("The base bytes is too short!");
+		}
+
+		int size = headEncoder.encode(dataContract, buffer);
+		buffer.write(baseBytes, HeaderEncoder.HEAD_BYTES);
+		size += baseBytes.getSize() - HeaderEncoder.HEAD_BYTES;
+		for (int i = baseFieldCount; i < fieldEncoders.length; i++) {
+			size += fieldEncoders[i].encode(dataContract, buffer);
+		}
+		return size;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T decode(BytesInputStream bytesStream) {
@@ -127,6 +198,9 @@ public class DataContractEncoderImpl implements DataContractEncoder {
 			// 只有头部，没有值，表示空值；
 			return null;
 		}
+		if (accessor != null) {
+			return (T) accessor.newContract(this, bytesStream);
+		}
 		return (T) DynamicDataContract.createContract(bytesStream, this);
 	}
 
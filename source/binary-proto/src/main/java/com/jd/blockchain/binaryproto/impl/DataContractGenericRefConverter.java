@@ -70,13 +70,17 @@ public class DataContractGenericRefConverter extends AbstractDynamicValueConvert
 	public int encodeDynamicValue(Object value, BytesOutputBuffer buffer) {
 		DataContractEncoder contractEncoder = lookupEncoder(value.getClass());
 
-		BytesOutputBuffer contractBuffer = new BytesOutputBuffer();
-		int size = contractEncoder.encode(value, contractBuffer);
+		BytesOutputBuffer contractBuffer = BytesOutputBufferPool.acquire();
+		try {
+			int size = contractEncoder.encode(value, contractBuffer);
 
-		size += writeSize(size, buffer);
+			size += writeSize(size, buffer);
 
-		buffer.write(contractBuffer);
-		return size;
+			buffer.write(contractBuffer);
+			return size;
+		} finally {
+			BytesOutputBufferPool.release(contractBuffer);
+		}
 	}
 
 	@Override
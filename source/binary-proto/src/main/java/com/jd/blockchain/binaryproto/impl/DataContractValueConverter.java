@@ -15,13 +15,17 @@ public class DataContractValueConverter extends AbstractDynamicValueConverter {
 
 	@Override
 	public int encodeDynamicValue(Object value, BytesOutputBuffer buffer) {
-		BytesOutputBuffer contractBuffer = new BytesOutputBuffer();
-		int size = contractEncoder.encode(value, contractBuffer);
-		
-		size += writeSize(size, buffer);
-		
-		buffer.write(contractBuffer);
-		return size;
+		BytesOutputBuffer contractBuffer = BytesOutputBufferPool.acquire();
+		try {
+			int size = contractEncoder.encode(value, contractBuffer);
+
+			size += writeSize(size, buffer);
+
+			buffer.write(contractBuffer);
+			return size;
+		} finally {
+			BytesOutputBufferPool.release(contractBuffer);
+		}
 	}
 
 	@Override
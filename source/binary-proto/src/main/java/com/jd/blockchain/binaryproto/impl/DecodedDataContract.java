@@ -0,0 +1,149 @@
+package com.jd.blockchain.binaryproto.impl;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.jd.blockchain.utils.io.BytesInputStream;
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
+import com.jd.blockchain.utils.io.BytesSlice;
+import com.jd.blockchain.utils.io.BytesSlices;
+
+/**
+ * 从字节流解码的数据契约的状态；<br>
+ *
+ * 1、保留数据契约的原始字节以及每个字段的数据片段的位置，对未修改的数据契约再次编码时直接输出原始字节，无需重新编码；<br>
+ * 2、字段在首次访问时解码，解码后的值被缓存，之后的访问直接返回缓存的值；数组类型的值每次返回副本，以免调用者的修改影响缓存的值；<br>
+ *
+ * 解码的数据契约是不可变的，并发访问同一个字段时可能重复解码，以先缓存的值为准；
+ *
+ * @author huanghaiquan
+ *
+ */
+final class DecodedDataContract {
+
+	// 表示字段的值为 null 的缓存标记；
+	private static final Object NULL_VALUE = new Object();
+
+	private final DataContractEncoderImpl contractEncoder;
+
+	// 数据契约的原始字节，包括头部以及所有字段；
+	private final BytesSlice contractBytes;
+
+	// 数据片段在原始字节中的起始位置，首个是 HeaderSlice，其次是按字段顺序排列的数据片段，最后是结尾位置；
+	private final int[] sliceOffsets;
+
+	// 字段的数据片段列表，首个是 HeaderSlice，其次是按字段顺序排列的数据片段；
+	private final BytesSlices[] dataSlices;
+
+	private final AtomicReferenceArray<Object> fieldValues;
+
+	DecodedDataContract(DataContractEncoderImpl contractEncoder, BytesInputStream bytesStream) {
+		this.contractEncoder = contractEncoder;
+
+		int fieldCount = contractEncoder.getFieldCount();
+		BytesSlice remainingBytes = bytesStream.getSlice();
+		int remainingSize = bytesStream.getSize();
+
+		// 解析出所有的数据片段，并记录每个片段的起始位置；
+		this.dataSlices = new BytesSlices[fieldCount + 1];
+		this.sliceOffsets = new int[fieldCount + 2];
+
+		dataSlices[0] = contractEncoder.getHeaderEncoder().decode(bytesStream);
+		for (int i = 1; i < dataSlices.length; i++) {
+			sliceOffsets[i] = remainingSize - bytesStream.getSize();
+			dataSlices[i] = contractEncoder.getFieldEncoder(i - 1).decode(bytesStream);
+		}
+		sliceOffsets[fieldCount + 1] = remainingSize - bytesStream.getSize();
+
+		this.contractBytes = remainingBytes.getSlice(0, sliceOffsets[fieldCount + 1]);
+		this.fieldValues = new AtomicReferenceArray<>(fieldCount);
+	}
+
+	DataContractEncoderImpl getContractEncoder() {
+		return contractEncoder;
+	}
+
+	/**
+	 * 返回字段的值；首次访问时解码并缓存；
+	 *
+	 * @param fieldId 字段序号；
+	 * @return
+	 */
+	Object getField(int fieldId) {
+		Object value = fieldValues.get(fieldId);
+		if (value == null) {
+			value = contractEncoder.getFieldEncoder(fieldId).decodeField(dataSlices[fieldId + 1]);
+			if (value == null) {
+				value = NULL_VALUE;
+			}
+			if (!fieldValues.compareAndSet(fieldId, null, value)) {
+				value = fieldValues.get(fieldId);
+			}
+		}
+		if (value == NULL_VALUE) {
+			return null;
+		}
+		if (value instanceof Object[]) {
+			return ((Object[]) value).clone();
+		}
+		if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+		return value;
+	}
+
+	/**
+	 * 以指定的数据契约输出原始字节；<br>
+	 *
+	 * 如果指定的是解码时的数据契约，则输出全部的原始字节；<br>
+	 * 否则，如果指定的数据契约的每一个字段都是解码时的数据契约的字段（例如指定的是父接口），则输出其头部以及对应字段的原始字节；<br>
+	 * 其它情况不输出，返回 -1，由调用者重新编码；
+	 *
+	 * @param targetEncoder 输出的数据契约的编码器；
+	 * @param buffer        输出缓冲区；
+	 * @return 输出的字节数；如果未输出，则返回 -1；
+	 */
+	int writeTo(DataContractEncoderImpl targetEncoder, BytesOutputBuffer buffer) {
+		if (targetEncoder == contractEncoder) {
+			buffer.write(contractBytes.getBytesCopy());
+			return contractBytes.getSize();
+		}
+
+		int[] fieldIds = new int[targetEncoder.getFieldCount()];
+		for (int i = 0; i < fieldIds.length; i++) {
+			fieldIds[i] = contractEncoder.getFieldId(targetEncoder.getFieldEncoder(i).getReader());
+			if (fieldIds[i] < 0) {
+				return -1;
+			}
+		}
+		int size = targetEncoder.getHeaderEncoder().encode(null, buffer);
+		for (int fieldId : fieldIds) {
+			int offset = sliceOffsets[fieldId + 1];
+			int length = sliceOffsets[fieldId + 2] - offset;
+			if (length > 0) {
+				buffer.write(contractBytes.getBytesCopy(offset, length));
+			}
+			size += length;
+		}
+		return size;
+	}
+
+	/**
+	 * 返回从字节流解码的数据契约的状态；
+	 *
+	 * @param dataContract 数据契约的实例；
+	 * @return 如果不是从字节流解码的数据契约，则返回 null；
+	 */
+	static DecodedDataContract of(Object dataContract) {
+		if (dataContract instanceof GeneratedDataContract) {
+			return ((GeneratedDataContract) dataContract).decodedContract();
+		}
+		if (Proxy.isProxyClass(dataContract.getClass())) {
+			Object handler = Proxy.getInvocationHandler(dataContract);
+			if (handler instanceof DynamicDataContract) {
+				return ((DynamicDataContract) handler).decodedContract();
+			}
+		}
+		return null;
+	}
+}
@@ -5,7 +5,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
 import com.jd.blockchain.utils.io.BytesInputStream;
-import com.jd.blockchain.utils.io.BytesSlices;
 
 class DynamicDataContract implements InvocationHandler {
 
@@ -19,26 +18,18 @@ class DynamicDataContract implements InvocationHandler {
 		}
 	}
 
-	private DataContractEncoderImpl contractEncoder;
+	private final DataContractEncoderImpl contractEncoder;
 
-	// 字段的数据片段列表，首个是 HeaderSlice，其次是按字段顺序排列的数据片段；
-	private BytesSlices[] dataSlices;
+	private final DecodedDataContract decodedContract;
 
 	private DynamicDataContract(BytesInputStream bytesStream, DataContractEncoderImpl contractEncoder) {
 		this.contractEncoder = contractEncoder;
-
-		init(bytesStream);
-	}
-
-	private void init(BytesInputStream bytesStream) {
 		// 解析出所有的数据片段；
-		dataSlices = new BytesSlices[contractEncoder.getFieldCount() + 1];
-		
-		dataSlices[0] = contractEncoder.getHeaderEncoder().decode(bytesStream);
+		this.decodedContract = new DecodedDataContract(contractEncoder, bytesStream);
+	}
 
-		for (int i = 1; i < dataSlices.length; i++) {
-			dataSlices[i] = contractEncoder.getFieldEncoder(i - 1).decode(bytesStream);
-		}
+	DecodedDataContract decodedContract() {
+		return decodedContract;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -58,8 +49,7 @@ class DynamicDataContract implements InvocationHandler {
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 		int fieldId = contractEncoder.getFieldId(method);
 		if (fieldId > -1) {
-			FieldEncoder encoder = contractEncoder.getFieldEncoder(fieldId);
-			return encoder.decodeField(dataSlices[fieldId + 1]);
+			return decodedContract.getField(fieldId);
 		}
 		if (METHOD_GET_CLASS == method) {
 			return contractEncoder.getContractType();
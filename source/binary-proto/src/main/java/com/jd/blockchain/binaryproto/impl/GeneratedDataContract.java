@@ -0,0 +1,35 @@
+package com.jd.blockchain.binaryproto.impl;
+
+import com.jd.blockchain.utils.io.BytesInputStream;
+
+/**
+ * 由 {@link DataContractCodeGenerator} 生成的数据契约实现类的基类；<br>
+ *
+ * 构造时从字节流中解析出头部以及各个字段的数据片段，字段方法在首次调用时解码对应的数据片段；
+ *
+ * @author huanghaiquan
+ *
+ */
+public abstract class GeneratedDataContract {
+
+	private final DecodedDataContract decodedContract;
+
+	protected GeneratedDataContract(DataContractEncoderImpl contractEncoder, BytesInputStream bytesStream) {
+		this.decodedContract = new DecodedDataContract(contractEncoder, bytesStream);
+	}
+
+	final DecodedDataContract decodedContract() {
+		return decodedContract;
+	}
+
+	/**
+	 * 解码指定字段的值；
+	 *
+	 * @param fieldId 字段序号；
+	 * @return
+	 */
+	protected final Object decodeField(int fieldId) {
+		return decodedContract.getField(fieldId);
+	}
+
+}
@@ -1,10 +1,15 @@
 package test.com.jd.blockchain.binaryproto;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import com.jd.blockchain.binaryproto.BinaryProtocol;
@@ -12,6 +17,7 @@ import com.jd.blockchain.binaryproto.DataContractException;
 import com.jd.blockchain.binaryproto.DataContractRegistry;
 import com.jd.blockchain.utils.Bytes;
 import com.jd.blockchain.utils.io.BytesEncoding;
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
 import com.jd.blockchain.utils.io.BytesUtils;
 import com.jd.blockchain.utils.io.NumberMask;
 import com.jd.blockchain.utils.net.NetworkAddress;
@@ -398,6 +404,98 @@ public class BinaryEncodingTest {
 		assertEquals("Jerry", ((SubOperation) (decodeData.getOperations()[0])).getUserName());
 	}
 
+	/**
+	 * 此测试用例是对编码到调用者提供的缓冲区、ByteBuffer，以及复用父契约的编码结果进行编码的验证；
+	 */
+	@Test
+	public void testEncoding_Buffers_ExtendedContract() {
+		DataContractRegistry.register(Operation.class);
+		DataContractRegistry.register(SubOperation.class);
+		SubOperationImpl subOperation = new SubOperationImpl();
+		subOperation.setUserName("Jerry");
+		byte[] bytes = BinaryProtocol.encode(subOperation, SubOperation.class);
+
+		BytesOutputBuffer buffer = new BytesOutputBuffer();
+		assertEquals(bytes.length, BinaryProtocol.encode(subOperation, SubOperation.class, buffer));
+		assertArrayEquals(bytes, buffer.toBytes());
+
+		BytesOutputBuffer partBuffer = new BytesOutputBuffer();
+		partBuffer.write(buffer, 3);
+		assertArrayEquals(Arrays.copyOfRange(bytes, 3, bytes.length), partBuffer.toBytes());
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length + 8);
+		assertEquals(bytes.length, BinaryProtocol.encode(subOperation, SubOperation.class, directBuffer));
+		assertEquals(bytes.length, directBuffer.position());
+		byte[] directBytes = new byte[bytes.length];
+		directBuffer.flip();
+		directBuffer.get(directBytes);
+		assertArrayEquals(bytes, directBytes);
+
+		// 复用以父契约编码的结果，与直接编码的结果一致；
+		DataContractRegistry.register(PrimitiveDatas.class);
+		BytesOutputBuffer baseBuffer = new BytesOutputBuffer();
+		BinaryProtocol.encode(subOperation, Operation.class, baseBuffer);
+		assertArrayEquals(bytes, BinaryProtocol.encode(subOperation, SubOperation.class, Operation.class, baseBuffer));
+
+		// 字段不是以父契约的字段开头时，引发异常；
+		IllegalArgumentException ex = null;
+		try {
+			BinaryProtocol.encode(subOperation, SubOperation.class, PrimitiveDatas.class, baseBuffer);
+		} catch (IllegalArgumentException e) {
+			ex = e;
+		}
+		assertNotNull(ex);
+	}
+
+	/**
+	 * 此测试用例是对解码的数据契约的验证，包括：字段值的缓存、数组字段返回副本、再次编码时输出原始字节；
+	 */
+	@Test
+	public void testDecoding_MemoizedFields_Reencoding() {
+		DataContractRegistry.register(PrimitiveDatas.class);
+		PrimitiveDatasImpl pd = new PrimitiveDatasImpl();
+		pd.setId(123);
+		pd.setName("John");
+		pd.setImage("Image of John".getBytes());
+		pd.setConfig(Bytes.fromString("Configuration of something."));
+		pd.setNetworkAddress(new NetworkAddress("192.168.1.1", 9001, false));
+
+		byte[] bytes = BinaryProtocol.encode(pd, PrimitiveDatas.class);
+		PrimitiveDatas decodeData = BinaryProtocol.decode(bytes);
+
+		// 字段的值在首次访问后被缓存；
+		assertSame(decodeData.getName(), decodeData.getName());
+		assertSame(decodeData.getConfig(), decodeData.getConfig());
+
+		// 数组字段每次返回副本，对副本的修改不影响数据契约；
+		byte[] image = decodeData.getImage();
+		image[0] = 0;
+		assertArrayEquals(pd.getImage(), decodeData.getImage());
+
+		// 再次编码输出原始字节；
+		assertArrayEquals(bytes, BinaryProtocol.encode(decodeData, PrimitiveDatas.class));
+
+		DataContractRegistry.register(GenericRefContractDatas.class);
+		DataContractRegistry.register(Operation.class);
+		DataContractRegistry.register(SubOperation.class);
+
+		GenericRefContractDatasImpl genericRefContractDatas = new GenericRefContractDatasImpl();
+		SubOperationImpl subOperation = new SubOperationImpl();
+		subOperation.setUserName("Jerry");
+		genericRefContractDatas.setOperations(new Operation[] { subOperation });
+
+		bytes = BinaryProtocol.encode(genericRefContractDatas, GenericRefContractDatas.class);
+		GenericRefContractDatas decodeRefData = BinaryProtocol.decode(bytes);
+		assertArrayEquals(bytes, BinaryProtocol.encode(decodeRefData, GenericRefContractDatas.class));
+
+		// 以父接口编码解码的数据契约时，输出父接口的头部以及对应字段的原始字节；
+		Operation decodeOperation = decodeRefData.getOperations()[0];
+		assertArrayEquals(BinaryProtocol.encode(subOperation, SubOperation.class),
+				BinaryProtocol.encode(decodeOperation, SubOperation.class));
+		assertArrayEquals(BinaryProtocol.encode(subOperation, Operation.class),
+				BinaryProtocol.encode(decodeOperation, Operation.class));
+	}
+
 	/**
 	 * 此测试用例是对序列化过程的验证，包括：头部、Primitive, Enum, 引用数据契约， Generic引用数据契约字段值、字段顺序的正确性；
 	 */
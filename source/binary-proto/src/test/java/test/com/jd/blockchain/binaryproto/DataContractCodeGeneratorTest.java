@@ -0,0 +1,108 @@
+package test.com.jd.blockchain.binaryproto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jd.blockchain.binaryproto.BinaryProtocol;
+import com.jd.blockchain.binaryproto.DataContract;
+import com.jd.blockchain.binaryproto.DataField;
+import com.jd.blockchain.binaryproto.PrimitiveType;
+import com.jd.blockchain.binaryproto.impl.DataContractAccessor;
+import com.jd.blockchain.binaryproto.impl.DataContractCodeGenerator;
+import com.jd.blockchain.binaryproto.impl.DataContractContext;
+import com.jd.blockchain.binaryproto.impl.DataContractEncoderImpl;
+import com.jd.blockchain.binaryproto.impl.GeneratedDataContract;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesInputStream;
+import com.jd.blockchain.utils.net.NetworkAddress;
+
+public class DataContractCodeGeneratorTest {
+
+	@Test
+	public void testGeneratedContract() {
+		DataContractEncoderImpl encoder = (DataContractEncoderImpl) DataContractContext.resolve(PrimitiveDatas.class);
+		DataContractAccessor accessor = DataContractCodeGenerator.generate(encoder);
+		assertNotNull(accessor);
+
+		PrimitiveDatasImpl pd = new PrimitiveDatasImpl();
+		pd.setId(123);
+		pd.setEnable(true);
+		pd.setBoy((byte) 10);
+		pd.setAge((short) 100);
+		pd.setName("John");
+		pd.setImage("Image of John".getBytes());
+		pd.setFlag('x');
+		pd.setValue(93239232);
+		pd.setConfig(Bytes.fromString("Configuration of something."));
+		pd.setNetworkAddress(new NetworkAddress("192.168.1.1", 9001, false));
+
+		byte[] bytes = BinaryProtocol.encode(pd, PrimitiveDatas.class);
+		PrimitiveDatas decoded = (PrimitiveDatas) accessor.newContract(encoder,
+				new BytesInputStream(bytes, 0, bytes.length));
+
+		assertTrue(decoded instanceof GeneratedDataContract);
+		assertEquals(pd.getId(), decoded.getId());
+		assertEquals(pd.isEnable(), decoded.isEnable());
+		assertEquals(pd.isBoy(), decoded.isBoy());
+		assertEquals(pd.getAge(), decoded.getAge());
+		assertEquals(pd.getName(), decoded.getName());
+		assertArrayEquals(pd.getImage(), decoded.getImage());
+		assertEquals(pd.getFlag(), decoded.getFlag());
+		assertEquals(pd.getValue(), decoded.getValue());
+		assertEquals(pd.getConfig(), decoded.getConfig());
+		assertEquals(pd.getNetworkAddr().getHost(), decoded.getNetworkAddr().getHost());
+		assertEquals(pd.getNetworkAddr().getPort(), decoded.getNetworkAddr().getPort());
+
+		// 生成的实现类可以再次编码，且编码结果一致；
+		assertArrayEquals(bytes, BinaryProtocol.encode(decoded, PrimitiveDatas.class));
+	}
+
+	@Test
+	public void testReadField() {
+		DataContractEncoderImpl encoder = (DataContractEncoderImpl) DataContractContext.resolve(PrimitiveDatas.class);
+		DataContractAccessor accessor = DataContractCodeGenerator.generate(encoder);
+
+		PrimitiveDatasImpl pd = new PrimitiveDatasImpl();
+		pd.setId(456);
+		pd.setEnable(true);
+		pd.setName("Tom");
+		pd.setFlag('y');
+		pd.setValue(Long.MAX_VALUE);
+
+		// 字段按照声明的顺序编号；
+		assertEquals(456, accessor.readField(pd, 0));
+		assertEquals(true, accessor.readField(pd, 1));
+		assertEquals("Tom", accessor.readField(pd, 4));
+		assertEquals(Long.MAX_VALUE, accessor.readField(pd, 5));
+		assertEquals('y', accessor.readField(pd, 7));
+		assertNull(accessor.readField(pd, 9));
+
+		IllegalArgumentException ex = null;
+		try {
+			accessor.readField(pd, encoder.getSepcification().getFields().size());
+		} catch (IllegalArgumentException e) {
+			ex = e;
+		}
+		assertNotNull(ex);
+	}
+
+	@Test
+	public void testNonPublicContract() {
+		DataContractEncoderImpl encoder = (DataContractEncoderImpl) DataContractContext.resolve(HiddenDatas.class);
+		// 非 public 的契约接口不能生成实现类，由调用者沿用动态代理；
+		assertNull(DataContractCodeGenerator.generate(encoder));
+	}
+
+	@DataContract(code = 0x0e, name = "HiddenDatas", description = "")
+	interface HiddenDatas {
+
+		@DataField(order = 1, primitiveType = PrimitiveType.INT32)
+		int getId();
+
+	}
+}
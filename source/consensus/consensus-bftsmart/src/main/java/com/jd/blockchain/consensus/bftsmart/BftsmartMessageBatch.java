@@ -0,0 +1,168 @@
+package com.jd.blockchain.consensus.bftsmart;
+
+import com.jd.blockchain.utils.io.BytesUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 合并多条消息的信封格式，请求和应答都使用此格式；<br>
+ *
+ * 格式：魔数(4字节) + 消息数量(4字节) + [消息长度(4字节) + 消息内容]... ；<br>
+ *
+ * 魔数是一个负数，而单条消息以 BinaryProtocol 编码的头部开始，其数据契约编码均为正数，因此二者不会混淆；
+ *
+ */
+public final class BftsmartMessageBatch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BftsmartMessageBatch.class);
+
+    public static final int MAGIC = 0xBA7C0001;
+
+    private static final int HEAD_BYTES = 8;
+
+    private BftsmartMessageBatch() {
+    }
+
+    /**
+     * 是否为合并的消息；
+     *
+     * @param message
+     * @return
+     */
+    public static boolean isBatch(byte[] message) {
+        return message != null && message.length >= HEAD_BYTES && BytesUtils.toInt(message, 0) == MAGIC;
+    }
+
+    /**
+     * 合并多条消息；
+     *
+     * @param messages
+     * @return
+     */
+    public static byte[] encode(List<byte[]> messages) {
+        int size = HEAD_BYTES;
+        for (byte[] message : messages) {
+            size += 4 + message.length;
+        }
+        byte[] batch = new byte[size];
+        BytesUtils.toBytes(MAGIC, batch, 0);
+        BytesUtils.toBytes(messages.size(), batch, 4);
+        int offset = HEAD_BYTES;
+        for (byte[] message : messages) {
+            BytesUtils.toBytes(message.length, batch, offset);
+            offset += 4;
+            System.arraycopy(message, 0, batch, offset, message.length);
+            offset += message.length;
+        }
+        return batch;
+    }
+
+    /**
+     * 拆分合并的消息；
+     *
+     * @param batch
+     * @return
+     */
+    public static byte[][] decode(byte[] batch) {
+        if (!isBatch(batch)) {
+            throw new IllegalArgumentException("The message is not a batch!");
+        }
+        int count = BytesUtils.toInt(batch, 4);
+        if (count < 0) {
+            throw new IllegalArgumentException("Illegal message count of batch! --[count=" + count + "]");
+        }
+        byte[][] messages = new byte[count][];
+        int offset = HEAD_BYTES;
+        for (int i = 0; i < count; i++) {
+            if (offset + 4 > batch.length) {
+                throw new IllegalArgumentException("The batch is truncated!");
+            }
+            int length = BytesUtils.toInt(batch, offset);
+            offset += 4;
+            if (length < 0 || offset + length > batch.length) {
+                throw new IllegalArgumentException("The batch is truncated!");
+            }
+            messages[i] = new byte[length];
+            System.arraycopy(batch, offset, messages[i], 0, length);
+            offset += length;
+        }
+        if (offset != batch.length) {
+            throw new IllegalArgumentException("Unexpected trailing bytes of batch!");
+        }
+        return messages;
+    }
+
+    /**
+     * 拆分合并的消息；格式错误时返回 null；
+     *
+     * @param batch
+     * @return
+     */
+    public static byte[][] tryDecode(byte[] batch) {
+        try {
+            return decode(batch);
+        } catch (RuntimeException e) {
+            LOGGER.error("Malformed batch of messages! --" + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 按顺序展开一组命令中合并的消息；<br>
+     *
+     * counts[i] 记录第 i 条命令包含的消息数量，未合并的命令记为 -1；<br>
+     *
+     * 每条命令独立地展开；格式错误的合并消息不展开任何消息，记为 0，不影响其它命令；
+     *
+     * @param commands
+     * @param counts   输出参数，长度与 commands 相同；
+     * @return 展开后的消息；
+     */
+    public static byte[][] unpack(byte[][] commands, int[] counts) {
+        List<byte[]> messages = new ArrayList<>(commands.length);
+        for (int i = 0; i < commands.length; i++) {
+            if (isBatch(commands[i])) {
+                byte[][] batch = tryDecode(commands[i]);
+                if (batch == null) {
+                    counts[i] = 0;
+                    continue;
+                }
+                counts[i] = batch.length;
+                Collections.addAll(messages, batch);
+            } else {
+                counts[i] = -1;
+                messages.add(commands[i]);
+            }
+        }
+        return messages.toArray(new byte[messages.size()][]);
+    }
+
+    /**
+     * 按命令重新合并应答，与 {@link #unpack(byte[][], int[])} 相对应，使每条命令对应一个应答；<br>
+     *
+     * 格式错误的合并消息得到不含任何消息的合并应答，客户端据此使其中的全部消息失败；
+     *
+     * @param responses 与展开后的消息一一对应的应答；
+     * @param counts    {@link #unpack(byte[][], int[])} 输出的各命令的消息数量；
+     * @return
+     */
+    public static List<byte[]> pack(List<byte[]> responses, int[] counts) {
+        List<byte[]> packedResponses = new ArrayList<>(counts.length);
+        int index = 0;
+        for (int count : counts) {
+            if (count < 0) {
+                packedResponses.add(responses.get(index++));
+            } else {
+                packedResponses.add(encode(responses.subList(index, index + count)));
+                index += count;
+            }
+        }
+        return packedResponses;
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.jd.blockchain.consensus.bftsmart.client;
+
+import com.jd.blockchain.consensus.MessageService;
+import com.jd.blockchain.consensus.bftsmart.BftsmartMessageBatch;
+import com.jd.blockchain.utils.concurrent.AsyncFuture;
+import com.jd.blockchain.utils.concurrent.CompletableAsyncFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并有序消息的消息服务；<br>
+ *
+ * 在一个时间窗口内并发提交的有序消息被合并为一条 {@link BftsmartMessageBatch} 格式的消息提交共识，
+ * 共识节点以相同的格式返回各条消息的应答，再分别完成对应的 {@link AsyncFuture}；
+ * 以此分摊每条共识消息的认证和排序开销；<br>
+ *
+ * 合并从第一条消息到达时开始，达到最大数量或者时间窗口结束时提交；窗口内只有一条消息时按原样提交；<br>
+ *
+ * 无序消息不合并，直接通过被包装的消息服务发送；
+ *
+ */
+public class BftsmartBatchingMessageService implements MessageService, Closeable {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(BftsmartBatchingMessageService.class);
+
+    private final MessageService messageService;
+
+    private final int maxBatchSize;
+
+    private final long windowNanos;
+
+    private final BlockingQueue<PendingMessage> pendingMessages = new LinkedBlockingQueue<>();
+
+    private final Thread batchingThread;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param messageService 被包装的消息服务；
+     * @param maxBatchSize   每次合并的消息的最大数量；
+     * @param windowMicros   合并的时间窗口（微秒）；
+     */
+    public BftsmartBatchingMessageService(MessageService messageService, int maxBatchSize, long windowMicros) {
+        if (maxBatchSize < 2) {
+            throw new IllegalArgumentException("The max batch size must be greater than 1!");
+        }
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException("The batching window is negative!");
+        }
+        this.messageService = messageService;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+
+        this.batchingThread = new Thread(this::runBatching, "bftsmart-batching");
+        this.batchingThread.setDaemon(true);
+        this.batchingThread.start();
+    }
+
+    @Override
+    public AsyncFuture<byte[]> sendOrdered(byte[] message) {
+        CompletableAsyncFuture<byte[]> asyncFuture = new CompletableAsyncFuture<>();
+        if (closed) {
+            asyncFuture.error(new IllegalStateException("The message service has been closed!"));
+            return asyncFuture;
+        }
+        PendingMessage pending = new PendingMessage(message, asyncFuture);
+        pendingMessages.add(pending);
+        if (closed && pendingMessages.remove(pending)) {
+            // 与关闭并发时，消息可能在关闭清理之后才加入队列；
+            asyncFuture.error(new IllegalStateException("The message service has been closed!"));
+        }
+        return asyncFuture;
+    }
+
+    @Override
+    public AsyncFuture<byte[]> sendUnordered(byte[] message) {
+        return messageService.sendUnordered(message);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        batchingThread.interrupt();
+        try {
+            batchingThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingMessage pending;
+        while ((pending = pendingMessages.poll()) != null) {
+            pending.future.error(new IllegalStateException("The message service has been closed!"));
+        }
+    }
+
+    private void runBatching() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                PendingMessage first = pendingMessages.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 先取走已经到达的消息，队列为空时才在窗口内等待；
+                    if (pendingMessages.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = pendingMessages.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        for (PendingMessage pending : batch) {
+            pending.future.error(new IllegalStateException("The message service has been closed!"));
+        }
+    }
+
+    private void submit(List<PendingMessage> batch) {
+        try {
+            if (batch.size() == 1) {
+                PendingMessage pending = batch.get(0);
+                messageService.sendOrdered(pending.message).whenComplete((result, error) -> {
+                    if (error != null) {
+                        pending.future.error(error);
+                    } else {
+                        pending.future.complete(result);
+                    }
+                });
+                return;
+            }
+
+            List<byte[]> messages = new ArrayList<>(batch.size());
+            for (PendingMessage pending : batch) {
+                messages.add(pending.message);
+            }
+            messageService.sendOrdered(BftsmartMessageBatch.encode(messages))
+                    .whenComplete((result, error) -> complete(batch, result, error));
+        } catch (Exception e) {
+            LOGGER.error("Error occurred while submitting batch of ordered messages! --" + e.getMessage(), e);
+            for (PendingMessage pending : batch) {
+                pending.future.error(e);
+            }
+        }
+    }
+
+    /**
+     * 按顺序将合并的应答分发给各条消息；
+     */
+    private static void complete(List<PendingMessage> batch, byte[] result, Throwable error) {
+        byte[][] responses = null;
+        if (error == null) {
+            try {
+                responses = BftsmartMessageBatch.decode(result);
+                if (responses.length != batch.size()) {
+                    error = new IllegalStateException(String.format(
+                            "The count of responses doesn't match the batch! --[expected=%s][actual=%s]", batch.size(),
+                            responses.length));
+                }
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (error != null) {
+                batch.get(i).future.error(error);
+            } else {
+                batch.get(i).future.complete(responses[i]);
+            }
+        }
+    }
+
+    private static class PendingMessage {
+
+        private final byte[] message;
+
+        private final CompletableAsyncFuture<byte[]> future;
+
+        PendingMessage(byte[] message, CompletableAsyncFuture<byte[]> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
+
+}
@@ -7,11 +7,30 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class BftsmartConsensusClient implements ConsensusClient {
 
+    /**
+     * 合并有序消息的最大数量；小于 2 时不合并；
+     */
+    public static final int BATCH_SIZE;
+
+    /**
+     * 合并有序消息的时间窗口（微秒）；
+     */
+    public static final long BATCH_WINDOW;
+
+    static {
+        BATCH_SIZE = Integer.getInteger("bftsmart-batch-size", 0);
+        System.out.println("------ [[ bftsmart-batch-size=" + BATCH_SIZE + " ]] ------");
+
+        BATCH_WINDOW = Long.getLong("bftsmart-batch-window", 1000);
+        System.out.println("------ [[ bftsmart-batch-window=" + BATCH_WINDOW + " ]] ------");
+    }
 
     private final AtomicInteger addId = new AtomicInteger();
 
     private BftsmartPeerProxyPool asyncPeerProxyPool;
 
+    private volatile BftsmartBatchingMessageService batchingMessageService;
+
     private int gatewayId;
 
     private ClientSettings clientSettings;
@@ -29,7 +48,22 @@ public class BftsmartConsensusClient implements ConsensusClient {
 
     @Override
     public MessageService getMessageService() {
-        return new BftsmartMessageService(asyncPeerProxyPool);
+        if (BATCH_SIZE < 2) {
+            return new BftsmartMessageService(asyncPeerProxyPool);
+        }
+        // 合并消息的服务持有后台线程，由客户端共用一个实例；
+        BftsmartBatchingMessageService messageService = batchingMessageService;
+        if (messageService == null) {
+            synchronized (this) {
+                messageService = batchingMessageService;
+                if (messageService == null) {
+                    messageService = new BftsmartBatchingMessageService(new BftsmartMessageService(asyncPeerProxyPool),
+                            BATCH_SIZE, BATCH_WINDOW);
+                    batchingMessageService = messageService;
+                }
+            }
+        }
+        return messageService;
     }
 
     @Override
@@ -66,6 +100,11 @@ public class BftsmartConsensusClient implements ConsensusClient {
 
     @Override
     public void close() {
+        BftsmartBatchingMessageService messageService = batchingMessageService;
+        if (messageService != null) {
+            batchingMessageService = null;
+            messageService.close();
+        }
         if (asyncPeerProxyPool != null) {
             asyncPeerProxyPool.close();
         }
@@ -1,20 +1,81 @@
 package com.jd.blockchain.consensus.bftsmart.client;
 
+import bftsmart.communication.client.ReplyListener;
 import bftsmart.tom.AsynchServiceProxy;
+import bftsmart.tom.RequestContext;
+import bftsmart.tom.core.messages.TOMMessage;
+import bftsmart.tom.core.messages.TOMMessageType;
 import com.jd.blockchain.consensus.MessageService;
 import com.jd.blockchain.utils.concurrent.AsyncFuture;
 import com.jd.blockchain.utils.concurrent.CompletableAsyncFuture;
-import com.jd.blockchain.utils.io.BytesUtils;
 
-import java.util.concurrent.ExecutorService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * 基于 BFT-SMaRt 客户端代理的消息服务；<br>
+ *
+ * 有序消息通过异步请求提交：发送之后立即归还代理，由应答监听器在收到足够数量的一致应答后完成返回的 {@link AsyncFuture}，
+ * 因此每个代理可以同时有多个请求在共识过程中，调用线程不再被占用整个共识周期；<br>
+ *
+ * 同时在共识中的有序消息数量受 {@link #DEFAULT_MAX_IN_FLIGHT} 限制，达到上限时调用线程等待，
+ * 超过 {@link #DEFAULT_TIMEOUT} 毫秒未获得许可或未完成的消息以 {@link TimeoutException} 结束；
+ *
+ */
 public class BftsmartMessageService implements MessageService {
 
+    public static final int DEFAULT_MAX_IN_FLIGHT;
+
+    public static final long DEFAULT_TIMEOUT;
+
+    static {
+        DEFAULT_MAX_IN_FLIGHT = Integer.getInteger("bftsmart-max-in-flight", 1000);
+        System.out.println("------ [[ bftsmart-max-in-flight=" + DEFAULT_MAX_IN_FLIGHT + " ]] ------");
+
+        DEFAULT_TIMEOUT = Long.getLong("bftsmart-ordered-timeout", 30000);
+        System.out.println("------ [[ bftsmart-ordered-timeout=" + DEFAULT_TIMEOUT + " ]] ------");
+    }
+
+    // 所有消息服务共用的超时检查线程；
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bftsmart-ordered-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private BftsmartPeerProxyPool asyncPeerProxyPool;
 
+    private Semaphore inFlightPermits;
+
+    private long timeoutMillis;
+
     public BftsmartMessageService(BftsmartPeerProxyPool peerProxyPool) {
+        this(peerProxyPool, DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param peerProxyPool 客户端代理池；
+     * @param maxInFlight   同时在共识中的有序消息的最大数量；
+     * @param timeoutMillis 有序消息等待许可和等待应答的超时时间（毫秒）；
+     */
+    public BftsmartMessageService(BftsmartPeerProxyPool peerProxyPool, int maxInFlight, long timeoutMillis) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("The max in-flight count must be positive!");
+        }
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("The timeout must be positive!");
+        }
         this.asyncPeerProxyPool = peerProxyPool;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.timeoutMillis = timeoutMillis;
     }
 
     @Override
@@ -24,26 +85,38 @@ public class BftsmartMessageService implements MessageService {
 
     private AsyncFuture<byte[]> sendOrderedMessage(byte[] message) {
         CompletableAsyncFuture<byte[]> asyncFuture = new CompletableAsyncFuture<>();
+        try {
+            if (!inFlightPermits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                asyncFuture.error(new TimeoutException(String.format(
+                        "Timeout waiting for the in-flight permit of ordered message! --[timeout=%sms]", timeoutMillis)));
+                return asyncFuture;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            asyncFuture.error(e);
+            return asyncFuture;
+        }
+
         AsynchServiceProxy asynchServiceProxy = null;
+        OrderedReplyListener replyListener = null;
         try {
             asynchServiceProxy = asyncPeerProxyPool.borrowObject();
-//            //0: Transaction msg, 1: Commitblock msg
-//            byte[] msgType = BytesUtils.toBytes(0);
-//            byte[] wrapMsg = new byte[message.length + 4];
-//            System.arraycopy(message, 0, wrapMsg, 4, message.length);
-//            System.arraycopy(msgType, 0, wrapMsg, 0, 4);
-//
-//            System.out.printf("BftsmartMessageService invokeOrdered time = %s, id = %s threadId = %s \r\n",
-//                    System.currentTimeMillis(),  asynchServiceProxy.getProcessId(), Thread.currentThread().getId());
-
-            byte[] result = asynchServiceProxy.invokeOrdered(message);
-            asyncFuture.complete(result);
-
+            replyListener = new OrderedReplyListener(asynchServiceProxy, asyncFuture, inFlightPermits);
+            // 先登记监听器再发送，应答可能在 invokeAsynchRequest 返回之前到达；
+            int requestId = asynchServiceProxy.invokeAsynchRequest(message, replyListener,
+                    TOMMessageType.ORDERED_REQUEST);
+            replyListener.start(requestId, timeoutMillis);
         } catch (Exception e) {
-            throw new RuntimeException(e);
-
+            if (replyListener != null) {
+                replyListener.fail(e);
+            } else {
+                inFlightPermits.release();
+                asyncFuture.error(e);
+            }
         } finally {
-            asyncPeerProxyPool.returnObject(asynchServiceProxy);
+            if (asynchServiceProxy != null) {
+                asyncPeerProxyPool.returnObject(asynchServiceProxy);
+            }
         }
 
         return asyncFuture;
@@ -70,4 +143,103 @@ public class BftsmartMessageService implements MessageService {
         return asyncFuture;
     }
 
+    /**
+     * 有序请求的应答监听器；<br>
+     *
+     * 与 {@link AsynchServiceProxy#invokeOrdered(byte[])} 相同，内容一致的应答数量达到 ⌈(n + f + 1) / 2⌉ 时以该内容完成请求；
+     *
+     */
+    static class OrderedReplyListener implements ReplyListener {
+
+        private final AsynchServiceProxy peerProxy;
+
+        private final CompletableAsyncFuture<byte[]> asyncFuture;
+
+        private final Semaphore inFlightPermits;
+
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        // 每个副本最后一次的应答内容；
+        private final Map<Integer, byte[]> replies = new HashMap<>();
+
+        private volatile int requestId = -1;
+
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        OrderedReplyListener(AsynchServiceProxy peerProxy, CompletableAsyncFuture<byte[]> asyncFuture,
+                             Semaphore inFlightPermits) {
+            this.peerProxy = peerProxy;
+            this.asyncFuture = asyncFuture;
+            this.inFlightPermits = inFlightPermits;
+        }
+
+        void start(int requestId, long timeoutMillis) {
+            this.requestId = requestId;
+            if (done.get()) {
+                // 在登记请求 ID 之前已经完成，补做清理；
+                peerProxy.cleanAsynchRequest(requestId);
+                return;
+            }
+            timeoutFuture = TIMEOUT_SCHEDULER.schedule(() -> fail(new TimeoutException(String.format(
+                    "Timeout waiting for the replies of ordered message! --[requestId=%s][timeout=%sms]", requestId,
+                    timeoutMillis))), timeoutMillis, TimeUnit.MILLISECONDS);
+            if (done.get()) {
+                timeoutFuture.cancel(false);
+            }
+        }
+
+        @Override
+        public synchronized void reset() {
+            // 请求被重新发送（例如视图变更）时，之前的应答作废；
+            replies.clear();
+        }
+
+        @Override
+        public void replyReceived(RequestContext context, TOMMessage reply) {
+            byte[] content = reply.getContent();
+            int matches = 0;
+            synchronized (this) {
+                replies.put(reply.getSender(), content);
+                for (byte[] other : replies.values()) {
+                    if (Arrays.equals(content, other)) {
+                        matches++;
+                    }
+                }
+            }
+            double quorum = Math.ceil((double) (peerProxy.getViewManager().getCurrentViewN()
+                    + peerProxy.getViewManager().getCurrentViewF() + 1) / 2.0);
+            if (matches >= quorum && finish()) {
+                peerProxy.cleanAsynchRequest(context.getOperationId());
+                asyncFuture.complete(content);
+            }
+        }
+
+        void fail(Throwable error) {
+            if (finish()) {
+                int reqId = requestId;
+                if (reqId != -1) {
+                    peerProxy.cleanAsynchRequest(reqId);
+                }
+                asyncFuture.error(error);
+            }
+        }
+
+        /**
+         * 置为已完成状态并释放许可；
+         *
+         * @return 是否由此次调用完成；
+         */
+        private boolean finish() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            ScheduledFuture<?> timeout = timeoutFuture;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            inFlightPermits.release();
+            return true;
+        }
+    }
+
 }
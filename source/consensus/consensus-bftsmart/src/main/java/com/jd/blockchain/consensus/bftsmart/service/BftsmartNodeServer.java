@@ -19,6 +19,7 @@ import com.jd.blockchain.consensus.ConsensusManageService;
 import com.jd.blockchain.consensus.NodeSettings;
 import com.jd.blockchain.consensus.bftsmart.BftsmartConsensusProvider;
 import com.jd.blockchain.consensus.bftsmart.BftsmartConsensusSettings;
+import com.jd.blockchain.consensus.bftsmart.BftsmartMessageBatch;
 import com.jd.blockchain.consensus.bftsmart.BftsmartNodeSettings;
 import com.jd.blockchain.consensus.bftsmart.BftsmartTopology;
 import com.jd.blockchain.utils.PropertiesUtils;
@@ -197,10 +198,9 @@ public class BftsmartNodeServer extends DefaultRecoverable implements NodeServer
 
         String batchId = messageHandle.beginBatch(realmName);
         try {
-            int msgId = 0;
-            for (byte[] txContent : manageConsensusCmds) {
-                AsyncFuture<byte[]> asyncFuture = messageHandle.processOrdered(msgId++, txContent, realmName, batchId);
-            }
+            int[] counts = new int[manageConsensusCmds.size()];
+            byte[][] messages = BftsmartMessageBatch.unpack(manageConsensusCmds.toArray(new byte[manageConsensusCmds.size()][]), counts);
+            messageHandle.processOrderedBatch(0, messages, realmName, batchId);
             messageHandle.completeBatch(realmName, batchId);
             messageHandle.commitBatch(realmName, batchId);
         } catch (Exception e) {
@@ -397,24 +397,25 @@ public class BftsmartNodeServer extends DefaultRecoverable implements NodeServer
         List<byte[]> responseLinkedList = new ArrayList<>();
         BatchAppResultImpl result;
         try {
-            int msgId = 0;
+            // 展开客户端合并的消息，按展开后的顺序执行；
+            int[] counts = new int[commands.length];
+            byte[][] messages = BftsmartMessageBatch.unpack(commands, counts);
+
+            // 提前并行验证整批交易的签名，按顺序执行时直接使用验证结果；
+            messageHandle.preprocessOrdered(messages, realmName, batchId);
 
             boolean isOK = true;
             TransactionState transactionState = TransactionState.IGNORED_BY_BLOCK_FULL_ROLLBACK;
 
-            for (int i = 0; i < commands.length; i++) {
-                byte[] txContent = commands[i];
-                try {
-                    AsyncFuture<byte[]> asyncFuture = messageHandle.processOrdered(msgId++, txContent, realmName, batchId);
-                    asyncFutureLinkedList.add(asyncFuture);
-                } catch (BlockRollbackException e) {
-                    LOGGER.error("Error occurred while processing ordered messages! --" + e.getMessage(), e);
-                    isOK = false;
-                    // TODO: handle the BlockRollbackException in detail；
-                    if (e instanceof DataVersionConflictException) {
-                        transactionState = TransactionState.DATA_VERSION_CONFLICT;
-                    }
-                    break;
+            // 整批交给消息处理器，由其决定是否在批次内并发地执行；
+            try {
+                asyncFutureLinkedList.addAll(messageHandle.processOrderedBatch(0, messages, realmName, batchId));
+            } catch (BlockRollbackException e) {
+                LOGGER.error("Error occurred while processing ordered messages! --" + e.getMessage(), e);
+                isOK = false;
+                // TODO: handle the BlockRollbackException in detail；
+                if (e instanceof DataVersionConflictException) {
+                    transactionState = TransactionState.DATA_VERSION_CONFLICT;
                 }
             }
 
@@ -426,7 +427,7 @@ public class BftsmartNodeServer extends DefaultRecoverable implements NodeServer
                     responseLinkedList.add(asyncFutureLinkedList.get(i).get());
                 }
 
-                result = new BatchAppResultImpl(responseLinkedList, blockHashBytes, batchId);
+                result = new BatchAppResultImpl(BftsmartMessageBatch.pack(responseLinkedList, counts), blockHashBytes, batchId);
                 result.setErrorCode((byte) 0);
 
                 return result;
@@ -448,11 +449,28 @@ public class BftsmartNodeServer extends DefaultRecoverable implements NodeServer
 
         } catch (Exception e) {
             LOGGER.error("Error occurred while genearte batch app result! --" + e.getMessage(), e);
+            messageHandle.rollbackBatch(realmName, batchId, TransactionState.IGNORED_BY_CONSENSUS_PHASE_PRECOMPUTE_ROLLBACK.CODE);
             throw e;
         }
     }
 
     public byte[] createAppResponse(byte[] command, TransactionState transactionState) {
+        if (BftsmartMessageBatch.isBatch(command)) {
+            byte[][] messages = BftsmartMessageBatch.tryDecode(command);
+            if (messages == null) {
+                // 格式错误的合并消息以不含任何消息的合并应答回复；
+                return BftsmartMessageBatch.encode(Collections.emptyList());
+            }
+            List<byte[]> responses = new ArrayList<>(messages.length);
+            for (byte[] message : messages) {
+                responses.add(createTxResponse(message, transactionState));
+            }
+            return BftsmartMessageBatch.encode(responses);
+        }
+        return createTxResponse(command, transactionState);
+    }
+
+    private byte[] createTxResponse(byte[] command, TransactionState transactionState) {
         TransactionRequest txRequest = BinaryProtocol.decode(command);
 
         TxResponseMessage resp = new TxResponseMessage(txRequest.getTransactionContent().getHash());
@@ -471,15 +489,29 @@ public class BftsmartNodeServer extends DefaultRecoverable implements NodeServer
         List<byte[]> updatedResponses = new ArrayList<>();
 
         for(int i = 0; i < asyncResponseLinkedList.size(); i++) {
-            TransactionResponse txResponse = BinaryProtocol.decode(asyncResponseLinkedList.get(i));
-            TxResponseMessage resp = new TxResponseMessage(txResponse.getContentHash());
-            resp.setExecutionState(TransactionState.IGNORED_BY_CONSENSUS_PHASE_PRECOMPUTE_ROLLBACK);
-            updatedResponses.add(BinaryProtocol.encode(resp, TransactionResponse.class));
+            byte[] response = asyncResponseLinkedList.get(i);
+            if (BftsmartMessageBatch.isBatch(response)) {
+                byte[][] txResponses = BftsmartMessageBatch.decode(response);
+                List<byte[]> updatedTxResponses = new ArrayList<>(txResponses.length);
+                for (byte[] txResponse : txResponses) {
+                    updatedTxResponses.add(updateTxResponse(txResponse));
+                }
+                updatedResponses.add(BftsmartMessageBatch.encode(updatedTxResponses));
+            } else {
+                updatedResponses.add(updateTxResponse(response));
+            }
         }
 
         return updatedResponses;
     }
 
+    private byte[] updateTxResponse(byte[] response) {
+        TransactionResponse txResponse = BinaryProtocol.decode(response);
+        TxResponseMessage resp = new TxResponseMessage(txResponse.getContentHash());
+        resp.setExecutionState(TransactionState.IGNORED_BY_CONSENSUS_PHASE_PRECOMPUTE_ROLLBACK);
+        return BinaryProtocol.encode(resp, TransactionResponse.class);
+    }
+
     /**
      *
      *  Decision has been made at the consensus stage， commit block
@@ -0,0 +1,172 @@
+package com.jd.blockchain.consensus.bftsmart.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jd.blockchain.consensus.bftsmart.client.BftsmartMessageService.OrderedReplyListener;
+import com.jd.blockchain.utils.concurrent.CompletableAsyncFuture;
+import com.jd.blockchain.utils.concurrent.RuntimeExecutionException;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+import bftsmart.reconfiguration.ClientViewController;
+import bftsmart.tom.AsynchServiceProxy;
+import bftsmart.tom.RequestContext;
+import bftsmart.tom.core.messages.TOMMessage;
+
+/**
+ * 以伪造的应答驱动有序请求的应答监听器；<br>
+ *
+ * 监听器是消息服务的包内类，因此测试与其位于同一个包；
+ *
+ */
+public class OrderedReplyListenerTest {
+
+    private static final int REQUEST_ID = 7;
+
+    private AsynchServiceProxy peerProxy;
+
+    private RequestContext context;
+
+    private CompletableAsyncFuture<byte[]> asyncFuture;
+
+    private Semaphore inFlightPermits;
+
+    private OrderedReplyListener listener;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        // n = 4, f = 1，法定数量为 ⌈(4 + 1 + 1) / 2⌉ = 3；
+        ClientViewController viewManager = mock(ClientViewController.class);
+        when(viewManager.getCurrentViewN()).thenReturn(4);
+        when(viewManager.getCurrentViewF()).thenReturn(1);
+        peerProxy = mock(AsynchServiceProxy.class);
+        when(peerProxy.getViewManager()).thenReturn(viewManager);
+
+        context = mock(RequestContext.class);
+        when(context.getOperationId()).thenReturn(REQUEST_ID);
+
+        asyncFuture = new CompletableAsyncFuture<>();
+        inFlightPermits = new Semaphore(1);
+        inFlightPermits.acquire();
+        listener = new OrderedReplyListener(peerProxy, asyncFuture, inFlightPermits);
+    }
+
+    @Test
+    public void testQuorumReached() {
+        listener.start(REQUEST_ID, 10000);
+
+        listener.replyReceived(context, reply(0, "A"));
+        listener.replyReceived(context, reply(1, "A"));
+        assertFalse(asyncFuture.isDone());
+        assertEquals(0, inFlightPermits.availablePermits());
+
+        listener.replyReceived(context, reply(2, "A"));
+        assertTrue(asyncFuture.isDone());
+        assertArrayEquals(BytesUtils.toBytes("A"), asyncFuture.get());
+        assertEquals(1, inFlightPermits.availablePermits());
+        verify(peerProxy).cleanAsynchRequest(REQUEST_ID);
+
+        // 完成之后到达的应答被忽略，许可不会重复释放；
+        listener.replyReceived(context, reply(3, "A"));
+        assertEquals(1, inFlightPermits.availablePermits());
+        verify(peerProxy, times(1)).cleanAsynchRequest(REQUEST_ID);
+    }
+
+    @Test
+    public void testConflictingReplies() {
+        listener.start(REQUEST_ID, 10000);
+
+        // 内容不一致的应答各自计数，都达不到法定数量；
+        listener.replyReceived(context, reply(0, "A"));
+        listener.replyReceived(context, reply(1, "B"));
+        listener.replyReceived(context, reply(2, "A"));
+        listener.replyReceived(context, reply(3, "B"));
+        assertFalse(asyncFuture.isDone());
+
+        // 同一个副本重复应答时只保留最后一次的内容；
+        listener.replyReceived(context, reply(0, "A"));
+        listener.replyReceived(context, reply(2, "A"));
+        assertFalse(asyncFuture.isDone());
+
+        listener.replyReceived(context, reply(1, "A"));
+        assertArrayEquals(BytesUtils.toBytes("A"), asyncFuture.get());
+        assertEquals(1, inFlightPermits.availablePermits());
+    }
+
+    @Test
+    public void testReset() {
+        listener.start(REQUEST_ID, 10000);
+
+        listener.replyReceived(context, reply(0, "A"));
+        listener.replyReceived(context, reply(1, "A"));
+
+        // 请求被重新发送后，之前的应答不再计数；
+        listener.reset();
+        listener.replyReceived(context, reply(2, "A"));
+        assertFalse(asyncFuture.isDone());
+        listener.replyReceived(context, reply(0, "A"));
+        assertFalse(asyncFuture.isDone());
+
+        listener.replyReceived(context, reply(1, "A"));
+        assertArrayEquals(BytesUtils.toBytes("A"), asyncFuture.get());
+    }
+
+    @Test
+    public void testTimeout() {
+        listener.start(REQUEST_ID, 50);
+        listener.replyReceived(context, reply(0, "A"));
+
+        try {
+            asyncFuture.get(5000, TimeUnit.MILLISECONDS);
+            fail("The ordered message should be timeout!");
+        } catch (RuntimeExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(asyncFuture.isExceptionally());
+        assertEquals(1, inFlightPermits.availablePermits());
+        verify(peerProxy).cleanAsynchRequest(REQUEST_ID);
+
+        // 超时之后到达的应答被忽略；
+        listener.replyReceived(context, reply(1, "A"));
+        listener.replyReceived(context, reply(2, "A"));
+        assertEquals(1, inFlightPermits.availablePermits());
+        verify(peerProxy, times(1)).cleanAsynchRequest(REQUEST_ID);
+    }
+
+    @Test
+    public void testFinishedBeforeStart() {
+        // 应答在登记请求 ID 之前到达并完成请求；
+        listener.replyReceived(context, reply(0, "A"));
+        listener.replyReceived(context, reply(1, "A"));
+        listener.replyReceived(context, reply(2, "A"));
+        assertTrue(asyncFuture.isDone());
+        verify(peerProxy, times(1)).cleanAsynchRequest(REQUEST_ID);
+
+        // 登记时不再启动超时检查；
+        listener.start(REQUEST_ID, 50);
+        verify(peerProxy, times(2)).cleanAsynchRequest(REQUEST_ID);
+        assertFalse(asyncFuture.isExceptionally());
+        assertEquals(1, inFlightPermits.availablePermits());
+    }
+
+    private static TOMMessage reply(int sender, String content) {
+        TOMMessage reply = mock(TOMMessage.class);
+        when(reply.getSender()).thenReturn(sender);
+        when(reply.getContent()).thenReturn(BytesUtils.toBytes(content));
+        return reply;
+    }
+}
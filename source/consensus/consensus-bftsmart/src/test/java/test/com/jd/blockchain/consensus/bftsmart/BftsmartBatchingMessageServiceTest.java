@@ -0,0 +1,140 @@
+package test.com.jd.blockchain.consensus.bftsmart;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.jd.blockchain.consensus.MessageService;
+import com.jd.blockchain.consensus.bftsmart.BftsmartMessageBatch;
+import com.jd.blockchain.consensus.bftsmart.client.BftsmartBatchingMessageService;
+import com.jd.blockchain.utils.concurrent.AsyncFuture;
+import com.jd.blockchain.utils.concurrent.CompletableAsyncFuture;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class BftsmartBatchingMessageServiceTest {
+
+    @Test
+    public void testEncodeAndDecodeBatch() {
+        List<byte[]> messages = new ArrayList<>();
+        messages.add(BytesUtils.toBytes("A"));
+        messages.add(new byte[0]);
+        messages.add(BytesUtils.toBytes("BCD"));
+
+        byte[] batch = BftsmartMessageBatch.encode(messages);
+        assertTrue(BftsmartMessageBatch.isBatch(batch));
+
+        byte[][] decoded = BftsmartMessageBatch.decode(batch);
+        assertEquals(messages.size(), decoded.length);
+        for (int i = 0; i < decoded.length; i++) {
+            assertArrayEquals(messages.get(i), decoded[i]);
+        }
+
+        // 以 BinaryProtocol 编码的单条消息的头部是正数的数据契约编码，不会被识别为合并的消息；
+        byte[] message = new byte[16];
+        BytesUtils.toBytes(0x360, message, 0);
+        assertFalse(BftsmartMessageBatch.isBatch(message));
+    }
+
+    @Test
+    public void testUnpackIsolatesMalformedBatch() {
+        List<byte[]> batchMessages = new ArrayList<>();
+        batchMessages.add(BytesUtils.toBytes("B"));
+        batchMessages.add(BytesUtils.toBytes("C"));
+
+        // 以合并消息的魔数开头，但消息被截断；
+        byte[] malformed = new byte[12];
+        BytesUtils.toBytes(BftsmartMessageBatch.MAGIC, malformed, 0);
+        BytesUtils.toBytes(5, malformed, 4);
+        BytesUtils.toBytes(100, malformed, 8);
+        assertTrue(BftsmartMessageBatch.isBatch(malformed));
+        assertNull(BftsmartMessageBatch.tryDecode(malformed));
+
+        byte[][] commands = { BytesUtils.toBytes("A"), malformed, BftsmartMessageBatch.encode(batchMessages) };
+        int[] counts = new int[commands.length];
+        byte[][] messages = BftsmartMessageBatch.unpack(commands, counts);
+
+        // 格式错误的命令不展开任何消息，其它命令不受影响；
+        assertEquals(3, messages.length);
+        assertEquals("A", BytesUtils.toString(messages[0]));
+        assertEquals("B", BytesUtils.toString(messages[1]));
+        assertEquals("C", BytesUtils.toString(messages[2]));
+        assertArrayEquals(new int[] { -1, 0, 2 }, counts);
+
+        List<byte[]> responses = new ArrayList<>();
+        for (byte[] message : messages) {
+            responses.add(BytesUtils.toBytes("R-" + BytesUtils.toString(message)));
+        }
+        List<byte[]> packedResponses = BftsmartMessageBatch.pack(responses, counts);
+        assertEquals(commands.length, packedResponses.size());
+        assertEquals("R-A", BytesUtils.toString(packedResponses.get(0)));
+        assertEquals(0, BftsmartMessageBatch.decode(packedResponses.get(1)).length);
+        byte[][] batchResponses = BftsmartMessageBatch.decode(packedResponses.get(2));
+        assertEquals(2, batchResponses.length);
+        assertEquals("R-B", BytesUtils.toString(batchResponses[0]));
+        assertEquals("R-C", BytesUtils.toString(batchResponses[1]));
+    }
+
+    @Test
+    public void testCoalesceOrderedMessages() throws Exception {
+        EchoMessageService echoService = new EchoMessageService();
+        // 时间窗口足够长，以确保并发提交的消息合并为一条；
+        BftsmartBatchingMessageService batchingService = new BftsmartBatchingMessageService(echoService, 8, 500000);
+        try {
+            List<AsyncFuture<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(batchingService.sendOrdered(BytesUtils.toBytes("TX-" + i)));
+            }
+            for (int i = 0; i < 8; i++) {
+                assertEquals("ECHO-TX-" + i, BytesUtils.toString(futures.get(i).get()));
+            }
+            assertEquals(1, echoService.orderedMessages.size());
+            assertTrue(BftsmartMessageBatch.isBatch(echoService.orderedMessages.get(0)));
+
+            // 窗口内只有一条消息时按原样提交；
+            AsyncFuture<byte[]> single = batchingService.sendOrdered(BytesUtils.toBytes("TX-SINGLE"));
+            assertEquals("ECHO-TX-SINGLE", BytesUtils.toString(single.get()));
+            assertEquals(2, echoService.orderedMessages.size());
+            assertFalse(BftsmartMessageBatch.isBatch(echoService.orderedMessages.get(1)));
+        } finally {
+            batchingService.close();
+        }
+    }
+
+    /**
+     * 以 “ECHO-” 前缀应答每一条消息，合并的消息以合并的格式应答；
+     */
+    private static class EchoMessageService implements MessageService {
+
+        private List<byte[]> orderedMessages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public AsyncFuture<byte[]> sendOrdered(byte[] message) {
+            orderedMessages.add(message);
+            if (BftsmartMessageBatch.isBatch(message)) {
+                List<byte[]> responses = new ArrayList<>();
+                for (byte[] msg : BftsmartMessageBatch.decode(message)) {
+                    responses.add(echo(msg));
+                }
+                return CompletableAsyncFuture.completeFuture(BftsmartMessageBatch.encode(responses));
+            }
+            return CompletableAsyncFuture.completeFuture(echo(message));
+        }
+
+        @Override
+        public AsyncFuture<byte[]> sendUnordered(byte[] message) {
+            return CompletableAsyncFuture.completeFuture(echo(message));
+        }
+
+        private static byte[] echo(byte[] message) {
+            return BytesUtils.toBytes("ECHO-" + BytesUtils.toString(message));
+        }
+    }
+}
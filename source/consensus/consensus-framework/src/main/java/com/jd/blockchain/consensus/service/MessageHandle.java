@@ -1,5 +1,8 @@
 package com.jd.blockchain.consensus.service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.jd.blockchain.utils.concurrent.AsyncFuture;
 
 /**
@@ -29,6 +32,45 @@ public interface MessageHandle {
 	 */
 	AsyncFuture<byte[]> processOrdered(int messageId, byte[] message, String realmName, String batchId);
 
+	/**
+	 * 预处理一批有序的消息；<br>
+	 * 
+	 * 在逐个调用 {@link #processOrdered(int, byte[], String, String)} 之前调用，使处理器可以提前并行地完成与顺序无关的处理，例如验证交易签名；<br>
+	 * 
+	 * 默认不做任何处理；
+	 * 
+	 * @param messages
+	 *            消息内容；
+	 * @param batchId
+	 *            批次ID；
+	 */
+	default void preprocessOrdered(byte[][] messages, String realmName, String batchId) {
+	}
+
+	/**
+	 * 按顺序处理一批有序的消息；<br>
+	 * 
+	 * 处理结果与按顺序逐个调用 {@link #processOrdered(int, byte[], String, String)} 一致，处理器可以借此在批次内并发地执行互不冲突的消息；<br>
+	 * 
+	 * 默认按顺序逐个调用 {@link #processOrdered(int, byte[], String, String)}；
+	 * 
+	 * @param startMessageId
+	 *            首个消息的ID；其余消息的ID依次递增；
+	 * @param messages
+	 *            消息内容；
+	 * @param batchId
+	 *            批次ID；
+	 * @return 与消息一一对应的处理结果；
+	 */
+	default List<AsyncFuture<byte[]>> processOrderedBatch(int startMessageId, byte[][] messages, String realmName,
+			String batchId) {
+		List<AsyncFuture<byte[]>> results = new ArrayList<>(messages.length);
+		for (int i = 0; i < messages.length; i++) {
+			results.add(processOrdered(startMessageId + i, messages[i], realmName, batchId));
+		}
+		return results;
+	}
+
 	/**
 	 * 完成处理批次，返回要进行一致性校验的状态快照；
 	 * 
@@ -154,11 +154,14 @@ public class MsgQueueMessageExecutor implements EventHandler<EventEntity<Exchang
 //        int txSize = messageEvents.size();
         String batchId = messageHandle.beginBatch(realmName);
         try {
-            for (MessageEvent messageEvent : messageEvents) {
-                String txKey = messageEvent.getMessageKey();
-                byte[] txContent = messageEvent.getMessage();
-                AsyncFuture<byte[]> asyncFuture = messageHandle.processOrdered(messageId.getAndIncrement(), txContent, realmName, batchId);
-                asyncFutureMap.put(txKey, asyncFuture);
+            byte[][] txContents = new byte[messageEvents.size()][];
+            for (int i = 0; i < txContents.length; i++) {
+                txContents[i] = messageEvents.get(i).getMessage();
+            }
+            List<AsyncFuture<byte[]>> asyncFutures = messageHandle.processOrderedBatch(
+                    messageId.getAndAdd(txContents.length), txContents, realmName, batchId);
+            for (int i = 0; i < txContents.length; i++) {
+                asyncFutureMap.put(messageEvents.get(i).getMessageKey(), asyncFutures.get(i));
             }
             messageHandle.completeBatch(realmName, batchId);
             messageHandle.commitBatch(realmName, batchId);
@@ -0,0 +1,48 @@
+package com.jd.blockchain.crypto.service.classic;
+
+import java.util.function.Consumer;
+
+import org.bouncycastle.crypto.Digest;
+
+import com.jd.blockchain.crypto.AbstractHashDigester;
+import com.jd.blockchain.crypto.CryptoAlgorithm;
+
+/**
+ * 基于 BouncyCastle 的 {@link Digest} 的增量摘要器；<br>
+ *
+ * 摘要状态通常取自当前线程的可复用实例，完成计算之后归还；
+ *
+ * @author huanghaiquan
+ *
+ * @param <D>
+ */
+class DigestHashDigester<D extends Digest> extends AbstractHashDigester {
+
+	private final D digest;
+
+	private final Consumer<D> releaser;
+
+	DigestHashDigester(CryptoAlgorithm algorithm, D digest, Consumer<D> releaser) {
+		super(algorithm);
+		this.digest = digest;
+		this.releaser = releaser;
+	}
+
+	@Override
+	protected void engineUpdate(byte[] data, int offset, int len) {
+		digest.update(data, offset, len);
+	}
+
+	@Override
+	protected byte[] engineComplete() {
+		byte[] result = new byte[digest.getDigestSize()];
+		digest.doFinal(result, 0);
+		return result;
+	}
+
+	@Override
+	protected void release() {
+		releaser.accept(digest);
+	}
+
+}
@@ -8,6 +8,7 @@ import com.jd.blockchain.crypto.CryptoAlgorithm;
 import com.jd.blockchain.crypto.CryptoBytes;
 import com.jd.blockchain.crypto.CryptoException;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
 import com.jd.blockchain.crypto.HashFunction;
 import com.jd.blockchain.crypto.utils.classic.RIPEMD160Utils;
 import com.jd.blockchain.utils.security.RipeMD160Utils;
@@ -39,6 +40,11 @@ public class RIPEMD160HashFunction implements HashFunction {
 		return new HashDigest(RIPEMD160, digestBytes);
 	}
 
+	@Override
+	public HashDigester beginHash() {
+		return new DigestHashDigester<>(RIPEMD160, RIPEMD160Utils.acquireDigest(), RIPEMD160Utils::releaseDigest);
+	}
+
 	@Override
 	public boolean verify(HashDigest digest, byte[] data) {
 		HashDigest hashDigest = hash(data);
@@ -8,6 +8,7 @@ import com.jd.blockchain.crypto.CryptoAlgorithm;
 import com.jd.blockchain.crypto.CryptoBytes;
 import com.jd.blockchain.crypto.CryptoException;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
 import com.jd.blockchain.crypto.HashFunction;
 import com.jd.blockchain.crypto.utils.classic.SHA256Utils;
 import com.jd.blockchain.utils.security.ShaUtils;
@@ -39,6 +40,11 @@ public class SHA256HashFunction implements HashFunction {
 		return new HashDigest(SHA256, digestBytes);
 	}
 
+	@Override
+	public HashDigester beginHash() {
+		return new DigestHashDigester<>(SHA256, SHA256Utils.acquireDigest(), SHA256Utils::releaseDigest);
+	}
+
 	@Override
 	public boolean verify(HashDigest digest, byte[] data) {
 		HashDigest hashDigest = hash(data);
@@ -1,5 +1,6 @@
 package com.jd.blockchain.crypto.utils.classic;
 
+import com.jd.blockchain.crypto.PubKeyContextCache;
 import org.bouncycastle.asn1.sec.SECNamedCurves;
 import org.bouncycastle.asn1.x9.X9ECParameters;
 import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
@@ -35,6 +36,9 @@ public class ECDSAUtils {
     private static final ECDomainParameters DOMAIN_PARAMS = new ECDomainParameters(
             CURVE, PARAMS.getG(), PARAMS.getN(), PARAMS.getH());
 
+    // parsed public keys for verification, keyed by the raw public key bytes
+    private static final PubKeyContextCache<ECPublicKeyParameters> PUBKEY_CACHE = new PubKeyContextCache<>();
+
 
     //-----------------Key Generation Algorithm-----------------
 
@@ -128,8 +132,7 @@ public class ECDSAUtils {
      */
     public static boolean verify(byte[] data, byte[] publicKey, byte[] signature){
 
-        ECPoint pubKeyPoint = resolvePubKeyBytes(publicKey);
-        ECPublicKeyParameters pubKey = new ECPublicKeyParameters(pubKeyPoint, DOMAIN_PARAMS);
+        ECPublicKeyParameters pubKey = resolvePubKeyParams(publicKey);
 
         return verify(data,pubKey,signature);
     }
@@ -173,6 +176,15 @@ public class ECDSAUtils {
         return CURVE.decodePoint(publicKey);
     }
 
+    // To retrieve the cached public key parameters, so that the decoded point
+    // and its precomputed window tables are reused across verifications
+    private static ECPublicKeyParameters resolvePubKeyParams(byte[] publicKey){
+        return PUBKEY_CACHE.get(publicKey,
+                pubKeyBytes -> new ECPublicKeyParameters(resolvePubKeyBytes(pubKeyBytes), DOMAIN_PARAMS));
+    }
+
+    public static PubKeyContextCache<ECPublicKeyParameters> getPubKeyCache(){return PUBKEY_CACHE;}
+
     public static ECCurve getCurve(){return CURVE;}
 
     public static ECDomainParameters getDomainParams(){return DOMAIN_PARAMS;}
@@ -13,13 +13,49 @@ public class RIPEMD160Utils {
     // The length of RIPEMD160 output is 20 bytes
     private static final int RIPEMD160DIGEST_LENGTH = 160 / 8;
 
+    // The reusable digest of each thread, which is taken away while in use
+    private static final ThreadLocal<RIPEMD160Digest[]> LOCAL_DIGEST = ThreadLocal.withInitial(() -> new RIPEMD160Digest[1]);
+
     public static byte[] hash(byte[] data){
 
         byte[] result = new byte[RIPEMD160DIGEST_LENGTH];
-        RIPEMD160Digest ripemd160Digest = new RIPEMD160Digest();
+        RIPEMD160Digest ripemd160Digest = acquireDigest();
 
-        ripemd160Digest.update(data,0,data.length);
-        ripemd160Digest.doFinal(result,0);
+        try {
+            ripemd160Digest.update(data,0,data.length);
+            ripemd160Digest.doFinal(result,0);
+        } finally {
+            releaseDigest(ripemd160Digest);
+        }
         return result;
     }
+
+    /**
+     * To take the reusable digest of current thread, or to create a new one
+     * if it is in use
+     *
+     * @return digest in the initial state
+     */
+    public static RIPEMD160Digest acquireDigest(){
+        RIPEMD160Digest[] slot = LOCAL_DIGEST.get();
+        RIPEMD160Digest digest = slot[0];
+        if (digest == null) {
+            return new RIPEMD160Digest();
+        }
+        slot[0] = null;
+        return digest;
+    }
+
+    /**
+     * To reset the digest and return it to current thread for reuse
+     *
+     * @param digest digest taken by acquireDigest()
+     */
+    public static void releaseDigest(RIPEMD160Digest digest){
+        digest.reset();
+        RIPEMD160Digest[] slot = LOCAL_DIGEST.get();
+        if (slot[0] == null) {
+            slot[0] = digest;
+        }
+    }
 }
@@ -13,13 +13,49 @@ public class SHA256Utils {
     // The length of SHA256 output is 32 bytes
     private static final int SHA256DIGEST_LENGTH = 256 / 8;
 
+    // The reusable digest of each thread, which is taken away while in use
+    private static final ThreadLocal<SHA256Digest[]> LOCAL_DIGEST = ThreadLocal.withInitial(() -> new SHA256Digest[1]);
+
     public static byte[] hash(byte[] data){
 
         byte[] result = new byte[SHA256DIGEST_LENGTH];
-        SHA256Digest sha256Digest = new SHA256Digest();
+        SHA256Digest sha256Digest = acquireDigest();
 
-        sha256Digest.update(data,0,data.length);
-        sha256Digest.doFinal(result,0);
+        try {
+            sha256Digest.update(data,0,data.length);
+            sha256Digest.doFinal(result,0);
+        } finally {
+            releaseDigest(sha256Digest);
+        }
         return result;
     }
+
+    /**
+     * To take the reusable digest of current thread, or to create a new one
+     * if it is in use
+     *
+     * @return digest in the initial state
+     */
+    public static SHA256Digest acquireDigest(){
+        SHA256Digest[] slot = LOCAL_DIGEST.get();
+        SHA256Digest digest = slot[0];
+        if (digest == null) {
+            return new SHA256Digest();
+        }
+        slot[0] = null;
+        return digest;
+    }
+
+    /**
+     * To reset the digest and return it to current thread for reuse
+     *
+     * @param digest digest taken by acquireDigest()
+     */
+    public static void releaseDigest(SHA256Digest digest){
+        digest.reset();
+        SHA256Digest[] slot = LOCAL_DIGEST.get();
+        if (slot[0] == null) {
+            slot[0] = digest;
+        }
+    }
 }
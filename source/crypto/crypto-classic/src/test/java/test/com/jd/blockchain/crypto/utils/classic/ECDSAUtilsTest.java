@@ -95,6 +95,37 @@ public class ECDSAUtilsTest {
         assertTrue(ECDSAUtils.verify(data,pubKeyBytes,signatureDigest));
     }
 
+    @Test
+    public void verifyWithCachedPubKeyTest(){
+
+        AsymmetricCipherKeyPair keyPair = ECDSAUtils.generateKeyPair();
+        ECPrivateKeyParameters privKeyParams = (ECPrivateKeyParameters) keyPair.getPrivate();
+        ECPublicKeyParameters pubKeyParams = (ECPublicKeyParameters) keyPair.getPublic();
+
+        byte[] pubKeyBytes = pubKeyParams.getQ().getEncoded(false);
+
+        Random random = new Random();
+        byte[] data = new byte[1024];
+        random.nextBytes(data);
+
+        byte[] signatureDigest = ECDSAUtils.sign(data,privKeyParams);
+
+        long hitCount = ECDSAUtils.getPubKeyCache().getHitCount();
+        assertTrue(ECDSAUtils.verify(data,pubKeyBytes,signatureDigest));
+        assertTrue(ECDSAUtils.verify(data,pubKeyBytes.clone(),signatureDigest));
+        assertTrue(ECDSAUtils.getPubKeyCache().getHitCount() > hitCount);
+
+        // the cached key must not be affected by the caller's array
+        byte[] modifiedPubKeyBytes = pubKeyBytes.clone();
+        ECDSAUtils.verify(data,modifiedPubKeyBytes,signatureDigest);
+        modifiedPubKeyBytes[1] ^= 0x01;
+        assertTrue(ECDSAUtils.verify(data,pubKeyBytes,signatureDigest));
+
+        byte[] wrongData = data.clone();
+        wrongData[0] ^= 0x01;
+        assertFalse(ECDSAUtils.verify(wrongData,pubKeyBytes,signatureDigest));
+    }
+
     @Test
     public void checkParams(){
         // https://crypto.stackexchange.com/questions/784/are-there-any-secp256k1-ecdsa-test-examples-available
@@ -188,6 +219,48 @@ public class ECDSAUtilsTest {
         }
     }
 
+//    @Test
+    public void verifyingPerformanceTest(){
+
+        int count = 10000;
+        byte[] data = new byte[1024];
+        Random random = new Random();
+        random.nextBytes(data);
+
+        AsymmetricCipherKeyPair keyPair = ECDSAUtils.generateKeyPair();
+        ECPrivateKeyParameters privKeyParams = (ECPrivateKeyParameters) keyPair.getPrivate();
+        ECPublicKeyParameters pubKeyParams = (ECPublicKeyParameters) keyPair.getPublic();
+        byte[] pubKeyBytes = pubKeyParams.getQ().getEncoded(false);
+
+        byte[] signatureDigest = ECDSAUtils.sign(data,privKeyParams);
+
+        System.out.println("=================== do ECDSA verify test without cached public key ===================");
+        for (int r = 0; r < 5; r++) {
+            System.out.println("------------- round[" + r + "] --------------");
+            long startTS = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                ECPublicKeyParameters pubKey = new ECPublicKeyParameters(
+                        ECDSAUtils.getCurve().decodePoint(pubKeyBytes), ECDSAUtils.getDomainParams());
+                ECDSAUtils.verify(data,pubKey,signatureDigest);
+            }
+            long elapsedTS = System.currentTimeMillis() - startTS;
+            System.out.println(String.format("ECDSA Verifying Count=%s; Elapsed Times=%s; TPS=%.2f", count, elapsedTS,
+                    (count * 1000.00D) / elapsedTS));
+        }
+
+        System.out.println("=================== do ECDSA verify test with cached public key ===================");
+        for (int r = 0; r < 5; r++) {
+            System.out.println("------------- round[" + r + "] --------------");
+            long startTS = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                ECDSAUtils.verify(data,pubKeyBytes,signatureDigest);
+            }
+            long elapsedTS = System.currentTimeMillis() - startTS;
+            System.out.println(String.format("ECDSA Verifying Count=%s; Elapsed Times=%s; TPS=%.2f", count, elapsedTS,
+                    (count * 1000.00D) / elapsedTS));
+        }
+    }
+
     // To convert BigInteger to byte[] whose length is 32
     private static byte[] BigIntegerTo32Bytes(BigInteger b){
         byte[] tmp = b.toByteArray();
@@ -0,0 +1,154 @@
+package com.jd.blockchain.crypto;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
+import com.jd.blockchain.utils.io.BytesSlice;
+
+/**
+ * {@link HashDigester} 的基础实现；<br>
+ *
+ * 各种形式的输入都转换为对字节数组片段的输入，由子类交给具体的摘要算法；<br>
+ * 完成计算之后调用 {@link #release()}，子类可以在此归还可复用的摘要状态；
+ *
+ * @author huanghaiquan
+ *
+ */
+public abstract class AbstractHashDigester implements HashDigester {
+
+	// 从非数组支持的缓冲区（例如直接缓冲区）中读取数据时使用的临时数组的大小；
+	private static final int TRANSFER_SIZE = 256;
+
+	private final CryptoAlgorithm algorithm;
+
+	private final OutputStream updatingStream = new UpdatingStream();
+
+	private byte[] transferBuffer;
+
+	private boolean completed;
+
+	protected AbstractHashDigester(CryptoAlgorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	public CryptoAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public HashDigester update(byte[] data) {
+		return update(data, 0, data.length);
+	}
+
+	@Override
+	public HashDigester update(byte[] data, int offset, int len) {
+		checkState();
+		if (offset < 0 || len < 0 || offset + len > data.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		engineUpdate(data, offset, len);
+		return this;
+	}
+
+	@Override
+	public HashDigester update(Bytes data) {
+		checkState();
+		data.writeTo(updatingStream);
+		return this;
+	}
+
+	@Override
+	public HashDigester update(BytesSlice data) {
+		checkState();
+		data.writeTo(updatingStream);
+		return this;
+	}
+
+	@Override
+	public HashDigester update(ByteBuffer data) {
+		checkState();
+		int len = data.remaining();
+		if (data.hasArray()) {
+			engineUpdate(data.array(), data.arrayOffset() + data.position(), len);
+			data.position(data.limit());
+			return this;
+		}
+		if (transferBuffer == null) {
+			transferBuffer = new byte[TRANSFER_SIZE];
+		}
+		while (len > 0) {
+			int n = Math.min(len, TRANSFER_SIZE);
+			data.get(transferBuffer, 0, n);
+			engineUpdate(transferBuffer, 0, n);
+			len -= n;
+		}
+		return this;
+	}
+
+	@Override
+	public HashDigester update(BytesOutputBuffer data) {
+		checkState();
+		data.writeTo(updatingStream);
+		return this;
+	}
+
+	@Override
+	public HashDigest complete() {
+		checkState();
+		completed = true;
+		byte[] digestBytes;
+		try {
+			digestBytes = engineComplete();
+		} finally {
+			release();
+		}
+		return new HashDigest(algorithm, digestBytes);
+	}
+
+	private void checkState() {
+		if (completed) {
+			throw new CryptoException("The hash digester has been completed!");
+		}
+	}
+
+	/**
+	 * 输入数据；
+	 *
+	 * @param data
+	 * @param offset
+	 * @param len
+	 */
+	protected abstract void engineUpdate(byte[] data, int offset, int len);
+
+	/**
+	 * 完成计算，返回 hash 摘要的原始字节（不包括算法标识）；
+	 *
+	 * @return
+	 */
+	protected abstract byte[] engineComplete();
+
+	/**
+	 * 完成计算之后调用，以便子类释放或归还摘要状态；默认不做任何处理；
+	 */
+	protected void release() {
+	}
+
+	/**
+	 * 把写入的数据直接交给摘要算法的输出流，以便 {@link Bytes}、{@link BytesSlice} 等以原始数组输出数据，避免复制；
+	 */
+	private class UpdatingStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			engineUpdate(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			engineUpdate(b, off, len);
+		}
+
+	}
+}
@@ -0,0 +1,39 @@
+package com.jd.blockchain.crypto;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 先缓冲全部输入，完成时一次性调用 {@link HashFunction#hash(byte[])} 的摘要器；<br>
+ *
+ * 作为 {@link HashFunction#beginHash()} 的默认实现，供未提供增量计算的哈希函数使用；
+ *
+ * @author huanghaiquan
+ *
+ */
+class BufferedHashDigester extends AbstractHashDigester {
+
+	private final HashFunction hashFunction;
+
+	private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	BufferedHashDigester(HashFunction hashFunction) {
+		super(hashFunction.getAlgorithm());
+		this.hashFunction = hashFunction;
+	}
+
+	@Override
+	protected void engineUpdate(byte[] data, int offset, int len) {
+		buffer.write(data, offset, len);
+	}
+
+	@Override
+	protected byte[] engineComplete() {
+		return hashFunction.hash(buffer.toByteArray()).getRawDigest();
+	}
+
+	@Override
+	protected void release() {
+		buffer = null;
+	}
+
+}
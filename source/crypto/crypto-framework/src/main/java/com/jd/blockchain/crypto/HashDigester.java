@@ -0,0 +1,82 @@
+package com.jd.blockchain.crypto;
+
+import java.nio.ByteBuffer;
+
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
+import com.jd.blockchain.utils.io.BytesSlice;
+
+/**
+ * 增量计算 hash 的摘要器；<br>
+ *
+ * 通过 {@link HashFunction#beginHash()} 获得；分多次输入数据，最后调用 {@link #complete()} 得到 hash
+ * 摘要；<br>
+ * 输入的数据直接从原始的数组或缓冲区读取，调用者无需把数据拼接成一个完整的字节数组；<br>
+ *
+ * 摘要器不是线程安全的，完成之后不能再次使用；
+ *
+ * @author huanghaiquan
+ *
+ */
+public interface HashDigester {
+
+	/**
+	 * 输入数据；
+	 *
+	 * @param data
+	 * @return
+	 */
+	HashDigester update(byte[] data);
+
+	/**
+	 * 输入数据；
+	 *
+	 * @param data
+	 * @param offset 起始位置；
+	 * @param len    长度；
+	 * @return
+	 */
+	HashDigester update(byte[] data, int offset, int len);
+
+	/**
+	 * 输入数据；
+	 *
+	 * @param data
+	 * @return
+	 */
+	HashDigester update(Bytes data);
+
+	/**
+	 * 输入数据；
+	 *
+	 * @param data
+	 * @return
+	 */
+	HashDigester update(BytesSlice data);
+
+	/**
+	 * 输入缓冲区中剩余的数据；完成之后缓冲区的位置（position）移到上限（limit）；<br>
+	 *
+	 * 缓冲区可以是直接缓冲区（Direct ByteBuffer）；
+	 *
+	 * @param data
+	 * @return
+	 */
+	HashDigester update(ByteBuffer data);
+
+	/**
+	 * 输入缓冲区中的全部数据；
+	 *
+	 * @param data
+	 * @return
+	 */
+	HashDigester update(BytesOutputBuffer data);
+
+	/**
+	 * 完成计算，返回已输入的全部数据的 hash 摘要；
+	 *
+	 * @return
+	 */
+	HashDigest complete();
+
+}
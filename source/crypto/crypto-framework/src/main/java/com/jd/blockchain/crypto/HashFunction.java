@@ -9,6 +9,19 @@ public interface HashFunction extends CryptoFunction {
 	 * @return
 	 */
 	HashDigest hash(byte[] data);
+
+	/**
+	 * 开始增量计算 hash；<br>
+	 * 
+	 * 返回的摘要器可以分多次输入数据，最后调用 {@link HashDigester#complete()} 得到 hash 摘要；<br>
+	 * 
+	 * 默认实现先缓冲全部输入，完成时调用 {@link #hash(byte[])}；实现者可以重写此方法以提供真正的增量计算；
+	 * 
+	 * @return
+	 */
+	default HashDigester beginHash() {
+		return new BufferedHashDigester(this);
+	}
 	
 
 	/**
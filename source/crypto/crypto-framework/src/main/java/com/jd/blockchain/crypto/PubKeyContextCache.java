@@ -0,0 +1,179 @@
+package com.jd.blockchain.crypto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 公钥的验签上下文的缓存；<br>
+ *
+ * 以公钥的原始字节为键，缓存解析公钥得到的上下文，例如解码并校验过的椭圆曲线上的点；<br>
+ * 同一个点的对象在多次验签之间复用，其上的预计算表（窗口表）也随之复用；<br>
+ *
+ * 条目分散到多个分段中，每个分段独立加锁，超出容量时按照最近最少使用（LRU）的顺序淘汰；<br>
+ * 解析在锁之外进行，并发地解析同一个公钥时可能重复解析，以先放入缓存的实例为准；
+ *
+ * @author huanghaiquan
+ *
+ * @param <V> 上下文的类型；
+ */
+public class PubKeyContextCache<V> {
+
+	/**
+	 * 默认的容量；
+	 */
+	public static final int DEFAULT_CAPACITY;
+
+	private static final int SEGMENT_COUNT = 16;
+
+	static {
+		DEFAULT_CAPACITY = Integer.getInteger("pubkey-cache-size", 1024);
+	}
+
+	private final int capacity;
+
+	private final Segment<V>[] segments;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 创建默认容量的缓存；
+	 */
+	public PubKeyContextCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity 缓存的公钥的最大数量；小于等于 0 时不缓存任何公钥；
+	 */
+	@SuppressWarnings("unchecked")
+	public PubKeyContextCache(int capacity) {
+		this.capacity = capacity;
+		this.segments = (Segment<V>[]) new Segment<?>[SEGMENT_COUNT];
+		int segmentCapacity = Math.max(1, (Math.max(capacity, 0) + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment<>(segmentCapacity);
+		}
+	}
+
+	/**
+	 * 返回公钥的上下文；如果不存在，则通过指定的解析器解析并缓存；<br>
+	 *
+	 * 解析器抛出的异常直接抛给调用者，不缓存任何结果；
+	 *
+	 * @param pubKeyBytes 公钥的原始字节；
+	 * @param resolver    上下文的解析器；
+	 * @return
+	 */
+	public V get(byte[] pubKeyBytes, Function<byte[], V> resolver) {
+		if (capacity <= 0) {
+			missCount.incrementAndGet();
+			return resolver.apply(pubKeyBytes);
+		}
+		Bytes key = new Bytes(pubKeyBytes);
+		Segment<V> segment = segmentOf(key);
+		V context;
+		synchronized (segment) {
+			context = segment.get(key);
+		}
+		if (context != null) {
+			hitCount.incrementAndGet();
+			return context;
+		}
+		missCount.incrementAndGet();
+		context = resolver.apply(pubKeyBytes);
+		if (context == null) {
+			return null;
+		}
+		// 复制公钥作为缓存的键，以免调用者之后修改数组；
+		key = new Bytes(pubKeyBytes.clone());
+		synchronized (segment) {
+			V existing = segment.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			segment.put(key, context);
+		}
+		return context;
+	}
+
+	private Segment<V> segmentOf(Bytes key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	/**
+	 * 缓存的公钥的最大数量；
+	 *
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 已缓存的公钥的数量；
+	 *
+	 * @return
+	 */
+	public int getCount() {
+		int count = 0;
+		for (Segment<V> segment : segments) {
+			synchronized (segment) {
+				count += segment.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 命中的次数；
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 未命中的次数；
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 清空缓存；统计计数不受影响；
+	 */
+	public void clear() {
+		for (Segment<V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Segment<V> extends LinkedHashMap<Bytes, V> {
+
+		private final int segmentCapacity;
+
+		public Segment(int segmentCapacity) {
+			super(16, 0.75f, true);
+			this.segmentCapacity = segmentCapacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Bytes, V> eldest) {
+			return size() > segmentCapacity;
+		}
+	}
+}
@@ -19,6 +19,27 @@ public interface SignatureFunction extends AsymmetricKeypairGenerator, CryptoFun
 	 */
 	boolean verify(SignatureDigest digest, PubKey pubKey, byte[] data);
 
+	/**
+	 * 批量校验签名摘要和数据是否一致；<br>
+	 * 
+	 * 默认实现逐个调用 {@link #verify(SignatureDigest, PubKey, byte[])}；支持批量验证的算法可以覆盖此方法以减少计算量；
+	 * 
+	 * @param digests 待验证的签名摘要列表；
+	 * @param pubKeys 与签名摘要一一对应的公钥列表；
+	 * @param data    与签名摘要一一对应的被签名信息列表；
+	 * @return 与签名摘要一一对应的验证结果；
+	 */
+	default boolean[] verify(SignatureDigest[] digests, PubKey[] pubKeys, byte[][] data) {
+		if (digests.length != pubKeys.length || digests.length != data.length) {
+			throw new CryptoException("The numbers of digests, public keys and data are not matched!");
+		}
+		boolean[] results = new boolean[digests.length];
+		for (int i = 0; i < digests.length; i++) {
+			results[i] = verify(digests[i], pubKeys[i], data[i]);
+		}
+		return results;
+	}
+
 	/**
 	 * 使用私钥恢复公钥；
 	 *
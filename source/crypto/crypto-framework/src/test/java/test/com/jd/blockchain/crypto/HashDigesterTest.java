@@ -0,0 +1,81 @@
+package test.com.jd.blockchain.crypto;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.Test;
+
+import com.jd.blockchain.crypto.CryptoAlgorithm;
+import com.jd.blockchain.crypto.CryptoAlgorithmDefinition;
+import com.jd.blockchain.crypto.CryptoException;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.utils.io.BytesSlice;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class HashDigesterTest {
+
+	private static final CryptoAlgorithm TEST_HASH = CryptoAlgorithmDefinition.defineHash("TEST-HASH", (byte) 99);
+
+	@Test
+	public void testDefaultBeginHash() {
+		// A provider which only implements hash(byte[]) still supports incremental hashing;
+		HashFunction hashFunction = new OneShotHashFunction();
+
+		byte[] data = BytesUtils.toBytes("The data to hash in several parts.");
+		HashDigest expected = hashFunction.hash(data);
+
+		HashDigester digester = hashFunction.beginHash();
+		digester.update(data, 0, 3);
+		digester.update(new BytesSlice(data, 3, 10));
+		digester.update(ByteBuffer.wrap(data, 13, data.length - 13));
+		HashDigest actual = digester.complete();
+
+		assertEquals(expected, actual);
+		assertEquals(TEST_HASH.code(), actual.getAlgorithm());
+
+		CryptoException ex = null;
+		try {
+			digester.update(data);
+		} catch (CryptoException e) {
+			ex = e;
+		}
+		assertNotNull(ex);
+	}
+
+	private static class OneShotHashFunction implements HashFunction {
+
+		@Override
+		public CryptoAlgorithm getAlgorithm() {
+			return TEST_HASH;
+		}
+
+		@Override
+		public HashDigest hash(byte[] data) {
+			try {
+				return new HashDigest(TEST_HASH, MessageDigest.getInstance("SHA-256").digest(data));
+			} catch (NoSuchAlgorithmException e) {
+				throw new CryptoException(e.getMessage(), e);
+			}
+		}
+
+		@Override
+		public boolean verify(HashDigest digest, byte[] data) {
+			return hash(data).equals(digest);
+		}
+
+		@Override
+		public boolean supportHashDigest(byte[] digestBytes) {
+			return true;
+		}
+
+		@Override
+		public HashDigest resolveHashDigest(byte[] digestBytes) {
+			return new HashDigest(digestBytes);
+		}
+	}
+}
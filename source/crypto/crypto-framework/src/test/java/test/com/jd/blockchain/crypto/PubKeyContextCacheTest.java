@@ -0,0 +1,86 @@
+package test.com.jd.blockchain.crypto;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.jd.blockchain.crypto.CryptoException;
+import com.jd.blockchain.crypto.PubKeyContextCache;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class PubKeyContextCacheTest {
+
+	@Test
+	public void testCache() {
+		PubKeyContextCache<String> cache = new PubKeyContextCache<>(64);
+		AtomicInteger resolveCount = new AtomicInteger();
+
+		byte[] pubKey = BytesUtils.toBytes("PUBKEY-1");
+		String context = cache.get(pubKey, k -> {
+			resolveCount.incrementAndGet();
+			return BytesUtils.toString(k);
+		});
+		assertEquals("PUBKEY-1", context);
+		assertEquals(1, resolveCount.get());
+		assertEquals(1, cache.getCount());
+		assertEquals(1, cache.getMissCount());
+
+		// Equal bytes in another array hit the cached context;
+		String context2 = cache.get(pubKey.clone(), k -> {
+			resolveCount.incrementAndGet();
+			return BytesUtils.toString(k);
+		});
+		assertSame(context, context2);
+		assertEquals(1, resolveCount.get());
+		assertEquals(1, cache.getHitCount());
+
+		// Modifying the caller's array doesn't affect the cached key;
+		pubKey[0] = 'X';
+		assertSame(context, cache.get(BytesUtils.toBytes("PUBKEY-1"), BytesUtils::toString));
+
+		cache.clear();
+		assertEquals(0, cache.getCount());
+	}
+
+	@Test
+	public void testInvalidKeyNotCached() {
+		PubKeyContextCache<String> cache = new PubKeyContextCache<>(64);
+		byte[] pubKey = BytesUtils.toBytes("INVALID");
+
+		CryptoException ex = null;
+		try {
+			cache.get(pubKey, k -> {
+				throw new CryptoException("Invalid public key!");
+			});
+		} catch (CryptoException e) {
+			ex = e;
+		}
+		assertNotNull(ex);
+		assertEquals(0, cache.getCount());
+
+		assertNull(cache.get(pubKey, k -> null));
+		assertEquals(0, cache.getCount());
+	}
+
+	@Test
+	public void testEviction() {
+		int capacity = 32;
+		PubKeyContextCache<String> cache = new PubKeyContextCache<>(capacity);
+		for (int i = 0; i < 1000; i++) {
+			cache.get(BytesUtils.toBytes("PUBKEY-" + i), BytesUtils::toString);
+		}
+		// Each segment is bounded separately, so the total never exceeds the capacity;
+		assertTrue(cache.getCount() <= capacity);
+		assertTrue(cache.getCount() > 0);
+
+		// A cache with zero capacity resolves every time;
+		PubKeyContextCache<String> noCache = new PubKeyContextCache<>(0);
+		noCache.get(BytesUtils.toBytes("PUBKEY-1"), BytesUtils::toString);
+		noCache.get(BytesUtils.toBytes("PUBKEY-1"), BytesUtils::toString);
+		assertEquals(0, noCache.getCount());
+		assertEquals(0, noCache.getHitCount());
+		assertEquals(2, noCache.getMissCount());
+	}
+}
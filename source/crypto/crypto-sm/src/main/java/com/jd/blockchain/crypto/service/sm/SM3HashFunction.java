@@ -2,10 +2,14 @@ package com.jd.blockchain.crypto.service.sm;
 
 import java.util.Arrays;
 
+import org.bouncycastle.crypto.digests.SM3Digest;
+
+import com.jd.blockchain.crypto.AbstractHashDigester;
 import com.jd.blockchain.crypto.CryptoAlgorithm;
 import com.jd.blockchain.crypto.CryptoBytes;
 import com.jd.blockchain.crypto.CryptoException;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
 import com.jd.blockchain.crypto.HashFunction;
 import com.jd.blockchain.crypto.utils.sm.SM3Utils;
 
@@ -36,6 +40,11 @@ public class SM3HashFunction implements HashFunction {
 		return new HashDigest(SM3, digestBytes);
 	}
 
+	@Override
+	public HashDigester beginHash() {
+		return new SM3HashDigester(SM3Utils.acquireDigest());
+	}
+
 	@Override
 	public boolean verify(HashDigest digest, byte[] data) {
 		HashDigest hashDigest = hash(data);
@@ -56,4 +65,34 @@ public class SM3HashFunction implements HashFunction {
 			throw new CryptoException("digestBytes is invalid!");
 		}
 	}
+
+	/**
+	 * SM3 的增量摘要器；摘要状态取自当前线程的可复用实例，完成计算之后归还；
+	 */
+	private static class SM3HashDigester extends AbstractHashDigester {
+
+		private final SM3Digest digest;
+
+		private SM3HashDigester(SM3Digest digest) {
+			super(SM3);
+			this.digest = digest;
+		}
+
+		@Override
+		protected void engineUpdate(byte[] data, int offset, int len) {
+			digest.update(data, offset, len);
+		}
+
+		@Override
+		protected byte[] engineComplete() {
+			byte[] result = new byte[DIGEST_BYTES];
+			digest.doFinal(result, 0);
+			return result;
+		}
+
+		@Override
+		protected void release() {
+			SM3Utils.releaseDigest(digest);
+		}
+	}
 }
@@ -1,5 +1,6 @@
 package com.jd.blockchain.crypto.utils.sm;
 
+import com.jd.blockchain.crypto.PubKeyContextCache;
 import com.jd.blockchain.utils.io.BytesUtils;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Integer;
@@ -36,6 +37,9 @@ public class SM2Utils {
     private static final ECDomainParameters DOMAIN_PARAMS = new ECDomainParameters(
             CURVE, PARAMS.getG(), PARAMS.getN(), PARAMS.getH());
 
+    // parsed public keys for verification, keyed by the raw public key bytes
+    private static final PubKeyContextCache<ECPublicKeyParameters> PUBKEY_CACHE = new PubKeyContextCache<>();
+
 
     //-----------------Key Generation Algorithm-----------------
 
@@ -136,16 +140,14 @@ public class SM2Utils {
      */
     public static boolean verify(byte[] data, byte[] publicKey, byte[] signature){
 
-        ECPoint pubKeyPoint = resolvePubKeyBytes(publicKey);
-        ECPublicKeyParameters pubKey = new ECPublicKeyParameters(pubKeyPoint, DOMAIN_PARAMS);
+        ECPublicKeyParameters pubKey = resolvePubKeyParams(publicKey);
 
         return verify(data,pubKey,signature);
     }
 
     public static boolean verify(byte[] data, byte[] publicKey, byte[] signature, String ID){
 
-        ECPoint pubKeyPoint = resolvePubKeyBytes(publicKey);
-        ECPublicKeyParameters pubKey = new ECPublicKeyParameters(pubKeyPoint, DOMAIN_PARAMS);
+        ECPublicKeyParameters pubKey = resolvePubKeyParams(publicKey);
         ParametersWithID params = new ParametersWithID(pubKey, BytesUtils.toBytes(ID));
         return verify(data,params,signature);
     }
@@ -294,6 +296,15 @@ public class SM2Utils {
         return CURVE.decodePoint(publicKey);
     }
 
+    // To retrieve the cached public key parameters, so that the decoded point
+    // and its precomputed window tables are reused across verifications
+    private static ECPublicKeyParameters resolvePubKeyParams(byte[] publicKey){
+        return PUBKEY_CACHE.get(publicKey,
+                pubKeyBytes -> new ECPublicKeyParameters(resolvePubKeyBytes(pubKeyBytes), DOMAIN_PARAMS));
+    }
+
+    public static PubKeyContextCache<ECPublicKeyParameters> getPubKeyCache(){return PUBKEY_CACHE;}
+
     public static ECCurve getCurve(){return CURVE;}
 
     public static ECDomainParameters getDomainParams(){return DOMAIN_PARAMS;}
@@ -7,16 +7,52 @@ public class SM3Utils {
     // The length of sm3 output is 32 bytes
     private static final int SM3DIGEST_LENGTH = 32;
 
+    // The reusable digest of each thread, which is taken away while in use
+    private static final ThreadLocal<SM3Digest[]> LOCAL_DIGEST = ThreadLocal.withInitial(() -> new SM3Digest[1]);
+
     public static byte[] hash(byte[] data) {
 
         byte[] result = new byte[SM3DIGEST_LENGTH];
 
-        SM3Digest sm3digest = new SM3Digest();
+        SM3Digest sm3digest = acquireDigest();
 
-        sm3digest.update(data, 0, data.length);
-        sm3digest.doFinal(result, 0);
+        try {
+            sm3digest.update(data, 0, data.length);
+            sm3digest.doFinal(result, 0);
+        } finally {
+            releaseDigest(sm3digest);
+        }
 
         return result;
     }
+
+    /**
+     * To take the reusable digest of current thread, or to create a new one
+     * if it is in use
+     *
+     * @return digest in the initial state
+     */
+    public static SM3Digest acquireDigest() {
+        SM3Digest[] slot = LOCAL_DIGEST.get();
+        SM3Digest digest = slot[0];
+        if (digest == null) {
+            return new SM3Digest();
+        }
+        slot[0] = null;
+        return digest;
+    }
+
+    /**
+     * To reset the digest and return it to current thread for reuse
+     *
+     * @param digest digest taken by acquireDigest()
+     */
+    public static void releaseDigest(SM3Digest digest) {
+        digest.reset();
+        SM3Digest[] slot = LOCAL_DIGEST.get();
+        if (slot[0] == null) {
+            slot[0] = digest;
+        }
+    }
 }
 
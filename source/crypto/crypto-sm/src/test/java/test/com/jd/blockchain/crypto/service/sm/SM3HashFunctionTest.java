@@ -4,11 +4,16 @@ import com.jd.blockchain.crypto.CryptoAlgorithm;
 import com.jd.blockchain.crypto.CryptoException;
 import com.jd.blockchain.crypto.Crypto;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
 import com.jd.blockchain.crypto.HashFunction;
 import com.jd.blockchain.crypto.service.sm.SMAlgorithm;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesSlice;
 import com.jd.blockchain.utils.io.BytesUtils;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Random;
 
 import static com.jd.blockchain.crypto.CryptoAlgorithm.HASH_ALGORITHM;
@@ -75,6 +80,50 @@ public class SM3HashFunctionTest {
 		assertTrue(expectedException.isAssignableFrom(actualEx.getClass()));
 	}
 
+	@Test
+	public void beginHashTest() {
+
+		byte[] data = new byte[1024];
+		Random random = new Random();
+		random.nextBytes(data);
+
+		CryptoAlgorithm algorithm = Crypto.getAlgorithm("sm3");
+		assertNotNull(algorithm);
+
+		HashFunction hashFunction = Crypto.getHashFunction(algorithm);
+		HashDigest expectedDigest = hashFunction.hash(data);
+
+		// feed the same data in pieces of different forms;
+		HashDigester digester = hashFunction.beginHash();
+		digester.update(data, 0, 100);
+		digester.update(new BytesSlice(data, 100, 200));
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(600);
+		directBuffer.put(data, 300, 600);
+		directBuffer.flip();
+		digester.update(directBuffer);
+		assertEquals(0, directBuffer.remaining());
+		digester.update(ByteBuffer.wrap(data, 900, 100));
+		digester.update(new Bytes(Arrays.copyOfRange(data, 1000, 1024)));
+		assertEquals(expectedDigest, digester.complete());
+
+		// nested digesters in the same thread don't interfere with each other;
+		HashDigester outer = hashFunction.beginHash().update(data, 0, 512);
+		HashDigest innerDigest = hashFunction.beginHash().update(data).complete();
+		assertEquals(expectedDigest, innerDigest);
+		assertEquals(expectedDigest, hashFunction.hash(data));
+		assertEquals(expectedDigest, outer.update(data, 512, 512).complete());
+
+		Class<?> expectedException = CryptoException.class;
+		Exception actualEx = null;
+		try {
+			outer.update(data);
+		} catch (Exception e) {
+			actualEx = e;
+		}
+		assertNotNull(actualEx);
+		assertTrue(expectedException.isAssignableFrom(actualEx.getClass()));
+	}
+
 	@Test
 	public void verifyTest() {
 		byte[] data = new byte[1024];
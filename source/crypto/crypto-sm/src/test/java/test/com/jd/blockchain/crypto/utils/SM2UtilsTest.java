@@ -2,6 +2,7 @@ package test.com.jd.blockchain.crypto.utils;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import com.jd.blockchain.utils.io.BytesUtils;
@@ -14,6 +15,7 @@ import org.junit.Test;
 
 import com.jd.blockchain.crypto.utils.sm.SM2Utils;
 
+import java.security.SecureRandom;
 import java.util.Random;
 
 public class SM2UtilsTest {
@@ -86,6 +88,33 @@ public class SM2UtilsTest {
         assertTrue(isVerified);
     }
 
+    @Test
+    public void testVerifyWithCachedPubKey() {
+
+        AsymmetricCipherKeyPair keyPair = SM2Utils.generateKeyPair();
+        ECPublicKeyParameters ecPub = (ECPublicKeyParameters) keyPair.getPublic();
+        ECPrivateKeyParameters ecPriv = (ECPrivateKeyParameters) keyPair.getPrivate();
+        byte[] pubKeyBytes = ecPub.getQ().getEncoded(false);
+
+        byte[] data = new byte[1024];
+        Random random = new Random();
+        random.nextBytes(data);
+
+        byte[] signatureBytes = SM2Utils.sign(data,ecPriv);
+
+        long hitCount = SM2Utils.getPubKeyCache().getHitCount();
+        assertTrue(SM2Utils.verify(data,pubKeyBytes,signatureBytes));
+        assertTrue(SM2Utils.verify(data,pubKeyBytes.clone(),signatureBytes));
+        assertTrue(SM2Utils.getPubKeyCache().getHitCount() > hitCount);
+
+        // the same cached key is shared by the verification with a user ID
+        String identifier = "ALICE123@YAHOO.COM";
+        byte[] privKeyBytes = ecPriv.getD().toByteArray();
+        byte[] signatureWithID = SM2Utils.sign(data,privKeyBytes,new SecureRandom(),identifier);
+        assertTrue(SM2Utils.verify(data,pubKeyBytes,signatureWithID,identifier));
+        assertFalse(SM2Utils.verify(data,pubKeyBytes,signatureBytes,identifier));
+    }
+
     @Test
     public void testEncrypt() {
 
@@ -203,4 +232,47 @@ public class SM2UtilsTest {
                     (count * 1000.00D) / elapsedTS));
         }
     }
+
+//    @Test
+    public void verifyingPerformace(){
+
+        byte[] data = new byte[1024];
+        Random random = new Random();
+        random.nextBytes(data);
+
+        int count = 10000;
+
+        AsymmetricCipherKeyPair keyPair = SM2Utils.generateKeyPair();
+        ECPublicKeyParameters ecPub = (ECPublicKeyParameters) keyPair.getPublic();
+        ECPrivateKeyParameters ecPriv = (ECPrivateKeyParameters) keyPair.getPrivate();
+        byte[] pubKeyBytes = ecPub.getQ().getEncoded(false);
+
+        byte[] sm2Digest = SM2Utils.sign(data,ecPriv);
+
+        System.out.println("=================== do SM2 verify test without cached public key ===================");
+        for (int r = 0; r < 5; r++) {
+            System.out.println("------------- round[" + r + "] --------------");
+            long startTS = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                ECPublicKeyParameters pubKey = new ECPublicKeyParameters(
+                        SM2Utils.getCurve().decodePoint(pubKeyBytes), SM2Utils.getDomainParams());
+                SM2Utils.verify(data,pubKey,sm2Digest);
+            }
+            long elapsedTS = System.currentTimeMillis() - startTS;
+            System.out.println(String.format("SM2 Verifying Count=%s; Elapsed Times=%s; TPS=%.2f", count, elapsedTS,
+                    (count * 1000.00D) / elapsedTS));
+        }
+
+        System.out.println("=================== do SM2 verify test with cached public key ===================");
+        for (int r = 0; r < 5; r++) {
+            System.out.println("------------- round[" + r + "] --------------");
+            long startTS = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                SM2Utils.verify(data,pubKeyBytes,sm2Digest);
+            }
+            long elapsedTS = System.currentTimeMillis() - startTS;
+            System.out.println(String.format("SM2 Verifying Count=%s; Elapsed Times=%s; TPS=%.2f", count, elapsedTS,
+                    (count * 1000.00D) / elapsedTS));
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.jd.blockchain.gateway;
 
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 
@@ -9,4 +10,6 @@ public interface PeerService {
 	
 	TransactionService getTransactionService();
 	
+	BlockchainEventQueryService getEventQueryService();
+	
 }
@@ -8,6 +8,7 @@ import com.jd.blockchain.crypto.AsymmetricKeypair;
 import com.jd.blockchain.gateway.PeerConnector;
 import com.jd.blockchain.gateway.PeerService;
 import com.jd.blockchain.sdk.service.PeerBlockchainServiceFactory;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 import com.jd.blockchain.utils.net.NetworkAddress;
@@ -89,6 +90,15 @@ public class PeerConnectionManager implements PeerService, PeerConnector {
 		return serviceFactory.getTransactionService();
 	}
 
+	@Override
+	public BlockchainEventQueryService getEventQueryService() {
+		PeerBlockchainServiceFactory serviceFactory = this.peerServiceFactory;
+		if (serviceFactory == null) {
+			throw new IllegalStateException("Peer connection was closed!");
+		}
+		return serviceFactory.getEventQueryService();
+	}
+
 	@PreDestroy
 	private void destroy() {
 		close();
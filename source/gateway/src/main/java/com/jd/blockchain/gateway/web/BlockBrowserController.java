@@ -21,6 +21,7 @@ import com.jd.blockchain.crypto.PubKey;
 import com.jd.blockchain.gateway.PeerService;
 import com.jd.blockchain.gateway.service.DataRetrievalService;
 import com.jd.blockchain.gateway.service.GatewayQueryService;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.ContractInfo;
 import com.jd.blockchain.ledger.KVInfoVO;
@@ -629,4 +630,37 @@ public class BlockBrowserController implements BlockchainExtendQueryService {
 //		}
 //		return accounts;
 //	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/count")
+	@Override
+	public long getAccountHistoryCount(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address) {
+		return peerService.getQueryService().getAccountHistoryCount(ledgerHash, address);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}")
+	@Override
+	public AccountHistoryEntry[] getAccountHistory(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address,
+			@RequestParam(name = "fromIndex", required = false, defaultValue = "0") int fromIndex,
+			@RequestParam(name = "count", required = false, defaultValue = "-1") int count) {
+		return peerService.getQueryService().getAccountHistory(ledgerHash, address, fromIndex, count);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries/count")
+	@Override
+	public long getDataEntryHistoryCount(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address, @RequestParam(name = "key") String key) {
+		return peerService.getQueryService().getDataEntryHistoryCount(ledgerHash, address, key);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries")
+	@Override
+	public AccountHistoryEntry[] getDataEntryHistory(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address, @RequestParam(name = "key") String key,
+			@RequestParam(name = "fromIndex", required = false, defaultValue = "0") int fromIndex,
+			@RequestParam(name = "count", required = false, defaultValue = "-1") int count) {
+		return peerService.getQueryService().getDataEntryHistory(ledgerHash, address, key, fromIndex, count);
+	}
+
 }
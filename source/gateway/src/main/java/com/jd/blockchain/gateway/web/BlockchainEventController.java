@@ -0,0 +1,100 @@
+package com.jd.blockchain.gateway.web;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.gateway.PeerService;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.utils.concurrent.NamedThreadFactory;
+
+/**
+ * 转发区块链事件的长轮询查询到共识节点；<br>
+ * 
+ * 转发在专用的线程池中异步进行，不占用 Web 容器的线程；同时等待的请求超过上限时拒绝新的长轮询；
+ * 
+ * @author huanghaiquan
+ *
+ */
+@RestController
+@RequestMapping(path = "/")
+public class BlockchainEventController {
+
+	/**
+	 * 同时等待的长轮询的最大数量，也是转发线程的最大数量；
+	 */
+	private static final int MAX_SUBSCRIBERS;
+
+	/**
+	 * 共识节点的长轮询的最长等待时间（毫秒）；
+	 */
+	private static final long MAX_TIMEOUT = 30000;
+
+	/**
+	 * 请求超时的余量（毫秒），使共识节点先以游标完成请求；
+	 */
+	private static final long TIMEOUT_MARGIN = 10000;
+
+	static {
+		MAX_SUBSCRIBERS = Integer.parseInt(System.getProperty("event-max-subscribers", "256"));
+		System.out.println("------ [[ event-max-subscribers=" + MAX_SUBSCRIBERS + " ]] ------");
+	}
+
+	private final AtomicInteger subscribers = new AtomicInteger();
+
+	private final ThreadPoolExecutor forwardingExecutor = new ThreadPoolExecutor(MAX_SUBSCRIBERS, MAX_SUBSCRIBERS,
+			60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("blockchain-event-forwarding",
+					true, true));
+
+	private final TaskExecutorAdapter taskExecutor = new TaskExecutorAdapter(forwardingExecutor);
+
+	@Autowired
+	private PeerService peerService;
+
+	public BlockchainEventController() {
+		forwardingExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/events")
+	public WebAsyncTask<BlockchainEventPage> getEvents(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@RequestParam(name = "fromHeight", required = false, defaultValue = "-1") long fromHeight,
+			@RequestParam(name = "maxCount", required = false, defaultValue = "100") int maxCount,
+			@RequestParam(name = "timeout", required = false, defaultValue = "0") long timeout,
+			@RequestParam(name = "eventTypes", required = false, defaultValue = "0") int eventTypes,
+			@RequestParam(name = "txHash", required = false) String txHash,
+			@RequestParam(name = "accountAddress", required = false) String accountAddress) {
+		if (subscribers.incrementAndGet() > MAX_SUBSCRIBERS) {
+			subscribers.decrementAndGet();
+			throw new IllegalStateException("Too many blockchain event subscribers! --[Max=" + MAX_SUBSCRIBERS + "]");
+		}
+		WebAsyncTask<BlockchainEventPage> task = new WebAsyncTask<>(MAX_TIMEOUT + TIMEOUT_MARGIN, taskExecutor,
+				() -> {
+					try {
+						return peerService.getEventQueryService().getEvents(ledgerHash, fromHeight, maxCount,
+								timeout, eventTypes, txHash, accountAddress);
+					} finally {
+						subscribers.decrementAndGet();
+					}
+				});
+		return task;
+	}
+
+	@PreDestroy
+	private void destroy() {
+		forwardingExecutor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,269 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 只读账户的缓存；<br>
+ *
+ * 以“账户集合前缀 + 账户地址 + 账户根哈希”为键，缓存从存储加载的只读账户（包括账户的身份以及各个数据集的根）；<br>
+ * 账户的根哈希不变时，账户的内容也不变，因此同一个账户在不同的请求以及不同的区块之间可以复用同一个实例；<br>
+ *
+ * 缓存按照数量和存活时间限制容量：<br>
+ * 1、条目分散到多个分段中，每个分段独立加锁，超出容量时按照最近最少使用（LRU）的顺序淘汰；<br>
+ * 2、条目在放入之后超过存活时间即失效，在下一次访问时移除；<br>
+ *
+ * 加载在锁之外进行，并发地加载同一个账户时可能重复加载，以先放入缓存的实例为准；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class AccountCache {
+
+	private static final int SEGMENT_COUNT = 16;
+
+	private final int capacity;
+
+	private final long ttlMillis;
+
+	private final Segment[] segments;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong expirationCount = new AtomicLong();
+
+	/**
+	 * @param capacity  缓存的账户的最大数量；小于等于 0 时不缓存任何账户；
+	 * @param ttlMillis 账户的存活时间，单位毫秒；小于等于 0 时不限制存活时间；
+	 */
+	public AccountCache(int capacity, long ttlMillis) {
+		this.capacity = capacity;
+		this.ttlMillis = ttlMillis;
+		this.segments = new Segment[SEGMENT_COUNT];
+		int segmentCapacity = Math.max(1, (Math.max(capacity, 0) + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * 返回缓存的账户；如果不存在或者已经过期，则通过指定的加载器加载并缓存；
+	 *
+	 * @param setPrefix 账户集合的前缀；
+	 * @param address   账户地址；
+	 * @param rootHash  账户的根哈希；
+	 * @param loader    账户的加载器；
+	 * @return
+	 */
+	public MerkleAccount get(Bytes setPrefix, Bytes address, HashDigest rootHash, Supplier<MerkleAccount> loader) {
+		if (capacity <= 0) {
+			missCount.incrementAndGet();
+			return loader.get();
+		}
+		AccountKey key = new AccountKey(setPrefix, address, rootHash);
+		Segment segment = segmentOf(key);
+		long now = System.currentTimeMillis();
+		synchronized (segment) {
+			CachedAccount cached = segment.get(key);
+			if (cached != null) {
+				if (!isExpired(cached, now)) {
+					hitCount.incrementAndGet();
+					return cached.account;
+				}
+				segment.remove(key);
+				expirationCount.incrementAndGet();
+			}
+		}
+		missCount.incrementAndGet();
+		MerkleAccount account = loader.get();
+		if (account == null) {
+			return null;
+		}
+		synchronized (segment) {
+			CachedAccount existing = segment.get(key);
+			if (existing != null && !isExpired(existing, now)) {
+				return existing.account;
+			}
+			segment.put(key, new CachedAccount(account, now));
+		}
+		return account;
+	}
+
+	private boolean isExpired(CachedAccount cached, long now) {
+		return ttlMillis > 0 && now - cached.cachedTime >= ttlMillis;
+	}
+
+	private Segment segmentOf(AccountKey key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	/**
+	 * 缓存的账户的最大数量；
+	 *
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 账户的存活时间，单位毫秒；
+	 *
+	 * @return
+	 */
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * 已缓存的账户的数量；包括已经过期但尚未移除的账户；
+	 *
+	 * @return
+	 */
+	public int getCount() {
+		int count = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				count += segment.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 命中的次数；
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 未命中的次数；
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 命中率；尚未有访问时返回 0；
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * 因超出容量而淘汰的账户的数量；
+	 *
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * 因超过存活时间而移除的账户的数量；
+	 *
+	 * @return
+	 */
+	public long getExpirationCount() {
+		return expirationCount.get();
+	}
+
+	/**
+	 * 清空缓存；统计计数不受影响；
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	private static class AccountKey {
+
+		private final Bytes setPrefix;
+
+		private final Bytes address;
+
+		private final HashDigest rootHash;
+
+		private final int hashCode;
+
+		public AccountKey(Bytes setPrefix, Bytes address, HashDigest rootHash) {
+			this.setPrefix = setPrefix;
+			this.address = address;
+			this.rootHash = rootHash;
+			this.hashCode = (setPrefix.hashCode() * 31 + address.hashCode()) * 31 + rootHash.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof AccountKey)) {
+				return false;
+			}
+			AccountKey other = (AccountKey) obj;
+			return hashCode == other.hashCode && rootHash.equals(other.rootHash) && address.equals(other.address)
+					&& setPrefix.equals(other.setPrefix);
+		}
+	}
+
+	private static class CachedAccount {
+
+		private final MerkleAccount account;
+
+		private final long cachedTime;
+
+		public CachedAccount(MerkleAccount account, long cachedTime) {
+			this.account = account;
+			this.cachedTime = cachedTime;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private class Segment extends LinkedHashMap<AccountKey, CachedAccount> {
+
+		private final int segmentCapacity;
+
+		public Segment(int segmentCapacity) {
+			super(16, 0.75f, true);
+			this.segmentCapacity = segmentCapacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<AccountKey, CachedAccount> eldest) {
+			if (size() > segmentCapacity) {
+				evictionCount.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jd.blockchain.ledger.AccountHistoryEntry;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation.KVWriteEntry;
+import com.jd.blockchain.ledger.Operation;
+import com.jd.blockchain.ledger.core.handles.OperationAccounts;
+import com.jd.blockchain.storage.service.ExPolicyKVStorage;
+import com.jd.blockchain.storage.service.ExPolicyKVStorage.ExPolicy;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 账户历史的二级索引；<br>
+ *
+ * 记录每个账户（以及数据账户的每个键）被哪些成功交易变更过，由区块就绪时写入，只追加不修改；<br>
+ *
+ * 每个账户的记录以序号连续存储，另有一个计数键记录记录的总数；键的格式为：<br>
+ * 计数：前缀 + 地址长度 + 地址 + [键长度 + 键] + "N"；<br>
+ * 记录：前缀 + 地址长度 + 地址 + [键长度 + 键] + "E" + 序号；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class AccountHistoryIndex {
+
+	private static final Bytes INDEX_PREFIX = Bytes.fromString("AHI" + LedgerConsts.KEY_SEPERATOR);
+
+	private static final byte ACCOUNT_MARKER = 'A';
+
+	private static final byte DATA_KEY_MARKER = 'K';
+
+	private static final byte[] COUNT_SUFFIX = { 'N' };
+
+	private static final byte ENTRY_SUFFIX = 'E';
+
+	private static final int ENTRY_SIZE = 8 + 4 + 8;
+
+	private static final AccountHistoryEntry[] EMPTY_ENTRIES = new AccountHistoryEntry[0];
+
+	private final Bytes indexPrefix;
+
+	private final ExPolicyKVStorage storage;
+
+	public AccountHistoryIndex(String keyPrefix, ExPolicyKVStorage storage) {
+		this.indexPrefix = Bytes.fromString(keyPrefix).concat(INDEX_PREFIX);
+		this.storage = storage;
+	}
+
+	/**
+	 * 账户的变更记录的总数；
+	 *
+	 * @param address
+	 * @return
+	 */
+	public long getCount(Bytes address) {
+		return readCount(encodeBaseKey(address, null));
+	}
+
+	/**
+	 * 数据账户的键的变更记录的总数；
+	 *
+	 * @param address
+	 * @param key
+	 * @return
+	 */
+	public long getCount(Bytes address, String key) {
+		return readCount(encodeBaseKey(address, key));
+	}
+
+	/**
+	 * 按写入的顺序返回账户的变更记录；
+	 *
+	 * @param address
+	 * @param fromIndex 起始序号，从 0 开始；
+	 * @param count     最大数量；
+	 * @return
+	 */
+	public AccountHistoryEntry[] getEntries(Bytes address, int fromIndex, int count) {
+		return readEntries(encodeBaseKey(address, null), fromIndex, count);
+	}
+
+	/**
+	 * 按写入的顺序返回数据账户的键的变更记录；
+	 *
+	 * @param address
+	 * @param key
+	 * @param fromIndex 起始序号，从 0 开始；
+	 * @param count     最大数量；
+	 * @return
+	 */
+	public AccountHistoryEntry[] getEntries(Bytes address, String key, int fromIndex, int count) {
+		return readEntries(encodeBaseKey(address, key), fromIndex, count);
+	}
+
+	private long readCount(Bytes baseKey) {
+		byte[] countBytes = storage.get(baseKey.concat(COUNT_SUFFIX));
+		return countBytes == null ? 0 : BytesUtils.toLong(countBytes);
+	}
+
+	private AccountHistoryEntry[] readEntries(Bytes baseKey, int fromIndex, int count) {
+		long total = readCount(baseKey);
+		if (fromIndex < 0 || count <= 0 || fromIndex >= total) {
+			return EMPTY_ENTRIES;
+		}
+		int size = (int) Math.min(count, total - fromIndex);
+		Bytes[] entryKeys = new Bytes[size];
+		for (int i = 0; i < size; i++) {
+			entryKeys[i] = encodeEntryKey(baseKey, fromIndex + i);
+		}
+		byte[][] values = storage.multiGet(entryKeys);
+		AccountHistoryEntry[] entries = new AccountHistoryEntry[size];
+		for (int i = 0; i < size; i++) {
+			if (values[i] == null) {
+				throw new IllegalStateException("Account history entry is missing! --[Index=" + (fromIndex + i) + "]");
+			}
+			entries[i] = decodeEntry(values[i]);
+		}
+		return entries;
+	}
+
+	private Bytes encodeBaseKey(Bytes address, String key) {
+		byte[] addressBytes = address.toBytes();
+		byte[] keyBytes = key == null ? null : BytesUtils.toBytes(key);
+		int length = 4 + addressBytes.length + 1 + (keyBytes == null ? 0 : 4 + keyBytes.length);
+		byte[] bytes = new byte[length];
+		int offset = BytesUtils.toBytes(addressBytes.length, bytes, 0);
+		System.arraycopy(addressBytes, 0, bytes, offset, addressBytes.length);
+		offset += addressBytes.length;
+		if (keyBytes == null) {
+			bytes[offset] = ACCOUNT_MARKER;
+		} else {
+			bytes[offset++] = DATA_KEY_MARKER;
+			offset += BytesUtils.toBytes(keyBytes.length, bytes, offset);
+			System.arraycopy(keyBytes, 0, bytes, offset, keyBytes.length);
+		}
+		return indexPrefix.concat(bytes);
+	}
+
+	private static Bytes encodeEntryKey(Bytes baseKey, long index) {
+		byte[] suffix = new byte[9];
+		suffix[0] = ENTRY_SUFFIX;
+		BytesUtils.toBytes(index, suffix, 1);
+		return baseKey.concat(suffix);
+	}
+
+	private static byte[] encodeEntry(long blockHeight, int txIndex, long version) {
+		byte[] bytes = new byte[ENTRY_SIZE];
+		BytesUtils.toBytes(blockHeight, bytes, 0);
+		BytesUtils.toBytes(txIndex, bytes, 8);
+		BytesUtils.toBytes(version, bytes, 12);
+		return bytes;
+	}
+
+	private static AccountHistoryEntry decodeEntry(byte[] bytes) {
+		return new AccountHistoryEntry(BytesUtils.toLong(bytes, 0), BytesUtils.toInt(bytes, 8),
+				BytesUtils.toLong(bytes, 12));
+	}
+
+	/**
+	 * 创建区块的索引写入器；
+	 *
+	 * @param blockHeight
+	 * @return
+	 */
+	BlockWriter newBlockWriter(long blockHeight) {
+		return new BlockWriter(blockHeight);
+	}
+
+	/**
+	 * 在区块内暂存变更记录，区块就绪时一次性写入；<br>
+	 *
+	 * 每个账户的计数在一个区块内只更新一次；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	class BlockWriter {
+
+		private final long blockHeight;
+
+		private final Map<Bytes, List<byte[]>> pendingEntries = new LinkedHashMap<>();
+
+		private BlockWriter(long blockHeight) {
+			this.blockHeight = blockHeight;
+		}
+
+		/**
+		 * 记录成功交易变更的账户和数据账户的键；
+		 *
+		 * @param txIndex    交易在区块中的序号；
+		 * @param operations 交易实际执行的操作，包括合约执行时产生的操作；
+		 */
+		void record(int txIndex, List<Operation> operations) {
+			for (Bytes address : OperationAccounts.resolve(operations).keySet()) {
+				append(encodeBaseKey(address, null), encodeEntry(blockHeight, txIndex, -1));
+			}
+			for (Operation op : operations) {
+				if (!(op instanceof DataAccountKVSetOperation)) {
+					continue;
+				}
+				DataAccountKVSetOperation kvSetOp = (DataAccountKVSetOperation) op;
+				for (KVWriteEntry kvWrite : kvSetOp.getWriteSet()) {
+					append(encodeBaseKey(kvSetOp.getAccountAddress(), kvWrite.getKey()),
+							encodeEntry(blockHeight, txIndex, kvWrite.getExpectedVersion() + 1));
+				}
+			}
+		}
+
+		private void append(Bytes baseKey, byte[] entry) {
+			pendingEntries.computeIfAbsent(baseKey, k -> new ArrayList<>()).add(entry);
+		}
+
+		/**
+		 * 把暂存的变更记录写入存储；
+		 */
+		void write() {
+			for (Map.Entry<Bytes, List<byte[]>> pending : pendingEntries.entrySet()) {
+				Bytes baseKey = pending.getKey();
+				long count = readCount(baseKey);
+				for (byte[] entry : pending.getValue()) {
+					if (!storage.set(encodeEntryKey(baseKey, count), entry, ExPolicy.NOT_EXISTING)) {
+						throw new IllegalStateException(
+								"Account history entry already exist! --[Index=" + count + "]");
+					}
+					count++;
+				}
+				ExPolicy countPolicy = count == pending.getValue().size() ? ExPolicy.NOT_EXISTING : ExPolicy.EXISTING;
+				if (!storage.set(baseKey.concat(COUNT_SUFFIX), BytesUtils.toBytes(count), countPolicy)) {
+					throw new IllegalStateException("Account history count was concurrently modified!");
+				}
+			}
+			pendingEntries.clear();
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.hash.BloomFilter;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 区块的布隆过滤器；<br>
+ *
+ * 包括区块中全部交易的内容哈希，以及成功交易写入的账户地址；在区块就绪时计算，和区块一起存储，不参与区块哈希的计算；<br>
+ *
+ * 用于在扫描区块时快速排除与指定交易或者账户无关的区块，而不必解码区块的交易集合；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BlockBloomFilter {
+
+	/**
+	 * 误判率；
+	 */
+	public static final double FPP = 0.01;
+
+	private final BloomFilter txFilter;
+
+	private final BloomFilter accountFilter;
+
+	private BlockBloomFilter(BloomFilter txFilter, BloomFilter accountFilter) {
+		this.txFilter = txFilter;
+		this.accountFilter = accountFilter;
+	}
+
+	/**
+	 * 创建区块的布隆过滤器；
+	 *
+	 * @param txHashes         区块中的交易的内容哈希；
+	 * @param accountAddresses 区块中的成功交易写入的账户地址；
+	 * @return
+	 */
+	public static BlockBloomFilter create(Collection<HashDigest> txHashes, Collection<Bytes> accountAddresses) {
+		BloomFilter txFilter = BloomFilter.create(txHashes.size(), FPP);
+		for (HashDigest txHash : txHashes) {
+			txFilter.add(txHash.toBytes());
+		}
+		BloomFilter accountFilter = BloomFilter.create(accountAddresses.size(), FPP);
+		for (Bytes address : accountAddresses) {
+			accountFilter.add(address.toBytes());
+		}
+		return new BlockBloomFilter(txFilter, accountFilter);
+	}
+
+	/**
+	 * 区块是否可能包含指定的交易；返回 false 时一定不包含；
+	 *
+	 * @param txHash 交易的内容哈希；
+	 * @return
+	 */
+	public boolean mightContainTransaction(HashDigest txHash) {
+		return txFilter.mightContain(txHash.toBytes());
+	}
+
+	/**
+	 * 区块是否可能写入了指定的账户；返回 false 时一定没有写入；
+	 *
+	 * @param address 账户地址；
+	 * @return
+	 */
+	public boolean mightContainAccount(Bytes address) {
+		return accountFilter.mightContain(address.toBytes());
+	}
+
+	public BloomFilter getTxFilter() {
+		return txFilter;
+	}
+
+	public BloomFilter getAccountFilter() {
+		return accountFilter;
+	}
+
+	/**
+	 * 编码为字节数组；<br>
+	 *
+	 * 格式为：交易过滤器的长度（4 字节）+ 交易过滤器 + 账户过滤器；
+	 *
+	 * @return
+	 */
+	public byte[] toBytes() {
+		byte[] txBytes = txFilter.toBytes();
+		byte[] accountBytes = accountFilter.toBytes();
+		byte[] bytes = new byte[4 + txBytes.length + accountBytes.length];
+		BytesUtils.toBytes(txBytes.length, bytes, 0);
+		System.arraycopy(txBytes, 0, bytes, 4, txBytes.length);
+		System.arraycopy(accountBytes, 0, bytes, 4 + txBytes.length, accountBytes.length);
+		return bytes;
+	}
+
+	/**
+	 * 按升序扫描指定高度范围内的区块，返回布隆过滤器满足条件或者没有布隆过滤器的区块的高度；
+	 * 
+	 * @param ledger
+	 * @param fromHeight
+	 * @param toHeight
+	 * @param condition
+	 * @return
+	 */
+	static long[] scan(LedgerQuery ledger, long fromHeight, long toHeight, Predicate<BlockBloomFilter> condition) {
+		long from = Math.max(0, fromHeight);
+		long to = Math.min(toHeight, ledger.getLatestBlockHeight());
+		if (from > to) {
+			return new long[0];
+		}
+		long[] heights = new long[(int) Math.min(to - from + 1, 64)];
+		int count = 0;
+		for (long height = from; height <= to; height++) {
+			BlockBloomFilter filter = ledger.getBlockBloomFilter(ledger.getBlockHash(height));
+			if (filter == null || condition.test(filter)) {
+				if (count == heights.length) {
+					heights = Arrays.copyOf(heights, count * 2);
+				}
+				heights[count++] = height;
+			}
+		}
+		return count == heights.length ? heights : Arrays.copyOf(heights, count);
+	}
+
+	public static BlockBloomFilter fromBytes(byte[] bytes) {
+		int txLength = BytesUtils.toInt(bytes, 0);
+		if (txLength < 0 || 4 + txLength > bytes.length) {
+			throw new IllegalArgumentException("Illegal block bloom filter bytes!");
+		}
+		BloomFilter txFilter = BloomFilter.fromBytes(bytes, 4, txLength);
+		BloomFilter accountFilter = BloomFilter.fromBytes(bytes, 4 + txLength, bytes.length - 4 - txLength);
+		return new BlockBloomFilter(txFilter, accountFilter);
+	}
+
+}
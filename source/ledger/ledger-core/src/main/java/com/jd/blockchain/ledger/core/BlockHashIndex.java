@@ -0,0 +1,66 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.Arrays;
+
+import com.jd.blockchain.crypto.HashDigest;
+
+/**
+ * 区块高度到区块哈希的索引；<br>
+ *
+ * 已提交区块的高度索引是不可变的，因此读取过的哈希可以一直保留；<br>
+ * 索引以固定大小的分块数组保存，分块在首次写入时分配，按高度直接定位，不需要哈希查找；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BlockHashIndex {
+
+	private static final int CHUNK_BITS = 12;
+
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private volatile HashDigest[][] chunks = new HashDigest[16][];
+
+	/**
+	 * 返回指定高度的区块哈希；未加载时返回 null；
+	 *
+	 * @param height
+	 * @return
+	 */
+	public HashDigest get(long height) {
+		long chunkIndex = height >>> CHUNK_BITS;
+		HashDigest[][] chunks = this.chunks;
+		if (height < 0 || chunkIndex >= chunks.length) {
+			return null;
+		}
+		HashDigest[] chunk = chunks[(int) chunkIndex];
+		return chunk == null ? null : chunk[(int) (height & CHUNK_MASK)];
+	}
+
+	/**
+	 * 记录指定高度的区块哈希；
+	 *
+	 * @param height
+	 * @param blockHash
+	 */
+	public synchronized void put(long height, HashDigest blockHash) {
+		if (height < 0) {
+			return;
+		}
+		int chunkIndex = (int) (height >>> CHUNK_BITS);
+		HashDigest[][] chunks = this.chunks;
+		if (chunkIndex >= chunks.length) {
+			chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunkIndex + 1));
+		}
+		HashDigest[] chunk = chunks[chunkIndex];
+		if (chunk == null) {
+			chunk = new HashDigest[CHUNK_SIZE];
+			chunks[chunkIndex] = chunk;
+		}
+		chunk[(int) (height & CHUNK_MASK)] = blockHash;
+		// 通过 volatile 写发布新的分块；
+		this.chunks = chunks;
+	}
+}
@@ -0,0 +1,167 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.jd.blockchain.crypto.HashDigest;
+
+/**
+ * 历史区块的只读状态的缓存；<br>
+ *
+ * 以区块哈希为键，缓存由区块加载的只读数据集等对象；已提交的区块是不可变的，因此缓存的状态无需失效，只需按照容量淘汰；<br>
+ *
+ * 数据集只在被访问时才从存储加载默克尔树的节点，而加载的节点由账本共享的 {@link MerkleNodeCache}
+ * 缓存，因此每个状态本身占用的内存是相近的，缓存以状态的数量限制容量，超出容量时按照最近最少使用（LRU）的顺序淘汰；<br>
+ *
+ * 加载在锁之外进行，并发地加载同一个区块时可能重复加载，以先放入缓存的实例为准；
+ *
+ * @author huanghaiquan
+ *
+ * @param <V> 缓存的状态的类型；
+ */
+public class BlockStateCache<V> {
+
+	private final int capacity;
+
+	private final LinkedHashMap<HashDigest, V> states;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * @param capacity 缓存的区块状态的最大数量；小于等于 0 时不缓存任何状态；
+	 */
+	@SuppressWarnings("serial")
+	public BlockStateCache(int capacity) {
+		this.capacity = capacity;
+		this.states = new LinkedHashMap<HashDigest, V>(Math.min(Math.max(capacity, 0), 64), 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<HashDigest, V> eldest) {
+				if (size() > BlockStateCache.this.capacity) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * 返回缓存的区块状态；如果不存在，则通过指定的加载器加载并缓存；
+	 *
+	 * @param blockHash 区块哈希；
+	 * @param loader    状态的加载器；
+	 * @return
+	 */
+	public V get(HashDigest blockHash, Function<HashDigest, V> loader) {
+		if (capacity <= 0) {
+			missCount.incrementAndGet();
+			return loader.apply(blockHash);
+		}
+		V state;
+		synchronized (states) {
+			state = states.get(blockHash);
+		}
+		if (state != null) {
+			hitCount.incrementAndGet();
+			return state;
+		}
+		missCount.incrementAndGet();
+		state = loader.apply(blockHash);
+		synchronized (states) {
+			V existing = states.get(blockHash);
+			if (existing != null) {
+				return existing;
+			}
+			states.put(blockHash, state);
+		}
+		return state;
+	}
+
+	/**
+	 * 放入已经加载的区块状态；
+	 *
+	 * @param blockHash 区块哈希；
+	 * @param state     区块状态；
+	 */
+	public void put(HashDigest blockHash, V state) {
+		if (capacity <= 0) {
+			return;
+		}
+		synchronized (states) {
+			states.put(blockHash, state);
+		}
+	}
+
+	/**
+	 * 缓存的区块状态的最大数量；
+	 *
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 已缓存的区块状态的数量；
+	 *
+	 * @return
+	 */
+	public int getCount() {
+		synchronized (states) {
+			return states.size();
+		}
+	}
+
+	/**
+	 * 命中的次数；
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 未命中的次数；
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 命中率；尚未有访问时返回 0；
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * 因超出容量而淘汰的区块状态的数量；
+	 *
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * 清空缓存；统计计数不受影响；
+	 */
+	public void clear() {
+		synchronized (states) {
+			states.clear();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.jd.blockchain.ledger.core;
+
+/**
+ * 从存储读取区块时的校验策略；<br>
+ *
+ * 校验包括重新计算区块哈希，以及检查高度索引与区块是否一致；
+ *
+ * @author huanghaiquan
+ *
+ */
+public enum BlockVerificationPolicy {
+
+	/**
+	 * 每次读取都从存储加载并校验区块，不使用区块缓存；
+	 */
+	ALWAYS,
+
+	/**
+	 * 区块在首次从存储加载时校验，之后从缓存读取时不再校验；
+	 */
+	FIRST_LOAD,
+
+	/**
+	 * 从存储加载的区块按照采样间隔抽样校验，之后从缓存读取时不再校验；
+	 */
+	SAMPLED;
+
+	/**
+	 * 解析策略；可选 always、first、sampled，忽略大小写；
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static BlockVerificationPolicy resolve(String name) {
+		switch (name.toLowerCase()) {
+		case "always":
+			return ALWAYS;
+		case "first":
+		case "first_load":
+			return FIRST_LOAD;
+		case "sampled":
+			return SAMPLED;
+		default:
+			throw new IllegalArgumentException("Unsupported block verification policy: " + name);
+		}
+	}
+}
@@ -23,8 +23,14 @@ public class ContractAccountSet implements Transactional, ContractAccountQuery {
 	public ContractAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String prefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
 			AccountAccessPolicy accessPolicy) {
+		this(dataRootHash, cryptoSetting, prefix, exStorage, verStorage, readonly, accessPolicy, null);
+	}
+
+	public ContractAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String prefix,
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
+			AccountAccessPolicy accessPolicy, MerkleNodeCache nodeCache) {
 		accountSet = new MerkleAccountSet(dataRootHash, cryptoSetting, Bytes.fromString(prefix), exStorage, verStorage,
-				readonly, accessPolicy);
+				readonly, accessPolicy, nodeCache);
 	}
 
 	@Override
@@ -40,6 +46,22 @@ public class ContractAccountSet implements Transactional, ContractAccountQuery {
 		accountSet.setReadonly();
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		accountSet.setUndoLog(undoLog);
+	}
+
+	void setReadWriteSet(ReadWriteSet readWriteSet) {
+		accountSet.setReadWriteSet(readWriteSet);
+	}
+
+	void setAccountCache(AccountCache accountCache) {
+		accountSet.setAccountCache(accountCache);
+	}
+
+	void adopt(ContractAccountSet speculativeSet) {
+		accountSet.adopt(speculativeSet.accountSet);
+	}
+
 	@Override
 	public HashDigest getRootHash() {
 		return accountSet.getRootHash();
@@ -128,4 +150,4 @@ public class ContractAccountSet implements Transactional, ContractAccountQuery {
 		accountSet.cancel();
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
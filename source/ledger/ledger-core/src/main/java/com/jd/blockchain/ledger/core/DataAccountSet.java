@@ -23,8 +23,14 @@ public class DataAccountSet implements Transactional, DataAccountQuery {
 	public DataAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String prefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
 			AccountAccessPolicy accessPolicy) {
+		this(dataRootHash, cryptoSetting, prefix, exStorage, verStorage, readonly, accessPolicy, null);
+	}
+
+	public DataAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String prefix,
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
+			AccountAccessPolicy accessPolicy, MerkleNodeCache nodeCache) {
 		accountSet = new MerkleAccountSet(dataRootHash, cryptoSetting, Bytes.fromString(prefix), exStorage, verStorage,
-				readonly, accessPolicy);
+				readonly, accessPolicy, nodeCache);
 	}
 
 	@Override
@@ -40,6 +46,22 @@ public class DataAccountSet implements Transactional, DataAccountQuery {
 		accountSet.setReadonly();
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		accountSet.setUndoLog(undoLog);
+	}
+
+	void setReadWriteSet(ReadWriteSet readWriteSet) {
+		accountSet.setReadWriteSet(readWriteSet);
+	}
+
+	void setAccountCache(AccountCache accountCache) {
+		accountSet.setAccountCache(accountCache);
+	}
+
+	void adopt(DataAccountSet speculativeSet) {
+		accountSet.adopt(speculativeSet.accountSet);
+	}
+
 	@Override
 	public HashDigest getRootHash() {
 		return accountSet.getRootHash();
@@ -110,4 +132,4 @@ public class DataAccountSet implements Transactional, DataAccountQuery {
 	public void cancel() {
 		accountSet.cancel();
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -83,6 +83,8 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 
 	private boolean updated;
 
+	private UndoLog undoLog;
+
 	public HashDigest getHash() {
 		return adminDataHash;
 	}
@@ -95,6 +97,13 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 		this.readonly = true;
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		this.undoLog = undoLog;
+		participants.setUndoLog(undoLog);
+		rolePrivileges.setUndoLog(undoLog);
+		userRoles.setUndoLog(undoLog);
+	}
+
 	public LedgerSettings getPreviousSetting() {
 		return previousSettings;
 	}
@@ -142,7 +151,7 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 		this.metadata.setSeed(initSetting.getLedgerSeed());
 		// 新配置；
 		this.settings = new LedgerConfiguration(initSetting.getConsensusProvider(), initSetting.getConsensusSettings(),
-				initSetting.getCryptoSetting());
+				initSetting.getCryptoSetting(), initSetting.getBlockIsolation());
 		this.previousSettings = new LedgerConfiguration(settings);
 		this.previousSettingHash = null;
 		this.adminDataHash = null;
@@ -171,6 +180,11 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 
 	public LedgerAdminDataset(HashDigest adminAccountHash, String keyPrefix, ExPolicyKVStorage kvStorage,
 			VersioningKVStorage versioningKVStorage, boolean readonly) {
+		this(adminAccountHash, keyPrefix, kvStorage, versioningKVStorage, readonly, null);
+	}
+
+	public LedgerAdminDataset(HashDigest adminAccountHash, String keyPrefix, ExPolicyKVStorage kvStorage,
+			VersioningKVStorage versioningKVStorage, boolean readonly, MerkleNodeCache nodeCache) {
 		this.metaPrefix = Bytes.fromString(keyPrefix + LEDGER_META_PREFIX);
 		this.settingPrefix = Bytes.fromString(keyPrefix + LEDGER_SETTING_PREFIX);
 		this.storage = kvStorage;
@@ -185,15 +199,16 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 
 		String partiPrefix = keyPrefix + LEDGER_PARTICIPANT_PREFIX;
 		this.participants = new ParticipantDataset(metadata.getParticipantsHash(), previousSettings.getCryptoSetting(),
-				partiPrefix, kvStorage, versioningKVStorage, readonly);
+				partiPrefix, kvStorage, versioningKVStorage, readonly, nodeCache);
 
 		String rolePrivilegePrefix = keyPrefix + ROLE_PRIVILEGE_PREFIX;
 		this.rolePrivileges = new RolePrivilegeDataset(metadata.getRolePrivilegesHash(),
-				previousSettings.getCryptoSetting(), rolePrivilegePrefix, kvStorage, versioningKVStorage, readonly);
+				previousSettings.getCryptoSetting(), rolePrivilegePrefix, kvStorage, versioningKVStorage, readonly,
+				nodeCache);
 
 		String userRolePrefix = keyPrefix + USER_ROLE_PREFIX;
 		this.userRoles = new UserRoleDataset(metadata.getUserRolesHash(), previousSettings.getCryptoSetting(),
-				userRolePrefix, kvStorage, versioningKVStorage, readonly);
+				userRolePrefix, kvStorage, versioningKVStorage, readonly, nodeCache);
 	}
 
 	private LedgerSettings loadAndVerifySettings(HashDigest settingsHash) {
@@ -283,6 +298,14 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 		if (readonly) {
 			throw new IllegalArgumentException("This merkle dataset is readonly!");
 		}
+		if (undoLog != null) {
+			final LedgerSettings origSettings = settings;
+			final boolean origUpdated = updated;
+			undoLog.record(() -> {
+				settings = origSettings;
+				updated = origUpdated;
+			});
+		}
 		settings = ledgerSetting;
 		updated = true;
 	}
@@ -478,4 +501,4 @@ public class LedgerAdminDataset implements Transactional, LedgerAdminDataQuery,
 		}
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
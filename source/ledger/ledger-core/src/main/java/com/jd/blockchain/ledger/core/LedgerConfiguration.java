@@ -12,6 +12,8 @@ public class LedgerConfiguration implements LedgerSettings {
 
 	private CryptoConfig cryptoSetting;
 
+	private boolean blockIsolation;
+
 	public LedgerConfiguration() {
 		this.cryptoSetting = new CryptoConfig();
 	}
@@ -21,15 +23,18 @@ public class LedgerConfiguration implements LedgerSettings {
 			this.consensusProvider = origSetting.getConsensusProvider();
 			this.consensusSetting = origSetting.getConsensusSetting();
 			this.cryptoSetting = new CryptoConfig(origSetting.getCryptoSetting());
+			this.blockIsolation = origSetting.getBlockIsolation();
 		} else {
 			this.cryptoSetting = new CryptoConfig();
 		}
 	}
 
-	public LedgerConfiguration(String consensusProvider, Bytes consensusSetting, CryptoSetting cryptoSetting) {
+	public LedgerConfiguration(String consensusProvider, Bytes consensusSetting, CryptoSetting cryptoSetting,
+			boolean blockIsolation) {
 		this.consensusProvider = consensusProvider;
 		this.consensusSetting = consensusSetting;
 		this.cryptoSetting = new CryptoConfig(cryptoSetting);
+		this.blockIsolation = blockIsolation;
 	}
 
 	@Override
@@ -55,4 +60,13 @@ public class LedgerConfiguration implements LedgerSettings {
 		this.consensusProvider = consensusProvider;
 	}
 
-}
+	@Override
+	public boolean getBlockIsolation() {
+		return blockIsolation;
+	}
+
+	public void setBlockIsolation(boolean blockIsolation) {
+		this.blockIsolation = blockIsolation;
+	}
+
+}
\ No newline at end of file
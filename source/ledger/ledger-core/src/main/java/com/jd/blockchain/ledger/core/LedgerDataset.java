@@ -94,4 +94,43 @@ public class LedgerDataset implements LedgerDataQuery, Transactional {
 		this.contractAccountSet.setReadonly();
 	}
 
+	/**
+	 * 设置撤销日志，作用于账本的全部数据集；
+	 * 
+	 * @param undoLog
+	 */
+	void setUndoLog(UndoLog undoLog) {
+		this.adminDataset.setUndoLog(undoLog);
+		this.userAccountSet.setUndoLog(undoLog);
+		this.dataAccountSet.setUndoLog(undoLog);
+		this.contractAccountSet.setUndoLog(undoLog);
+	}
+
+	/**
+	 * 设置读写集合，以账户为粒度记录对账户集合的访问；
+	 * 
+	 * @param readWriteSet
+	 */
+	void setReadWriteSet(ReadWriteSet readWriteSet) {
+		this.userAccountSet.setReadWriteSet(readWriteSet);
+		this.dataAccountSet.setReadWriteSet(readWriteSet);
+		this.contractAccountSet.setReadWriteSet(readWriteSet);
+	}
+
+	/**
+	 * 采纳另一个数据集中缓存的最新账户；<br>
+	 * 
+	 * 注：管理数据集的变更不会被采纳；
+	 * 
+	 * @param speculativeDataset 基于相同起点加载并记录了读写集合的数据集；
+	 */
+	void adopt(LedgerDataset speculativeDataset) {
+		if (readonly) {
+			throw new IllegalStateException("Readonly ledger dataset which cann't adopt any change!");
+		}
+		this.userAccountSet.adopt(speculativeDataset.userAccountSet);
+		this.dataAccountSet.adopt(speculativeDataset.dataAccountSet);
+		this.contractAccountSet.adopt(speculativeDataset.contractAccountSet);
+	}
+
 }
\ No newline at end of file
@@ -74,6 +74,39 @@ public interface LedgerEditor {
 	 */
 	LedgerTransactionContext newTransaction(TransactionRequest txRequest);
 
+	/**
+	 * 是否支持交易的推测执行；<br>
+	 * 
+	 * 只有以区块为隔离级别的编辑器支持推测执行；是否以区块为隔离级别由账本设置
+	 * {@link com.jd.blockchain.ledger.LedgerSettings#getBlockIsolation()} 决定，默认不开启；
+	 * 
+	 * @return
+	 */
+	boolean isSpeculationSupported();
+
+	/**
+	 * 以新区块的起点为基础，创建交易的推测执行上下文；<br>
+	 * 
+	 * 此方法是线程安全的，不同的交易可以在多个线程上并发地推测执行；推测执行对数据集的写入不会影响新区块；
+	 * 
+	 * @param txRequest 交易请求；
+	 * @return
+	 */
+	SpeculativeTransactionContext newSpeculativeTransaction(TransactionRequest txRequest);
+
+	/**
+	 * 采纳推测执行的结果，开始新事务；<br>
+	 * 
+	 * 如果推测执行读写的账户已经被新区块中此前提交的交易修改，或者新区块的管理数据已经被修改，则推测执行的结果无效，方法返回 null，
+	 * 此时调用者应通过 {@link #newTransaction(TransactionRequest)} 重新执行该交易；<br>
+	 * 
+	 * 方法返回的事务已包含推测执行的全部写入，调用者可以直接提交或者回滚；
+	 * 
+	 * @param speculation 推测执行上下文；
+	 * @return 采纳推测执行结果的事务；如果推测执行的结果无效，则返回 null；
+	 */
+	LedgerTransactionContext adoptTransaction(SpeculativeTransactionContext speculation);
+
 	/**
 	 * 暂存当前的数据变更，并预提交生成新区块；
 	 * 
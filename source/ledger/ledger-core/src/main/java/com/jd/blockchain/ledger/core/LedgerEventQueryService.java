@@ -0,0 +1,314 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventInfo;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.ledger.BlockchainEventType;
+import com.jd.blockchain.ledger.LedgerBlock;
+import com.jd.blockchain.ledger.LedgerException;
+import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.core.handles.OperationAccounts;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.concurrent.NamedThreadFactory;
+import com.jd.blockchain.utils.concurrent.RuntimeInterruptedException;
+
+/**
+ * 基于账本的区块链事件查询；<br>
+ *
+ * 每个区块产生一个事件，事件码和账户由区块中成功交易的操作计算：<br>
+ * 1、写入数据账户的键值：{@link BlockchainEventType#PAYLOAD_UPDATED}；<br>
+ * 2、部署合约：{@link BlockchainEventType#SCRIPT_UPDATED}；<br>
+ * 3、调用合约：{@link BlockchainEventType#SCRIPT_INVOKED}；<br>
+ * 4、用户授权：{@link BlockchainEventType#PRIVILEGE_UPDATED}；<br>
+ * 5、注册账户和参与方：{@link BlockchainEventType#ACCOUNT_UPDATED}；<br>
+ * 其它操作只产生 {@link BlockchainEventType#TRANSACTION_COMMITED}；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class LedgerEventQueryService implements BlockchainEventQueryService {
+
+	/**
+	 * 每页事件的最大数量；
+	 */
+	public static final int MAX_COUNT = 1000;
+
+	/**
+	 * 每次查询扫描的区块的最大数量，以免过滤条件长期不匹配时一次扫描过多的区块；超过时返回已扫描到的位置作为游标；
+	 */
+	public static final int MAX_SCANNED_BLOCKS = 1000;
+
+	/**
+	 * 长轮询的最长等待时间（毫秒）；
+	 */
+	public static final long MAX_TIMEOUT = 30000;
+
+	private static final BlockchainEventInfo[] EMPTY_EVENTS = new BlockchainEventInfo[0];
+
+	/**
+	 * 异步长轮询的超时定时器；
+	 */
+	private static final ScheduledExecutorService TIMEOUT_TIMER = Executors
+			.newSingleThreadScheduledExecutor(new NamedThreadFactory("blockchain-event-timeout", true));
+
+	private LedgerQuery ledger;
+
+	public LedgerEventQueryService(LedgerQuery ledger) {
+		this.ledger = ledger;
+	}
+
+	@Override
+	public BlockchainEventPage getEvents(HashDigest ledgerHash, long fromHeight, int maxCount, long timeout,
+			int eventTypes, String txHash, String accountAddress) {
+		EventScan scan = new EventScan(ledgerHash, fromHeight, maxCount, timeout, eventTypes, txHash, accountAddress);
+		try {
+			while (true) {
+				long latestHeight = ledger.awaitBlockHeight(scan.height, scan.getRemainingTime());
+				BlockchainEventPage page = scan.scan(latestHeight);
+				if (page != null) {
+					return page;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeInterruptedException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 异步地查询区块链事件；<br>
+	 *
+	 * 与 {@link #getEvents(HashDigest, long, int, long, int, String, String)} 的语义相同，但是等待新区块期间不占用线程：<br>
+	 * 由账本在新区块提交时通知继续扫描，超过等待时间后以当前的游标返回空的结果；
+	 *
+	 * @return
+	 */
+	public CompletableFuture<BlockchainEventPage> getEventsAsync(HashDigest ledgerHash, long fromHeight, int maxCount,
+			long timeout, int eventTypes, String txHash, String accountAddress) {
+		EventScan scan = new EventScan(ledgerHash, fromHeight, maxCount, timeout, eventTypes, txHash, accountAddress);
+		CompletableFuture<BlockchainEventPage> result = new CompletableFuture<>();
+		scanAsync(scan, result);
+		if (!result.isDone()) {
+			ScheduledFuture<?> timeoutTask = TIMEOUT_TIMER.schedule(() -> result.complete(scan.expire()),
+					scan.getRemainingTime(), TimeUnit.MILLISECONDS);
+			result.whenComplete((page, error) -> timeoutTask.cancel(false));
+		}
+		return result;
+	}
+
+	private void scanAsync(EventScan scan, CompletableFuture<BlockchainEventPage> result) {
+		if (result.isDone()) {
+			return;
+		}
+		try {
+			BlockchainEventPage page = scan.scan(ledger.getLatestBlockHeight());
+			if (page != null) {
+				result.complete(page);
+				return;
+			}
+			CompletableFuture<Long> heightNotification = ledger.notifyBlockHeight(scan.height);
+			result.whenComplete((p, error) -> heightNotification.cancel(false));
+			// 通知在提交区块的线程中完成，扫描区块转到其它线程进行；
+			heightNotification.thenRunAsync(() -> scanAsync(scan, result));
+		} catch (Exception e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * 解析指定高度的区块的事件；
+	 *
+	 * @return 不满足过滤条件时返回 null；
+	 */
+	private BlockchainEventInfo resolveEvent(long height, int eventTypes, Bytes filteredTxHash,
+			Bytes filteredAddress) {
+		// 按交易或者账户过滤时，先以布隆过滤器排除无关的区块，不必解码区块的交易集合；
+		BlockBloomFilter bloomFilter = ledger.getBlockBloomFilter(ledger.getBlockHash(height));
+		if (bloomFilter != null) {
+			if (filteredTxHash != null && !bloomFilter.getTxFilter().mightContain(filteredTxHash.toBytes())) {
+				return null;
+			}
+			if (filteredAddress != null && !bloomFilter.mightContainAccount(filteredAddress)) {
+				return null;
+			}
+		}
+
+		LedgerBlock block = ledger.getBlock(height);
+
+		int eventCode = BlockchainEventType.BLOCK_GENERATED.CODE;
+		List<HashDigest> txHashes = new ArrayList<>();
+		Map<Bytes, Integer> accounts = new LinkedHashMap<>();
+		for (LedgerTransaction tx : getBlockTransactions(block)) {
+			if (tx.getExecutionState() != TransactionState.SUCCESS) {
+				continue;
+			}
+			HashDigest contentHash = tx.getTransactionContent().getHash();
+			if (filteredTxHash != null && !filteredTxHash.equals(new Bytes(contentHash.toBytes()))) {
+				continue;
+			}
+			Map<Bytes, Integer> txAccounts = OperationAccounts.resolve(tx.getTransactionContent().getOperations());
+			if (filteredAddress != null) {
+				Integer accountCode = txAccounts.get(filteredAddress);
+				if (accountCode == null) {
+					continue;
+				}
+				eventCode |= accountCode;
+				accounts.merge(filteredAddress, accountCode, (v1, v2) -> v1 | v2);
+			} else {
+				eventCode |= BlockchainEventType.TRANSACTION_COMMITED.CODE;
+				for (Map.Entry<Bytes, Integer> entry : txAccounts.entrySet()) {
+					eventCode |= entry.getValue();
+					accounts.merge(entry.getKey(), entry.getValue(), (v1, v2) -> v1 | v2);
+				}
+			}
+			txHashes.add(contentHash);
+		}
+
+		if ((filteredTxHash != null || filteredAddress != null) && txHashes.isEmpty()) {
+			return null;
+		}
+		if (!matchEventTypes(eventCode, eventTypes)) {
+			return null;
+		}
+
+		BlockchainEventInfo event = new BlockchainEventInfo();
+		event.setEventCode(eventCode);
+		event.setBlockHeight(height);
+		event.setBlockHash(block.getHash());
+		event.setTxHashes(txHashes.toArray(new HashDigest[txHashes.size()]));
+		event.setAccountAddresses(accounts.keySet().toArray(new Bytes[accounts.size()]));
+		if (bloomFilter != null) {
+			event.setTxBloomFilter(bloomFilter.getTxFilter().toBytes());
+			event.setAccountBloomFilter(bloomFilter.getAccountFilter().toBytes());
+		}
+		return event;
+	}
+
+	/**
+	 * 返回区块中新增的交易；
+	 */
+	private LedgerTransaction[] getBlockTransactions(LedgerBlock block) {
+		TransactionQuery txSet = ledger.getTransactionSet(block);
+		long totalCount = txSet.getTotalCount();
+		long previousCount = block.getHeight() > 0
+				? ledger.getTransactionSet(ledger.getBlock(block.getHeight() - 1)).getTotalCount()
+				: 0;
+		return txSet.getTxs((int) previousCount, (int) (totalCount - previousCount));
+	}
+
+	/**
+	 * 事件码是否包含要查询的任何一种事件类型；
+	 *
+	 * @param eventCode
+	 * @param eventTypes 要查询的事件类型；为 0 时总是匹配；
+	 * @return
+	 */
+	public static boolean matchEventTypes(int eventCode, int eventTypes) {
+		if (eventTypes == 0) {
+			return true;
+		}
+		for (BlockchainEventType type : BlockchainEventType.values()) {
+			if ((eventTypes & type.CODE) == type.CODE && (eventCode & type.CODE) == type.CODE) {
+				// 事件码具有嵌套关系，只有更具体的类型被包含时才认为匹配；
+				if (!containsMoreSpecificType(eventTypes, type)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsMoreSpecificType(int eventTypes, BlockchainEventType type) {
+		for (BlockchainEventType other : BlockchainEventType.values()) {
+			if (other != type && (other.CODE & type.CODE) == type.CODE && (eventTypes & other.CODE) == other.CODE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 一次事件查询的扫描进度；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	private class EventScan {
+
+		private final int maxCount;
+
+		private final int eventTypes;
+
+		private final Bytes filteredTxHash;
+
+		private final Bytes filteredAddress;
+
+		private final long deadline;
+
+		private final List<BlockchainEventInfo> events = new ArrayList<>();
+
+		private volatile long height;
+
+		private int scannedBlocks;
+
+		private EventScan(HashDigest ledgerHash, long fromHeight, int maxCount, long timeout, int eventTypes,
+				String txHash, String accountAddress) {
+			if (!ledger.getHash().equals(ledgerHash)) {
+				throw new LedgerException("Unsupport cross chain query!");
+			}
+			this.maxCount = maxCount <= 0 || maxCount > MAX_COUNT ? MAX_COUNT : maxCount;
+			this.eventTypes = eventTypes;
+			this.filteredTxHash = txHash == null ? null : Bytes.fromBase58(txHash);
+			this.filteredAddress = accountAddress == null ? null : Bytes.fromBase58(accountAddress);
+			this.deadline = System.currentTimeMillis() + Math.max(0, Math.min(timeout, MAX_TIMEOUT));
+			this.height = fromHeight < 0 ? ledger.getLatestBlockHeight() + 1 : fromHeight;
+		}
+
+		private long getRemainingTime() {
+			return Math.max(0, deadline - System.currentTimeMillis());
+		}
+
+		/**
+		 * 扫描到指定的最新高度；
+		 *
+		 * @param latestHeight
+		 * @return 如果还应继续等待新区块，则返回 null；
+		 */
+		private synchronized BlockchainEventPage scan(long latestHeight) {
+			for (; height <= latestHeight && events.size() < maxCount
+					&& scannedBlocks < MAX_SCANNED_BLOCKS; height++, scannedBlocks++) {
+				BlockchainEventInfo event = resolveEvent(height, eventTypes, filteredTxHash, filteredAddress);
+				if (event != null) {
+					events.add(event);
+				}
+			}
+			// 只要还有等待时间，就不返回空的结果，以减少过滤条件不匹配时的往返；
+			if (!events.isEmpty() || scannedBlocks >= MAX_SCANNED_BLOCKS || System.currentTimeMillis() >= deadline) {
+				return expire();
+			}
+			return null;
+		}
+
+		/**
+		 * 以当前的进度结束扫描；
+		 *
+		 * @return
+		 */
+		private synchronized BlockchainEventPage expire() {
+			return new BlockchainEventPage(height, events.toArray(EMPTY_EVENTS));
+		}
+	}
+
+}
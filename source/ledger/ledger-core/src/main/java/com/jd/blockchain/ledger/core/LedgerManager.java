@@ -24,6 +24,29 @@ public class LedgerManager implements LedgerManage {
 
 	private Map<HashDigest, LedgerRepositoryContext> ledgers = new HashMap<>();
 
+	/**
+	 * 从存储读取区块时的校验策略；为 null 时采用系统属性的设置；
+	 */
+	private final BlockVerificationPolicy verificationPolicy;
+
+	/**
+	 * 抽样校验的间隔；
+	 */
+	private final int verificationSample;
+
+	public LedgerManager() {
+		this(null, 0);
+	}
+
+	/**
+	 * @param verificationPolicy 从存储读取区块时的校验策略；为 null 时采用系统属性 “block-verification” 的设置；
+	 * @param verificationSample 抽样校验的间隔；只对 {@link BlockVerificationPolicy#SAMPLED} 有效；
+	 */
+	public LedgerManager(BlockVerificationPolicy verificationPolicy, int verificationSample) {
+		this.verificationPolicy = verificationPolicy;
+		this.verificationSample = verificationSample;
+	}
+
 	@Override
 	public HashDigest[] getLedgerHashs() {
 		return ledgers.keySet().toArray(new HashDigest[ledgers.size()]);
@@ -50,8 +73,14 @@ public class LedgerManager implements LedgerManage {
 		// 加载账本数据库；
 		VersioningKVStorage ledgerVersioningStorage = storageService.getVersioningKVStorage();
 		ExPolicyKVStorage ledgerExPolicyStorage = storageService.getExPolicyKVStorage();
-		LedgerRepository ledgerRepo = new LedgerRepositoryImpl(ledgerHash, LEDGER_PREFIX, ledgerExPolicyStorage,
-				ledgerVersioningStorage);
+		LedgerRepository ledgerRepo;
+		if (verificationPolicy == null) {
+			ledgerRepo = new LedgerRepositoryImpl(ledgerHash, LEDGER_PREFIX, ledgerExPolicyStorage,
+					ledgerVersioningStorage);
+		} else {
+			ledgerRepo = new LedgerRepositoryImpl(ledgerHash, LEDGER_PREFIX, ledgerExPolicyStorage,
+					ledgerVersioningStorage, verificationPolicy, verificationSample);
+		}
 
 		// 校验 crypto service provider ；
 		CryptoSetting cryptoSetting = ledgerRepo.getAdminInfo().getSettings().getCryptoSetting();
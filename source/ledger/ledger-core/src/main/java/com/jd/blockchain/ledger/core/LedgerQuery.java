@@ -1,9 +1,12 @@
 package com.jd.blockchain.ledger.core;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.LedgerAdminInfo;
 import com.jd.blockchain.ledger.LedgerAdminSettings;
 import com.jd.blockchain.ledger.LedgerBlock;
+import com.jd.blockchain.utils.Bytes;
 
 public interface LedgerQuery {
 
@@ -122,4 +125,112 @@ public interface LedgerQuery {
 	 */
 	HashDigest retrieveLatestBlockHash();
 
+	/**
+	 * 等待最新区块的高度达到指定的高度；<br>
+	 * 
+	 * 默认以固定的间隔重新检索最新区块高度；能够感知新区块提交的实现应当在提交时唤醒等待者；
+	 * 
+	 * @param height
+	 *            期望的区块高度；
+	 * @param timeoutMillis
+	 *            等待的最长时间（毫秒）；
+	 * @return 返回时的最新区块高度；超时的情况下小于期望的高度；
+	 * @throws InterruptedException
+	 */
+	default long awaitBlockHeight(long height, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		long latestHeight = retrieveLatestBlockHeight();
+		while (latestHeight < height) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				break;
+			}
+			Thread.sleep(Math.min(remaining, 100));
+			latestHeight = retrieveLatestBlockHeight();
+		}
+		return latestHeight;
+	}
+
+	/**
+	 * 在最新区块的高度达到指定的高度时得到通知；<br>
+	 * 
+	 * 默认在公共线程池中以 {@link #awaitBlockHeight(long, long)} 等待；能够感知新区块提交的实现应当在提交时完成通知，不占用等待的线程；
+	 * 
+	 * @param height
+	 *            期望的区块高度；
+	 * @return 以达到期望高度时的最新区块高度完成的异步结果；调用者不再等待时应当取消；
+	 */
+	default CompletableFuture<Long> notifyBlockHeight(long height) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		CompletableFuture.runAsync(() -> {
+			try {
+				long latestHeight = retrieveLatestBlockHeight();
+				while (latestHeight < height && !future.isDone()) {
+					latestHeight = awaitBlockHeight(height, 1000);
+				}
+				future.complete(latestHeight);
+			} catch (InterruptedException e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 返回区块的布隆过滤器；<br>
+	 * 
+	 * 区块没有布隆过滤器时（例如生成区块时未开启）返回 null，调用者应当认为该区块可能包含任何交易和账户；
+	 * 
+	 * @param blockHash
+	 * @return
+	 */
+	default BlockBloomFilter getBlockBloomFilter(HashDigest blockHash) {
+		return null;
+	}
+
+	/**
+	 * 返回账户历史的索引；<br>
+	 * 
+	 * 索引只包含开启索引之后生成的区块；不支持时返回 null；
+	 * 
+	 * @return
+	 */
+	default AccountHistoryIndex getAccountHistoryIndex() {
+		return null;
+	}
+
+	/**
+	 * 扫描指定高度范围内可能写入了指定账户的区块；<br>
+	 * 
+	 * 结果可能包含少量实际上没有写入该账户的区块，调用者需要进一步检查区块的交易；
+	 * 
+	 * @param address
+	 *            账户地址；
+	 * @param fromHeight
+	 *            起始高度（包含）；
+	 * @param toHeight
+	 *            结束高度（包含）；超过最新区块高度时以最新区块高度为准；
+	 * @return 区块高度的升序列表；
+	 */
+	default long[] scanBlocksByAccount(Bytes address, long fromHeight, long toHeight) {
+		return BlockBloomFilter.scan(this, fromHeight, toHeight, filter -> filter.mightContainAccount(address));
+	}
+
+	/**
+	 * 扫描指定高度范围内可能包含指定交易的区块；<br>
+	 * 
+	 * 结果可能包含少量实际上不包含该交易的区块，调用者需要进一步检查区块的交易；
+	 * 
+	 * @param txHash
+	 *            交易的内容哈希；
+	 * @param fromHeight
+	 *            起始高度（包含）；
+	 * @param toHeight
+	 *            结束高度（包含）；超过最新区块高度时以最新区块高度为准；
+	 * @return 区块高度的升序列表；
+	 */
+	default long[] scanBlocksByTransaction(HashDigest txHash, long fromHeight, long toHeight) {
+		return BlockBloomFilter.scan(this, fromHeight, toHeight, filter -> filter.mightContainTransaction(txHash));
+	}
+
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.jd.blockchain.ledger.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.jd.blockchain.contract.ContractException;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.BytesValue;
 import com.jd.blockchain.ledger.ContractInfo;
@@ -33,6 +35,8 @@ public class LedgerQueryService implements BlockchainQueryService {
 
 	private static final TypedKVEntry[] EMPTY_ENTRIES = new TypedKVEntry[0];
 
+	private static final AccountHistoryEntry[] EMPTY_HISTORY = new AccountHistoryEntry[0];
+
 	private HashDigest[] ledgerHashs;
 
 	private LedgerQuery ledger;
@@ -293,17 +297,20 @@ public class LedgerQueryService implements BlockchainQueryService {
 
 		
 		TypedKVEntry[] entries = new TypedKVEntry[keys.length];
-		long ver;
+		if (dataAccount == null) {
+			for (int i = 0; i < entries.length; i++) {
+				entries[i] = new TypedKVData(keys[i], -1, null);
+			}
+			return entries;
+		}
+		// 批量读取全部的键；
+		List<DataEntry<String, TypedValue>> dataEntries = dataAccount.getDataset().getDataEntries(Arrays.asList(keys));
 		for (int i = 0; i < entries.length; i++) {
-			final String currKey = keys[i];
-
-			ver = dataAccount == null ? -1 : dataAccount.getDataset().getVersion(currKey);
-
-			if (ver < 0) {
-				entries[i] = new TypedKVData(currKey, -1, null);
+			DataEntry<String, TypedValue> entry = dataEntries.get(i);
+			if (entry == null) {
+				entries[i] = new TypedKVData(keys[i], -1, null);
 			} else {
-				BytesValue value = dataAccount.getDataset().getValue(currKey, ver);
-				entries[i] = new TypedKVData(currKey, ver, value);
+				entries[i] = new TypedKVData(keys[i], entry.getVersion(), entry.getValue());
 			}
 		}
 
@@ -349,12 +356,12 @@ public class LedgerQueryService implements BlockchainQueryService {
 			if (ver < 0) {
 				entries[i] = new TypedKVData(keys[i], -1, null);
 			} else {
-				if (dataAccount.getDataset().getDataCount() == 0
-						|| dataAccount.getDataset().getValue(keys[i], ver) == null) {
+				BytesValue value = dataAccount.getDataset().getDataCount() == 0 ? null
+						: dataAccount.getDataset().getValue(keys[i], ver);
+				if (value == null) {
 					// is the address is not exist; the result is null;
 					entries[i] = new TypedKVData(keys[i], -1, null);
 				} else {
-					BytesValue value = dataAccount.getDataset().getValue(keys[i], ver);
 					entries[i] = new TypedKVData(keys[i], ver, value);
 				}
 			}
@@ -427,4 +434,50 @@ public class LedgerQueryService implements BlockchainQueryService {
 		return contractAccountSet.getHeaders(pages[0], pages[1]);
 	}
 
+	@Override
+	public long getAccountHistoryCount(HashDigest ledgerHash, String address) {
+		checkLedgerHash(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return 0;
+		}
+		return historyIndex.getCount(Bytes.fromBase58(address));
+	}
+
+	@Override
+	public AccountHistoryEntry[] getAccountHistory(HashDigest ledgerHash, String address, int fromIndex, int count) {
+		checkLedgerHash(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return EMPTY_HISTORY;
+		}
+		Bytes accountAddress = Bytes.fromBase58(address);
+		int pages[] = QueryUtil.calFromIndexAndCount(fromIndex, count, (int) historyIndex.getCount(accountAddress));
+		return historyIndex.getEntries(accountAddress, pages[0], pages[1]);
+	}
+
+	@Override
+	public long getDataEntryHistoryCount(HashDigest ledgerHash, String address, String key) {
+		checkLedgerHash(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return 0;
+		}
+		return historyIndex.getCount(Bytes.fromBase58(address), key);
+	}
+
+	@Override
+	public AccountHistoryEntry[] getDataEntryHistory(HashDigest ledgerHash, String address, String key, int fromIndex,
+			int count) {
+		checkLedgerHash(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return EMPTY_HISTORY;
+		}
+		Bytes accountAddress = Bytes.fromBase58(address);
+		int pages[] = QueryUtil.calFromIndexAndCount(fromIndex, count,
+				(int) historyIndex.getCount(accountAddress, key));
+		return historyIndex.getEntries(accountAddress, key, pages[0], pages[1]);
+	}
+
 }
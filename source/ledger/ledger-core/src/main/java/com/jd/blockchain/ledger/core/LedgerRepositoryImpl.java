@@ -1,5 +1,11 @@
 package com.jd.blockchain.ledger.core;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.jd.blockchain.binaryproto.BinaryProtocol;
 import com.jd.blockchain.crypto.Crypto;
 import com.jd.blockchain.crypto.HashDigest;
@@ -45,8 +51,68 @@ class LedgerRepositoryImpl implements LedgerRepository {
 
 	private static final Bytes TRANSACTION_SET_PREFIX = Bytes.fromString("TXS" + LedgerConsts.KEY_SEPERATOR);
 
+	private static final Bytes BLOOM_FILTER_PREFIX = Bytes.fromString("BLM" + LedgerConsts.KEY_SEPERATOR);
+
 	private static final AccountAccessPolicy DEFAULT_ACCESS_POLICY = new OpeningAccessPolicy();
 
+	/**
+	 * 缓存的历史区块状态的最大数量；
+	 */
+	private static final int STATE_CACHE_SIZE;
+
+	/**
+	 * 缓存的已校验区块的最大数量；
+	 */
+	private static final int BLOCK_CACHE_SIZE;
+
+	/**
+	 * 从存储读取区块时的校验策略；
+	 */
+	private static final BlockVerificationPolicy VERIFICATION_POLICY;
+
+	/**
+	 * 抽样校验的间隔；即每加载多少个区块校验一个；
+	 */
+	private static final int VERIFICATION_SAMPLE;
+
+	/**
+	 * 缓存的只读账户的最大数量；
+	 */
+	private static final int ACCOUNT_CACHE_SIZE;
+
+	/**
+	 * 缓存的只读账户的存活时间，单位秒；
+	 */
+	private static final long ACCOUNT_CACHE_TTL;
+
+	/**
+	 * 默克尔树节点缓存的容量，单位字节；
+	 */
+	private static final long MERKLE_CACHE_SIZE;
+
+	static {
+		STATE_CACHE_SIZE = Integer.getInteger("ledger-state-cache-size", 64);
+		System.out.println("------ [[ ledger-state-cache-size=" + STATE_CACHE_SIZE + " ]] ------");
+
+		BLOCK_CACHE_SIZE = Integer.getInteger("block-cache-size", 1024);
+		System.out.println("------ [[ block-cache-size=" + BLOCK_CACHE_SIZE + " ]] ------");
+
+		VERIFICATION_POLICY = BlockVerificationPolicy.resolve(System.getProperty("block-verification", "first"));
+		System.out.println("------ [[ block-verification=" + VERIFICATION_POLICY + " ]] ------");
+
+		VERIFICATION_SAMPLE = Math.max(1, Integer.getInteger("block-verification-sample", 16));
+		System.out.println("------ [[ block-verification-sample=" + VERIFICATION_SAMPLE + " ]] ------");
+
+		ACCOUNT_CACHE_SIZE = Integer.getInteger("account-cache-size", 4096);
+		System.out.println("------ [[ account-cache-size=" + ACCOUNT_CACHE_SIZE + " ]] ------");
+
+		ACCOUNT_CACHE_TTL = Long.getLong("account-cache-ttl", 600);
+		System.out.println("------ [[ account-cache-ttl=" + ACCOUNT_CACHE_TTL + " ]] ------");
+
+		MERKLE_CACHE_SIZE = Long.getLong("merkle-cache-size", 64L * 1024 * 1024);
+		System.out.println("------ [[ merkle-cache-size=" + MERKLE_CACHE_SIZE + " ]] ------");
+	}
+
 	private HashDigest ledgerHash;
 
 	private final String keyPrefix;
@@ -63,8 +129,77 @@ class LedgerRepositoryImpl implements LedgerRepository {
 
 	private volatile boolean closed = false;
 
+	/**
+	 * 最新区块之外的历史区块的状态的缓存；
+	 */
+	private final BlockStateCache<LedgerState> stateCache = new BlockStateCache<>(STATE_CACHE_SIZE);
+
+	/**
+	 * 从存储读取区块时的校验策略；
+	 */
+	private final BlockVerificationPolicy verificationPolicy;
+
+	/**
+	 * 抽样校验的间隔；
+	 */
+	private final int verificationSample;
+
+	/**
+	 * 已校验的区块的缓存；
+	 */
+	private final BlockStateCache<LedgerBlock> blockCache;
+
+	/**
+	 * 只读账户的缓存；由各个区块的只读账户集合共享；
+	 */
+	private final AccountCache accountCache = new AccountCache(ACCOUNT_CACHE_SIZE, ACCOUNT_CACHE_TTL * 1000);
+
+	/**
+	 * 默克尔树节点的缓存；由本账本的全部默克尔树共享；
+	 */
+	private final MerkleNodeCache nodeCache = new MerkleNodeCache(MERKLE_CACHE_SIZE);
+
+	/**
+	 * 区块高度到区块哈希的索引；
+	 */
+	private final BlockHashIndex blockHashIndex = new BlockHashIndex();
+
+	/**
+	 * 从存储加载的区块的计数，用于抽样校验；
+	 */
+	private final AtomicLong blockLoadCount = new AtomicLong();
+
+	/**
+	 * 新区块提交的通知，唤醒等待区块高度的线程；
+	 */
+	private final Object blockCommitMonitor = new Object();
+
+	/**
+	 * 等待区块高度的异步通知；由 {@link #blockCommitMonitor} 同步；
+	 */
+	private final List<BlockHeightWaiter> blockHeightWaiters = new ArrayList<>();
+
 	public LedgerRepositoryImpl(HashDigest ledgerHash, String keyPrefix, ExPolicyKVStorage exPolicyStorage,
 			VersioningKVStorage versioningStorage) {
+		this(ledgerHash, keyPrefix, exPolicyStorage, versioningStorage, VERIFICATION_POLICY, VERIFICATION_SAMPLE);
+	}
+
+	/**
+	 * @param ledgerHash
+	 * @param keyPrefix
+	 * @param exPolicyStorage
+	 * @param versioningStorage
+	 * @param verificationPolicy 从存储读取区块时的校验策略；
+	 * @param verificationSample 抽样校验的间隔；只对 {@link BlockVerificationPolicy#SAMPLED} 有效；
+	 */
+	LedgerRepositoryImpl(HashDigest ledgerHash, String keyPrefix, ExPolicyKVStorage exPolicyStorage,
+			VersioningKVStorage versioningStorage, BlockVerificationPolicy verificationPolicy,
+			int verificationSample) {
+		this.verificationPolicy = verificationPolicy;
+		this.verificationSample = Math.max(1, verificationSample);
+		this.blockCache = new BlockStateCache<>(
+				verificationPolicy == BlockVerificationPolicy.ALWAYS ? 0 : BLOCK_CACHE_SIZE);
+
 		this.keyPrefix = keyPrefix;
 
 		this.ledgerHash = ledgerHash;
@@ -117,14 +252,76 @@ class LedgerRepositoryImpl implements LedgerRepository {
 	 */
 	private LedgerState retrieveLatestState() {
 		LedgerBlock latestBlock = innerGetBlock(innerGetLatestBlockHeight());
-		LedgerDataset ledgerDataset = innerGetLedgerDataset(latestBlock);
-		TransactionQuery txSet = loadTransactionSet(latestBlock.getTransactionSetHash(),
-				ledgerDataset.getAdminDataset().getSettings().getCryptoSetting(), keyPrefix, exPolicyStorage,
-				versioningStorage, true);
-		this.latestState = new LedgerState(latestBlock, ledgerDataset, txSet);
+		this.latestState = loadState(latestBlock);
 		return latestState;
 	}
 
+	/**
+	 * 返回指定区块的状态；<br>
+	 * 
+	 * 最新区块的状态直接返回；历史区块的状态从缓存中返回，未缓存时从存储加载；
+	 * 
+	 * @param block
+	 * @return
+	 */
+	private LedgerState getState(LedgerBlock block) {
+		LedgerState state = latestState;
+		if (state != null && state.block.getHeight() == block.getHeight()) {
+			return state;
+		}
+		return stateCache.get(block.getHash(), blockHash -> loadState(block));
+	}
+
+	/**
+	 * 从存储加载区块的只读状态；
+	 * 
+	 * @param block
+	 * @return
+	 */
+	private LedgerState loadState(LedgerBlock block) {
+		LedgerDataset ledgerDataset = innerGetLedgerDataset(block);
+		TransactionQuery txSet = loadTransactionSet(block.getTransactionSetHash(),
+				ledgerDataset.getAdminDataset().getSettings().getCryptoSetting(), keyPrefix, exPolicyStorage,
+				versioningStorage, true, nodeCache);
+		return new LedgerState(block, ledgerDataset, txSet);
+	}
+
+	/**
+	 * 历史区块状态的缓存；
+	 * 
+	 * @return
+	 */
+	public BlockStateCache<?> getStateCache() {
+		return stateCache;
+	}
+
+	/**
+	 * 只读账户的缓存；
+	 * 
+	 * @return
+	 */
+	public AccountCache getAccountCache() {
+		return accountCache;
+	}
+
+	/**
+	 * 默克尔树节点的缓存；
+	 * 
+	 * @return
+	 */
+	public MerkleNodeCache getNodeCache() {
+		return nodeCache;
+	}
+
+	/**
+	 * 已校验区块的缓存；
+	 * 
+	 * @return
+	 */
+	public BlockStateCache<LedgerBlock> getBlockCache() {
+		return blockCache;
+	}
+
 	@Override
 	public LedgerBlock retrieveLatestBlock() {
 		return retrieveLatestState().block;
@@ -165,12 +362,19 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		if (height < 0) {
 			return null;
 		}
+		HashDigest blockHash = blockHashIndex.get(height);
+		if (blockHash != null) {
+			return blockHash;
+		}
 		// get block hash by height;
 		byte[] hashBytes = versioningStorage.get(ledgerIndexKey, height);
 		if (hashBytes == null || hashBytes.length == 0) {
 			return null;
 		}
-		return new HashDigest(hashBytes);
+		blockHash = new HashDigest(hashBytes);
+		// 已提交的高度索引不会再改变；
+		blockHashIndex.put(height, blockHash);
+		return blockHash;
 	}
 
 	@Override
@@ -198,7 +402,36 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		return innerGetBlock(blockHash);
 	}
 
+	@Override
+	public BlockBloomFilter getBlockBloomFilter(HashDigest blockHash) {
+		if (blockHash == null) {
+			return null;
+		}
+		// 每个区块只有一个版本的布隆过滤器；
+		byte[] filterBytes = versioningStorage.get(encodeBloomFilterStorageKey(blockHash), 0);
+		if (filterBytes == null) {
+			return null;
+		}
+		return BlockBloomFilter.fromBytes(filterBytes);
+	}
+
+	@Override
+	public AccountHistoryIndex getAccountHistoryIndex() {
+		return new AccountHistoryIndex(keyPrefix, exPolicyStorage);
+	}
+
 	private LedgerBlock innerGetBlock(HashDigest blockHash) {
+		// 策略为 ALWAYS 时缓存的容量为 0，每次都从存储加载并校验；
+		return blockCache.get(blockHash, this::loadBlock);
+	}
+
+	/**
+	 * 从存储加载区块，并按照校验策略进行校验；
+	 * 
+	 * @param blockHash
+	 * @return
+	 */
+	private LedgerBlock loadBlock(HashDigest blockHash) {
 		Bytes key = encodeBlockStorageKey(blockHash);
 		// Every one block has only one version;
 		byte[] blockBytes = versioningStorage.get(key, 0);
@@ -207,6 +440,10 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		if (!blockHash.equals(block.getHash())) {
 			throw new RuntimeException("Block hash not equals to it's storage key!");
 		}
+		long loadIndex = blockLoadCount.getAndIncrement();
+		if (verificationPolicy == BlockVerificationPolicy.SAMPLED && loadIndex % verificationSample != 0) {
+			return block;
+		}
 
 		// verify block hash;
 		byte[] blockBodyBytes = null;
@@ -245,7 +482,7 @@ class LedgerRepositoryImpl implements LedgerRepository {
 
 	@Override
 	public LedgerAdminInfo getAdminInfo() {
-		return createAdminData(getLatestBlock());
+		return getAdminInfo(getLatestBlock());
 	}
 
 	private LedgerBlock deserialize(byte[] blockBytes) {
@@ -254,20 +491,13 @@ class LedgerRepositoryImpl implements LedgerRepository {
 
 	@Override
 	public TransactionQuery getTransactionSet(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			// 从缓存中返回最新区块的数据集；
-			return latestState.getTransactionSet();
-		}
-		LedgerAdminInfo adminAccount = getAdminInfo(block);
 		// All of existing block is readonly;
-		return loadTransactionSet(block.getTransactionSetHash(), adminAccount.getSettings().getCryptoSetting(),
-				keyPrefix, exPolicyStorage, versioningStorage, true);
+		return getState(block).getTransactionSet();
 	}
 
 	@Override
 	public LedgerAdminInfo getAdminInfo(LedgerBlock block) {
-		return createAdminData(block);
+		return new LedgerAdminInfoData(getState(block).getAdminDataset());
 	}
 	
 	@Override
@@ -277,23 +507,7 @@ class LedgerRepositoryImpl implements LedgerRepository {
 	
 	@Override
 	public LedgerAdminSettings getAdminSettings(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			return latestState.getAdminDataset();
-		}
-
-		return createAdminDataset(block);
-	}
-
-	/**
-	 * 生成LedgerAdminInfoData对象
-	 *     该对象主要用于页面展示
-	 *
-	 * @param block
-	 * @return
-	 */
-	private LedgerAdminInfoData createAdminData(LedgerBlock block) {
-		return new LedgerAdminInfoData(createAdminDataset(block));
+		return getState(block).getAdminDataset();
 	}
 
 	/**
@@ -303,65 +517,44 @@ class LedgerRepositoryImpl implements LedgerRepository {
 	 * @return
 	 */
 	private LedgerAdminDataset createAdminDataset(LedgerBlock block) {
-		return new LedgerAdminDataset(block.getAdminAccountHash(), keyPrefix, exPolicyStorage, versioningStorage, true);
+		return new LedgerAdminDataset(block.getAdminAccountHash(), keyPrefix, exPolicyStorage, versioningStorage, true,
+				nodeCache);
 	}
 
 	@Override
 	public UserAccountQuery getUserAccountSet(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			return latestState.getUserAccountSet();
-		}
-		LedgerAdminSettings adminAccount = getAdminSettings(block);
-		return createUserAccountSet(block, adminAccount.getSettings().getCryptoSetting());
+		return getState(block).getUserAccountSet();
 	}
 
 	private UserAccountSet createUserAccountSet(LedgerBlock block, CryptoSetting cryptoSetting) {
 		return loadUserAccountSet(block.getUserAccountSetHash(), cryptoSetting, keyPrefix, exPolicyStorage,
-				versioningStorage, true);
+				versioningStorage, true, nodeCache);
 	}
 
 	@Override
 	public DataAccountQuery getDataAccountSet(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			return latestState.getDataAccountSet();
-		}
-
-		LedgerAdminSettings adminAccount = getAdminSettings(block);
-		return createDataAccountSet(block, adminAccount.getSettings().getCryptoSetting());
+		return getState(block).getDataAccountSet();
 	}
 
 	private DataAccountSet createDataAccountSet(LedgerBlock block, CryptoSetting setting) {
 		return loadDataAccountSet(block.getDataAccountSetHash(), setting, keyPrefix, exPolicyStorage, versioningStorage,
-				true);
+				true, nodeCache);
 	}
 
 	@Override
 	public ContractAccountQuery getContractAccountSet(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			return latestState.getContractAccountSet();
-		}
-
-		LedgerAdminSettings adminAccount = getAdminSettings(block);
-		return createContractAccountSet(block, adminAccount.getSettings().getCryptoSetting());
+		return getState(block).getContractAccountSet();
 	}
 
 	private ContractAccountSet createContractAccountSet(LedgerBlock block, CryptoSetting cryptoSetting) {
 		return loadContractAccountSet(block.getContractAccountSetHash(), cryptoSetting, keyPrefix, exPolicyStorage,
-				versioningStorage, true);
+				versioningStorage, true, nodeCache);
 	}
 
 	@Override
 	public LedgerDataset getLedgerData(LedgerBlock block) {
-		long height = getLatestBlockHeight();
-		if (height == block.getHeight()) {
-			return latestState.getLedgerDataset();
-		}
-
 		// All of existing block is readonly;
-		return innerGetLedgerDataset(block);
+		return getState(block).getLedgerDataset();
 	}
 
 	private LedgerDataset innerGetLedgerDataset(LedgerBlock block) {
@@ -371,6 +564,9 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		UserAccountSet userAccountSet = createUserAccountSet(block, cryptoSetting);
 		DataAccountSet dataAccountSet = createDataAccountSet(block, cryptoSetting);
 		ContractAccountSet contractAccountSet = createContractAccountSet(block, cryptoSetting);
+		userAccountSet.setAccountCache(accountCache);
+		dataAccountSet.setAccountCache(accountCache);
+		contractAccountSet.setAccountCache(accountCache);
 		return new LedgerDataset(adminDataset, userAccountSet, dataAccountSet, contractAccountSet, true);
 	}
 
@@ -385,7 +581,7 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		}
 		LedgerBlock previousBlock = getLatestBlock();
 		LedgerTransactionalEditor editor = LedgerTransactionalEditor.createEditor(previousBlock, getLatestSettings(),
-				keyPrefix, exPolicyStorage, versioningStorage);
+				keyPrefix, exPolicyStorage, versioningStorage, nodeCache);
 		NewBlockCommittingMonitor committingMonitor = new NewBlockCommittingMonitor(editor, this);
 		this.nextBlockEditor = committingMonitor;
 		return committingMonitor;
@@ -396,6 +592,72 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		return nextBlockEditor;
 	}
 
+	@Override
+	public long awaitBlockHeight(long height, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized (blockCommitMonitor) {
+			long latestHeight = getLatestBlockHeight();
+			while (latestHeight < height) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					break;
+				}
+				blockCommitMonitor.wait(remaining);
+				latestHeight = getLatestBlockHeight();
+			}
+			return latestHeight;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Long> notifyBlockHeight(long height) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+		BlockHeightWaiter waiter = new BlockHeightWaiter(height, future);
+		synchronized (blockCommitMonitor) {
+			long latestHeight = getLatestBlockHeight();
+			if (latestHeight >= height) {
+				future.complete(latestHeight);
+				return future;
+			}
+			blockHeightWaiters.add(waiter);
+		}
+		// 超时取消或者完成时移除等待者，避免空闲的账本上的等待者无限累积；
+		future.whenComplete((h, e) -> {
+			synchronized (blockCommitMonitor) {
+				blockHeightWaiters.remove(waiter);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 新区块提交后唤醒等待者；异步通知在锁外完成，以免回调阻塞其它等待者；
+	 */
+	private void notifyBlockCommitted() {
+		List<BlockHeightWaiter> reachedWaiters = null;
+		long latestHeight;
+		synchronized (blockCommitMonitor) {
+			blockCommitMonitor.notifyAll();
+			latestHeight = getLatestBlockHeight();
+			Iterator<BlockHeightWaiter> iterator = blockHeightWaiters.iterator();
+			while (iterator.hasNext()) {
+				BlockHeightWaiter waiter = iterator.next();
+				if (waiter.height <= latestHeight) {
+					iterator.remove();
+					if (reachedWaiters == null) {
+						reachedWaiters = new ArrayList<>();
+					}
+					reachedWaiters.add(waiter);
+				}
+			}
+		}
+		if (reachedWaiters != null) {
+			for (BlockHeightWaiter waiter : reachedWaiters) {
+				waiter.future.complete(latestHeight);
+			}
+		}
+	}
+
 	@Override
 	public synchronized void close() {
 		if (closed) {
@@ -405,6 +667,10 @@ class LedgerRepositoryImpl implements LedgerRepository {
 			throw new RuntimeException("A new block is in process, cann't close the ledger repository!");
 		}
 		closed = true;
+		stateCache.clear();
+		blockCache.clear();
+		accountCache.clear();
+		nodeCache.clear();
 	}
 
 	static Bytes encodeLedgerIndexKey(HashDigest ledgerHash) {
@@ -415,6 +681,10 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		return BLOCK_PREFIX.concat(blockHash);
 	}
 
+	static Bytes encodeBloomFilterStorageKey(HashDigest blockHash) {
+		return BLOOM_FILTER_PREFIX.concat(blockHash);
+	}
+
 	static LedgerDataset newDataSet(LedgerInitSetting initSetting, String keyPrefix,
 			ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage) {
 		LedgerAdminDataset adminAccount = new LedgerAdminDataset(initSetting, keyPrefix, ledgerExStorage,
@@ -450,18 +720,19 @@ class LedgerRepositoryImpl implements LedgerRepository {
 	}
 
 	static LedgerDataset loadDataSet(LedgerDataSnapshot dataSnapshot, CryptoSetting cryptoSetting, String keyPrefix,
-			ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage, boolean readonly) {
+			ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 		LedgerAdminDataset adminAccount = new LedgerAdminDataset(dataSnapshot.getAdminAccountHash(), keyPrefix,
-				ledgerExStorage, ledgerVerStorage, readonly);
+				ledgerExStorage, ledgerVerStorage, readonly, nodeCache);
 
 		UserAccountSet userAccountSet = loadUserAccountSet(dataSnapshot.getUserAccountSetHash(), cryptoSetting,
-				keyPrefix, ledgerExStorage, ledgerVerStorage, readonly);
+				keyPrefix, ledgerExStorage, ledgerVerStorage, readonly, nodeCache);
 
 		DataAccountSet dataAccountSet = loadDataAccountSet(dataSnapshot.getDataAccountSetHash(), cryptoSetting,
-				keyPrefix, ledgerExStorage, ledgerVerStorage, readonly);
+				keyPrefix, ledgerExStorage, ledgerVerStorage, readonly, nodeCache);
 
 		ContractAccountSet contractAccountSet = loadContractAccountSet(dataSnapshot.getContractAccountSetHash(),
-				cryptoSetting, keyPrefix, ledgerExStorage, ledgerVerStorage, readonly);
+				cryptoSetting, keyPrefix, ledgerExStorage, ledgerVerStorage, readonly, nodeCache);
 
 		LedgerDataset dataset = new LedgerDataset(adminAccount, userAccountSet, dataAccountSet,
 				contractAccountSet, readonly);
@@ -471,37 +742,38 @@ class LedgerRepositoryImpl implements LedgerRepository {
 
 	static UserAccountSet loadUserAccountSet(HashDigest userAccountSetHash, CryptoSetting cryptoSetting,
 			String keyPrefix, ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage,
-			boolean readonly) {
+			boolean readonly, MerkleNodeCache nodeCache) {
 
 		String usersetKeyPrefix = keyPrefix + USER_SET_PREFIX;
 		return new UserAccountSet(userAccountSetHash, cryptoSetting, usersetKeyPrefix, ledgerExStorage,
-				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY);
+				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY, nodeCache);
 	}
 
 	static DataAccountSet loadDataAccountSet(HashDigest dataAccountSetHash, CryptoSetting cryptoSetting,
 			String keyPrefix, ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage,
-			boolean readonly) {
+			boolean readonly, MerkleNodeCache nodeCache) {
 
 		String datasetKeyPrefix = keyPrefix + DATA_SET_PREFIX;
 		return new DataAccountSet(dataAccountSetHash, cryptoSetting, datasetKeyPrefix, ledgerExStorage,
-				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY);
+				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY, nodeCache);
 	}
 
 	static ContractAccountSet loadContractAccountSet(HashDigest contractAccountSetHash, CryptoSetting cryptoSetting,
 			String keyPrefix, ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage,
-			boolean readonly) {
+			boolean readonly, MerkleNodeCache nodeCache) {
 
 		String contractsetKeyPrefix = keyPrefix + CONTRACT_SET_PREFIX;
 		return new ContractAccountSet(contractAccountSetHash, cryptoSetting, contractsetKeyPrefix, ledgerExStorage,
-				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY);
+				ledgerVerStorage, readonly, DEFAULT_ACCESS_POLICY, nodeCache);
 	}
 
 	static TransactionSet loadTransactionSet(HashDigest txsetHash, CryptoSetting cryptoSetting, String keyPrefix,
-			ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage, boolean readonly) {
+			ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 
 		String txsetKeyPrefix = keyPrefix + TRANSACTION_SET_PREFIX;
 		return new TransactionSet(txsetHash, cryptoSetting, txsetKeyPrefix, ledgerExStorage, ledgerVerStorage,
-				readonly);
+				readonly, nodeCache);
 
 	}
 
@@ -541,6 +813,21 @@ class LedgerRepositoryImpl implements LedgerRepository {
 			return editor.newTransaction(txRequest);
 		}
 
+		@Override
+		public boolean isSpeculationSupported() {
+			return editor.isSpeculationSupported();
+		}
+
+		@Override
+		public SpeculativeTransactionContext newSpeculativeTransaction(TransactionRequest txRequest) {
+			return editor.newSpeculativeTransaction(txRequest);
+		}
+
+		@Override
+		public LedgerTransactionContext adoptTransaction(SpeculativeTransactionContext speculation) {
+			return editor.adoptTransaction(speculation);
+		}
+
 		@Override
 		public LedgerBlock prepare() {
 			return editor.prepare();
@@ -550,9 +837,13 @@ class LedgerRepositoryImpl implements LedgerRepository {
 		public void commit() {
 			try {
 				editor.commit();
+				LedgerBlock previousBlock = ledgerRepo.latestState.block;
+				ledgerRepo.blockHashIndex.put(previousBlock.getHeight(), previousBlock.getHash());
+				ledgerRepo.blockCache.put(previousBlock.getHash(), previousBlock);
 				LedgerBlock latestBlock = editor.getCurrentBlock();
 				ledgerRepo.latestState = new LedgerState(latestBlock, editor.getLedgerDataset(),
 						editor.getTransactionSet());
+				ledgerRepo.notifyBlockCommitted();
 			} finally {
 				ledgerRepo.nextBlockEditor = null;
 			}
@@ -575,6 +866,19 @@ class LedgerRepositoryImpl implements LedgerRepository {
 	 * @author huanghaiquan
 	 *
 	 */
+	private static class BlockHeightWaiter {
+
+		private final long height;
+
+		private final CompletableFuture<Long> future;
+
+		private BlockHeightWaiter(long height, CompletableFuture<Long> future) {
+			this.height = height;
+			this.future = future;
+		}
+
+	}
+
 	private static class LedgerState {
 
 		private final LedgerBlock block;
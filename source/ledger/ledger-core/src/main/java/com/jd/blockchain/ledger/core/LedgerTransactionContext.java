@@ -52,6 +52,18 @@ public interface LedgerTransactionContext {
 	 */
 	LedgerTransaction commit(TransactionState txResult, List<OperationResult> operationResults);
 
+	/**
+	 * 提交对账本数据的修改，以指定的交易状态提交交易；
+	 * 
+	 * @param txResult
+	 * @param operationResults
+	 * @param executedOperations 交易实际执行的操作，包括合约执行时产生的操作；用于生成区块的布隆过滤器和账户历史的索引；为 null 时采用交易请求声明的操作；
+	 *
+	 * @return
+	 */
+	LedgerTransaction commit(TransactionState txResult, List<OperationResult> operationResults,
+			List<Operation> executedOperations);
+
 	/**
 	 * 抛弃对账本数据的修改，以指定的交易状态提交交易；<br>
 	 *
@@ -1,6 +1,11 @@
 package com.jd.blockchain.ledger.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.jd.blockchain.binaryproto.BinaryProtocol;
 import com.jd.blockchain.crypto.Crypto;
@@ -14,23 +19,52 @@ import com.jd.blockchain.ledger.LedgerDataSnapshot;
 import com.jd.blockchain.ledger.LedgerInitSetting;
 import com.jd.blockchain.ledger.LedgerSettings;
 import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.Operation;
 import com.jd.blockchain.ledger.OperationResult;
 import com.jd.blockchain.ledger.TransactionRequest;
 import com.jd.blockchain.ledger.TransactionRollbackException;
 import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.core.handles.OperationAccounts;
 import com.jd.blockchain.storage.service.ExPolicyKVStorage;
 import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.storage.service.utils.ArenaKVStorage;
 import com.jd.blockchain.storage.service.utils.BufferedKVStorage;
+import com.jd.blockchain.storage.service.utils.StagedKVStorage;
 import com.jd.blockchain.utils.Bytes;
 import com.jd.blockchain.utils.codec.Base58Utils;
+import com.jd.blockchain.utils.io.BytesOutputBuffer;
 
 public class LedgerTransactionalEditor implements LedgerEditor {
 
 	private static final boolean PARALLEL_DB_WRITE;
 
+	/**
+	 * 是否以堆外内存暂存区块和交易的写入；
+	 */
+	private static final boolean ARENA_STAGING;
+
+	/**
+	 * 是否在区块就绪时生成区块的布隆过滤器；
+	 */
+	private static final boolean BLOOM_FILTER;
+
+	/**
+	 * 是否在区块就绪时写入账户历史的索引；
+	 */
+	private static final boolean ACCOUNT_HISTORY;
+
 	static {
 		PARALLEL_DB_WRITE = Boolean.getBoolean("parallel-dbwrite");
 		System.out.println("------ [[ parallel-dbwrite=" + PARALLEL_DB_WRITE + " ]] ------");
+
+		ARENA_STAGING = Boolean.getBoolean("arena-staging");
+		System.out.println("------ [[ arena-staging=" + ARENA_STAGING + " ]] ------");
+
+		BLOOM_FILTER = Boolean.parseBoolean(System.getProperty("block-bloom-filter", "true"));
+		System.out.println("------ [[ block-bloom-filter=" + BLOOM_FILTER + " ]] ------");
+
+		ACCOUNT_HISTORY = Boolean.parseBoolean(System.getProperty("account-history-index", "true"));
+		System.out.println("------ [[ account-history-index=" + ACCOUNT_HISTORY + " ]] ------");
 	}
 
 	/**
@@ -57,7 +91,7 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 	/**
 	 * 当前区块的存储；
 	 */
-	private BufferedKVStorage baseStorage;
+	private StagedKVStorage baseStorage;
 
 	/**
 	 * 上一个交易产生的账本快照；
@@ -79,6 +113,64 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 	 */
 	private volatile TransactionSet latestTransactionSet;
 
+	/**
+	 * 是否以区块为隔离级别处理交易；<br>
+	 * 
+	 * 区块隔离模式下，区块内的全部交易共享同一个账本数据集和交易集合，各交易的写入通过撤销日志实现回滚；<br>
+	 * 默克尔树的哈希计算延迟到 {@link #prepare()} 时对整个区块执行一次；
+	 */
+	private final boolean blockIsolation;
+
+	/**
+	 * 区块隔离模式下当前交易的撤销日志；
+	 */
+	private UndoLog undoLog;
+
+	/**
+	 * 区块隔离模式下区块内共享的账本数据集；
+	 */
+	private LedgerDataset blockDataset;
+
+	/**
+	 * 区块隔离模式下区块内共享的交易集合；
+	 */
+	private TransactionSet blockTransactionSet;
+
+	/**
+	 * 区块隔离模式下区块内已提交交易写入的账户集合，用于检测推测执行的冲突；
+	 */
+	private ReadWriteSet blockWriteSet;
+
+	/**
+	 * 区块隔离模式下已被采纳的推测执行的存储缓冲，在区块就绪时按采纳的顺序写入区块的存储；
+	 */
+	private List<StagedKVStorage> adoptedStorages = new ArrayList<>();
+
+	/**
+	 * 区块中已提交的交易的内容哈希，用于在区块就绪时生成布隆过滤器；
+	 */
+	private List<HashDigest> blockTxHashes = new ArrayList<>();
+
+	/**
+	 * 区块中已提交的成功交易写入的账户地址，用于在区块就绪时生成布隆过滤器；
+	 */
+	private Set<Bytes> blockAccountAddresses = new LinkedHashSet<>();
+
+	/**
+	 * 区块中已提交的交易的数量；
+	 */
+	private int blockTxCount = 0;
+
+	/**
+	 * 账户历史索引的写入器；未开启时为 null；
+	 */
+	private AccountHistoryIndex.BlockWriter historyWriter;
+
+	/**
+	 * 账本的默克尔树节点缓存；为 null 时不缓存；
+	 */
+	private final MerkleNodeCache nodeCache;
+
 	/**
 	 * @param ledgerHash
 	 * @param cryptoSetting
@@ -86,10 +178,12 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 	 * @param startingPoint
 	 * @param ledgerKeyPrefix
 	 * @param bufferedStorage
-	 * @param verifyTx        是否校验交易请求；当外部调用者在调用前已经实施了验证时，将次参数设置为 false 能够提升性能；
+	 * @param blockIsolation  是否以区块为隔离级别处理交易；
+	 * @param nodeCache       账本的默克尔树节点缓存；为 null 时不缓存；
 	 */
 	private LedgerTransactionalEditor(HashDigest ledgerHash, CryptoSetting cryptoSetting, LedgerBlockData currentBlock,
-			StagedSnapshot startingPoint, String ledgerKeyPrefix, BufferedKVStorage bufferedStorage) {
+			StagedSnapshot startingPoint, String ledgerKeyPrefix, StagedKVStorage bufferedStorage,
+			boolean blockIsolation, MerkleNodeCache nodeCache) {
 		this.ledgerHash = ledgerHash;
 		this.ledgerKeyPrefix = ledgerKeyPrefix;
 		this.cryptoSetting = cryptoSetting;
@@ -97,6 +191,13 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		this.baseStorage = bufferedStorage;
 
 		this.startingPoint = startingPoint;
+		this.blockIsolation = blockIsolation;
+		this.nodeCache = nodeCache;
+
+		if (ACCOUNT_HISTORY) {
+			this.historyWriter = new AccountHistoryIndex(ledgerKeyPrefix, bufferedStorage)
+					.newBlockWriter(currentBlock.getHeight());
+		}
 
 //		this.stagedSnapshots.push(startingPoint);
 	}
@@ -115,6 +216,23 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 	 */
 	public static LedgerTransactionalEditor createEditor(LedgerBlock previousBlock, LedgerSettings ledgerSetting,
 			String ledgerKeyPrefix, ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage) {
+		return createEditor(previousBlock, ledgerSetting, ledgerKeyPrefix, ledgerExStorage, ledgerVerStorage, null);
+	}
+
+	/**
+	 * 创建账本新区块的编辑器；
+	 * 
+	 * @param previousBlock    前置区块；
+	 * @param ledgerSetting    账本设置；
+	 * @param ledgerKeyPrefix  账本数据前缀；
+	 * @param ledgerExStorage  账本数据存储；
+	 * @param ledgerVerStorage 账本数据版本化存储；
+	 * @param nodeCache        账本的默克尔树节点缓存；为 null 时不缓存；
+	 * @return
+	 */
+	public static LedgerTransactionalEditor createEditor(LedgerBlock previousBlock, LedgerSettings ledgerSetting,
+			String ledgerKeyPrefix, ExPolicyKVStorage ledgerExStorage, VersioningKVStorage ledgerVerStorage,
+			MerkleNodeCache nodeCache) {
 		// new block;
 		HashDigest ledgerHash = previousBlock.getLedgerHash();
 		if (ledgerHash == null) {
@@ -127,13 +245,13 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 				previousBlock.getHash());
 
 		// init storage;
-		BufferedKVStorage txStagedStorage = new BufferedKVStorage(ledgerExStorage, ledgerVerStorage, PARALLEL_DB_WRITE);
+		StagedKVStorage txStagedStorage = createStagedStorage(ledgerExStorage, ledgerVerStorage, PARALLEL_DB_WRITE);
 
 		StagedSnapshot startingPoint = new TxSnapshot(previousBlock, previousBlock.getTransactionSetHash());
 
 		// instantiate editor;
 		return new LedgerTransactionalEditor(ledgerHash, ledgerSetting.getCryptoSetting(), currBlock, startingPoint,
-				ledgerKeyPrefix, txStagedStorage);
+				ledgerKeyPrefix, txStagedStorage, ledgerSetting.getBlockIsolation(), nodeCache);
 	}
 
 	/**
@@ -151,13 +269,35 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		LedgerBlockData genesisBlock = new LedgerBlockData(0, null, null);
 		StagedSnapshot startingPoint = new GenesisSnapshot(initSetting);
 		// init storage;
-		BufferedKVStorage txStagedStorage = new BufferedKVStorage(ledgerExStorage, ledgerVerStorage, false);
+		StagedKVStorage txStagedStorage = createStagedStorage(ledgerExStorage, ledgerVerStorage, false);
 		return new LedgerTransactionalEditor(null, initSetting.getCryptoSetting(), genesisBlock, startingPoint,
-				ledgerKeyPrefix, txStagedStorage);
+				ledgerKeyPrefix, txStagedStorage, false, null);
+	}
+
+	/**
+	 * 创建暂存写入的存储；
+	 * 
+	 * @param exStorage
+	 * @param verStorage
+	 * @param parallel   是否并行写入；
+	 * @return
+	 */
+	private static StagedKVStorage createStagedStorage(ExPolicyKVStorage exStorage, VersioningKVStorage verStorage,
+			boolean parallel) {
+		if (ARENA_STAGING) {
+			return new ArenaKVStorage(exStorage, verStorage, parallel);
+		}
+		return new BufferedKVStorage(exStorage, verStorage, parallel);
 	}
 
 	private void commitTxSnapshot(TxSnapshot snapshot) {
 		previousTxSnapshot = snapshot;
+		if (blockIsolation) {
+			// 区块隔离模式下，共享的数据集在区块就绪之前保持可写；
+			undoLog.checkpoint();
+			currentTxCtx = null;
+			return;
+		}
 		latestLedgerDataset = currentTxCtx.getDataset();
 		latestLedgerDataset.setReadonly();
 		latestTransactionSet = currentTxCtx.getTransactionSet();
@@ -165,6 +305,36 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		currentTxCtx = null;
 	}
 
+	/**
+	 * 记录已提交的交易，用于生成区块的布隆过滤器和账户历史的索引；
+	 * 
+	 * @param txRequest
+	 * @param txResult
+	 * @param executedOperations 交易实际执行的操作；为 null 时采用交易请求声明的操作；
+	 */
+	private void recordTransaction(TransactionRequest txRequest, TransactionState txResult,
+			List<Operation> executedOperations) {
+		int txIndex = blockTxCount++;
+		if (BLOOM_FILTER) {
+			blockTxHashes.add(txRequest.getTransactionContent().getHash());
+		}
+		if (txResult != TransactionState.SUCCESS) {
+			return;
+		}
+		// 合约执行时写入的账户只出现在实际执行的操作中；
+		List<Operation> operations = executedOperations;
+		if (operations == null) {
+			Operation[] declaredOperations = txRequest.getTransactionContent().getOperations();
+			operations = declaredOperations == null ? Collections.emptyList() : Arrays.asList(declaredOperations);
+		}
+		if (BLOOM_FILTER) {
+			blockAccountAddresses.addAll(OperationAccounts.resolve(operations).keySet());
+		}
+		if (historyWriter != null) {
+			historyWriter.record(txIndex, operations);
+		}
+	}
+
 	private void rollbackCurrentTx() {
 		currentTxCtx = null;
 	}
@@ -232,8 +402,13 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		// 检查状态是否允许创建新的交易请求；；
 		checkState();
 
+		if (blockIsolation) {
+			currentTxCtx = newBlockIsolatedTransaction(txRequest);
+			return currentTxCtx;
+		}
+
 		// init storage of new transaction;
-		BufferedKVStorage txBufferedStorage = new BufferedKVStorage(baseStorage, baseStorage, false);
+		StagedKVStorage txBufferedStorage = createStagedStorage(baseStorage, baseStorage, false);
 
 		LedgerDataset txDataset = null;
 		TransactionSet txset = null;
@@ -252,11 +427,11 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 				TxSnapshot snpht = (TxSnapshot) startingPoint;
 				// load dataset;
 				txDataset = LedgerRepositoryImpl.loadDataSet(snpht.dataSnapshot, cryptoSetting, ledgerKeyPrefix,
-						txBufferedStorage, txBufferedStorage, false);
+						txBufferedStorage, txBufferedStorage, false, nodeCache);
 
 				// load txset;
 				txset = LedgerRepositoryImpl.loadTransactionSet(snpht.txsetHash, cryptoSetting, ledgerKeyPrefix,
-						txBufferedStorage, txBufferedStorage, false);
+						txBufferedStorage, txBufferedStorage, false, nodeCache);
 			} else {
 				// Unreachable;
 				throw new IllegalStateException("Unreachable code was accidentally executed!");
@@ -266,18 +441,143 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 			// Reuse previous object to optimize performance;
 			// load dataset;
 			txDataset = LedgerRepositoryImpl.loadDataSet(previousTxSnapshot.dataSnapshot, cryptoSetting,
-					ledgerKeyPrefix, txBufferedStorage, txBufferedStorage, false);
+					ledgerKeyPrefix, txBufferedStorage, txBufferedStorage, false, nodeCache);
 
 			// load txset;
 			txset = LedgerRepositoryImpl.loadTransactionSet(previousTxSnapshot.txsetHash, cryptoSetting,
-					ledgerKeyPrefix, txBufferedStorage, txBufferedStorage, false);
+					ledgerKeyPrefix, txBufferedStorage, txBufferedStorage, false, nodeCache);
 		}
 
-		currentTxCtx = new LedgerTransactionContextImpl(txRequest, txDataset, txset, txBufferedStorage, this);
+		currentTxCtx = new LedgerTransactionContextImpl(txRequest, txDataset, txset, txBufferedStorage, null, this);
 
 		return currentTxCtx;
 	}
 
+	/**
+	 * 在区块隔离模式下创建交易上下文；<br>
+	 * 
+	 * 区块内的全部交易共享同一个账本数据集和交易集合，首个交易时从区块的起点加载；
+	 * 
+	 * @param txRequest
+	 * @return
+	 */
+	private LedgerTransactionContextImpl newBlockIsolatedTransaction(TransactionRequest txRequest) {
+		initBlockDataset();
+		return new LedgerTransactionContextImpl(txRequest, blockDataset, blockTransactionSet, null, undoLog, this);
+	}
+
+	private void initBlockDataset() {
+		if (blockDataset != null) {
+			return;
+		}
+		TxSnapshot snpht = (TxSnapshot) startingPoint;
+		blockDataset = LedgerRepositoryImpl.loadDataSet(snpht.dataSnapshot, cryptoSetting, ledgerKeyPrefix,
+				baseStorage, baseStorage, false, nodeCache);
+		blockTransactionSet = LedgerRepositoryImpl.loadTransactionSet(snpht.txsetHash, cryptoSetting,
+				ledgerKeyPrefix, baseStorage, baseStorage, false, nodeCache);
+
+		undoLog = new UndoLog();
+		blockDataset.setUndoLog(undoLog);
+		blockTransactionSet.setUndoLog(undoLog);
+
+		blockWriteSet = new ReadWriteSet(false);
+		blockDataset.setReadWriteSet(blockWriteSet);
+	}
+
+	@Override
+	public boolean isSpeculationSupported() {
+		return blockIsolation;
+	}
+
+	/**
+	 * 注：此方法不验证交易完整性和签名有效性；调用者应在此方法之外进行数据完整性和签名有效性的检查；
+	 */
+	@Override
+	public SpeculativeTransactionContext newSpeculativeTransaction(TransactionRequest txRequest) {
+		if (!blockIsolation) {
+			throw new IllegalStateException("Speculative execution is only supported in block isolation mode!");
+		}
+		if (!isRequestMatched(txRequest)) {
+			throw new IllegalTransactionException(
+					"Transaction request is dispatched to a wrong ledger! --[TxHash="
+							+ txRequest.getTransactionContent().getHash() + "]!",
+					TransactionState.IGNORED_BY_WRONG_LEDGER);
+		}
+		checkState();
+
+		// 推测执行的写入缓冲在独立的存储中，直到被采纳；
+		StagedKVStorage txBufferedStorage = createStagedStorage(baseStorage, baseStorage, false);
+		TxSnapshot snpht = (TxSnapshot) startingPoint;
+		LedgerDataset txDataset = LedgerRepositoryImpl.loadDataSet(snpht.dataSnapshot, cryptoSetting,
+				ledgerKeyPrefix, txBufferedStorage, txBufferedStorage, false, nodeCache);
+
+		ReadWriteSet readWriteSet = new ReadWriteSet(true);
+		txDataset.setReadWriteSet(readWriteSet);
+
+		return new SpeculativeTransactionContext(txRequest, txDataset, txBufferedStorage, readWriteSet);
+	}
+
+	@Override
+	public synchronized LedgerTransactionContext adoptTransaction(SpeculativeTransactionContext speculation) {
+		TransactionRequest txRequest = speculation.getTransactionRequest();
+		if (currentTxCtx != null) {
+			throw new IllegalStateException(
+					"Unable to open another new transaction before the current transaction is completed! --[TxHash="
+							+ txRequest.getTransactionContent().getHash() + "]!");
+		}
+		checkState();
+		initBlockDataset();
+
+		LedgerDataset speculativeDataset = speculation.getDataset();
+		if (blockDataset.getAdminDataset().isUpdated() || speculativeDataset.getAdminDataset().isUpdated()) {
+			// 管理数据的变更不以账户为粒度记录读写集合，不采纳推测执行的结果；
+			return null;
+		}
+		if (speculation.getReadWriteSet().conflictsWith(blockWriteSet)) {
+			return null;
+		}
+
+		blockDataset.adopt(speculativeDataset);
+		StagedKVStorage speculativeStorage = speculation.getStorage();
+		adoptedStorages.add(speculativeStorage);
+		undoLog.record(() -> adoptedStorages.remove(speculativeStorage));
+
+		currentTxCtx = new LedgerTransactionContextImpl(txRequest, blockDataset, blockTransactionSet, null, undoLog,
+				this);
+		return currentTxCtx;
+	}
+
+	/**
+	 * 在区块隔离模式下一次性提交区块内全部交易的写入，计算默克尔树的根哈希；
+	 */
+	private void commitBlockDataset() {
+		blockDataset.commit();
+		blockTransactionSet.commit();
+		undoLog.checkpoint();
+
+		// 被采纳的账户在提交时将默克尔树节点写入各自的推测执行缓冲，需要一并写入区块的存储；
+		for (StagedKVStorage speculativeStorage : adoptedStorages) {
+			speculativeStorage.flush();
+		}
+		adoptedStorages.clear();
+
+		previousTxSnapshot = new TxSnapshot(takeDataSnapshot(blockDataset), blockTransactionSet.getRootHash());
+
+		latestLedgerDataset = blockDataset;
+		latestLedgerDataset.setReadonly();
+		latestTransactionSet = blockTransactionSet;
+		latestTransactionSet.setReadonly();
+	}
+
+	private static TransactionStagedSnapshot takeDataSnapshot(LedgerDataset dataset) {
+		TransactionStagedSnapshot txDataSnapshot = new TransactionStagedSnapshot();
+		txDataSnapshot.setAdminAccountHash(dataset.getAdminDataset().getHash());
+		txDataSnapshot.setContractAccountSetHash(dataset.getContractAccountset().getRootHash());
+		txDataSnapshot.setDataAccountSetHash(dataset.getDataAccountSet().getRootHash());
+		txDataSnapshot.setUserAccountSetHash(dataset.getUserAccountSet().getRootHash());
+		return txDataSnapshot;
+	}
+
 	@Override
 	public LedgerBlock prepare() {
 		checkState();
@@ -294,6 +594,9 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		}
 
 		// do commit when transaction isolation level is BLOCK;
+		if (blockIsolation) {
+			commitBlockDataset();
+		}
 		currentBlock.setAdminAccountHash(previousTxSnapshot.getAdminAccountHash());
 		currentBlock.setUserAccountSetHash(previousTxSnapshot.getUserAccountSetHash());
 		currentBlock.setDataAccountSetHash(previousTxSnapshot.getDataAccountSetHash());
@@ -305,8 +608,11 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 //		currentBlock.setTimestamp(timestamp);
 
 		// compute block hash;
-		byte[] blockBodyBytes = BinaryProtocol.encode(currentBlock, BlockBody.class);
-		HashDigest blockHash = Crypto.getHashFunction(cryptoSetting.getHashAlgorithm()).hash(blockBodyBytes);
+		// 区块体只编码一次，计算哈希之后作为区块的编码结果的前半部分；
+		BytesOutputBuffer blockBodyBuffer = new BytesOutputBuffer();
+		BinaryProtocol.encode(currentBlock, BlockBody.class, blockBodyBuffer);
+		HashDigest blockHash = Crypto.getHashFunction(cryptoSetting.getHashAlgorithm()).beginHash()
+				.update(blockBodyBuffer).complete();
 		currentBlock.setHash(blockHash);
 
 //		if (currentBlock.getLedgerHash() == null) {
@@ -316,7 +622,7 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 
 		// persist block bytes;
 		// only one version per block;
-		byte[] blockBytes = BinaryProtocol.encode(currentBlock, LedgerBlock.class);
+		byte[] blockBytes = BinaryProtocol.encode(currentBlock, LedgerBlock.class, BlockBody.class, blockBodyBuffer);
 		Bytes blockStorageKey = LedgerRepositoryImpl.encodeBlockStorageKey(currentBlock.getHash());
 		long v = baseStorage.set(blockStorageKey, blockBytes, -1);
 		if (v < 0) {
@@ -324,6 +630,18 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 					"Block already exist! --[BlockHash=" + Base58Utils.encode(currentBlock.getHash().toBytes()) + "]");
 		}
 
+		// persist bloom filter of block, which is not a part of the block hash;
+		if (BLOOM_FILTER) {
+			byte[] filterBytes = BlockBloomFilter.create(blockTxHashes, blockAccountAddresses).toBytes();
+			Bytes filterStorageKey = LedgerRepositoryImpl.encodeBloomFilterStorageKey(currentBlock.getHash());
+			baseStorage.set(filterStorageKey, filterBytes, -1);
+		}
+
+		// persist account history index;
+		if (historyWriter != null) {
+			historyWriter.write();
+		}
+
 		// persist block hash to ledger index;
 		HashDigest ledgerHash = currentBlock.getLedgerHash();
 		if (ledgerHash == null) {
@@ -474,7 +792,12 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 
 		private TransactionSet txset;
 
-		private BufferedKVStorage storage;
+		private StagedKVStorage storage;
+
+		/**
+		 * 区块隔离模式下的撤销日志；事务隔离模式下为 null；
+		 */
+		private UndoLog undoLog;
 
 		private boolean committed = false;
 
@@ -485,11 +808,12 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 		private HashDigest txRootHash;
 
 		private LedgerTransactionContextImpl(TransactionRequest txRequest, LedgerDataset dataset,
-				TransactionSet txset, BufferedKVStorage storage, LedgerTransactionalEditor editor) {
+				TransactionSet txset, StagedKVStorage storage, UndoLog undoLog, LedgerTransactionalEditor editor) {
 			this.txRequest = txRequest;
 			this.dataset = dataset;
 			this.txset = txset;
 			this.storage = storage;
+			this.undoLog = undoLog;
 			this.blockEditor = editor;
 		}
 
@@ -515,27 +839,21 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 
 		@Override
 		public LedgerTransaction commit(TransactionState txResult, List<OperationResult> operationResults) {
-			checkTxState();
+			return commit(txResult, operationResults, null);
+		}
 
-			// capture snapshot
-			this.dataset.commit();
-			TransactionStagedSnapshot txDataSnapshot = takeDataSnapshot();
+		@Override
+		public LedgerTransaction commit(TransactionState txResult, List<OperationResult> operationResults,
+				List<Operation> executedOperations) {
+			checkTxState();
 
-			LedgerTransactionData tx;
-			try {
-				tx = new LedgerTransactionData(blockEditor.getBlockHeight(), txRequest, txResult, txDataSnapshot,
-						operationResultArray(operationResults));
-				this.txset.add(tx);
-				this.txset.commit();
-			} catch (Exception e) {
-				throw new TransactionRollbackException(e.getMessage(), e);
+			// capture snapshot；区块隔离模式下延迟到区块就绪时才提交；
+			if (undoLog == null) {
+				this.dataset.commit();
 			}
+			TransactionStagedSnapshot txDataSnapshot = takeDataSnapshot();
 
-			try {
-				this.storage.flush();
-			} catch (Exception e) {
-				throw new BlockRollbackException(e.getMessage(), e);
-			}
+			LedgerTransaction tx = addTransaction(txResult, txDataSnapshot, operationResults, executedOperations);
 
 			// put snapshot into stack;
 			TxSnapshot snapshot = new TxSnapshot(txDataSnapshot, txset.getRootHash());
@@ -555,41 +873,74 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 			checkTxState();
 
 			// 未处理
-			dataset.cancel();
+			cancelDataset();
 
 			TransactionStagedSnapshot txDataSnapshot = takeDataSnapshot();
 
+			LedgerTransaction tx = addTransaction(txResult, txDataSnapshot, operationResults, null);
+
+			// put snapshot into stack;
+			TxSnapshot snapshot = new TxSnapshot(txDataSnapshot, txset.getRootHash());
+			blockEditor.commitTxSnapshot(snapshot);
+
+			committed = true;
+			return tx;
+		}
+
+		/**
+		 * 把交易记录加入交易集合；
+		 * 
+		 * @param txResult
+		 * @param txDataSnapshot
+		 * @param operationResults
+		 * @param executedOperations
+		 * @return
+		 */
+		private LedgerTransaction addTransaction(TransactionState txResult, TransactionStagedSnapshot txDataSnapshot,
+				List<OperationResult> operationResults, List<Operation> executedOperations) {
 			LedgerTransactionData tx;
 			try {
 				tx = new LedgerTransactionData(blockEditor.getBlockHeight(), txRequest, txResult, txDataSnapshot,
 						operationResultArray(operationResults));
 				this.txset.add(tx);
-				this.txset.commit();
+				if (undoLog == null) {
+					this.txset.commit();
+				}
 			} catch (Exception e) {
 				throw new TransactionRollbackException(e.getMessage(), e);
 			}
-
-			try {
-				this.storage.flush();
-			} catch (Exception e) {
-				throw new BlockRollbackException(e.getMessage(), e);
+			blockEditor.recordTransaction(txRequest, txResult, executedOperations);
+
+			if (undoLog == null) {
+				try {
+					this.storage.flush();
+				} catch (Exception e) {
+					throw new BlockRollbackException(e.getMessage(), e);
+				}
 			}
-
-			// put snapshot into stack;
-			TxSnapshot snapshot = new TxSnapshot(txDataSnapshot, txset.getRootHash());
-			blockEditor.commitTxSnapshot(snapshot);
-
-			committed = true;
 			return tx;
 		}
 
+		/**
+		 * 撤销当前交易对账本数据集的写入；
+		 */
+		private void cancelDataset() {
+			if (undoLog == null) {
+				dataset.cancel();
+			} else {
+				undoLog.rollback();
+			}
+		}
+
+		/**
+		 * 交易的数据快照；<br>
+		 * 
+		 * 注：区块隔离模式下，由于默克尔树的哈希计算延迟到区块就绪时执行，快照为区块起点的根哈希；
+		 * 
+		 * @return
+		 */
 		private TransactionStagedSnapshot takeDataSnapshot() {
-			TransactionStagedSnapshot txDataSnapshot = new TransactionStagedSnapshot();
-			txDataSnapshot.setAdminAccountHash(dataset.getAdminDataset().getHash());
-			txDataSnapshot.setContractAccountSetHash(dataset.getContractAccountset().getRootHash());
-			txDataSnapshot.setDataAccountSetHash(dataset.getDataAccountSet().getRootHash());
-			txDataSnapshot.setUserAccountSetHash(dataset.getUserAccountSet().getRootHash());
-			return txDataSnapshot;
+			return LedgerTransactionalEditor.takeDataSnapshot(dataset);
 		}
 
 		private OperationResult[] operationResultArray(List<OperationResult> operationResults) {
@@ -609,8 +960,10 @@ public class LedgerTransactionalEditor implements LedgerEditor {
 			if (this.committed) {
 				throw new IllegalStateException("This transaction had been committed!");
 			}
-			dataset.cancel();
-			storage.cancel();
+			cancelDataset();
+			if (storage != null) {
+				storage.cancel();
+			}
 
 			blockEditor.rollbackCurrentTx();
 
@@ -68,7 +68,7 @@ public class MerkleAccount implements CompositeAccount, HashProvable, MerkleSnap
 	public MerkleAccount(BlockchainIdentity accountID, CryptoSetting cryptoSetting, Bytes keyPrefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage) {
 		// 初始化数据集；
-		initializeDatasets(null, cryptoSetting, keyPrefix, exStorage, verStorage, false);
+		initializeDatasets(null, cryptoSetting, keyPrefix, exStorage, verStorage, false, null);
 
 		initPubKey(accountID.getPubKey());
 		this.accountID = accountID;
@@ -89,23 +89,77 @@ public class MerkleAccount implements CompositeAccount, HashProvable, MerkleSnap
 	 */
 	public MerkleAccount(Bytes address, HashDigest rootHash, CryptoSetting cryptoSetting, Bytes keyPrefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly) {
+		this(address, rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly, null);
+	}
+
+	/**
+	 * Create a account instance with the specified address and root hash; load it's
+	 * merkle dataset from the specified root hash. This merkle dateset is used for
+	 * storing data of this account.<br>
+	 *
+	 * @param address       Address of this account;
+	 * @param rootHash      Merkle root hash of this account; It can not be null;
+	 * @param cryptoSetting Settings about crypto operations；
+	 * @param keyPrefix     Prefix of all keys in this account's dataset;
+	 * @param exStorage     The base storage for existance operation;
+	 * @param verStorage    The base storage for versioning operation;
+	 * @param readonly      Readonly about this account's dataset;
+	 * @param nodeCache     Cache of merkle nodes loaded from storage; No caching if null;
+	 */
+	public MerkleAccount(Bytes address, HashDigest rootHash, CryptoSetting cryptoSetting, Bytes keyPrefix,
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 		if (rootHash == null) {
 			throw new IllegalArgumentException("Specified a null root hash for account[" + address.toBase58() + "]!");
 		}
 
 		// 初始化数据集；
-		initializeDatasets(rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly);
+		initializeDatasets(rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly, nodeCache);
 
 		// 初始化账户的身份；
 		PubKey pubKey = loadPubKey();
 		this.accountID = new AccountID(address, pubKey);
 	}
 
+	/**
+	 * Create a account instance which shares the datasets of the specified account;
+	 * <br>
+	 * 
+	 * The changes of datasets made by each of them are visible to the other.
+	 * <br>
+	 * 
+	 * @param account The account whose datasets are shared;
+	 */
+	protected MerkleAccount(MerkleAccount account) {
+		this.accountID = account.accountID;
+		this.rootDataset = account.rootDataset;
+		this.headerDataset = account.headerDataset;
+		this.dataDataset = account.dataDataset;
+		initTypedDatasets();
+	}
+
 	private void initializeDatasets(HashDigest rootHash, CryptoSetting cryptoSetting, Bytes keyPrefix,
-			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly) {
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly, MerkleNodeCache nodeCache) {
 		// 加载“根数据集”
-		this.rootDataset = new MerkleDataSet(rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly);
+		this.rootDataset = new MerkleDataSet(rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly,
+				nodeCache);
 
+		// 加载“头数据集”；
+		HashDigest headerRoot = loadHeaderRoot();
+		Bytes headerPrefix = keyPrefix.concat(HEADER_PREFIX);
+		this.headerDataset = new MerkleDataSet(headerRoot, cryptoSetting, headerPrefix, exStorage, verStorage,
+				readonly, nodeCache);
+
+		// 加载“主数据集”
+		HashDigest dataRoot = loadDataRoot();
+		Bytes dataPrefix = keyPrefix.concat(DATA_PREFIX);
+		this.dataDataset = new MerkleDataSet(dataRoot, cryptoSetting, dataPrefix, exStorage, verStorage, readonly,
+				nodeCache);
+
+		initTypedDatasets();
+	}
+
+	private void initTypedDatasets() {
 		// 初始化数据修改监听器；
 		DataChangedListener<String, TypedValue> dataChangedListener = new DataChangedListener<String, TypedValue>() {
 			@Override
@@ -128,17 +182,7 @@ public class MerkleAccount implements CompositeAccount, HashProvable, MerkleSnap
 			}
 		};
 
-		// 加载“头数据集”；
-		HashDigest headerRoot = loadHeaderRoot();
-		Bytes headerPrefix = keyPrefix.concat(HEADER_PREFIX);
-		this.headerDataset = new MerkleDataSet(headerRoot, cryptoSetting, headerPrefix, exStorage, verStorage,
-				readonly);
 		this.typedHeader = DatasetHelper.listen(DatasetHelper.map(headerDataset, valueMapper), dataChangedListener);
-
-		// 加载“主数据集”
-		HashDigest dataRoot = loadDataRoot();
-		Bytes dataPrefix = keyPrefix.concat(DATA_PREFIX);
-		this.dataDataset = new MerkleDataSet(dataRoot, cryptoSetting, dataPrefix, exStorage, verStorage, readonly);
 		this.typedData = DatasetHelper.listen(DatasetHelper.map(dataDataset, valueMapper), dataChangedListener);
 	}
 
@@ -222,6 +266,17 @@ public class MerkleAccount implements CompositeAccount, HashProvable, MerkleSnap
 		return dataDataset.isReadonly() || headerDataset.isReadonly();
 	}
 
+	/**
+	 * 设置撤销日志，作用于账户的全部数据集；
+	 * 
+	 * @param undoLog
+	 */
+	void setUndoLog(UndoLog undoLog) {
+		rootDataset.setUndoLog(undoLog);
+		headerDataset.setUndoLog(undoLog);
+		dataDataset.setUndoLog(undoLog);
+	}
+
 	/**
 	 * 初始化账户的公钥；
 	 * 
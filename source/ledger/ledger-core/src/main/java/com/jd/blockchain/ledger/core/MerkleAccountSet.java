@@ -1,6 +1,8 @@
 package com.jd.blockchain.ledger.core;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.jd.blockchain.binaryproto.DataContractRegistry;
@@ -52,6 +54,28 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 
 	private AccountAccessPolicy accessPolicy;
 
+	private UndoLog undoLog;
+
+	/**
+	 * 读写集合；为 null 时不记录；
+	 */
+	private ReadWriteSet readWriteSet;
+
+	/**
+	 * 记录读写集合时，按加入缓存的先后顺序记录的账户地址；
+	 */
+	private List<Bytes> cachingOrder;
+
+	/**
+	 * 只读账户的缓存；为 null 时每次都从存储加载只读账户；
+	 */
+	private AccountCache accountCache;
+
+	/**
+	 * 默克尔树节点的缓存；由账户集合及其加载的账户共享；为 null 时不缓存；
+	 */
+	private final MerkleNodeCache nodeCache;
+
 	public boolean isReadonly() {
 		return merkleDataset.isReadonly();
 	}
@@ -60,6 +84,104 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 		merkleDataset.setReadonly();
 	}
 
+	/**
+	 * 设置撤销日志；已缓存的账户以及之后注册或加载的可写账户都会登记撤销动作；
+	 * 
+	 * @param undoLog
+	 */
+	void setUndoLog(UndoLog undoLog) {
+		this.undoLog = undoLog;
+		merkleDataset.setUndoLog(undoLog);
+		for (InnerMerkleAccount acc : latestAccountsCache.values()) {
+			acc.setUndoLog(undoLog);
+		}
+	}
+
+	/**
+	 * 设置读写集合；设置之后，对账户的访问将以“账户集合前缀+账户地址”为键记录到读写集合；
+	 * 
+	 * @param readWriteSet
+	 */
+	void setReadWriteSet(ReadWriteSet readWriteSet) {
+		this.readWriteSet = readWriteSet;
+		this.cachingOrder = new ArrayList<>();
+	}
+
+	/**
+	 * 设置只读账户的缓存；设置之后，只读的账户从缓存中返回，账户的根哈希不变时复用已加载的实例；<br>
+	 * 
+	 * 缓存可以由同一个账本的多个只读账户集合共享；
+	 * 
+	 * @param accountCache
+	 */
+	void setAccountCache(AccountCache accountCache) {
+		this.accountCache = accountCache;
+	}
+
+	private void recordRead(Bytes address) {
+		if (readWriteSet != null) {
+			readWriteSet.recordRead(keyPrefix.concat(address));
+		}
+	}
+
+	private void recordWrite(Bytes address) {
+		if (readWriteSet != null) {
+			readWriteSet.recordWrite(keyPrefix.concat(address));
+		}
+	}
+
+	private void cacheAccount(Bytes address, InnerMerkleAccount acc) {
+		latestAccountsCache.put(address, acc);
+		if (cachingOrder != null) {
+			cachingOrder.add(address);
+		}
+	}
+
+	/**
+	 * 采纳另一个账户集合中缓存的最新账户；<br>
+	 * 
+	 * 指定的账户集合应与当前账户集合基于相同的起点加载，并且其中被修改的账户在当前账户集合中尚未被修改；<br>
+	 * 
+	 * 账户按照在指定集合中加入缓存的先后顺序被加入当前集合的缓存，使缓存的状态与依次在当前集合中执行相同访问的结果保持一致；
+	 * 
+	 * @param speculativeSet 记录了读写集合的账户集合；
+	 */
+	void adopt(MerkleAccountSet speculativeSet) {
+		if (isReadonly()) {
+			throw new IllegalArgumentException("This AccountSet is readonly!");
+		}
+		if (speculativeSet.cachingOrder == null) {
+			throw new IllegalArgumentException("The adopted account set doesn't record the caching order!");
+		}
+		for (Bytes address : speculativeSet.cachingOrder) {
+			InnerMerkleAccount speculativeAcc = speculativeSet.latestAccountsCache.get(address);
+			if (speculativeAcc == null) {
+				continue;
+			}
+			boolean written = speculativeAcc.getVersion() < 0 || speculativeAcc.isUpdated();
+			InnerMerkleAccount previousAcc = latestAccountsCache.get(address);
+			if (previousAcc != null && !written) {
+				continue;
+			}
+			InnerMerkleAccount acc = new InnerMerkleAccount(speculativeAcc);
+			cacheAccount(address, acc);
+			if (undoLog != null) {
+				acc.setUndoLog(undoLog);
+				undoLog.record(() -> {
+					if (previousAcc == null) {
+						latestAccountsCache.remove(address);
+					} else {
+						latestAccountsCache.put(address, previousAcc);
+					}
+				});
+			}
+			if (written) {
+				updated = true;
+				recordWrite(address);
+			}
+		}
+	}
+
 	public MerkleAccountSet(CryptoSetting cryptoSetting, Bytes keyPrefix, ExPolicyKVStorage exStorage,
 			VersioningKVStorage verStorage, AccountAccessPolicy accessPolicy) {
 		this(null, cryptoSetting, keyPrefix, exStorage, verStorage, false, accessPolicy);
@@ -68,12 +190,19 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 	public MerkleAccountSet(HashDigest rootHash, CryptoSetting cryptoSetting, Bytes keyPrefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
 			AccountAccessPolicy accessPolicy) {
+		this(rootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly, accessPolicy, null);
+	}
+
+	public MerkleAccountSet(HashDigest rootHash, CryptoSetting cryptoSetting, Bytes keyPrefix,
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
+			AccountAccessPolicy accessPolicy, MerkleNodeCache nodeCache) {
 		this.keyPrefix = keyPrefix;
 		this.cryptoSetting = cryptoSetting;
 		this.baseExStorage = exStorage;
 		this.baseVerStorage = verStorage;
+		this.nodeCache = nodeCache;
 		this.merkleDataset = new MerkleDataSet(rootHash, cryptoSetting, keyPrefix, this.baseExStorage,
-				this.baseVerStorage, readonly);
+				this.baseVerStorage, readonly, nodeCache);
 
 		this.accessPolicy = accessPolicy;
 	}
@@ -136,6 +265,7 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 	 * @return
 	 */
 	public boolean contains(Bytes address) {
+		recordRead(address);
 		InnerMerkleAccount acc = latestAccountsCache.get(address);
 		if (acc != null) {
 			// 无论是新注册未提交的，还是缓存已提交的账户实例，都认为是存在；
@@ -156,6 +286,7 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 	 * @return
 	 */
 	public long getVersion(Bytes address) {
+		recordRead(address);
 		InnerMerkleAccount acc = latestAccountsCache.get(address);
 		if (acc != null) {
 			// 已注册尚未提交，也返回 -1;
@@ -176,6 +307,7 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 	 */
 	public CompositeAccount getAccount(Bytes address, long version) {
 		version = version < 0 ? -1 : version;
+		recordRead(address);
 		InnerMerkleAccount acc = latestAccountsCache.get(address);
 		if (acc != null && version == -1) {
 			return acc;
@@ -208,6 +340,9 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 		boolean readonly = (version > -1 && version < latestVersion) || isReadonly();
 		
 		long qVersion = version == -1 ? latestVersion : version;
+		if (readonly && accountCache != null) {
+			return loadCachedAccount(address, qVersion);
+		}
 		// load account from storage;
 		acc = loadAccount(address, readonly, qVersion);
 		if (acc == null) {
@@ -216,7 +351,10 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 		if (!readonly) {
 			// cache the latest version witch enable reading and writing;
 			// readonly version of account not necessary to be cached;
-			latestAccountsCache.put(address, acc);
+			cacheAccount(address, acc);
+			if (undoLog != null) {
+				acc.setUndoLog(undoLog);
+			}
 		}
 		return acc;
 	}
@@ -244,6 +382,7 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 		Bytes address = accountId.getAddress();
 		PubKey pubKey = accountId.getPubKey();
 		verifyAddressEncoding(address, pubKey);
+		recordRead(address);
 
 		InnerMerkleAccount cachedAcc = latestAccountsCache.get(address);
 		if (cachedAcc != null) {
@@ -265,8 +404,13 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 
 		Bytes prefix = keyPrefix.concat(address);
 		InnerMerkleAccount acc = createInstance(accountId, cryptoSetting, prefix);
-		latestAccountsCache.put(address, acc);
+		cacheAccount(address, acc);
 		updated = true;
+		recordWrite(address);
+		if (undoLog != null) {
+			acc.setUndoLog(undoLog);
+			undoLog.record(() -> latestAccountsCache.remove(address));
+		}
 
 		return acc;
 	}
@@ -300,6 +444,24 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 		return createAccount(address, rootHash, version, readonly);
 	}
 
+	/**
+	 * 从缓存返回指定版本的只读账户；未缓存时从存储加载；
+	 * 
+	 * @param address 账户地址；
+	 * @param version 账户的版本；大于等于 0 ；
+	 * @return
+	 */
+	private MerkleAccount loadCachedAccount(Bytes address, long version) {
+		byte[] rootHashBytes = merkleDataset.getValue(address, version);
+		if (rootHashBytes == null) {
+			return null;
+		}
+		HashDigest rootHash = new HashDigest(rootHashBytes);
+		// 只读账户不会触发更新和提交的回调，不必创建与当前账户集合绑定的内部账户；
+		return accountCache.get(keyPrefix, address, rootHash, () -> new MerkleAccount(address, rootHash,
+				cryptoSetting, keyPrefix.concat(address), baseExStorage, baseVerStorage, true, nodeCache));
+	}
+
 	private InnerMerkleAccount createAccount(Bytes address, HashDigest rootHash, long version, boolean readonly) {
 		// prefix;
 		Bytes prefix = keyPrefix.concat(address);
@@ -383,13 +545,22 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 
 		public InnerMerkleAccount(Bytes address, long version, HashDigest dataRootHash, CryptoSetting cryptoSetting,
 				Bytes keyPrefix, ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly) {
-			super(address, dataRootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly);
+			super(address, dataRootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly, nodeCache);
 			this.version = version;
 		}
 
+		public InnerMerkleAccount(InnerMerkleAccount account) {
+			super(account);
+			this.version = account.version;
+		}
+
 		@Override
 		protected void onUpdated(String key, TypedValue value, long expectedVersion, long newVersion) {
 			updated = true;
+			// 新账户在构造过程中初始化公钥时，地址尚未设置，由注册过程记录写入；
+			if (getID() != null) {
+				recordWrite(getAddress());
+			}
 		}
 
 		@Override
@@ -408,4 +579,4 @@ public class MerkleAccountSet implements Transactional, MerkleProvable, AccountQ
 
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.jd.blockchain.ledger.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.CryptoSetting;
 import com.jd.blockchain.ledger.LedgerException;
@@ -56,6 +60,8 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 
 	private boolean readonly;
 
+	private UndoLog undoLog;
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -134,6 +140,23 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 	 */
 	public MerkleDataSet(HashDigest merkleRootHash, CryptoSetting setting, Bytes keyPrefix,
 			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage versioningStorage, boolean readonly) {
+		this(merkleRootHash, setting, keyPrefix, exPolicyStorage, versioningStorage, readonly, null);
+	}
+
+	/**
+	 * 从指定的 Merkle 根构建的 MerkleDataSet；
+	 * 
+	 * @param merkleRootHash
+	 * @param setting
+	 * @param keyPrefix
+	 * @param exPolicyStorage
+	 * @param versioningStorage
+	 * @param readonly
+	 * @param nodeCache         默克尔树节点的缓存；为 null 时不缓存；
+	 */
+	public MerkleDataSet(HashDigest merkleRootHash, CryptoSetting setting, Bytes keyPrefix,
+			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage versioningStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 		// 缓冲对KV的写入；
 		this.bufferedStorage = new BufferedKVStorage(exPolicyStorage, versioningStorage, false);
 
@@ -148,7 +171,8 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 		// MerkleTree 本身是可缓冲的；
 		merkleKeyPrefix = keyPrefix.concat(MERKLE_TREE_PREFIX);
 		ExPolicyKVStorage merkleTreeStorage = exPolicyStorage;
-		this.merkleTree = new MerkleTree(merkleRootHash, setting, merkleKeyPrefix, merkleTreeStorage, readonly);
+		this.merkleTree = new MerkleTree(merkleRootHash, setting, merkleKeyPrefix, merkleTreeStorage, readonly,
+				nodeCache);
 
 		this.snGenerator = new MerkleSequenceSNGenerator(merkleTree);
 		this.readonly = readonly;
@@ -162,6 +186,16 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 		this.readonly = true;
 	}
 
+	/**
+	 * 设置撤销日志；设置之后，对当前数据集的写入都会登记对应的撤销动作，以便在不提交的情况下撤销单个交易的写入；
+	 * 
+	 * @param undoLog
+	 */
+	void setUndoLog(UndoLog undoLog) {
+		this.undoLog = undoLog;
+		this.merkleTree.setUndoLog(undoLog);
+	}
+
 	@Override
 	public long getDataCount() {
 		return merkleTree.getDataCount();
@@ -322,12 +356,23 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 			if (newVersion < 0) {
 				return -1;
 			}
+			if (undoLog != null) {
+				final long createdSn = sn;
+				final long createdVersion = newVersion;
+				undoLog.record(() -> {
+					bufferedStorage.revert(dataKey, createdVersion);
+					snGenerator = new MerkleSequenceSNGenerator(createdSn);
+				});
+			}
 			byte[] snBytes = BytesUtils.toBytes(sn);
 			Bytes snKey = encodeSNKey(key);
 			boolean nx = snStorage.set(snKey, snBytes, ExPolicy.NOT_EXISTING);
 			if (!nx) {
 				throw new LedgerException("SN already exist! --[KEY=" + key + "]");
 			}
+			if (undoLog != null) {
+				undoLog.record(() -> bufferedStorage.revert(snKey));
+			}
 		} else {
 			// updating;
 
@@ -337,6 +382,10 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 			if (newVersion < 0) {
 				return -1;
 			}
+			if (undoLog != null) {
+				final long updatedVersion = newVersion;
+				undoLog.record(() -> bufferedStorage.revert(dataKey, updatedVersion));
+			}
 
 			sn = getSN(key);
 		}
@@ -496,6 +545,58 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 		return getDataEntry(key, -1);
 	}
 
+	/**
+	 * 批量返回最新版本的数据项；<br>
+	 * 
+	 * 序号和值分别以一次批量读取从存储读取，版本从默克尔树中读取；
+	 * 
+	 * @param keys
+	 * @return 与键一一对应的数据项；不存在的键对应 null；
+	 */
+	@Override
+	public List<DataEntry<Bytes, byte[]>> getDataEntries(List<Bytes> keys) {
+		int count = keys.size();
+		Bytes[] snKeys = new Bytes[count];
+		for (int i = 0; i < count; i++) {
+			snKeys[i] = encodeSNKey(keys.get(i));
+		}
+		byte[][] snBytes = snStorage.multiGet(snKeys);
+
+		Bytes[] dataKeys = new Bytes[count];
+		long[] versions = new long[count];
+		int[] indexes = new int[count];
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			if (snBytes[i] == null) {
+				continue;
+			}
+			MerkleDataNode mdn = merkleTree.getData(BytesUtils.toLong(snBytes[i]));
+			if (mdn == null) {
+				continue;
+			}
+			indexes[found] = i;
+			dataKeys[found] = encodeDataKey(keys.get(i));
+			versions[found] = mdn.getVersion();
+			found++;
+		}
+
+		List<DataEntry<Bytes, byte[]>> entries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			entries.add(null);
+		}
+		if (found == 0) {
+			return entries;
+		}
+		byte[][] values = valueStorage.multiGet(Arrays.copyOf(dataKeys, found), Arrays.copyOf(versions, found));
+		for (int i = 0; i < found; i++) {
+			if (values[i] != null) {
+				int idx = indexes[i];
+				entries.set(idx, new VersioningKVData<Bytes, byte[]>(keys.get(idx), versions[i], values[i]));
+			}
+		}
+		return entries;
+	}
+
 //	@Override
 //	public VersioningKVEntry<String, byte[]> getDataEntry(String key, long version) {
 //		Bytes keyBytes = Bytes.fromString(key);
@@ -737,4 +838,4 @@ public class MerkleDataSet implements Transactional, MerkleProvable, Dataset<Byt
 
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
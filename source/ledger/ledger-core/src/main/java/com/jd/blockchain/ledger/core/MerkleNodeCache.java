@@ -0,0 +1,239 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jd.blockchain.crypto.HashDigest;
+
+/**
+ * 默克尔树节点的缓存；<br>
+ *
+ * 默克尔树的节点以节点哈希作为存储的键，已持久化的节点是不可变的，因此可以在同一账本的不同区块、不同交易之间共享；
+ * 每个账本持有各自的缓存实例，不同账本之间不共享；<br>
+ *
+ * 缓存的节点记录了加载时是否已经校验过哈希；要求校验的读取只采用已校验的节点，未校验的节点视为未命中；<br>
+ *
+ * 缓存按照节点的字节数限制总容量，超出容量时按照最近最少使用（LRU）的顺序淘汰；为了降低并发访问时的锁竞争，缓存被划分为多个分段，每个分段独立加锁和淘汰；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class MerkleNodeCache {
+
+	/**
+	 * 缓存条目的固定开销的估计值，包括哈希键、链表节点和对象头；
+	 */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	private static final int SEGMENT_COUNT = 16;
+
+	private final long capacity;
+
+	private final Segment[] segments;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * @param capacity 缓存的容量，单位为字节；小于等于 0 时不缓存任何节点；
+	 */
+	public MerkleNodeCache(long capacity) {
+		this.capacity = capacity;
+		this.segments = new Segment[SEGMENT_COUNT];
+		long segmentCapacity = Math.max(0, capacity / SEGMENT_COUNT);
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * 缓存的容量，单位为字节；
+	 *
+	 * @return
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 已缓存的节点占用的字节数；
+	 *
+	 * @return
+	 */
+	public long getSize() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.getSize();
+		}
+		return size;
+	}
+
+	/**
+	 * 已缓存的节点数；
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		long count = 0;
+		for (Segment segment : segments) {
+			count += segment.getCount();
+		}
+		return count;
+	}
+
+	/**
+	 * 命中的次数；
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 未命中的次数；
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 因超出容量而淘汰的节点数；
+	 *
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * 清空缓存；统计计数不受影响；
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * 返回缓存的节点；如果不存在，则返回 null；
+	 *
+	 * @param nodeHash 节点哈希；
+	 * @param verified 是否只返回已校验哈希的节点；
+	 * @return
+	 */
+	public Object get(HashDigest nodeHash, boolean verified) {
+		if (capacity <= 0) {
+			return null;
+		}
+		Object node = segmentOf(nodeHash).get(nodeHash, verified);
+		if (node == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return node;
+	}
+
+	/**
+	 * 缓存节点；<br>
+	 *
+	 * 已缓存的已校验节点不会被未校验的节点替换；
+	 *
+	 * @param nodeHash 节点哈希；
+	 * @param node     节点；调用者应保证节点是不可变的；
+	 * @param nodeSize 节点的字节数；
+	 * @param verified 节点的哈希是否已经校验；
+	 */
+	public void put(HashDigest nodeHash, Object node, int nodeSize, boolean verified) {
+		if (capacity <= 0) {
+			return;
+		}
+		segmentOf(nodeHash).put(nodeHash, node, nodeSize + ENTRY_OVERHEAD, verified);
+	}
+
+	private Segment segmentOf(HashDigest nodeHash) {
+		int h = nodeHash.hashCode();
+		h ^= (h >>> 16);
+		return segments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	private class Segment {
+
+		private final long capacity;
+
+		private long size;
+
+		private final LinkedHashMap<HashDigest, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+		private Segment(long capacity) {
+			this.capacity = capacity;
+		}
+
+		public synchronized Object get(HashDigest nodeHash, boolean verified) {
+			Entry entry = entries.get(nodeHash);
+			if (entry == null || (verified && !entry.verified)) {
+				return null;
+			}
+			return entry.node;
+		}
+
+		public synchronized void put(HashDigest nodeHash, Object node, int weight, boolean verified) {
+			if (weight > capacity) {
+				return;
+			}
+			Entry existing = entries.get(nodeHash);
+			if (existing != null && existing.verified && !verified) {
+				return;
+			}
+			Entry previous = entries.put(nodeHash, new Entry(node, weight, verified));
+			if (previous != null) {
+				size -= previous.weight;
+			}
+			size += weight;
+
+			Iterator<Map.Entry<HashDigest, Entry>> iterator = entries.entrySet().iterator();
+			while (size > capacity && iterator.hasNext()) {
+				Entry eldest = iterator.next().getValue();
+				iterator.remove();
+				size -= eldest.weight;
+				evictionCount.incrementAndGet();
+			}
+		}
+
+		public synchronized long getSize() {
+			return size;
+		}
+
+		public synchronized int getCount() {
+			return entries.size();
+		}
+
+		public synchronized void clear() {
+			entries.clear();
+			size = 0;
+		}
+	}
+
+	private static class Entry {
+
+		private final Object node;
+
+		private final int weight;
+
+		private final boolean verified;
+
+		private Entry(Object node, int weight, boolean verified) {
+			this.node = node;
+			this.weight = weight;
+			this.verified = verified;
+		}
+	}
+}
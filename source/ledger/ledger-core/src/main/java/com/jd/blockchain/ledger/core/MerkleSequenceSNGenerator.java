@@ -12,6 +12,15 @@ public class MerkleSequenceSNGenerator implements SNGenerator {
 		this.sn = new AtomicLong(merkleTree.getMaxSn() + 1);
 	}
 
+	/**
+	 * 从指定的序号开始生成；
+	 * 
+	 * @param nextSn 下一个生成的序号；
+	 */
+	public MerkleSequenceSNGenerator(long nextSn) {
+		this.sn = new AtomicLong(nextSn);
+	}
+
 	@Override
 	public long generate(Bytes key) {
 		return sn.getAndIncrement();
@@ -17,6 +17,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import com.jd.blockchain.crypto.CryptoAlgorithm;
 import com.jd.blockchain.crypto.Crypto;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashDigester;
 import com.jd.blockchain.crypto.HashFunction;
 import com.jd.blockchain.ledger.CryptoSetting;
 import com.jd.blockchain.ledger.LedgerException;
@@ -64,10 +65,19 @@ public class MerkleTree implements Transactional {
 
 	public static final boolean PARALLEL;
 
+	/**
+	 * 一层中更改的路径节点达到此数量时并行计算哈希；
+	 */
+	private static final int PARALLEL_THRESHOLD;
+
 	static {
 		// get property from System;
 		PARALLEL = Boolean.getBoolean("parallel-merkle");
 		System.out.println("------ [[ parallel-merkle=" + PARALLEL + " ]] -----");
+
+		// 启用 parallel-merkle 时只要节点数量足以拆分任务即并行计算，否则只在更改较多时并行计算；
+		PARALLEL_THRESHOLD = Integer.getInteger("merkle-parallel-threshold", PARALLEL ? 200 : 1000);
+		System.out.println("------ [[ merkle-parallel-threshold=" + PARALLEL_THRESHOLD + " ]] -----");
 	}
 
 	private final Bytes keyPrefix;
@@ -82,6 +92,13 @@ public class MerkleTree implements Transactional {
 
 	private PathNode root;
 
+	private UndoLog undoLog;
+
+	/**
+	 * 从存储加载的节点的缓存；为 null 时不缓存；
+	 */
+	private final MerkleNodeCache nodeCache;
+
 	/**
 	 * Merkle树的根哈希；
 	 * 
@@ -175,7 +192,25 @@ public class MerkleTree implements Transactional {
 	 */
 	public MerkleTree(HashDigest rootHash, CryptoSetting setting, Bytes keyPrefix, ExPolicyKVStorage kvStorage,
 			boolean readonly) {
+		this(rootHash, setting, keyPrefix, kvStorage, readonly, null);
+	}
+
+	/**
+	 * 创建 Merkle 树；
+	 * 
+	 * @param rootHash
+	 *            节点的根Hash; 如果指定为 null，则实际上创建一个空的 Merkle Tree；
+	 * @param kvStorage
+	 *            保存 Merkle 节点的存储服务；
+	 * @param readonly
+	 *            是否只读；
+	 * @param nodeCache
+	 *            从存储加载的节点的缓存；应由同一账本的 Merkle 树共享；为 null 时不缓存；
+	 */
+	public MerkleTree(HashDigest rootHash, CryptoSetting setting, Bytes keyPrefix, ExPolicyKVStorage kvStorage,
+			boolean readonly, MerkleNodeCache nodeCache) {
 		this.setting = setting;
+		this.nodeCache = nodeCache;
 		this.keyPrefix = keyPrefix;
 		this.kvStorage = kvStorage;
 		this.readonly = readonly;
@@ -286,10 +321,28 @@ public class MerkleTree implements Transactional {
 			throw new IllegalArgumentException("The sn is great than MAX[" + MAX_SN + "]!");
 		}
 		DataNode dataNode = DataNode.newDataNode(setting.getHashAlgorithm(), sn, key, version, hashedData);
-		updatedDataNodes.put(sn, dataNode);
+		DataNode previousNode = updatedDataNodes.put(sn, dataNode);
+		if (undoLog != null) {
+			undoLog.record(() -> {
+				if (previousNode == null) {
+					updatedDataNodes.remove(sn);
+				} else {
+					updatedDataNodes.put(sn, previousNode);
+				}
+			});
+		}
 		return dataNode;
 	}
 
+	/**
+	 * 设置撤销日志；设置之后，对尚未提交的数据节点的写入都会登记对应的撤销动作；
+	 * 
+	 * @param undoLog
+	 */
+	void setUndoLog(UndoLog undoLog) {
+		this.undoLog = undoLog;
+	}
+
 	public MerkleDataNode getData(long sn) {
 		DataNode dataNode = updatedDataNodes.get(sn);
 		if (dataNode != null) {
@@ -382,12 +435,8 @@ public class MerkleTree implements Transactional {
 			updatedLeafNodes.add(leafPathNode);
 		}
 
-		// 遍历涉及更改的所有路径节点，重新计算根节点哈希；
-		if (PARALLEL) {
-			concurrentRehash(updatedLeafNodes);
-		} else {
-			rehash(updatedLeafNodes);
-		}
+		// 逐层遍历涉及更改的所有路径节点，重新计算根节点哈希，并批量保存更改的节点；
+		rehash(updatedLeafNodes);
 
 		// List<AbstractMerkleNode> updatedNodes = Collections.synchronizedList(new
 		// LinkedList<>());
@@ -406,19 +455,50 @@ public class MerkleTree implements Transactional {
 		updatedDataNodes.clear();
 	}
 
-	private void saveNode(AbstractMerkleNode merkleNode) {
-		Bytes key = encodeNodeKey(merkleNode.getNodeHash());
-		boolean nx = kvStorage.set(key, merkleNode.toBytes(), ExPolicy.NOT_EXISTING);
-		if (!nx) {
-			throw new LedgerException("Merkle node already exist!");
-		}
-	}
+	/**
+	 * 从叶子层开始逐层向上重新计算路径节点的哈希，最后把全部更改的节点一次批量写入存储；<br>
+	 * 
+	 * 同一层的路径节点之间没有依赖，当一层的更改节点数量达到阈值时并行计算；
+	 * 
+	 * @param updatedLeafNodes 更改的叶子路径节点（level 为 1）；
+	 */
+	private void rehash(Set<PathNode> updatedLeafNodes) {
+		NodeBatch batch = new NodeBatch();
+		PathNode[] levelNodes = updatedLeafNodes.toArray(new PathNode[updatedLeafNodes.size()]);
+		while (levelNodes.length > 0) {
+			NodeBatch levelBatch;
+			if (levelNodes.length >= PARALLEL_THRESHOLD) {
+				levelBatch = ForkJoinPool.commonPool().invoke(new RehashTask(this, levelNodes, 0, levelNodes.length));
+			} else {
+				levelBatch = rehash(levelNodes, 0, levelNodes.length);
+			}
+			batch.addAll(levelBatch);
 
-	private void rehash(Set<PathNode> updatedPathNodes) {
+			Set<PathNode> updatedParentNodes = new HashSet<>();
+			for (PathNode pathNode : levelBatch.updatedPathNodes) {
+				if (pathNode.parent != null) {
+					updatedParentNodes.add((PathNode) pathNode.parent);
+				}
+			}
+			levelNodes = updatedParentNodes.toArray(new PathNode[updatedParentNodes.size()]);
+		}
 
-		Set<PathNode> updatedParentNodes = new HashSet<>();
+		saveNodes(batch);
+	}
 
-		for (PathNode pathNode : updatedPathNodes) {
+	/**
+	 * 重新计算同一层中指定范围的路径节点的哈希；
+	 * 
+	 * @param levelNodes
+	 * @param from
+	 * @param to
+	 * @return 需要保存的节点；
+	 */
+	private NodeBatch rehash(PathNode[] levelNodes, int from, int to) {
+		NodeBatch batch = new NodeBatch();
+		HashFunction hashFunc = null;
+		for (int n = from; n < to; n++) {
+			PathNode pathNode = levelNodes[n];
 			AbstractMerkleNode[] children = pathNode.children;
 			HashDigest[] childrenHashes = pathNode.childrenHashes;
 			boolean updated = false;
@@ -435,157 +515,119 @@ public class MerkleTree implements Transactional {
 						// 在叶子节点上发现新增加了数据节点；
 						pathNode.increaseDataCount(1);
 						// 同时保存新增的数据节点；
-						saveNode(children[i]);
+						batch.add(encodeNodeKey(newChildHash), children[i].toBytes());
 					}
 				} else if (!origChildHash.equals(newChildHash)) {
 					childrenHashes[i] = newChildHash;
 					updated = true;
 					if (pathNode.level == 1) {
 						// 同时保存更新的数据节点；
-						saveNode(children[i]);
+						batch.add(encodeNodeKey(newChildHash), children[i].toBytes());
 					}
 				}
 			}
 
 			if (updated) {
-				// 计算节点哈希：
-				pathNode.rehash();
-
-				saveNode(pathNode);
-
-				if (pathNode.parent != null) {
-					updatedParentNodes.add((PathNode) pathNode.parent);
+				// 计算节点哈希；同一批节点通常采用相同的哈希算法，复用已解析的哈希函数；
+				if (hashFunc == null || hashFunc.getAlgorithm().code() != pathNode.hashAlgorithm) {
+					hashFunc = Crypto.getHashFunction(pathNode.hashAlgorithm);
 				}
+				pathNode.rehash(hashFunc);
+
+				// 下层节点已经全部计算完毕，节点的内容不会再改变，可以在此序列化；
+				batch.add(encodeNodeKey(pathNode.getNodeHash()), pathNode.toBytes());
+				batch.updatedPathNodes.add(pathNode);
 			}
 		}
+		return batch;
+	}
 
-		if (updatedParentNodes.size() > 0) {
-			rehash(updatedParentNodes);
+	/**
+	 * 把更改的节点写入存储；<br>
+	 * 
+	 * 编辑期间的存储是账本的缓冲存储，节点在区块提交时随区块的批次一起原子地写入底层数据库；
+	 * 
+	 * @param batch
+	 */
+	private void saveNodes(NodeBatch batch) {
+		int count = batch.keys.size();
+		for (int i = 0; i < count; i++) {
+			boolean nx = kvStorage.set(batch.keys.get(i), batch.values.get(i), ExPolicy.NOT_EXISTING);
+			if (!nx) {
+				throw new LedgerException("Merkle node already exist!");
+			}
 		}
 	}
 
-	private void concurrentRehash(Set<PathNode> updatedPathNodes) {
+	/**
+	 * 一次提交中需要保存的节点；
+	 * 
+	 * @author huanghaiquan
+	 *
+	 */
+	private static class NodeBatch {
+
+		private final List<Bytes> keys = new ArrayList<>();
 
-		// Set<PathNode> updatedParentNodes = new HashSet<>();
-		// List<RehashTask> tasks = new ArrayList<>();
-		// for (PathNode pathNode : updatedPathNodes) {
-		// RehashTask task = new RehashTask(pathNode, kvStorage);
-		// ForkJoinPool.commonPool().execute(task);
-		// tasks.add(task);
-		// }
-		PathNode[] nodes = updatedPathNodes.toArray(new PathNode[updatedPathNodes.size()]);
-		RehashTask task = new RehashTask(nodes, this, kvStorage);
-		List<PathNode> updatedNodes = ForkJoinPool.commonPool().invoke(task);
-		Set<PathNode> updatedParentNodes = new HashSet<>();
-		for (PathNode pathNode : updatedNodes) {
-			if (pathNode.parent != null) {
-				updatedParentNodes.add((PathNode) pathNode.parent);
-			}
+		private final List<byte[]> values = new ArrayList<>();
+
+		/**
+		 * 哈希发生更改的路径节点；
+		 */
+		private final List<PathNode> updatedPathNodes = new ArrayList<>();
+
+		private void add(Bytes key, byte[] value) {
+			keys.add(key);
+			values.add(value);
 		}
-		if (updatedParentNodes.size() > 0) {
-			rehash(updatedParentNodes);
+
+		private void addAll(NodeBatch batch) {
+			keys.addAll(batch.keys);
+			values.addAll(batch.values);
+			updatedPathNodes.addAll(batch.updatedPathNodes);
 		}
 	}
 
 	/**
+	 * 并行计算同一层的路径节点的哈希；
+	 * 
 	 * @author huanghaiquan
 	 *
 	 */
-	private static class RehashTask extends RecursiveTask<List<PathNode>> {
+	private static class RehashTask extends RecursiveTask<NodeBatch> {
 
 		private static final long serialVersionUID = -9165021733321713070L;
 
-		private MerkleTree tree;
+		private static final int TASK_THRESHOLD = 100;
+
+		private final MerkleTree tree;
 
-		private PathNode[] pathNodes;
+		private final PathNode[] levelNodes;
 
-		private ExPolicyKVStorage kvStorage;
+		private final int from;
 
-		private static int TASK_THRESHOLD = 100;
+		private final int to;
 
-		public RehashTask(PathNode[] pathNodes, MerkleTree tree, ExPolicyKVStorage kvStorage) {
+		public RehashTask(MerkleTree tree, PathNode[] levelNodes, int from, int to) {
 			this.tree = tree;
-			this.pathNodes = pathNodes;
-			this.kvStorage = kvStorage;
+			this.levelNodes = levelNodes;
+			this.from = from;
+			this.to = to;
 		}
 
 		@Override
-		protected List<PathNode> compute() {
-			int count = pathNodes.length;
-			if (count > TASK_THRESHOLD) {
-				PathNode[] nodes1 = new PathNode[count / 2];
-				PathNode[] nodes2 = new PathNode[count - nodes1.length];
-				System.arraycopy(pathNodes, 0, nodes1, 0, nodes1.length);
-				System.arraycopy(pathNodes, nodes1.length, nodes2, 0, nodes2.length);
-				RehashTask task1 = new RehashTask(nodes1, tree, kvStorage);
-				RehashTask task2 = new RehashTask(nodes2, tree, kvStorage);
+		protected NodeBatch compute() {
+			if (to - from > TASK_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				RehashTask task1 = new RehashTask(tree, levelNodes, from, middle);
+				RehashTask task2 = new RehashTask(tree, levelNodes, middle, to);
 				ForkJoinTask.invokeAll(task1, task2);
-				List<PathNode> updatedNodes = task1.join();
-				updatedNodes.addAll(task2.join());
-				return updatedNodes;
-			} else {
-				List<PathNode> updatedNodes = new ArrayList<>();
-				for (PathNode pathNode : pathNodes) {
-					if (rehash(pathNode)) {
-						updatedNodes.add(pathNode);
-					}
-				}
-				return updatedNodes;
-			}
-		}
-
-		private boolean rehash(PathNode pathNode) {
-			AbstractMerkleNode[] children = pathNode.children;
-			HashDigest[] childrenHashes = pathNode.childrenHashes;
-			boolean updated = false;
-			for (int i = 0; i < children.length; i++) {
-				if (children[i] == null) {
-					continue;
-				}
-				HashDigest origChildHash = childrenHashes[i];
-				HashDigest newChildHash = children[i].getNodeHash();
-				if (origChildHash == null) {
-					childrenHashes[i] = newChildHash;
-					updated = true;
-					if (pathNode.level == 1) {
-						// 在叶子节点上发现新增加了数据节点；
-						// newDataCount++;
-						pathNode.increaseDataCount(1);
-						// 同时保存新增的数据节点；
-						tree.saveNode(children[i]);
-					}
-				} else if (!origChildHash.equals(newChildHash)) {
-					childrenHashes[i] = newChildHash;
-					updated = true;
-					if (pathNode.level == 1) {
-						// 同时保存更新的数据节点；
-						tree.saveNode(children[i]);
-					}
-				}
-			}
-
-			if (updated) {
-				// 计算节点哈希：
-				pathNode.rehash();
-				tree.saveNode(pathNode);
-
-				// if (pathNode.parent != null) {
-				// return (PathNode) pathNode.parent;
-				// }
-				return true;
+				NodeBatch batch = task1.join();
+				batch.addAll(task2.join());
+				return batch;
 			}
-
-			return false;
+			return tree.rehash(levelNodes, from, to);
 		}
-
-		// private void saveNode(AbstractMerkleNode merkleNode) {
-		// String key = encodeNodeKey(merkleNode.getNodeHash());
-		// boolean nx = kvStorage.set(key, merkleNode.toBytes(), ExPolicy.NOT_EXISTING);
-		// if (!nx) {
-		// throw new LedgerException("Merkle node already exist!");
-		// }
-		// }
-
 	}
 
 	/**
@@ -822,6 +864,12 @@ public class MerkleTree implements Transactional {
 	 * @return return instance of {@link PathNode}, or null if not exist;
 	 */
 	private PathNode loadPathNode(HashDigest hashDigest, boolean verify) {
+		// 路径节点在更新时会被修改，所以缓存节点的不可变形式，命中时复制出新的节点；
+		// 要求校验时只采用加载时已经校验过的节点，因此命中时不再重复校验；
+		Object cachedNode = nodeCache == null ? null : nodeCache.get(hashDigest, verify);
+		if (cachedNode instanceof PathNodeSnapshot) {
+			return ((PathNodeSnapshot) cachedNode).newNode();
+		}
 		Bytes key = encodeNodeKey(hashDigest);
 		byte[] bytes = kvStorage.get(key);
 		if (bytes == null || bytes.length == 0) {
@@ -835,10 +883,18 @@ public class MerkleTree implements Transactional {
 					"The actually hash of PathNode is not equal with it's key! -- [Key=%s][ActualHash=%s]", keyStr,
 					actualHashStr));
 		}
+		if (nodeCache != null) {
+			nodeCache.put(hashDigest, new PathNodeSnapshot(pathNode), bytes.length, verify);
+		}
 		return pathNode;
 	}
 
 	private DataNode loadDataNode(HashDigest hashBytes, boolean verify) {
+		// 数据节点是不可变的，直接缓存节点对象；要求校验时只采用已校验的节点；
+		Object cachedNode = nodeCache == null ? null : nodeCache.get(hashBytes, verify);
+		if (cachedNode instanceof DataNode) {
+			return (DataNode) cachedNode;
+		}
 		Bytes key = encodeNodeKey(hashBytes);
 		byte[] bytes = kvStorage.get(key);
 		if (bytes == null || bytes.length == 0) {
@@ -852,6 +908,9 @@ public class MerkleTree implements Transactional {
 					"The actually hash of DataNode is not equal with it's key! -- [Key=%s][ActualHash=%s]", keyStr,
 					actualHashStr));
 		}
+		if (nodeCache != null) {
+			nodeCache.put(hashBytes, dataNode, bytes.length, verify);
+		}
 		return dataNode;
 	}
 
@@ -1079,6 +1138,42 @@ public class MerkleTree implements Transactional {
 
 	}
 
+	/**
+	 * 从存储加载的路径节点的不可变形式，用于缓存；
+	 * 
+	 * @author huanghaiquan
+	 *
+	 */
+	private static class PathNodeSnapshot {
+
+		private final long startingSN;
+
+		private final int level;
+
+		private final long dataCount;
+
+		private final HashDigest[] childrenHashes;
+
+		private final HashDigest nodeHash;
+
+		private PathNodeSnapshot(PathNode node) {
+			this.startingSN = node.startingSN;
+			this.level = node.level;
+			this.dataCount = node.getDataCount();
+			this.childrenHashes = node.childrenHashes.clone();
+			this.nodeHash = node.nodeHash;
+		}
+
+		/**
+		 * 创建一个可修改的路径节点；子节点哈希列表是复制的，修改新节点不影响缓存；
+		 * 
+		 * @return
+		 */
+		private PathNode newNode() {
+			return new PathNode(startingSN, level, dataCount, childrenHashes.clone(), nodeHash);
+		}
+	}
+
 	/**
 	 * 路径节点；
 	 * 
@@ -1382,7 +1477,7 @@ public class MerkleTree implements Transactional {
 
 			PathNode node = new PathNode(startingSN, level, dataCount, childrenHashes, nodeHash);
 			if (checkHash) {
-				HashDigest actualHash = node.computeBodyHash();
+				HashDigest actualHash = node.computeBodyHash(Crypto.getHashFunction(node.hashAlgorithm));
 				if (!node.nodeHash.equals(actualHash)) {
 					String origHashStr = node.nodeHash.toBase58();
 					String actualHashStr = actualHash.toBase58();
@@ -1399,7 +1494,16 @@ public class MerkleTree implements Transactional {
 		 * 重新计算并更新当前节点的哈希；
 		 */
 		public void rehash() {
-			this.nodeHash = computeBodyHash();
+			this.nodeHash = computeBodyHash(Crypto.getHashFunction(hashAlgorithm));
+		}
+
+		/**
+		 * 以指定的哈希函数重新计算并更新当前节点的哈希；
+		 * 
+		 * @param hashFunc 当前节点采用的哈希算法的哈希函数；
+		 */
+		public void rehash(HashFunction hashFunc) {
+			this.nodeHash = computeBodyHash(hashFunc);
 		}
 
 		/**
@@ -1410,15 +1514,36 @@ public class MerkleTree implements Transactional {
 		 * nodeHash = Hash(toBytes(startingSN) + toBytes(level) + toBytes(dataCount) + h1 + h2 + ... + h16);
 		 * </code>
 		 * 
-		 * @param pathNode
+		 * 各部分直接输入哈希函数的摘要器，不生成完整的节点字节数组；
+		 * 
+		 * @param hashFunc
 		 * @return
 		 */
-		private HashDigest computeBodyHash() {
-			int totalSize = getBodySize();
-			byte[] bodyBytes = new byte[totalSize];
-			generateBodyBytes(bodyBytes);
-			HashFunction hashFunc = Crypto.getHashFunction(hashAlgorithm);
-			return hashFunc.hash(bodyBytes);
+		private HashDigest computeBodyHash(HashFunction hashFunc) {
+			HashDigester digester = hashFunc.beginHash();
+
+			byte[] headerBytes = new byte[8 + 4 + 8];// startingSN + level + dataCount;
+			int offset = 0;
+			offset += BytesUtils.toBytes(startingSN, headerBytes, offset);
+			offset += BytesUtils.toBytes(level, headerBytes, offset);
+			BytesUtils.toBytes(getDataCount(), headerBytes, offset);
+			digester.update(headerBytes);
+
+			byte[] maskBytes = new byte[NumberMask.TINY.MAX_HEADER_LENGTH];
+			HashDigest h;
+			for (int i = 0; i < TREE_DEGREE; i++) {
+				h = childrenHashes[i];
+				if (h == null) {
+					// 只写入一个字节的长度头部，值为 0；
+					maskBytes[0] = 0;
+					digester.update(maskBytes, 0, 1);
+				} else {
+					int maskLen = NumberMask.TINY.writeMask(h.size(), maskBytes, 0);
+					digester.update(maskBytes, 0, maskLen);
+					digester.update(h);
+				}
+			}
+			return digester.complete();
 		}
 
 	}
@@ -1478,10 +1603,8 @@ public class MerkleTree implements Transactional {
 			// TODO: version;
 			offset += BytesUtils.toBytes(version, bodyBytes, offset);
 
-			byte[] dataBytes = BytesUtils.concat(bodyBytes, hashedData);
-
 			HashFunction hashFunc = Crypto.getHashFunction(hashAlgorithm);
-			HashDigest dataHash = hashFunc.hash(dataBytes);
+			HashDigest dataHash = hashFunc.beginHash().update(bodyBytes).update(hashedData).complete();
 
 			int hashMaskSize = NumberMask.TINY.getMaskLength(dataHash.size());
 			int dataNodeSize = bodySize + hashMaskSize + dataHash.size();
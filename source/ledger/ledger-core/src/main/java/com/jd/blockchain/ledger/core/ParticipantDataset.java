@@ -28,7 +28,14 @@ public class ParticipantDataset implements Transactional, MerkleProvable, Partic
 
 	public ParticipantDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
 			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly) {
-		dataset = new MerkleDataSet(merkleRootHash, cryptoSetting, Bytes.fromString(prefix), exPolicyStorage, verStorage, readonly);
+		this(merkleRootHash, cryptoSetting, prefix, exPolicyStorage, verStorage, readonly, null);
+	}
+
+	public ParticipantDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
+			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
+		dataset = new MerkleDataSet(merkleRootHash, cryptoSetting, Bytes.fromString(prefix), exPolicyStorage, verStorage, readonly,
+				nodeCache);
 	}
 
 	@Override
@@ -41,6 +48,10 @@ public class ParticipantDataset implements Transactional, MerkleProvable, Partic
 		return dataset.getProof(key);
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		dataset.setUndoLog(undoLog);
+	}
+
 	@Override
 	public boolean isUpdated() {
 		return dataset.isUpdated();
@@ -0,0 +1,77 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 交易的读写集合；<br>
+ *
+ * 以账户为粒度记录交易读取和写入的键，键由账户集合的前缀和账户地址组成；<br>
+ *
+ * 注：此实现不是线程安全的；
+ *
+ * @author huanghaiquan
+ *
+ */
+class ReadWriteSet {
+
+	private final boolean recordingReads;
+
+	private Set<Bytes> readKeys;
+
+	private Set<Bytes> writeKeys = new HashSet<>();
+
+	/**
+	 * @param recordingReads 是否记录读集合；为 false 时只记录写集合；
+	 */
+	public ReadWriteSet(boolean recordingReads) {
+		this.recordingReads = recordingReads;
+		this.readKeys = recordingReads ? new HashSet<>() : Collections.<Bytes>emptySet();
+	}
+
+	public void recordRead(Bytes key) {
+		if (recordingReads) {
+			readKeys.add(key);
+		}
+	}
+
+	public void recordWrite(Bytes key) {
+		writeKeys.add(key);
+	}
+
+	public Set<Bytes> getReadKeys() {
+		return Collections.unmodifiableSet(readKeys);
+	}
+
+	public Set<Bytes> getWriteKeys() {
+		return Collections.unmodifiableSet(writeKeys);
+	}
+
+	/**
+	 * 当前读写集合中是否有任何一个键被指定的写集合写入；
+	 *
+	 * @param writeSet
+	 * @return
+	 */
+	public boolean conflictsWith(ReadWriteSet writeSet) {
+		Set<Bytes> writtenKeys = writeSet.writeKeys;
+		if (writtenKeys.isEmpty()) {
+			return false;
+		}
+		for (Bytes key : readKeys) {
+			if (writtenKeys.contains(key)) {
+				return true;
+			}
+		}
+		for (Bytes key : writeKeys) {
+			if (writtenKeys.contains(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
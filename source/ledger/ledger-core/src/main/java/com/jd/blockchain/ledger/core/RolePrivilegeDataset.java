@@ -30,8 +30,14 @@ public class RolePrivilegeDataset implements Transactional, MerkleProvable, Role
 
 	public RolePrivilegeDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
 			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly) {
+		this(merkleRootHash, cryptoSetting, prefix, exPolicyStorage, verStorage, readonly, null);
+	}
+
+	public RolePrivilegeDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
+			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 		dataset = new MerkleDataSet(merkleRootHash, cryptoSetting, Bytes.fromString(prefix), exPolicyStorage,
-				verStorage, readonly);
+				verStorage, readonly, nodeCache);
 	}
 
 	@Override
@@ -44,6 +50,10 @@ public class RolePrivilegeDataset implements Transactional, MerkleProvable, Role
 		return dataset.getProof(key);
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		dataset.setUndoLog(undoLog);
+	}
+
 	@Override
 	public boolean isUpdated() {
 		return dataset.isUpdated();
@@ -0,0 +1,61 @@
+package com.jd.blockchain.ledger.core;
+
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.storage.service.utils.StagedKVStorage;
+
+/**
+ * 交易的推测执行上下文；<br>
+ *
+ * 推测执行以新区块的起点为基础，在独立的账本数据集上执行交易，并以账户为粒度记录交易的读写集合；<br>
+ *
+ * 推测执行的写入不会影响新区块，直到通过 {@link LedgerEditor#adoptTransaction(SpeculativeTransactionContext)}
+ * 按顺序被采纳；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class SpeculativeTransactionContext {
+
+	private TransactionRequest txRequest;
+
+	private LedgerDataset dataset;
+
+	private StagedKVStorage storage;
+
+	private ReadWriteSet readWriteSet;
+
+	SpeculativeTransactionContext(TransactionRequest txRequest, LedgerDataset dataset, StagedKVStorage storage,
+			ReadWriteSet readWriteSet) {
+		this.txRequest = txRequest;
+		this.dataset = dataset;
+		this.storage = storage;
+		this.readWriteSet = readWriteSet;
+	}
+
+	/**
+	 * 推测执行的交易请求；
+	 *
+	 * @return
+	 */
+	public TransactionRequest getTransactionRequest() {
+		return txRequest;
+	}
+
+	/**
+	 * 推测执行的账本数据集；
+	 *
+	 * @return
+	 */
+	public LedgerDataset getDataset() {
+		return dataset;
+	}
+
+	StagedKVStorage getStorage() {
+		return storage;
+	}
+
+	ReadWriteSet getReadWriteSet() {
+		return readWriteSet;
+	}
+
+}
@@ -4,12 +4,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import com.jd.blockchain.ledger.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.PubKey;
+import com.jd.blockchain.crypto.SignatureDigest;
 import com.jd.blockchain.ledger.core.TransactionRequestExtension.Credential;
 import com.jd.blockchain.service.TransactionBatchProcess;
 import com.jd.blockchain.service.TransactionBatchResult;
@@ -39,6 +46,13 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 
 	private TransactionBatchResult batchResult;
 
+	/**
+	 * 预先验证的交易请求；以请求哈希为键，值为验证任务，验证通过时任务的结果为 null，否则为验证失败的异常；<br>
+	 * 
+	 * 请求哈希由客户端提供，并不能唯一地标识请求，因此采用验证结果之前须确认待执行的请求与验证的请求完全一致；
+	 */
+	private Map<HashDigest, PreVerification> preVerifications = new ConcurrentHashMap<>();
+
 	public HashDigest getLedgerHash() {
 		return ledger.getHash();
 	}
@@ -102,6 +116,9 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 			LOGGER.debug("Start handling transaction... --[BlockHeight={}][RequestHash={}][TxHash={}]",
 					newBlockEditor.getBlockHeight(), request.getHash(), request.getTransactionContent().getHash());
 
+			// 取出预先验证的结果；无论交易是否被拒绝，都不再保留；
+			PreVerification preVerification = takePreVerification(request);
+
 			TransactionRequestExtension reqExt = new TransactionRequestExtensionImpl(request);
 
 			// 初始化交易的用户安全策略；
@@ -113,7 +130,7 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 			checkSecurity(securityPolicy);
 
 			// 验证交易请求；
-			checkRequest(reqExt);
+			checkRequest(request, reqExt, preVerification);
 
 			// 创建交易上下文；
 			// 此调用将会验证交易签名，验签失败将会抛出异常，同时，不记录签名错误的交易到链上；
@@ -158,6 +175,92 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 		return resp;
 	}
 
+	@Override
+	public void preVerify(Collection<TransactionRequest> requests) {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		for (TransactionRequest request : requests) {
+			HashDigest reqHash = request.getHash();
+			if (reqHash == null || preVerifications.containsKey(reqHash)) {
+				continue;
+			}
+			PreVerification verification = new PreVerification(request);
+			preVerifications.put(reqHash, verification);
+			pool.execute(verification);
+		}
+	}
+
+	private PreVerification takePreVerification(TransactionRequest request) {
+		return request.getHash() == null ? null : preVerifications.remove(request.getHash());
+	}
+
+	/**
+	 * 按顺序处理一批交易；<br>
+	 * 
+	 * 如果新区块的编辑器支持推测执行，则先在多个线程上并发地推测执行全部交易，记录各交易以账户为粒度的读写集合；
+	 * 然后按照交易在批次中的顺序依次采纳推测执行的结果；<br>
+	 * 
+	 * 推测执行失败、读写的账户与此前交易的写入冲突、或者涉及管理数据变更的交易，将在采纳阶段按顺序重新执行，
+	 * 因此处理结果与逐个调用 {@link #schedule(TransactionRequest)} 一致；<br>
+	 * 
+	 * 推测执行需要账本以区块为隔离级别（账本初始化配置 “ledger.block-isolation=true”）；否则逐个调用
+	 * {@link #schedule(TransactionRequest)} 按顺序处理；
+	 * 
+	 * @param requests 交易请求列表；列表的顺序即交易在区块中的顺序；
+	 * @return 与交易请求一一对应的回复列表；
+	 */
+	@Override
+	public List<TransactionResponse> scheduleBatch(List<TransactionRequest> requests) {
+		List<TransactionResponse> responses = new ArrayList<>(requests.size());
+		if (requests.size() < 2 || !newBlockEditor.isSpeculationSupported()) {
+			for (TransactionRequest request : requests) {
+				responses.add(schedule(request));
+			}
+			return responses;
+		}
+
+		// 并发地推测执行；
+		Speculation[] speculations = new Speculation[requests.size()];
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[speculations.length];
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		for (int i = 0; i < speculations.length; i++) {
+			speculations[i] = new Speculation(requests.get(i));
+			tasks[i] = pool.submit(speculations[i]);
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+
+		// 按顺序采纳推测执行的结果；
+		for (Speculation speculation : speculations) {
+			responses.add(adopt(speculation));
+		}
+		return responses;
+	}
+
+	/**
+	 * 采纳推测执行的结果；如果推测执行失败或者结果无效，则按顺序重新执行交易；
+	 * 
+	 * @param speculation
+	 * @return
+	 */
+	private TransactionResponse adopt(Speculation speculation) {
+		TransactionRequest request = speculation.request;
+		if (speculation.operationResults == null) {
+			return schedule(request);
+		}
+		LedgerTransactionContext txCtx = newBlockEditor.adoptTransaction(speculation.txCtx);
+		if (txCtx == null) {
+			LOGGER.debug("Re-execute the conflicting transaction... --[BlockHeight={}][RequestHash={}][TxHash={}]",
+					newBlockEditor.getBlockHeight(), request.getHash(), request.getTransactionContent().getHash());
+			return schedule(request);
+		}
+
+		TransactionResponse resp = handleTx(speculation.reqExt, txCtx, speculation.operationResults,
+				speculation.executedOperations);
+		responseList.add(resp);
+		return resp;
+	}
+
 	/**
 	 * 执行安全验证；
 	 */
@@ -171,8 +274,32 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 		securityPolicy.checkNodePermission(LedgerPermission.APPROVE_TX, MultiIDsPolicy.AT_LEAST_ONE);
 	}
 
-	private void checkRequest(TransactionRequestExtension reqExt) {
-		// TODO: 把验签和创建交易并行化；
+	/**
+	 * 验证交易请求；<br>
+	 * 
+	 * 优先使用预先验证的结果；如果没有预先验证的结果，或者预先验证的请求与当前请求不一致，则直接验证；
+	 * 
+	 * @param request
+	 * @param reqExt
+	 * @param preVerification 预先验证的结果；可以为 null；
+	 */
+	private void checkRequest(TransactionRequest request, TransactionRequestExtension reqExt,
+			PreVerification preVerification) {
+		if (preVerification != null) {
+			RuntimeException error = preVerification.join();
+			if (preVerification.isVerificationOf(request)) {
+				if (error != null) {
+					throw error;
+				}
+				return;
+			}
+			LOGGER.warn("The pre-verified request mismatches the scheduled request with the same hash! "
+					+ "--[RequestHash={}][TxHash={}]", request.getHash(), request.getTransactionContent().getHash());
+		}
+		verifyRequest(reqExt);
+	}
+
+	private void verifyRequest(TransactionRequestExtension reqExt) {
 		checkTxContentHash(reqExt);
 		checkEndpointSignatures(reqExt);
 		checkNodeSignatures(reqExt);
@@ -189,37 +316,52 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 	}
 
 	private void checkNodeSignatures(TransactionRequestExtension request) {
-		TransactionContent txContent = request.getTransactionContent();
-		Collection<Credential> nodes = request.getNodes();
-		if (nodes != null) {
-			for (Credential node : nodes) {
-				if (!SignatureUtils.verifyHashSignature(txContent.getHash(), node.getSignature().getDigest(),
-						node.getPubKey())) {
-					// 由于签名校验失败，引发IllegalTransactionException，使外部调用抛弃此交易请求；
-					throw new IllegalTransactionException(
-							String.format("Wrong transaction node signature! --[Tx Hash=%s][Node Signer=%s]!",
-									request.getTransactionContent().getHash(), node.getAddress()),
-							TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE);
-				}
-			}
+		Credential signer = findInvalidSigner(request.getTransactionContent().getHash(), request.getNodes());
+		if (signer != null) {
+			// 由于签名校验失败，引发IllegalTransactionException，使外部调用抛弃此交易请求；
+			throw new IllegalTransactionException(
+					String.format("Wrong transaction node signature! --[Tx Hash=%s][Node Signer=%s]!",
+							request.getTransactionContent().getHash(), signer.getAddress()),
+					TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE);
 		}
 	}
 
 	private void checkEndpointSignatures(TransactionRequestExtension request) {
-		TransactionContent txContent = request.getTransactionContent();
-		Collection<Credential> endpoints = request.getEndpoints();
-		if (endpoints != null) {
-			for (Credential endpoint : endpoints) {
-				if (!SignatureUtils.verifyHashSignature(txContent.getHash(), endpoint.getSignature().getDigest(),
-						endpoint.getPubKey())) {
-					// 由于签名校验失败，引发IllegalTransactionException，使外部调用抛弃此交易请求；
-					throw new IllegalTransactionException(
-							String.format("Wrong transaction endpoint signature! --[Tx Hash=%s][Endpoint Signer=%s]!",
-									request.getTransactionContent().getHash(), endpoint.getAddress()),
-							TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE);
-				}
+		Credential signer = findInvalidSigner(request.getTransactionContent().getHash(), request.getEndpoints());
+		if (signer != null) {
+			// 由于签名校验失败，引发IllegalTransactionException，使外部调用抛弃此交易请求；
+			throw new IllegalTransactionException(
+					String.format("Wrong transaction endpoint signature! --[Tx Hash=%s][Endpoint Signer=%s]!",
+							request.getTransactionContent().getHash(), signer.getAddress()),
+					TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE);
+		}
+	}
+
+	/**
+	 * 批量验证签名，返回第一个签名无效的签署者；如果全部签名有效，则返回 null；
+	 * 
+	 * @param txHash
+	 * @param signers
+	 * @return
+	 */
+	private static Credential findInvalidSigner(HashDigest txHash, Collection<Credential> signers) {
+		if (signers == null || signers.isEmpty()) {
+			return null;
+		}
+		Credential[] credentials = signers.toArray(new Credential[signers.size()]);
+		SignatureDigest[] digests = new SignatureDigest[credentials.length];
+		PubKey[] pubKeys = new PubKey[credentials.length];
+		for (int i = 0; i < credentials.length; i++) {
+			digests[i] = credentials[i].getSignature().getDigest();
+			pubKeys[i] = credentials[i].getPubKey();
+		}
+		boolean[] results = SignatureUtils.verifyHashSignatures(txHash, digests, pubKeys);
+		for (int i = 0; i < results.length; i++) {
+			if (!results[i]) {
+				return credentials[i];
 			}
 		}
+		return null;
 	}
 
 	/**
@@ -232,36 +374,34 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 	 * @return
 	 */
 	private TransactionResponse handleTx(TransactionRequestExtension request, LedgerTransactionContext txCtx) {
+		return handleTx(request, txCtx, null, null);
+	}
+
+	/**
+	 * 处理交易；<br>
+	 * 
+	 * 此方法会处理所有的异常，以不同结果的 {@link TransactionResponse} 返回；
+	 * 
+	 * @param request
+	 * @param txCtx
+	 * @param executedResults    已执行的操作结果；如果不为 null，则表示交易的操作已经在事务的数据集中执行，直接提交交易；
+	 * @param executedOperations 已执行的操作；与 executedResults 同时指定；
+	 * @return
+	 */
+	private TransactionResponse handleTx(TransactionRequestExtension request, LedgerTransactionContext txCtx,
+			List<OperationResult> executedResults, List<Operation> executedOperations) {
 		TransactionState result;
-		List<OperationResult> operationResults = new ArrayList<>();
+		List<OperationResult> operationResults = executedResults == null ? new ArrayList<>() : executedResults;
+		List<Operation> operations = executedOperations == null ? new ArrayList<>() : executedOperations;
 		try {
-			LedgerDataset dataset = txCtx.getDataset();
-
-			// 执行操作；
-			Operation[] ops = request.getTransactionContent().getOperations();
-			OperationHandleContext handleContext = new OperationHandleContext() {
-				@Override
-				public void handle(Operation operation) {
-					// assert; Instance of operation are one of User related operations or
-					// DataAccount related operations;
-					OperationHandle hdl = handlesRegisteration.getHandle(operation.getClass());
-					hdl.process(operation, dataset, request, ledger, this);
-				}
-			};
-			OperationHandle opHandle;
-			int opIndex = 0;
-			for (Operation op : ops) {
-				opHandle = handlesRegisteration.getHandle(op.getClass());
-				BytesValue opResult = opHandle.process(op, dataset, request, ledger, handleContext);
-				if (opResult != null) {
-					operationResults.add(new OperationResultData(opIndex, opResult));
-				}
-				opIndex++;
+			if (executedResults == null) {
+				// 执行操作；
+				executeOperations(request, txCtx.getDataset(), operationResults, operations);
 			}
 
 			// 提交交易（事务）；
 			result = TransactionState.SUCCESS;
-			txCtx.commit(result, operationResults);
+			txCtx.commit(result, operationResults, operations);
 		} catch (TransactionRollbackException e) {
 			result = TransactionState.IGNORED_BY_TX_FULL_ROLLBACK;
 			txCtx.rollback();
@@ -326,6 +466,40 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 		return resp;
 	}
 
+	/**
+	 * 在指定的数据集上依次执行交易的操作；
+	 * 
+	 * @param request
+	 * @param dataset
+	 * @param operationResults   输出参数，用于收集操作的执行结果；
+	 * @param executedOperations 输出参数，用于收集实际执行的操作，包括合约执行时产生的操作；
+	 */
+	private void executeOperations(TransactionRequestExtension request, LedgerDataset dataset,
+			List<OperationResult> operationResults, List<Operation> executedOperations) {
+		Operation[] ops = request.getTransactionContent().getOperations();
+		OperationHandleContext handleContext = new OperationHandleContext() {
+			@Override
+			public void handle(Operation operation) {
+				// assert; Instance of operation are one of User related operations or
+				// DataAccount related operations;
+				executedOperations.add(operation);
+				OperationHandle hdl = handlesRegisteration.getHandle(operation.getClass());
+				hdl.process(operation, dataset, request, ledger, this);
+			}
+		};
+		OperationHandle opHandle;
+		int opIndex = 0;
+		for (Operation op : ops) {
+			executedOperations.add(op);
+			opHandle = handlesRegisteration.getHandle(op.getClass());
+			BytesValue opResult = opHandle.process(op, dataset, request, ledger, handleContext);
+			if (opResult != null) {
+				operationResults.add(new OperationResultData(opIndex, opResult));
+			}
+			opIndex++;
+		}
+	}
+
 	/**
 	 * 直接丢弃交易；
 	 * 
@@ -354,6 +528,7 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 		if (batchResult != null) {
 			throw new IllegalStateException("Batch result has already been prepared or canceled!");
 		}
+		preVerifications.clear();
 		this.block = newBlockEditor.prepare();
 		this.batchResult = new TransactionBatchResultHandleImpl();
 		return (TransactionBatchResultHandle) batchResult;
@@ -372,6 +547,7 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 			throw new IllegalStateException("Batch result has already been prepared or canceled!");
 		}
 
+		preVerifications.clear();
 		cancelInError(errorResult);
 
 		batchResult = new TransactionBatchResultImpl();
@@ -462,6 +638,137 @@ public class TransactionBatchProcessor implements TransactionBatchProcess {
 		}
 	}
 
+	/**
+	 * 交易的推测执行任务；<br>
+	 * 
+	 * 推测执行成功时 {@link #operationResults} 不为 null；推测执行中发生的任何异常都不会被记录，交易将在采纳阶段重新执行；
+	 * 
+	 * @author huanghaiquan
+	 *
+	 */
+	private class Speculation implements Runnable {
+
+		private TransactionRequest request;
+
+		private TransactionRequestExtension reqExt;
+
+		private SpeculativeTransactionContext txCtx;
+
+		private List<OperationResult> operationResults;
+
+		private List<Operation> executedOperations;
+
+		public Speculation(TransactionRequest request) {
+			this.request = request;
+		}
+
+		@Override
+		public void run() {
+			try {
+				PreVerification preVerification = takePreVerification(request);
+
+				reqExt = new TransactionRequestExtensionImpl(request);
+
+				SecurityPolicy securityPolicy = securityManager.createSecurityPolicy(reqExt.getEndpointAddresses(),
+						reqExt.getNodeAddresses());
+				SecurityContext.setContextUsersPolicy(securityPolicy);
+
+				checkSecurity(securityPolicy);
+				checkRequest(request, reqExt, preVerification);
+
+				txCtx = newBlockEditor.newSpeculativeTransaction(request);
+
+				List<OperationResult> results = new ArrayList<>();
+				List<Operation> operations = new ArrayList<>();
+				executeOperations(reqExt, txCtx.getDataset(), results, operations);
+				executedOperations = operations;
+				operationResults = results;
+			} catch (Exception e) {
+				LOGGER.debug("Speculative execution failed, the transaction will be re-executed in order! "
+						+ "--[RequestHash={}][TxHash={}] --{}", request.getHash(),
+						request.getTransactionContent().getHash(), e.getMessage());
+			} finally {
+				SecurityContext.removeContextUsersPolicy();
+			}
+		}
+	}
+
+	/**
+	 * 交易请求的预先验证任务；<br>
+	 * 
+	 * 验证通过时任务的结果为 null，否则为验证失败的异常；同时记录被验证的请求的哈希、内容哈希以及签名，用于确认验证结果所对应的请求；
+	 * 
+	 * @author huanghaiquan
+	 *
+	 */
+	private class PreVerification extends RecursiveTask<RuntimeException> {
+
+		private static final long serialVersionUID = 2374951536123418529L;
+
+		private final TransactionRequest request;
+
+		public PreVerification(TransactionRequest request) {
+			this.request = request;
+		}
+
+		@Override
+		protected RuntimeException compute() {
+			try {
+				verifyRequest(new TransactionRequestExtensionImpl(request));
+				return null;
+			} catch (RuntimeException e) {
+				return e;
+			}
+		}
+
+		/**
+		 * 验证结果是否属于指定的请求；<br>
+		 * 
+		 * 只有同一个请求对象，或者请求哈希、交易内容哈希以及全部签名（公钥和摘要）都一致的请求，才能采用此验证结果；<br>
+		 * 
+		 * 预先验证和按顺序执行时的请求是从共识消息分别解码得到的，因此只比较已解码的哈希和签名，不再重新编码请求；
+		 * 
+		 * @param req
+		 * @return
+		 */
+		public boolean isVerificationOf(TransactionRequest req) {
+			if (req == request) {
+				return true;
+			}
+			if (!equals(request.getHash(), req.getHash())) {
+				return false;
+			}
+			TransactionContent content = request.getTransactionContent();
+			TransactionContent otherContent = req.getTransactionContent();
+			if (content == null || otherContent == null) {
+				return content == otherContent;
+			}
+			return equals(content.getHash(), otherContent.getHash())
+					&& equals(request.getEndpointSignatures(), req.getEndpointSignatures())
+					&& equals(request.getNodeSignatures(), req.getNodeSignatures());
+		}
+
+		private boolean equals(HashDigest hash1, HashDigest hash2) {
+			return hash1 == null ? hash2 == null : hash1.equals(hash2);
+		}
+
+		private boolean equals(DigitalSignature[] signatures1, DigitalSignature[] signatures2) {
+			int length1 = signatures1 == null ? 0 : signatures1.length;
+			int length2 = signatures2 == null ? 0 : signatures2.length;
+			if (length1 != length2) {
+				return false;
+			}
+			for (int i = 0; i < length1; i++) {
+				DigitalSignature sign1 = signatures1[i];
+				DigitalSignature sign2 = signatures2[i];
+				if (!sign1.getPubKey().equals(sign2.getPubKey()) || !sign1.getDigest().equals(sign2.getDigest())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private class TransactionBatchResultImpl implements TransactionBatchResult {
 
 		@Override
@@ -87,9 +87,15 @@ public class TransactionSet implements Transactional, TransactionQuery {
 	 */
 	public TransactionSet(HashDigest txRootHash, CryptoSetting setting, String keyPrefix,
 			ExPolicyKVStorage merkleTreeStorage, VersioningKVStorage dataStorage, boolean readonly) {
+		this(txRootHash, setting, keyPrefix, merkleTreeStorage, dataStorage, readonly, null);
+	}
+
+	public TransactionSet(HashDigest txRootHash, CryptoSetting setting, String keyPrefix,
+			ExPolicyKVStorage merkleTreeStorage, VersioningKVStorage dataStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
 		this.txStatePrefix = Bytes.fromString(keyPrefix + TX_STATE_PREFIX);
 		this.txSet = new MerkleDataSet(txRootHash, setting, Bytes.fromString(keyPrefix), merkleTreeStorage, dataStorage,
-				readonly);
+				readonly, nodeCache);
 	}
 
 	/**
@@ -164,6 +170,10 @@ public class TransactionSet implements Transactional, TransactionQuery {
 		txSet.setReadonly();
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		txSet.setUndoLog(undoLog);
+	}
+
 	@Override
 	public boolean isUpdated() {
 		return txSet.isUpdated();
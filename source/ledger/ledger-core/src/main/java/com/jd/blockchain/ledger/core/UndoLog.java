@@ -0,0 +1,58 @@
+package com.jd.blockchain.ledger.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 撤销日志；<br>
+ *
+ * 在“区块隔离”模式下，同一区块内的所有交易共享同一个数据集，各数据集在写入时登记对应的撤销动作；<br>
+ *
+ * 交易提交时调用 {@link #checkpoint()} 丢弃已登记的撤销动作；交易回滚时调用 {@link #rollback()}
+ * 按登记的逆序执行撤销动作，使数据集恢复到该交易开始之前的状态；
+ *
+ * 注：此实现不是线程安全的；
+ *
+ * @author huanghaiquan
+ *
+ */
+class UndoLog {
+
+	private Deque<Runnable> undoActions = new ArrayDeque<>();
+
+	/**
+	 * 登记一个撤销动作；
+	 *
+	 * @param undoAction
+	 */
+	public void record(Runnable undoAction) {
+		undoActions.push(undoAction);
+	}
+
+	/**
+	 * 设置检查点，丢弃此前登记的全部撤销动作；
+	 */
+	public void checkpoint() {
+		undoActions.clear();
+	}
+
+	/**
+	 * 按登记的逆序执行自上一个检查点以来的全部撤销动作；
+	 */
+	public void rollback() {
+		Runnable undoAction;
+		while ((undoAction = undoActions.poll()) != null) {
+			undoAction.run();
+		}
+	}
+
+	/**
+	 * 自上一个检查点以来登记的撤销动作的数量；
+	 *
+	 * @return
+	 */
+	public int size() {
+		return undoActions.size();
+	}
+
+}
@@ -28,8 +28,14 @@ public class UserAccountSet implements Transactional, UserAccountQuery {
 	public UserAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String keyPrefix,
 			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
 			AccountAccessPolicy accessPolicy) {
+		this(dataRootHash, cryptoSetting, keyPrefix, exStorage, verStorage, readonly, accessPolicy, null);
+	}
+
+	public UserAccountSet(HashDigest dataRootHash, CryptoSetting cryptoSetting, String keyPrefix,
+			ExPolicyKVStorage exStorage, VersioningKVStorage verStorage, boolean readonly,
+			AccountAccessPolicy accessPolicy, MerkleNodeCache nodeCache) {
 		accountSet = new MerkleAccountSet(dataRootHash, cryptoSetting, Bytes.fromString(keyPrefix), exStorage,
-				verStorage, readonly, accessPolicy);
+				verStorage, readonly, accessPolicy, nodeCache);
 	}
 
 	@Override
@@ -55,6 +61,22 @@ public class UserAccountSet implements Transactional, UserAccountQuery {
 		accountSet.setReadonly();
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		accountSet.setUndoLog(undoLog);
+	}
+
+	void setReadWriteSet(ReadWriteSet readWriteSet) {
+		accountSet.setReadWriteSet(readWriteSet);
+	}
+
+	void setAccountCache(AccountCache accountCache) {
+		accountSet.setAccountCache(accountCache);
+	}
+
+	void adopt(UserAccountSet speculativeSet) {
+		accountSet.adopt(speculativeSet.accountSet);
+	}
+
 	@Override
 	public HashDigest getRootHash() {
 		return accountSet.getRootHash();
@@ -118,4 +140,4 @@ public class UserAccountSet implements Transactional, UserAccountQuery {
 		accountSet.cancel();
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
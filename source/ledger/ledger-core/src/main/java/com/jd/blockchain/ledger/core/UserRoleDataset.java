@@ -35,7 +35,14 @@ public class UserRoleDataset implements Transactional, MerkleProvable, UserAutho
 
 	public UserRoleDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
 			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly) {
-		dataset = new MerkleDataSet(merkleRootHash, cryptoSetting, Bytes.fromString(prefix), exPolicyStorage, verStorage, readonly);
+		this(merkleRootHash, cryptoSetting, prefix, exPolicyStorage, verStorage, readonly, null);
+	}
+
+	public UserRoleDataset(HashDigest merkleRootHash, CryptoSetting cryptoSetting, String prefix,
+			ExPolicyKVStorage exPolicyStorage, VersioningKVStorage verStorage, boolean readonly,
+			MerkleNodeCache nodeCache) {
+		dataset = new MerkleDataSet(merkleRootHash, cryptoSetting, Bytes.fromString(prefix), exPolicyStorage, verStorage, readonly,
+				nodeCache);
 	}
 
 	@Override
@@ -48,6 +55,10 @@ public class UserRoleDataset implements Transactional, MerkleProvable, UserAutho
 		return dataset.getProof(key);
 	}
 
+	void setUndoLog(UndoLog undoLog) {
+		dataset.setUndoLog(undoLog);
+	}
+
 	@Override
 	public boolean isUpdated() {
 		return dataset.isUpdated();
@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.jd.blockchain.contract.LedgerContext;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.BytesValue;
 import com.jd.blockchain.ledger.ContractInfo;
@@ -213,6 +214,27 @@ public class ContractLedgerContext implements LedgerContext {
 		return innerQueryService.getContractAccounts(ledgerHash, fromIndex, count);
 	}
 
+	@Override
+	public long getAccountHistoryCount(HashDigest ledgerHash, String address) {
+		return innerQueryService.getAccountHistoryCount(ledgerHash, address);
+	}
+
+	@Override
+	public AccountHistoryEntry[] getAccountHistory(HashDigest ledgerHash, String address, int fromIndex, int count) {
+		return innerQueryService.getAccountHistory(ledgerHash, address, fromIndex, count);
+	}
+
+	@Override
+	public long getDataEntryHistoryCount(HashDigest ledgerHash, String address, String key) {
+		return innerQueryService.getDataEntryHistoryCount(ledgerHash, address, key);
+	}
+
+	@Override
+	public AccountHistoryEntry[] getDataEntryHistory(HashDigest ledgerHash, String address, String key, int fromIndex,
+			int count) {
+		return innerQueryService.getDataEntryHistory(ledgerHash, address, key, fromIndex, count);
+	}
+
 	@Override
 	public UserRegisterOperationBuilder users() {
 		return new UserRegisterOperationBuilder1();
@@ -0,0 +1,92 @@
+package com.jd.blockchain.ledger.core.handles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jd.blockchain.ledger.BlockchainEventType;
+import com.jd.blockchain.ledger.ContractCodeDeployOperation;
+import com.jd.blockchain.ledger.ContractEventSendOperation;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountRegisterOperation;
+import com.jd.blockchain.ledger.Operation;
+import com.jd.blockchain.ledger.ParticipantRegisterOperation;
+import com.jd.blockchain.ledger.ParticipantStateUpdateOperation;
+import com.jd.blockchain.ledger.UserAuthorizeOperation;
+import com.jd.blockchain.ledger.UserAuthorizeOperation.UserRolesEntry;
+import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 解析操作变更的账户；<br>
+ *
+ * 与各个操作处理器对应，每个账户附带其变更产生的事件码（{@link BlockchainEventType}）；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class OperationAccounts {
+
+	private OperationAccounts() {
+	}
+
+	/**
+	 * 解析操作变更的账户及其事件码；
+	 *
+	 * @param operations 操作；可以为 null；
+	 * @return 账户地址到事件码的映射，按照账户首次出现的顺序排列；
+	 */
+	public static Map<Bytes, Integer> resolve(Operation[] operations) {
+		return resolve(operations == null ? Collections.<Operation>emptyList() : Arrays.asList(operations));
+	}
+
+	/**
+	 * 解析操作变更的账户及其事件码；
+	 *
+	 * @param operations 操作；
+	 * @return 账户地址到事件码的映射，按照账户首次出现的顺序排列；
+	 */
+	public static Map<Bytes, Integer> resolve(Iterable<Operation> operations) {
+		Map<Bytes, Integer> accounts = new LinkedHashMap<>();
+		for (Operation op : operations) {
+			if (op instanceof DataAccountKVSetOperation) {
+				addAccount(accounts, ((DataAccountKVSetOperation) op).getAccountAddress(),
+						BlockchainEventType.PAYLOAD_UPDATED);
+			} else if (op instanceof DataAccountRegisterOperation) {
+				addAccount(accounts, ((DataAccountRegisterOperation) op).getAccountID().getAddress(),
+						BlockchainEventType.ACCOUNT_UPDATED);
+			} else if (op instanceof UserRegisterOperation) {
+				addAccount(accounts, ((UserRegisterOperation) op).getUserID().getAddress(),
+						BlockchainEventType.ACCOUNT_UPDATED);
+			} else if (op instanceof ContractCodeDeployOperation) {
+				addAccount(accounts, ((ContractCodeDeployOperation) op).getContractID().getAddress(),
+						BlockchainEventType.SCRIPT_UPDATED);
+			} else if (op instanceof ContractEventSendOperation) {
+				addAccount(accounts, ((ContractEventSendOperation) op).getContractAddress(),
+						BlockchainEventType.SCRIPT_INVOKED);
+			} else if (op instanceof UserAuthorizeOperation) {
+				UserRolesEntry[] entries = ((UserAuthorizeOperation) op).getUserRolesAuthorizations();
+				if (entries != null) {
+					for (UserRolesEntry entry : entries) {
+						for (Bytes address : entry.getUserAddresses()) {
+							addAccount(accounts, address, BlockchainEventType.PRIVILEGE_UPDATED);
+						}
+					}
+				}
+			} else if (op instanceof ParticipantRegisterOperation) {
+				addAccount(accounts, ((ParticipantRegisterOperation) op).getParticipantRegisterIdentity().getAddress(),
+						BlockchainEventType.ACCOUNT_UPDATED);
+			} else if (op instanceof ParticipantStateUpdateOperation) {
+				addAccount(accounts, ((ParticipantStateUpdateOperation) op).getStateUpdateIdentity().getAddress(),
+						BlockchainEventType.ACCOUNT_UPDATED);
+			}
+		}
+		return accounts;
+	}
+
+	private static void addAccount(Map<Bytes, Integer> accounts, Bytes address, BlockchainEventType eventType) {
+		accounts.merge(address, eventType.CODE, (v1, v2) -> v1 | v2);
+	}
+
+}
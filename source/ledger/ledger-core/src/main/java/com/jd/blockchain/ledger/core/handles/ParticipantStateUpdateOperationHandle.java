@@ -60,7 +60,8 @@ public class ParticipantStateUpdateOperationHandle extends AbstractLedgerOperati
         Bytes newConsensusSettings =  provider.getSettingsFactory().getConsensusSettingsBuilder().updateSettings(adminAccountDataSet.getSettings().getConsensusSetting(), participantInfo);
 
         LedgerSettings ledgerSetting = new LedgerConfiguration(adminAccountDataSet.getSettings().getConsensusProvider(),
-                newConsensusSettings, adminAccountDataSet.getPreviousSetting().getCryptoSetting());
+                newConsensusSettings, adminAccountDataSet.getPreviousSetting().getCryptoSetting(),
+                adminAccountDataSet.getPreviousSetting().getBlockIsolation());
 
         adminAccountDataSet.setLedgerSetting(ledgerSetting);
 
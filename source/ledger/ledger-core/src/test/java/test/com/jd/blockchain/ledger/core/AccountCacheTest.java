@@ -0,0 +1,89 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.crypto.service.classic.ClassicAlgorithm;
+import com.jd.blockchain.ledger.core.AccountCache;
+import com.jd.blockchain.ledger.core.MerkleAccount;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class AccountCacheTest {
+
+	private static final HashFunction HASH_FUNC = Crypto.getHashFunction(ClassicAlgorithm.SHA256);
+
+	private static final Bytes USER_SET_PREFIX = Bytes.fromString("LDG://L1/USRS/");
+
+	private static final Bytes DATA_SET_PREFIX = Bytes.fromString("LDG://L1/DATS/");
+
+	@Test
+	public void testRootHashAndEviction() {
+		AccountCache cache = new AccountCache(64, 0);
+		AtomicInteger loads = new AtomicInteger();
+
+		Bytes address = Bytes.fromString("account-0");
+		HashDigest rootHash = HASH_FUNC.hash(BytesUtils.toBytes("root-0"));
+		MerkleAccount account = cache.get(DATA_SET_PREFIX, address, rootHash, () -> {
+			loads.incrementAndGet();
+			return Mockito.mock(MerkleAccount.class);
+		});
+		assertSame(account, cache.get(DATA_SET_PREFIX, address, rootHash, () -> {
+			loads.incrementAndGet();
+			return Mockito.mock(MerkleAccount.class);
+		}));
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// 根哈希变化之后，或者属于另一个账户集合时，重新加载；
+		HashDigest newRootHash = HASH_FUNC.hash(BytesUtils.toBytes("root-1"));
+		assertNotSame(account, cache.get(DATA_SET_PREFIX, address, newRootHash, () -> Mockito.mock(MerkleAccount.class)));
+		assertNotSame(account, cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class)));
+		assertEquals(3, cache.getCount());
+
+		// 超出容量时淘汰；
+		for (int i = 0; i < 1000; i++) {
+			cache.get(DATA_SET_PREFIX, Bytes.fromString("account-" + i), rootHash, () -> Mockito.mock(MerkleAccount.class));
+		}
+		assertEquals(64, cache.getCount());
+		assertEquals(cache.getMissCount() - 64, cache.getEvictionCount());
+
+		cache.clear();
+		assertEquals(0, cache.getCount());
+	}
+
+	@Test
+	public void testExpiration() throws InterruptedException {
+		AccountCache cache = new AccountCache(16, 50);
+		Bytes address = Bytes.fromString("account-0");
+		HashDigest rootHash = HASH_FUNC.hash(BytesUtils.toBytes("root-0"));
+		MerkleAccount account = cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class));
+		assertSame(account, cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class)));
+
+		Thread.sleep(100);
+		assertNotSame(account, cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class)));
+		assertEquals(1, cache.getExpirationCount());
+		assertEquals(1, cache.getCount());
+	}
+
+	@Test
+	public void testDisabled() {
+		AccountCache cache = new AccountCache(0, 0);
+		Bytes address = Bytes.fromString("account-0");
+		HashDigest rootHash = HASH_FUNC.hash(BytesUtils.toBytes("root-0"));
+		MerkleAccount account = cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class));
+		assertNotSame(account, cache.get(USER_SET_PREFIX, address, rootHash, () -> Mockito.mock(MerkleAccount.class)));
+		assertEquals(0, cache.getCount());
+		assertEquals(2, cache.getMissCount());
+	}
+}
@@ -0,0 +1,197 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
+import com.jd.blockchain.ledger.BlockchainKeyGenerator;
+import com.jd.blockchain.ledger.BlockchainKeypair;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountRegisterOperation;
+import com.jd.blockchain.ledger.EndpointRequest;
+import com.jd.blockchain.ledger.LedgerInitSetting;
+import com.jd.blockchain.ledger.LedgerPermission;
+import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.NodeRequest;
+import com.jd.blockchain.ledger.TransactionContent;
+import com.jd.blockchain.ledger.TransactionContentBody;
+import com.jd.blockchain.ledger.TransactionPermission;
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.ledger.TransactionResponse;
+import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.ledger.core.AccountHistoryIndex;
+import com.jd.blockchain.ledger.core.DefaultOperationHandleRegisteration;
+import com.jd.blockchain.ledger.core.LedgerDataset;
+import com.jd.blockchain.ledger.core.LedgerEditor;
+import com.jd.blockchain.ledger.core.LedgerManager;
+import com.jd.blockchain.ledger.core.LedgerQueryService;
+import com.jd.blockchain.ledger.core.LedgerRepository;
+import com.jd.blockchain.ledger.core.LedgerSecurityManager;
+import com.jd.blockchain.ledger.core.LedgerTransactionContext;
+import com.jd.blockchain.ledger.core.LedgerTransactionalEditor;
+import com.jd.blockchain.ledger.core.SecurityPolicy;
+import com.jd.blockchain.ledger.core.TransactionBatchProcessor;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+
+public class AccountHistoryIndexTest {
+
+	static {
+		DataContractRegistry.register(TransactionContent.class);
+		DataContractRegistry.register(TransactionContentBody.class);
+		DataContractRegistry.register(TransactionRequest.class);
+		DataContractRegistry.register(NodeRequest.class);
+		DataContractRegistry.register(EndpointRequest.class);
+		DataContractRegistry.register(TransactionResponse.class);
+		DataContractRegistry.register(UserRegisterOperation.class);
+		DataContractRegistry.register(DataAccountRegisterOperation.class);
+		DataContractRegistry.register(DataAccountKVSetOperation.class);
+	}
+
+	private static final String LEDGER_KEY_PREFIX = "LDG://";
+
+	private BlockchainKeypair parti0 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti1 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti2 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti3 = BlockchainKeyGenerator.getInstance().generate();
+
+	@Test
+	public void testAccountHistory() {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+
+		BlockchainKeypair dataAccount = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+
+		// 区块 1：注册数据账户和用户；区块 2：写入 K1；区块 3：更新 K1，写入 K2；
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountReg(dataAccount, ledgerHash, parti0, parti0),
+				LedgerTestUtils.createTxRequest_UserReg(user, ledgerHash, parti0, parti0));
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K1", "V1",
+				-1, ledgerHash, parti0, parti0));
+		commitBlock(ledgerRepo,
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K1", "V2", 0, ledgerHash,
+						parti0, parti0),
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K2", "V1", -1, ledgerHash,
+						parti0, parti0));
+
+		// 重新加载账本后仍然可以读取；
+		AccountHistoryIndex historyIndex = new LedgerManager().register(ledgerHash, storage).getAccountHistoryIndex();
+		assertNotNull(historyIndex);
+
+		assertEquals(4, historyIndex.getCount(dataAccount.getAddress()));
+		AccountHistoryEntry[] entries = historyIndex.getEntries(dataAccount.getAddress(), 0, 10);
+		assertEquals(4, entries.length);
+		assertEntry(1, 0, -1, entries[0]);
+		assertEntry(2, 0, -1, entries[1]);
+		assertEntry(3, 0, -1, entries[2]);
+		assertEntry(3, 1, -1, entries[3]);
+
+		assertEquals(1, historyIndex.getCount(user.getAddress()));
+		assertEntry(1, 1, -1, historyIndex.getEntries(user.getAddress(), 0, 10)[0]);
+
+		assertEquals(2, historyIndex.getCount(dataAccount.getAddress(), "K1"));
+		entries = historyIndex.getEntries(dataAccount.getAddress(), "K1", 0, 10);
+		assertEntry(2, 0, 0, entries[0]);
+		assertEntry(3, 0, 1, entries[1]);
+
+		assertEquals(1, historyIndex.getCount(dataAccount.getAddress(), "K2"));
+		assertEntry(3, 1, 0, historyIndex.getEntries(dataAccount.getAddress(), "K2", 0, 10)[0]);
+
+		assertEquals(0, historyIndex.getCount(dataAccount.getAddress(), "K3"));
+		assertEquals(0, historyIndex.getEntries(dataAccount.getAddress(), "K3", 0, 10).length);
+		assertEquals(0, historyIndex.getEntries(dataAccount.getAddress(), 4, 10).length);
+	}
+
+	@Test
+	public void testQueryService() {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+
+		BlockchainKeypair dataAccount = BlockchainKeyGenerator.getInstance().generate();
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountReg(dataAccount, ledgerHash, parti0, parti0));
+		for (int i = 0; i < 5; i++) {
+			commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K1",
+					"V" + i, i - 1, ledgerHash, parti0, parti0));
+		}
+
+		LedgerQueryService queryService = new LedgerQueryService(ledgerRepo);
+		String address = dataAccount.getAddress().toBase58();
+		assertEquals(6, queryService.getAccountHistoryCount(ledgerHash, address));
+		assertEquals(6, queryService.getAccountHistory(ledgerHash, address, 0, -1).length);
+
+		AccountHistoryEntry[] entries = queryService.getAccountHistory(ledgerHash, address, 2, 3);
+		assertEquals(3, entries.length);
+		assertEquals(3, entries[0].getBlockHeight());
+		assertEquals(5, entries[2].getBlockHeight());
+
+		assertEquals(5, queryService.getDataEntryHistoryCount(ledgerHash, address, "K1"));
+		entries = queryService.getDataEntryHistory(ledgerHash, address, "K1", 3, 10);
+		assertEquals(2, entries.length);
+		assertEntry(5, 0, 3, entries[0]);
+		assertEntry(6, 0, 4, entries[1]);
+
+		String unknownAddress = BlockchainKeyGenerator.getInstance().generate().getAddress().toBase58();
+		assertEquals(0, queryService.getAccountHistoryCount(ledgerHash, unknownAddress));
+		assertEquals(0, queryService.getAccountHistory(ledgerHash, unknownAddress, 0, -1).length);
+	}
+
+	private static void assertEntry(long blockHeight, int txIndex, long version, AccountHistoryEntry entry) {
+		assertEquals(blockHeight, entry.getBlockHeight());
+		assertEquals(txIndex, entry.getTxIndex());
+		assertEquals(version, entry.getVersion());
+	}
+
+	private static void commitBlock(LedgerRepository ledgerRepo, TransactionRequest... txRequests) {
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(getSecurityManager(),
+				newBlockEditor, ledgerRepo, new DefaultOperationHandleRegisteration());
+		for (TransactionRequest txRequest : txRequests) {
+			TransactionResponse txResp = txbatchProcessor.schedule(txRequest);
+			assertEquals(TransactionState.SUCCESS, txResp.getExecutionState());
+		}
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+	}
+
+	private static LedgerSecurityManager getSecurityManager() {
+		LedgerSecurityManager securityManager = Mockito.mock(LedgerSecurityManager.class);
+
+		SecurityPolicy securityPolicy = Mockito.mock(SecurityPolicy.class);
+		when(securityPolicy.isEndpointEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isEndpointEnable(any(TransactionPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(TransactionPermission.class), any())).thenReturn(true);
+
+		when(securityManager.createSecurityPolicy(any(), any())).thenReturn(securityPolicy);
+
+		return securityManager;
+	}
+
+	private HashDigest initLedger(MemoryKVStorage storage, BlockchainKeypair... partiKeys) {
+		LedgerInitSetting initSetting = LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		LedgerEditor ldgEdt = LedgerTransactionalEditor.createEditor(initSetting, LEDGER_KEY_PREFIX, storage, storage);
+
+		TransactionRequest genesisTxReq = LedgerTestUtils.createLedgerInitTxRequest(partiKeys);
+		LedgerTransactionContext genisisTxCtx = ldgEdt.newTransaction(genesisTxReq);
+		LedgerDataset ldgDS = genisisTxCtx.getDataset();
+		for (int i = 0; i < partiKeys.length; i++) {
+			ldgDS.getUserAccountSet().register(partiKeys[i].getAddress(), partiKeys[i].getPubKey());
+		}
+		LedgerTransaction tx = genisisTxCtx.commit(TransactionState.SUCCESS);
+		assertEquals(0, tx.getBlockHeight());
+
+		HashDigest ledgerHash = ldgEdt.prepare().getHash();
+		ldgEdt.commit();
+		return ledgerHash;
+	}
+
+}
@@ -0,0 +1,203 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainKeyGenerator;
+import com.jd.blockchain.ledger.BlockchainKeypair;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountRegisterOperation;
+import com.jd.blockchain.ledger.EndpointRequest;
+import com.jd.blockchain.ledger.LedgerInitSetting;
+import com.jd.blockchain.ledger.LedgerPermission;
+import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.NodeRequest;
+import com.jd.blockchain.ledger.TransactionContent;
+import com.jd.blockchain.ledger.TransactionContentBody;
+import com.jd.blockchain.ledger.TransactionPermission;
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.ledger.TransactionResponse;
+import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.ledger.core.BlockBloomFilter;
+import com.jd.blockchain.ledger.core.DefaultOperationHandleRegisteration;
+import com.jd.blockchain.ledger.core.LedgerDataset;
+import com.jd.blockchain.ledger.core.LedgerEditor;
+import com.jd.blockchain.ledger.core.LedgerManager;
+import com.jd.blockchain.ledger.core.LedgerRepository;
+import com.jd.blockchain.ledger.core.LedgerSecurityManager;
+import com.jd.blockchain.ledger.core.LedgerTransactionContext;
+import com.jd.blockchain.ledger.core.LedgerTransactionalEditor;
+import com.jd.blockchain.ledger.core.SecurityPolicy;
+import com.jd.blockchain.ledger.core.TransactionBatchProcessor;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.hash.BloomFilter;
+
+public class BlockBloomFilterTest {
+
+	static {
+		DataContractRegistry.register(TransactionContent.class);
+		DataContractRegistry.register(TransactionContentBody.class);
+		DataContractRegistry.register(TransactionRequest.class);
+		DataContractRegistry.register(NodeRequest.class);
+		DataContractRegistry.register(EndpointRequest.class);
+		DataContractRegistry.register(TransactionResponse.class);
+		DataContractRegistry.register(UserRegisterOperation.class);
+		DataContractRegistry.register(DataAccountRegisterOperation.class);
+		DataContractRegistry.register(DataAccountKVSetOperation.class);
+	}
+
+	private static final String LEDGER_KEY_PREFIX = "LDG://";
+
+	private BlockchainKeypair parti0 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti1 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti2 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti3 = BlockchainKeyGenerator.getInstance().generate();
+
+	@Test
+	public void testBloomFilter() {
+		BloomFilter filter = BloomFilter.create(1000, 0.01);
+		Random rand = new Random(1000);
+		Set<Bytes> elements = new HashSet<>();
+		while (elements.size() < 1000) {
+			byte[] element = new byte[32];
+			rand.nextBytes(element);
+			elements.add(new Bytes(element));
+		}
+		for (Bytes element : elements) {
+			filter.add(element.toBytes());
+		}
+
+		BloomFilter decodedFilter = BloomFilter.fromBytes(filter.toBytes());
+		assertEquals(filter.getNumBits(), decodedFilter.getNumBits());
+		assertEquals(filter.getNumHashes(), decodedFilter.getNumHashes());
+		assertEquals(filter.toBitSet(), decodedFilter.toBitSet());
+		for (Bytes element : elements) {
+			assertTrue(decodedFilter.mightContain(element.toBytes()));
+		}
+
+		// 误判率应当接近设定的值；
+		int falsePositives = 0;
+		int tests = 10000;
+		for (int i = 0; i < tests; i++) {
+			byte[] element = new byte[32];
+			rand.nextBytes(element);
+			if (!elements.contains(new Bytes(element)) && filter.mightContain(element)) {
+				falsePositives++;
+			}
+		}
+		assertTrue("False positives: " + falsePositives, falsePositives < tests * 0.03);
+	}
+
+	@Test
+	public void testScanBlocks() {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+
+		BlockchainKeypair dataAccount = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+
+		// 区块 1：注册数据账户；区块 2：注册用户；区块 3：写入数据账户；
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountReg(dataAccount, ledgerHash, parti0, parti0));
+		TransactionRequest userRegTx = LedgerTestUtils.createTxRequest_UserReg(user, ledgerHash, parti0, parti0);
+		commitBlock(ledgerRepo, userRegTx);
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K1", "V1",
+				-1, ledgerHash, parti0, parti0));
+
+		for (long height = 0; height <= ledgerRepo.getLatestBlockHeight(); height++) {
+			BlockBloomFilter filter = ledgerRepo.getBlockBloomFilter(ledgerRepo.getBlockHash(height));
+			assertNotNull(filter);
+			// 重新加载账本后仍然可以读取；
+			assertEquals(filter.getTxFilter().toBitSet(), new LedgerManager().register(ledgerHash, storage)
+					.getBlockBloomFilter(ledgerRepo.getBlockHash(height)).getTxFilter().toBitSet());
+		}
+
+		BlockBloomFilter filter2 = ledgerRepo.getBlockBloomFilter(ledgerRepo.getBlockHash(2));
+		assertTrue(filter2.mightContainTransaction(userRegTx.getTransactionContent().getHash()));
+		assertTrue(filter2.mightContainAccount(user.getAddress()));
+
+		assertArrayEquals(new long[] { 1, 3 }, ledgerRepo.scanBlocksByAccount(dataAccount.getAddress(), 1, 100));
+		assertArrayEquals(new long[] { 2 }, ledgerRepo.scanBlocksByAccount(user.getAddress(), 0, 3));
+		assertArrayEquals(new long[] { 3 }, ledgerRepo.scanBlocksByAccount(dataAccount.getAddress(), 2, 3));
+		assertArrayEquals(new long[] { 2 },
+				ledgerRepo.scanBlocksByTransaction(userRegTx.getTransactionContent().getHash(), 0, 3));
+		assertEquals(0, ledgerRepo.scanBlocksByAccount(
+				BlockchainKeyGenerator.getInstance().generate().getAddress(), 1, 3).length);
+		assertEquals(0, ledgerRepo.scanBlocksByAccount(user.getAddress(), 4, 10).length);
+	}
+
+	@Test
+	public void testEncoding() {
+		HashDigest txHash = LedgerTestUtils.generateRandomHash();
+		Bytes address = BlockchainKeyGenerator.getInstance().generate().getAddress();
+		BlockBloomFilter filter = BlockBloomFilter.create(Arrays.asList(txHash), Collections.singleton(address));
+
+		BlockBloomFilter decodedFilter = BlockBloomFilter.fromBytes(filter.toBytes());
+		assertTrue(decodedFilter.mightContainTransaction(txHash));
+		assertTrue(decodedFilter.mightContainAccount(address));
+		assertFalse(decodedFilter.mightContainAccount(new Bytes(txHash.toBytes())));
+	}
+
+	private static void commitBlock(LedgerRepository ledgerRepo, TransactionRequest... txRequests) {
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(getSecurityManager(),
+				newBlockEditor, ledgerRepo, new DefaultOperationHandleRegisteration());
+		for (TransactionRequest txRequest : txRequests) {
+			TransactionResponse txResp = txbatchProcessor.schedule(txRequest);
+			assertEquals(TransactionState.SUCCESS, txResp.getExecutionState());
+		}
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+	}
+
+	private static LedgerSecurityManager getSecurityManager() {
+		LedgerSecurityManager securityManager = Mockito.mock(LedgerSecurityManager.class);
+
+		SecurityPolicy securityPolicy = Mockito.mock(SecurityPolicy.class);
+		when(securityPolicy.isEndpointEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isEndpointEnable(any(TransactionPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(TransactionPermission.class), any())).thenReturn(true);
+
+		when(securityManager.createSecurityPolicy(any(), any())).thenReturn(securityPolicy);
+
+		return securityManager;
+	}
+
+	private HashDigest initLedger(MemoryKVStorage storage, BlockchainKeypair... partiKeys) {
+		LedgerInitSetting initSetting = LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		LedgerEditor ldgEdt = LedgerTransactionalEditor.createEditor(initSetting, LEDGER_KEY_PREFIX, storage, storage);
+
+		TransactionRequest genesisTxReq = LedgerTestUtils.createLedgerInitTxRequest(partiKeys);
+		LedgerTransactionContext genisisTxCtx = ldgEdt.newTransaction(genesisTxReq);
+		LedgerDataset ldgDS = genisisTxCtx.getDataset();
+		for (int i = 0; i < partiKeys.length; i++) {
+			ldgDS.getUserAccountSet().register(partiKeys[i].getAddress(), partiKeys[i].getPubKey());
+		}
+		LedgerTransaction tx = genisisTxCtx.commit(TransactionState.SUCCESS);
+		assertEquals(0, tx.getBlockHeight());
+
+		HashDigest ledgerHash = ldgEdt.prepare().getHash();
+		ldgEdt.commit();
+		return ledgerHash;
+	}
+
+}
@@ -0,0 +1,67 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.crypto.service.classic.ClassicAlgorithm;
+import com.jd.blockchain.ledger.core.BlockStateCache;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class BlockStateCacheTest {
+
+	private static final HashFunction HASH_FUNC = Crypto.getHashFunction(ClassicAlgorithm.SHA256);
+
+	@Test
+	public void testLoadAndEviction() {
+		BlockStateCache<Object> cache = new BlockStateCache<>(4);
+		AtomicInteger loads = new AtomicInteger();
+
+		HashDigest[] hashes = new HashDigest[6];
+		for (int i = 0; i < hashes.length; i++) {
+			hashes[i] = HASH_FUNC.hash(BytesUtils.toBytes(i));
+		}
+
+		Object state0 = cache.get(hashes[0], h -> {
+			loads.incrementAndGet();
+			return new Object();
+		});
+		assertSame(state0, cache.get(hashes[0], h -> {
+			loads.incrementAndGet();
+			return new Object();
+		}));
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.5, cache.getHitRate(), 0.0001);
+
+		for (int i = 1; i < hashes.length; i++) {
+			cache.get(hashes[i], h -> new Object());
+		}
+		assertEquals(4, cache.getCount());
+		assertEquals(2, cache.getEvictionCount());
+
+		// 最近最少使用的状态被淘汰，重新访问时再次加载；
+		assertNotSame(state0, cache.get(hashes[0], h -> new Object()));
+
+		cache.clear();
+		assertEquals(0, cache.getCount());
+	}
+
+	@Test
+	public void testDisabled() {
+		BlockStateCache<Object> cache = new BlockStateCache<>(0);
+		HashDigest hash = HASH_FUNC.hash(BytesUtils.toBytes("block"));
+		Object state = cache.get(hash, h -> new Object());
+		assertNotSame(state, cache.get(hash, h -> new Object()));
+		assertEquals(0, cache.getCount());
+		assertEquals(2, cache.getMissCount());
+	}
+}
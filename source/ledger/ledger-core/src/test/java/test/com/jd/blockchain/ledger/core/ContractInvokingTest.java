@@ -22,6 +22,7 @@ import org.mockito.Mockito;
 import com.jd.blockchain.binaryproto.BinaryProtocol;
 import com.jd.blockchain.binaryproto.DataContractRegistry;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainKeyGenerator;
 import com.jd.blockchain.ledger.BlockchainKeypair;
 import com.jd.blockchain.ledger.BytesValue;
@@ -45,6 +46,8 @@ import com.jd.blockchain.ledger.TransactionResponse;
 import com.jd.blockchain.ledger.TransactionState;
 import com.jd.blockchain.ledger.TypedValue;
 import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.ledger.core.AccountHistoryIndex;
+import com.jd.blockchain.ledger.core.BlockBloomFilter;
 import com.jd.blockchain.ledger.core.DefaultOperationHandleRegisteration;
 import com.jd.blockchain.ledger.core.LedgerDataQuery;
 import com.jd.blockchain.ledger.core.LedgerDataset;
@@ -351,6 +354,113 @@ public class ContractInvokingTest {
 
 	}
 
+	/**
+	 * 验证合约方法中写入的数据账户被记录到区块的布隆过滤器中；<br>
+	 * 合约写入的账户不出现在交易请求声明的操作中，只能从实际执行的操作中得到；
+	 */
+	@Test
+	public void testBloomFilterOfContractWrites() {
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, storage);
+
+		ContractInvokingHandle contractInvokingHandle = new ContractInvokingHandle();
+		BlockchainKeypair contractKey = BlockchainKeyGenerator.getInstance().generate();
+		Bytes contractAddress = contractKey.getAddress();
+		TxTestContractImpl contractInstance = new TxTestContractImpl();
+		contractInvokingHandle.setup(contractAddress, TxTestContract.class, contractInstance);
+		DefaultOperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		opReg.registerHandle(contractInvokingHandle);
+		deploy(ledgerRepo, ledgerManager, opReg, ledgerHash, contractKey);
+
+		BlockchainKeypair kpDataAccount = BlockchainKeyGenerator.getInstance().generate();
+		contractInstance.setDataAddress(kpDataAccount.getAddress());
+		registerDataAccount(ledgerRepo, ledgerManager, opReg, ledgerHash, kpDataAccount);
+
+		LedgerBlock block = buildBlock(ledgerRepo, ledgerManager, opReg, new TxDefinitor() {
+			@Override
+			public void buildTx(TxBuilder txBuilder) {
+				TxTestContract contractProxy = txBuilder.contract(contractAddress, TxTestContract.class);
+				contractProxy.testRollbackWhileVersionConfliction(kpDataAccount.getAddress().toBase58(), "K1", "V1-0",
+						-1);
+			}
+		});
+		assertEquals(0, ledgerRepo.getDataAccountSet().getAccount(kpDataAccount.getAddress()).getDataset()
+				.getDataEntry("K1", 0).getVersion());
+
+		BlockBloomFilter bloomFilter = ledgerRepo.getBlockBloomFilter(block.getHash());
+		assertTrue(bloomFilter.mightContainAccount(contractAddress));
+		assertTrue(bloomFilter.mightContainAccount(kpDataAccount.getAddress()));
+		assertArrayEquals(new long[] { block.getHeight() - 1, block.getHeight() },
+				ledgerRepo.scanBlocksByAccount(kpDataAccount.getAddress(), block.getHeight() - 1, block.getHeight()));
+	}
+
+	/**
+	 * 验证合约方法中写入的数据账户及其键被记录到账户历史的索引中；
+	 */
+	@Test
+	public void testAccountHistoryOfContractWrites() {
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, storage);
+
+		ContractInvokingHandle contractInvokingHandle = new ContractInvokingHandle();
+		BlockchainKeypair contractKey = BlockchainKeyGenerator.getInstance().generate();
+		Bytes contractAddress = contractKey.getAddress();
+		TxTestContractImpl contractInstance = new TxTestContractImpl();
+		contractInvokingHandle.setup(contractAddress, TxTestContract.class, contractInstance);
+		DefaultOperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		opReg.registerHandle(contractInvokingHandle);
+		deploy(ledgerRepo, ledgerManager, opReg, ledgerHash, contractKey);
+
+		BlockchainKeypair kpDataAccount = BlockchainKeyGenerator.getInstance().generate();
+		contractInstance.setDataAddress(kpDataAccount.getAddress());
+		registerDataAccount(ledgerRepo, ledgerManager, opReg, ledgerHash, kpDataAccount);
+
+		// 一个交易内两次调用合约，分别写入 K1 和 K2；
+		LedgerBlock block1 = buildBlock(ledgerRepo, ledgerManager, opReg, new TxDefinitor() {
+			@Override
+			public void buildTx(TxBuilder txBuilder) {
+				TxTestContract contractProxy = txBuilder.contract(contractAddress, TxTestContract.class);
+				contractProxy.testRollbackWhileVersionConfliction(kpDataAccount.getAddress().toBase58(), "K1", "V1-0",
+						-1);
+				contractProxy.testRollbackWhileVersionConfliction(kpDataAccount.getAddress().toBase58(), "K2", "V2-0",
+						-1);
+			}
+		});
+		LedgerBlock block2 = buildBlock(ledgerRepo, ledgerManager, opReg, new TxDefinitor() {
+			@Override
+			public void buildTx(TxBuilder txBuilder) {
+				TxTestContract contractProxy = txBuilder.contract(contractAddress, TxTestContract.class);
+				contractProxy.testRollbackWhileVersionConfliction(kpDataAccount.getAddress().toBase58(), "K1", "V1-1",
+						0);
+			}
+		});
+
+		AccountHistoryIndex historyIndex = new LedgerManager().register(ledgerHash, storage).getAccountHistoryIndex();
+
+		// 注册数据账户一次，合约写入两次；
+		AccountHistoryEntry[] entries = historyIndex.getEntries(kpDataAccount.getAddress(), 0, 10);
+		assertEquals(3, entries.length);
+		assertEquals(block1.getHeight(), entries[1].getBlockHeight());
+		assertEquals(block2.getHeight(), entries[2].getBlockHeight());
+
+		entries = historyIndex.getEntries(kpDataAccount.getAddress(), "K1", 0, 10);
+		assertEquals(2, entries.length);
+		assertEquals(block1.getHeight(), entries[0].getBlockHeight());
+		assertEquals(0, entries[0].getVersion());
+		assertEquals(block2.getHeight(), entries[1].getBlockHeight());
+		assertEquals(1, entries[1].getVersion());
+
+		entries = historyIndex.getEntries(kpDataAccount.getAddress(), "K2", 0, 10);
+		assertEquals(1, entries.length);
+		assertEquals(block1.getHeight(), entries[0].getBlockHeight());
+		assertEquals(0, entries[0].getVersion());
+
+		// 合约账户部署一次，调用两次；
+		assertEquals(3, historyIndex.getCount(contractAddress));
+	}
+
 	private LedgerBlock buildBlock(LedgerRepository ledgerRepo, LedgerService ledgerService,
 			OperationHandleRegisteration opReg, TxDefinitor txDefinitor) {
 		LedgerBlock preBlock = ledgerRepo.getLatestBlock();
@@ -0,0 +1,262 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventInfo;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.ledger.BlockchainEventType;
+import com.jd.blockchain.ledger.BlockchainKeyGenerator;
+import com.jd.blockchain.ledger.BlockchainKeypair;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountRegisterOperation;
+import com.jd.blockchain.ledger.EndpointRequest;
+import com.jd.blockchain.ledger.LedgerInitSetting;
+import com.jd.blockchain.ledger.LedgerPermission;
+import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.NodeRequest;
+import com.jd.blockchain.ledger.TransactionContent;
+import com.jd.blockchain.ledger.TransactionContentBody;
+import com.jd.blockchain.ledger.TransactionPermission;
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.ledger.TransactionResponse;
+import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.ledger.core.DefaultOperationHandleRegisteration;
+import com.jd.blockchain.ledger.core.LedgerDataset;
+import com.jd.blockchain.ledger.core.LedgerEditor;
+import com.jd.blockchain.ledger.core.LedgerEventQueryService;
+import com.jd.blockchain.ledger.core.LedgerManager;
+import com.jd.blockchain.ledger.core.LedgerRepository;
+import com.jd.blockchain.ledger.core.LedgerSecurityManager;
+import com.jd.blockchain.ledger.core.LedgerTransactionContext;
+import com.jd.blockchain.ledger.core.LedgerTransactionalEditor;
+import com.jd.blockchain.ledger.core.SecurityPolicy;
+import com.jd.blockchain.ledger.core.TransactionBatchProcessor;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+
+public class LedgerEventQueryServiceTest {
+
+	static {
+		DataContractRegistry.register(TransactionContent.class);
+		DataContractRegistry.register(TransactionContentBody.class);
+		DataContractRegistry.register(TransactionRequest.class);
+		DataContractRegistry.register(NodeRequest.class);
+		DataContractRegistry.register(EndpointRequest.class);
+		DataContractRegistry.register(TransactionResponse.class);
+		DataContractRegistry.register(UserRegisterOperation.class);
+		DataContractRegistry.register(DataAccountRegisterOperation.class);
+		DataContractRegistry.register(DataAccountKVSetOperation.class);
+	}
+
+	private static final String LEDGER_KEY_PREFIX = "LDG://";
+
+	private BlockchainKeypair parti0 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti1 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti2 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti3 = BlockchainKeyGenerator.getInstance().generate();
+
+	@Test
+	public void testQueryEvents() throws Exception {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+
+		BlockchainKeypair dataAccount = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+
+		// 区块 1：注册数据账户和用户；区块 2：写入数据账户；区块 3：注册另一个用户；
+		commitBlock(ledgerRepo,
+				LedgerTestUtils.createTxRequest_DataAccountReg(dataAccount, ledgerHash, parti0, parti0),
+				LedgerTestUtils.createTxRequest_UserReg(user, ledgerHash, parti0, parti0));
+		TransactionRequest writeTx = LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccount.getAddress(), "K1",
+				"V1", -1, ledgerHash, parti0, parti0);
+		commitBlock(ledgerRepo, writeTx);
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_UserReg(BlockchainKeyGenerator.getInstance().generate(),
+				ledgerHash, parti0, parti0));
+
+		LedgerEventQueryService eventService = new LedgerEventQueryService(ledgerRepo);
+
+		// 不过滤；
+		BlockchainEventPage page = eventService.getEvents(ledgerHash, 1, 10, 0, 0, null, null);
+		assertEquals(4, page.getNextHeight());
+		BlockchainEventInfo[] events = page.getEvents();
+		assertEquals(3, events.length);
+		assertEquals(1, events[0].getBlockHeight());
+		assertEquals(ledgerRepo.getBlock(1).getHash(), events[0].getBlockHash());
+		assertEquals(2, events[0].getTxHashes().length);
+		List<Bytes> accounts = Arrays.asList(events[0].getAccountAddresses());
+		assertTrue(accounts.contains(dataAccount.getAddress()));
+		assertTrue(accounts.contains(user.getAddress()));
+		assertEquals(BlockchainEventType.ACCOUNT_UPDATED.CODE, events[0].getEventCode());
+		assertEquals(BlockchainEventType.PAYLOAD_UPDATED.CODE, events[1].getEventCode());
+
+		// 分页，以返回的高度作为游标继续查询；
+		page = eventService.getEvents(ledgerHash, 1, 2, 0, 0, null, null);
+		assertEquals(2, page.getEvents().length);
+		assertEquals(3, page.getNextHeight());
+		page = eventService.getEvents(ledgerHash, page.getNextHeight(), 2, 0, 0, null, null);
+		assertEquals(1, page.getEvents().length);
+		assertEquals(3, page.getEvents()[0].getBlockHeight());
+
+		// 按事件类型过滤；
+		page = eventService.getEvents(ledgerHash, 1, 10, 0, BlockchainEventType.PAYLOAD_UPDATED.CODE, null, null);
+		assertEquals(1, page.getEvents().length);
+		assertEquals(2, page.getEvents()[0].getBlockHeight());
+		assertEquals(4, page.getNextHeight());
+
+		// 按账户过滤，事件中只包含该账户和与之相关的交易；
+		page = eventService.getEvents(ledgerHash, 1, 10, 0, 0, null, dataAccount.getAddress().toBase58());
+		assertEquals(2, page.getEvents().length);
+		assertEquals(1, page.getEvents()[0].getBlockHeight());
+		assertEquals(1, page.getEvents()[0].getTxHashes().length);
+		assertArrayEquals(new Bytes[] { dataAccount.getAddress() }, page.getEvents()[0].getAccountAddresses());
+		assertEquals(2, page.getEvents()[1].getBlockHeight());
+
+		// 按交易过滤；
+		HashDigest writeTxHash = writeTx.getTransactionContent().getHash();
+		page = eventService.getEvents(ledgerHash, 0, 10, 0, 0, writeTxHash.toBase58(), null);
+		assertEquals(1, page.getEvents().length);
+		assertEquals(2, page.getEvents()[0].getBlockHeight());
+		assertArrayEquals(new HashDigest[] { writeTxHash }, page.getEvents()[0].getTxHashes());
+
+		// 从下一个新区块开始，没有新区块时超时返回空的结果；
+		page = eventService.getEvents(ledgerHash, -1, 10, 100, 0, null, null);
+		assertEquals(0, page.getEvents().length);
+		assertEquals(4, page.getNextHeight());
+	}
+
+	@Test
+	public void testLongPolling() throws Exception {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+		LedgerEventQueryService eventService = new LedgerEventQueryService(ledgerRepo);
+
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+		Thread committer = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				return;
+			}
+			commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_UserReg(user, ledgerHash, parti0, parti0));
+		});
+		committer.start();
+
+		// 等待期间提交的新区块立即返回，而不是等到超时；
+		long startTs = System.currentTimeMillis();
+		BlockchainEventPage page = eventService.getEvents(ledgerHash, 1, 10, 10000, 0, null, null);
+		long elapsed = System.currentTimeMillis() - startTs;
+		committer.join();
+
+		assertEquals(1, page.getEvents().length);
+		assertEquals(1, page.getEvents()[0].getBlockHeight());
+		assertEquals(2, page.getNextHeight());
+		assertTrue("Elapsed " + elapsed + "ms", elapsed < 10000);
+
+		assertTrue(LedgerEventQueryService.matchEventTypes(BlockchainEventType.PAYLOAD_UPDATED.CODE,
+				BlockchainEventType.BLOCK_GENERATED.CODE));
+		assertFalse(LedgerEventQueryService.matchEventTypes(BlockchainEventType.ACCOUNT_UPDATED.CODE,
+				BlockchainEventType.PAYLOAD_UPDATED.CODE));
+		assertTrue(LedgerEventQueryService.matchEventTypes(
+				BlockchainEventType.PAYLOAD_UPDATED.CODE | BlockchainEventType.SCRIPT_INVOKED.CODE,
+				BlockchainEventType.SCRIPT_INVOKED.CODE | BlockchainEventType.SCRIPT_UPDATED.CODE));
+	}
+
+	@Test
+	public void testAsyncLongPolling() throws Exception {
+		MemoryKVStorage storage = new MemoryKVStorage();
+		HashDigest ledgerHash = initLedger(storage, parti0, parti1, parti2, parti3);
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+		LedgerEventQueryService eventService = new LedgerEventQueryService(ledgerRepo);
+
+		// 不等待时立即完成；
+		CompletableFuture<BlockchainEventPage> result = eventService.getEventsAsync(ledgerHash, -1, 10, 0, 0, null,
+				null);
+		assertTrue(result.isDone());
+		assertEquals(0, result.get().getEvents().length);
+		assertEquals(1, result.get().getNextHeight());
+
+		// 新区块提交时完成，而不是等到超时；
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+		result = eventService.getEventsAsync(ledgerHash, 1, 10, 10000, 0, null, null);
+		assertFalse(result.isDone());
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_UserReg(user, ledgerHash, parti0, parti0));
+		BlockchainEventPage page = result.get(5000, TimeUnit.MILLISECONDS);
+		assertEquals(1, page.getEvents().length);
+		assertEquals(1, page.getEvents()[0].getBlockHeight());
+		assertEquals(2, page.getNextHeight());
+
+		// 过滤条件不匹配的新区块不结束等待，超时后以扫描到的位置作为游标返回空的结果；
+		result = eventService.getEventsAsync(ledgerHash, 2, 10, 500, 0, null,
+				BlockchainKeyGenerator.getInstance().generate().getAddress().toBase58());
+		commitBlock(ledgerRepo, LedgerTestUtils.createTxRequest_UserReg(BlockchainKeyGenerator.getInstance().generate(),
+				ledgerHash, parti0, parti0));
+		page = result.get(5000, TimeUnit.MILLISECONDS);
+		assertNotNull(page);
+		assertEquals(0, page.getEvents().length);
+		assertEquals(3, page.getNextHeight());
+	}
+
+	private static void commitBlock(LedgerRepository ledgerRepo, TransactionRequest... txRequests) {
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(getSecurityManager(),
+				newBlockEditor, ledgerRepo, new DefaultOperationHandleRegisteration());
+		for (TransactionRequest txRequest : txRequests) {
+			TransactionResponse txResp = txbatchProcessor.schedule(txRequest);
+			assertEquals(TransactionState.SUCCESS, txResp.getExecutionState());
+		}
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+	}
+
+	private static LedgerSecurityManager getSecurityManager() {
+		LedgerSecurityManager securityManager = Mockito.mock(LedgerSecurityManager.class);
+
+		SecurityPolicy securityPolicy = Mockito.mock(SecurityPolicy.class);
+		when(securityPolicy.isEndpointEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isEndpointEnable(any(TransactionPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(LedgerPermission.class), any())).thenReturn(true);
+		when(securityPolicy.isNodeEnable(any(TransactionPermission.class), any())).thenReturn(true);
+
+		when(securityManager.createSecurityPolicy(any(), any())).thenReturn(securityPolicy);
+
+		return securityManager;
+	}
+
+	private HashDigest initLedger(MemoryKVStorage storage, BlockchainKeypair... partiKeys) {
+		LedgerInitSetting initSetting = LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		LedgerEditor ldgEdt = LedgerTransactionalEditor.createEditor(initSetting, LEDGER_KEY_PREFIX, storage, storage);
+
+		TransactionRequest genesisTxReq = LedgerTestUtils.createLedgerInitTxRequest(partiKeys);
+		LedgerTransactionContext genisisTxCtx = ldgEdt.newTransaction(genesisTxReq);
+		LedgerDataset ldgDS = genisisTxCtx.getDataset();
+		for (int i = 0; i < partiKeys.length; i++) {
+			ldgDS.getUserAccountSet().register(partiKeys[i].getAddress(), partiKeys[i].getPubKey());
+		}
+		LedgerTransaction tx = genisisTxCtx.commit(TransactionState.SUCCESS);
+		assertEquals(0, tx.getBlockHeight());
+
+		HashDigest ledgerHash = ldgEdt.prepare().getHash();
+		ldgEdt.commit();
+		return ledgerHash;
+	}
+
+}
@@ -3,6 +3,7 @@ package test.com.jd.blockchain.ledger.core;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.stream.Stream;
 
@@ -22,6 +23,7 @@ import com.jd.blockchain.crypto.service.classic.ClassicCryptoService;
 import com.jd.blockchain.crypto.service.sm.SMCryptoService;
 import com.jd.blockchain.ledger.core.ContractAccountQuery;
 import com.jd.blockchain.ledger.core.CryptoConfig;
+import com.jd.blockchain.ledger.core.DataAccount;
 import com.jd.blockchain.ledger.core.DataAccountQuery;
 import com.jd.blockchain.ledger.core.LedgerDataset;
 import com.jd.blockchain.ledger.core.LedgerEditor;
@@ -165,6 +167,12 @@ public class LedgerManagerTest {
 		UserAccountQuery userAccountSet = reloadLedgerRepo.getUserAccountSet(latestBlock);
 		ContractAccountQuery contractAccountSet = reloadLedgerRepo.getContractAccountSet(latestBlock);
 
+		// 根哈希未变的只读账户在多次查询之间复用；
+		DataAccount dataAccount = dataAccountSet.getAccount(dataKey.getAddress());
+		assertNotNull(dataAccount);
+		assertEquals(dataKey.getPubKey(), dataAccount.getID().getPubKey());
+		DataAccount reloadDataAccount = reloadLedgerRepo.getDataAccountSet(latestBlock).getAccount(dataKey.getAddress());
+		assertSame(dataAccount.getDataset(), reloadDataAccount.getDataset());
 	}
 
 	private void showStorageKeys(MemoryKVStorage storage) {
@@ -118,7 +118,7 @@ public class LedgerMetaDataTest {
 		cryptoConfig.setHashAlgorithm(ClassicAlgorithm.SHA256);
 
 		LedgerConfiguration ledgerConfiguration = new LedgerConfiguration(consensusProvider, new Bytes(csSettingsBytes),
-				cryptoConfig);
+				cryptoConfig, true);
 		byte[] encodeBytes = BinaryProtocol.encode(ledgerConfiguration, LedgerSettings.class);
 		LedgerSettings deLedgerConfiguration = BinaryProtocol.decode(encodeBytes);
 		// verify start
@@ -127,6 +127,7 @@ public class LedgerMetaDataTest {
 				deLedgerConfiguration.getCryptoSetting().getAutoVerifyHash());
 		assertEquals(ledgerConfiguration.getCryptoSetting().getHashAlgorithm(),
 				deLedgerConfiguration.getCryptoSetting().getHashAlgorithm());
+		assertTrue(deLedgerConfiguration.getBlockIsolation());
 
 		return;
 	}
@@ -0,0 +1,332 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+import org.junit.Test;
+
+import com.jd.blockchain.binaryproto.BinaryProtocol;
+import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.crypto.service.classic.ClassicAlgorithm;
+import com.jd.blockchain.ledger.BlockchainKeyGenerator;
+import com.jd.blockchain.ledger.BlockchainKeypair;
+import com.jd.blockchain.ledger.EndpointRequest;
+import com.jd.blockchain.ledger.LedgerBlock;
+import com.jd.blockchain.ledger.LedgerInitSetting;
+import com.jd.blockchain.ledger.LedgerTransaction;
+import com.jd.blockchain.ledger.NodeRequest;
+import com.jd.blockchain.ledger.TransactionContent;
+import com.jd.blockchain.ledger.TransactionContentBody;
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.ledger.TransactionResponse;
+import com.jd.blockchain.ledger.TransactionState;
+import com.jd.blockchain.ledger.UserRegisterOperation;
+import com.jd.blockchain.ledger.core.BlockHashIndex;
+import com.jd.blockchain.ledger.core.BlockVerificationPolicy;
+import com.jd.blockchain.ledger.core.LedgerBlockData;
+import com.jd.blockchain.ledger.core.LedgerDataset;
+import com.jd.blockchain.ledger.core.LedgerEditor;
+import com.jd.blockchain.ledger.core.LedgerManager;
+import com.jd.blockchain.ledger.core.LedgerRepository;
+import com.jd.blockchain.ledger.core.LedgerTransactionContext;
+import com.jd.blockchain.ledger.core.LedgerTransactionalEditor;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 区块高度索引、区块缓存以及区块校验策略的测试；<br>
+ *
+ * 通过记录存储中区块数据的读取次数确认区块是否从缓存读取；通过篡改存储返回的区块数据确认区块是否经过校验；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class LedgerRepositoryBlockCacheTest {
+
+	static {
+		DataContractRegistry.register(TransactionContent.class);
+		DataContractRegistry.register(TransactionContentBody.class);
+		DataContractRegistry.register(TransactionRequest.class);
+		DataContractRegistry.register(NodeRequest.class);
+		DataContractRegistry.register(EndpointRequest.class);
+		DataContractRegistry.register(TransactionResponse.class);
+		DataContractRegistry.register(UserRegisterOperation.class);
+	}
+
+	private static final String LEDGER_KEY_PREFIX = "LDG://";
+
+	private static final Bytes BLOCK_KEY_PREFIX = Bytes.fromString("BLK/");
+
+	private static final int BLOCK_COUNT = 5;
+
+	private static final HashFunction HASH_FUNC = Crypto.getHashFunction(ClassicAlgorithm.SHA256);
+
+	private BlockchainKeypair parti0 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti1 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti2 = BlockchainKeyGenerator.getInstance().generate();
+	private BlockchainKeypair parti3 = BlockchainKeyGenerator.getInstance().generate();
+
+	@Test
+	public void testBlockHashIndex() {
+		BlockHashIndex index = new BlockHashIndex();
+		assertNull(index.get(-1));
+		assertNull(index.get(0));
+
+		// 跨越分块以及超出初始分块数组的高度；
+		long[] heights = { 0, 1, 4095, 4096, 16 * 4096, 100 * 4096 + 7 };
+		for (long height : heights) {
+			index.put(height, HASH_FUNC.hash(BytesUtils.toBytes(height)));
+		}
+		for (long height : heights) {
+			assertEquals(HASH_FUNC.hash(BytesUtils.toBytes(height)), index.get(height));
+		}
+		assertNull(index.get(2));
+		assertNull(index.get(4097));
+		assertNull(index.get(200 * 4096));
+
+		index.put(-1, HASH_FUNC.hash(BytesUtils.toBytes(-1L)));
+		assertNull(index.get(-1));
+	}
+
+	@Test
+	public void testCacheHits() {
+		BlockCountingStorage storage = new BlockCountingStorage();
+		HashDigest ledgerHash = initLedger(storage);
+
+		// 重新打开账本，只有最新区块被加载；
+		LedgerRepository ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.FIRST_LOAD, 1);
+		assertEquals(BLOCK_COUNT, ledgerRepo.getLatestBlockHeight());
+		assertEquals(1, storage.blockLoadCount);
+
+		// 读取区块哈希不加载区块；
+		HashDigest blockHash = ledgerRepo.getBlockHash(2);
+		assertEquals(blockHash, ledgerRepo.getBlockHash(2));
+		assertEquals(1, storage.blockLoadCount);
+
+		// 首次读取时从存储加载，之后从缓存读取；
+		LedgerBlock block = ledgerRepo.getBlock(2);
+		assertEquals(blockHash, block.getHash());
+		assertEquals(2, storage.blockLoadCount);
+
+		assertSame(block, ledgerRepo.getBlock(2));
+		assertSame(block, ledgerRepo.getBlock(blockHash));
+		assertEquals(2, storage.blockLoadCount);
+
+		// 最新区块由最新状态直接返回，不经过存储；
+		ledgerRepo.getBlock(BLOCK_COUNT);
+		assertEquals(2, storage.blockLoadCount);
+		ledgerRepo.close();
+	}
+
+	@Test
+	public void testFirstLoadPolicy() {
+		BlockCountingStorage storage = new BlockCountingStorage();
+		HashDigest ledgerHash = initLedger(storage);
+
+		LedgerRepository ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.FIRST_LOAD, 2);
+		for (int round = 0; round < 3; round++) {
+			for (long height = 0; height < BLOCK_COUNT; height++) {
+				assertEquals(height, ledgerRepo.getBlock(height).getHeight());
+			}
+		}
+		// 包括打开账本时加载的最新区块在内，每个区块只加载一次；
+		assertEquals(BLOCK_COUNT + 1, storage.blockLoadCount);
+
+		// 缓存的区块不再从存储加载和校验；
+		storage.tampering = true;
+		for (long height = 0; height < BLOCK_COUNT; height++) {
+			assertEquals(height, ledgerRepo.getBlock(height).getHeight());
+		}
+		assertEquals(BLOCK_COUNT + 1, storage.blockLoadCount);
+		ledgerRepo.close();
+
+		// 首次加载时校验每一个区块，与抽样间隔无关；
+		storage.tampering = false;
+		ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.FIRST_LOAD, 2);
+		storage.tampering = true;
+		assertEquals(BLOCK_COUNT, countVerificationFailures(ledgerRepo));
+		ledgerRepo.close();
+	}
+
+	@Test
+	public void testSampledPolicy() {
+		BlockCountingStorage storage = new BlockCountingStorage();
+		HashDigest ledgerHash = initLedger(storage);
+
+		LedgerRepository ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.SAMPLED, 2);
+		assertEquals(1, storage.blockLoadCount);
+
+		// 按照加载的顺序（首先是打开账本时加载的最新区块），每 2 个区块校验 1 个，因此高度 1 和 3 的区块被校验出篡改；
+		storage.tampering = true;
+		assertEquals(2, countVerificationFailures(ledgerRepo));
+		assertEquals(BLOCK_COUNT + 1, storage.blockLoadCount);
+
+		// 未校验的区块同样被缓存，从缓存读取不再加载；
+		LedgerBlock block = ledgerRepo.getBlock(2);
+		assertSame(block, ledgerRepo.getBlock(2));
+		assertEquals(BLOCK_COUNT + 1, storage.blockLoadCount);
+		ledgerRepo.close();
+	}
+
+	@Test
+	public void testAlwaysPolicyDisablesCache() {
+		BlockCountingStorage storage = new BlockCountingStorage();
+		HashDigest ledgerHash = initLedger(storage);
+
+		LedgerRepository ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.ALWAYS, 2);
+		LedgerBlock block = ledgerRepo.getBlock(1);
+		LedgerBlock reloadedBlock = ledgerRepo.getBlock(1);
+		assertNotSame(block, reloadedBlock);
+		assertEquals(block.getHash(), reloadedBlock.getHash());
+
+		// 包括打开账本时加载的最新区块在内，每次读取都从存储加载；
+		assertEquals(3, storage.blockLoadCount);
+
+		// 每次加载都校验，与抽样间隔无关；
+		storage.tampering = true;
+		assertEquals(BLOCK_COUNT, countVerificationFailures(ledgerRepo));
+		storage.tampering = false;
+
+		// 提交新区块时也不缓存上一个区块；
+		long loadCount = storage.blockLoadCount;
+		commitBlock(ledgerRepo);
+		ledgerRepo.getBlock(BLOCK_COUNT);
+		assertEquals(loadCount + 1, storage.blockLoadCount);
+		ledgerRepo.close();
+	}
+
+	@Test
+	public void testCommitCachesPreviousBlock() {
+		BlockCountingStorage storage = new BlockCountingStorage();
+		HashDigest ledgerHash = initLedger(storage);
+
+		LedgerRepository ledgerRepo = openLedger(ledgerHash, storage, BlockVerificationPolicy.FIRST_LOAD, 1);
+
+		// 新提交的区块成为最新区块，不经过存储加载；
+		commitBlock(ledgerRepo);
+		LedgerBlock previousBlock = ledgerRepo.getLatestBlock();
+		assertEquals(BLOCK_COUNT + 1, previousBlock.getHeight());
+
+		commitBlock(ledgerRepo);
+		assertEquals(BLOCK_COUNT + 2, ledgerRepo.getLatestBlockHeight());
+
+		// 提交时上一个区块进入高度索引和区块缓存，之后读取不需要从存储加载；
+		long loadCount = storage.blockLoadCount;
+		storage.tampering = true;
+		assertEquals(previousBlock.getHash(), ledgerRepo.getBlockHash(previousBlock.getHeight()));
+		assertSame(previousBlock, ledgerRepo.getBlock(previousBlock.getHeight()));
+		assertSame(previousBlock, ledgerRepo.getBlock(previousBlock.getHash()));
+		assertEquals(loadCount, storage.blockLoadCount);
+		ledgerRepo.close();
+	}
+
+	/**
+	 * 读取最新区块之前的全部区块，返回校验失败的区块数量；
+	 */
+	private int countVerificationFailures(LedgerRepository ledgerRepo) {
+		int failures = 0;
+		for (long height = 0; height < BLOCK_COUNT; height++) {
+			try {
+				assertEquals(height, ledgerRepo.getBlock(height).getHeight());
+			} catch (RuntimeException e) {
+				assertEquals("Block hash verification fail!", e.getMessage());
+				failures++;
+			}
+		}
+		return failures;
+	}
+
+	private LedgerRepository openLedger(HashDigest ledgerHash, BlockCountingStorage storage,
+			BlockVerificationPolicy verificationPolicy, int verificationSample) {
+		storage.blockLoadCount = 0;
+		LedgerManager ledgerManager = new LedgerManager(verificationPolicy, verificationSample);
+		return ledgerManager.register(ledgerHash, storage);
+	}
+
+	/**
+	 * 创建账本，并在创世区块之后提交 {@link #BLOCK_COUNT} 个区块；
+	 */
+	private HashDigest initLedger(MemoryKVStorage storage) {
+		BlockchainKeypair[] partiKeys = { parti0, parti1, parti2, parti3 };
+		LedgerInitSetting initSetting = LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		LedgerEditor ldgEdt = LedgerTransactionalEditor.createEditor(initSetting, LEDGER_KEY_PREFIX, storage, storage);
+
+		TransactionRequest genesisTxReq = LedgerTestUtils.createLedgerInitTxRequest(partiKeys);
+		LedgerTransactionContext genisisTxCtx = ldgEdt.newTransaction(genesisTxReq);
+		LedgerDataset ldgDS = genisisTxCtx.getDataset();
+		for (int i = 0; i < partiKeys.length; i++) {
+			ldgDS.getUserAccountSet().register(partiKeys[i].getAddress(), partiKeys[i].getPubKey());
+		}
+		LedgerTransaction tx = genisisTxCtx.commit(TransactionState.SUCCESS);
+		assertEquals(0, tx.getBlockHeight());
+
+		HashDigest ledgerHash = ldgEdt.prepare().getHash();
+		ldgEdt.commit();
+
+		LedgerRepository ledgerRepo = new LedgerManager().register(ledgerHash, storage);
+		for (int i = 0; i < BLOCK_COUNT; i++) {
+			commitBlock(ledgerRepo);
+		}
+		ledgerRepo.close();
+		return ledgerHash;
+	}
+
+	private void commitBlock(LedgerRepository ledgerRepo) {
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		BlockchainKeypair user = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txRequest = LedgerTestUtils.createTxRequest_UserReg(user, ledgerRepo.getHash(), parti0,
+				parti0);
+		LedgerTransactionContext txCtx = newBlockEditor.newTransaction(txRequest);
+		txCtx.getDataset().getUserAccountSet().register(user.getAddress(), user.getPubKey());
+		txCtx.commit(TransactionState.SUCCESS);
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+	}
+
+	/**
+	 * 记录区块数据的读取次数，并且可以篡改读取到的区块数据的存储；
+	 */
+	private static class BlockCountingStorage extends MemoryKVStorage {
+
+		private volatile long blockLoadCount;
+
+		private volatile boolean tampering;
+
+		@Override
+		public byte[] get(Bytes key, long version) {
+			byte[] value = super.get(key, version);
+			if (value == null || !isBlockKey(key)) {
+				return value;
+			}
+			blockLoadCount++;
+			if (!tampering) {
+				return value;
+			}
+			// 修改交易集合的哈希，区块的哈希不变，但是重新计算的哈希不一致；
+			LedgerBlockData block = new LedgerBlockData(BinaryProtocol.decode(value));
+			block.setTransactionSetHash(HASH_FUNC.hash(BytesUtils.toBytes("tampered")));
+			return BinaryProtocol.encode(block, LedgerBlock.class);
+		}
+
+		private static boolean isBlockKey(Bytes key) {
+			byte[] keyBytes = key.toBytes();
+			byte[] prefix = BLOCK_KEY_PREFIX.toBytes();
+			if (keyBytes.length <= prefix.length) {
+				return false;
+			}
+			for (int i = 0; i < prefix.length; i++) {
+				if (keyBytes[i] != prefix[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
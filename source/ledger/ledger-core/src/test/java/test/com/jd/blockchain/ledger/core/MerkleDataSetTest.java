@@ -6,8 +6,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -67,6 +69,54 @@ public class MerkleDataSetTest {
 		assertEquals("C", mds.getKeyAtIndex(2));
 	}
 
+	/**
+	 * 测试批量读取；
+	 */
+	@Test
+	public void testGetDataEntries() {
+		CryptoProvider[] supportedProviders = new CryptoProvider[SUPPORTED_PROVIDERS.length];
+		for (int i = 0; i < SUPPORTED_PROVIDERS.length; i++) {
+			supportedProviders[i] = Crypto.getProvider(SUPPORTED_PROVIDERS[i]);
+		}
+
+		String keyPrefix = "";
+		CryptoConfig cryptoConfig = new CryptoConfig();
+		cryptoConfig.setSupportedProviders(supportedProviders);
+		cryptoConfig.setHashAlgorithm(ClassicAlgorithm.SHA256);
+		cryptoConfig.setAutoVerifyHash(true);
+
+		MemoryKVStorage storage = new MemoryKVStorage();
+
+		MerkleDataSet mds = new MerkleDataSet(cryptoConfig, keyPrefix, storage, storage);
+		Dataset<String, byte[]> ds = DatasetHelper.map(mds);
+		ds.setValue("A", "A0".getBytes(), -1);
+		ds.setValue("B", "B0".getBytes(), -1);
+		ds.setValue("B", "B1".getBytes(), 0);
+		ds.setValue("C", "C0".getBytes(), -1);
+		mds.commit();
+
+		List<DataEntry<String, byte[]>> entries = ds.getDataEntries(Arrays.asList("B", "X", "A", "C", "B"));
+		assertEquals(5, entries.size());
+		assertNull(entries.get(1));
+		String[] expectedKeys = { "B", null, "A", "C", "B" };
+		String[] expectedValues = { "B1", null, "A0", "C0", "B1" };
+		long[] expectedVersions = { 1, -1, 0, 0, 1 };
+		for (int i = 0; i < expectedKeys.length; i++) {
+			if (expectedKeys[i] == null) {
+				continue;
+			}
+			DataEntry<String, byte[]> entry = entries.get(i);
+			assertEquals(expectedKeys[i], entry.getKey());
+			assertEquals(expectedVersions[i], entry.getVersion());
+			assertEquals(expectedValues[i], new String(entry.getValue()));
+
+			// 与逐个读取的结果一致；
+			DataEntry<String, byte[]> single = ds.getDataEntry(expectedKeys[i]);
+			assertEquals(single.getVersion(), entry.getVersion());
+			assertTrue(BytesUtils.equals(single.getValue(), entry.getValue()));
+		}
+	}
+
 	/**
 	 * 测试存储的增长；
 	 */
@@ -0,0 +1,186 @@
+package test.com.jd.blockchain.ledger.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.crypto.service.classic.ClassicAlgorithm;
+import com.jd.blockchain.ledger.CryptoSetting;
+import com.jd.blockchain.ledger.core.MerkleNodeCache;
+import com.jd.blockchain.ledger.core.MerkleTree;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+public class MerkleNodeCacheTest {
+
+	private static final HashFunction HASH_FUNC = Crypto.getHashFunction(ClassicAlgorithm.SHA256);
+
+	@Test
+	public void testEviction() {
+		// 每个分段的容量为 1024 字节；
+		MerkleNodeCache cache = new MerkleNodeCache(16 * 1024);
+
+		HashDigest[] hashes = new HashDigest[1000];
+		for (int i = 0; i < hashes.length; i++) {
+			hashes[i] = HASH_FUNC.hash(BytesUtils.toBytes(i));
+			cache.put(hashes[i], new byte[100], 100, true);
+		}
+		assertTrue(cache.getSize() <= cache.getCapacity());
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(hashes.length, cache.getCount() + cache.getEvictionCount());
+
+		// 最后写入的节点不会被淘汰；
+		assertNotNull(cache.get(hashes[hashes.length - 1], true));
+		assertNull(cache.get(hashes[0], true));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// 超出分段容量的节点不会被缓存；
+		HashDigest bigHash = HASH_FUNC.hash(BytesUtils.toBytes("big"));
+		cache.put(bigHash, new byte[2048], 2048, true);
+		assertNull(cache.get(bigHash, true));
+
+		cache.clear();
+		assertEquals(0, cache.getCount());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testUnverifiedEntry() {
+		MerkleNodeCache cache = new MerkleNodeCache(16 * 1024);
+		HashDigest hash = HASH_FUNC.hash(BytesUtils.toBytes("node"));
+		byte[] unverifiedNode = new byte[10];
+		byte[] verifiedNode = new byte[10];
+
+		// 未校验的节点只能用于不要求校验的读取；
+		cache.put(hash, unverifiedNode, 10, false);
+		assertTrue(unverifiedNode == cache.get(hash, false));
+		assertNull(cache.get(hash, true));
+
+		// 校验后的节点替换未校验的节点，且不会再被未校验的节点替换；
+		cache.put(hash, verifiedNode, 10, true);
+		assertTrue(verifiedNode == cache.get(hash, true));
+		cache.put(hash, unverifiedNode, 10, false);
+		assertTrue(verifiedNode == cache.get(hash, true));
+		assertTrue(verifiedNode == cache.get(hash, false));
+	}
+
+	@Test
+	public void testCacheHitOnReload() {
+		CryptoSetting setting = Mockito.mock(CryptoSetting.class);
+		when(setting.getHashAlgorithm()).thenReturn(ClassicAlgorithm.SHA256.code());
+		when(setting.getAutoVerifyHash()).thenReturn(true);
+
+		MemoryKVStorage storage = new MemoryKVStorage();
+		MerkleTree mkt = new MerkleTree(setting, Bytes.fromString("MKT-CACHE"), storage);
+		for (int i = 0; i < 100; i++) {
+			byte[] data = BytesUtils.toBytes("DATA-" + i);
+			mkt.setData(i, Bytes.fromString("KEY-" + i), 0, HASH_FUNC.hash(data).toBytes());
+		}
+		mkt.commit();
+		HashDigest rootHash = mkt.getRootHash();
+
+		MerkleNodeCache cache = new MerkleNodeCache(1024 * 1024);
+		MerkleTree reloadedTree1 = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-CACHE"), storage, true,
+				cache);
+		assertNotNull(reloadedTree1.getData(10));
+
+		long hits = cache.getHitCount();
+		MerkleTree reloadedTree2 = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-CACHE"), storage, true,
+				cache);
+		assertEquals(reloadedTree1.getData(10).getNodeHash(), reloadedTree2.getData(10).getNodeHash());
+		assertEquals(reloadedTree1.getRootHash(), reloadedTree2.getRootHash());
+		assertTrue(cache.getHitCount() > hits);
+
+		// 未共享缓存的树不受影响；
+		MerkleTree uncachedTree = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-CACHE"), storage, true);
+		hits = cache.getHitCount();
+		assertNotNull(uncachedTree.getData(10));
+		assertEquals(hits, cache.getHitCount());
+	}
+
+	@Test
+	public void testCachedPathNodeIsolatedFromUpdates() {
+		CryptoSetting setting = Mockito.mock(CryptoSetting.class);
+		when(setting.getHashAlgorithm()).thenReturn(ClassicAlgorithm.SHA256.code());
+		when(setting.getAutoVerifyHash()).thenReturn(true);
+
+		MemoryKVStorage storage = new MemoryKVStorage();
+		MerkleTree mkt = new MerkleTree(setting, Bytes.fromString("MKT-UPDATE"), storage);
+		for (int i = 0; i < 100; i++) {
+			byte[] data = BytesUtils.toBytes("DATA-" + i);
+			mkt.setData(i, Bytes.fromString("KEY-" + i), 0, HASH_FUNC.hash(data).toBytes());
+		}
+		mkt.commit();
+		HashDigest rootHash = mkt.getRootHash();
+
+		// 从缓存加载路径节点，然后修改并提交；
+		MerkleNodeCache cache = new MerkleNodeCache(1024 * 1024);
+		new MerkleTree(rootHash, setting, Bytes.fromString("MKT-UPDATE"), storage, true, cache).getData(10);
+		long hits = cache.getHitCount();
+		MerkleTree updatingTree = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-UPDATE"), storage, false,
+				cache);
+		byte[] newData = BytesUtils.toBytes("DATA-10-1");
+		updatingTree.setData(10, Bytes.fromString("KEY-10"), 1, HASH_FUNC.hash(newData).toBytes());
+		updatingTree.commit();
+		assertTrue(cache.getHitCount() > hits);
+		assertNotEquals(rootHash, updatingTree.getRootHash());
+
+		// 缓存的路径节点不受修改的影响；
+		MerkleTree reloadedTree = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-UPDATE"), storage, true,
+				cache);
+		assertEquals(rootHash, reloadedTree.getRootHash());
+		assertEquals(0, reloadedTree.getData(10).getVersion());
+		assertEquals(100, reloadedTree.getDataCount());
+	}
+
+	@Test
+	public void testVerifiedLoadSkipsUnverifiedNodes() {
+		CryptoSetting setting = Mockito.mock(CryptoSetting.class);
+		when(setting.getHashAlgorithm()).thenReturn(ClassicAlgorithm.SHA256.code());
+		when(setting.getAutoVerifyHash()).thenReturn(false);
+
+		MemoryKVStorage storage = new MemoryKVStorage();
+		MerkleTree mkt = new MerkleTree(setting, Bytes.fromString("MKT-VERIFY"), storage);
+		for (int i = 0; i < 100; i++) {
+			byte[] data = BytesUtils.toBytes("DATA-" + i);
+			mkt.setData(i, Bytes.fromString("KEY-" + i), 0, HASH_FUNC.hash(data).toBytes());
+		}
+		mkt.commit();
+		HashDigest rootHash = mkt.getRootHash();
+
+		// 不校验的加载写入未校验的节点；
+		MerkleNodeCache cache = new MerkleNodeCache(1024 * 1024);
+		MerkleTree unverifiedTree = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-VERIFY"), storage, true,
+				cache);
+		assertNotNull(unverifiedTree.getData(10));
+		long count = cache.getCount();
+		assertTrue(count > 0);
+
+		// 要求校验的加载不采用未校验的节点，而是重新加载、校验并替换；
+		when(setting.getAutoVerifyHash()).thenReturn(true);
+		long hits = cache.getHitCount();
+		MerkleTree verifiedTree1 = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-VERIFY"), storage, true,
+				cache);
+		assertNotNull(verifiedTree1.getData(10));
+		assertEquals(hits, cache.getHitCount());
+		assertEquals(count, cache.getCount());
+
+		// 替换后要求校验的加载命中缓存；
+		MerkleTree verifiedTree2 = new MerkleTree(rootHash, setting, Bytes.fromString("MKT-VERIFY"), storage, true,
+				cache);
+		assertEquals(verifiedTree1.getData(10).getNodeHash(), verifiedTree2.getData(10).getNodeHash());
+		assertTrue(cache.getHitCount() > hits);
+	}
+
+}
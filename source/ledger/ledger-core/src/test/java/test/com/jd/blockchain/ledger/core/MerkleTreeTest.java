@@ -133,6 +133,52 @@ public class MerkleTreeTest {
 		}
 	}
 
+	/**
+	 * 测试单次提交大量数据时并行逐层计算的哈希与多次少量提交时串行计算的结果一致；
+	 */
+	@Test
+	public void testSequenceInsert_ParallelRehash() {
+		CryptoSetting setting = Mockito.mock(CryptoSetting.class);
+		when(setting.getHashAlgorithm()).thenReturn(ClassicAlgorithm.SHA256.code());
+		when(setting.getAutoVerifyHash()).thenReturn(true);
+
+		// 20000 条数据产生 1250 个叶子路径节点，超过并行计算的阈值；
+		int count = 20000;
+		byte[][] datas = new byte[count][16];
+		Random rand = new Random();
+		for (int i = 0; i < count; i++) {
+			rand.nextBytes(datas[i]);
+		}
+
+		ExistancePolicyKVStorageMap kvs1 = new ExistancePolicyKVStorageMap();
+		MerkleTree mkt1 = new MerkleTree(setting, keyPrefix, kvs1);
+		for (int i = 0; i < count; i++) {
+			mkt1.setData(i, "KEY-" + i, 0, datas[i]);
+		}
+		mkt1.commit();
+
+		ExistancePolicyKVStorageMap kvs2 = new ExistancePolicyKVStorageMap();
+		MerkleTree mkt2 = new MerkleTree(setting, keyPrefix, kvs2);
+		for (int i = 0; i < count; i++) {
+			mkt2.setData(i, "KEY-" + i, 0, datas[i]);
+			if (i % 1000 == 999) {
+				mkt2.commit();
+			}
+		}
+		mkt2.commit();
+
+		assertEquals(count, mkt1.getDataCount());
+		assertEquals(mkt2.getRootHash(), mkt1.getRootHash());
+
+		// 重新加载并校验节点；
+		MerkleTree reloadedMkt = new MerkleTree(mkt1.getRootHash(), setting, keyPrefix, kvs1, true);
+		assertEquals(count, reloadedMkt.getDataCount());
+		for (int i = 0; i < count; i += 97) {
+			assertNotNull(reloadedMkt.getProof(i));
+			assertEquals(mkt2.getData(i).getNodeHash(), reloadedMkt.getData(i).getNodeHash());
+		}
+	}
+
 	/**
 	 * 测试以多次提交的方式顺序地插入数据；
 	 */
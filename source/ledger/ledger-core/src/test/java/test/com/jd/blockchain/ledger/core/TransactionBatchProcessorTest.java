@@ -8,10 +8,15 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.jd.blockchain.binaryproto.BinaryProtocol;
 import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.Crypto;
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.BlockchainKeyGenerator;
 import com.jd.blockchain.ledger.BlockchainKeypair;
@@ -20,7 +25,6 @@ import com.jd.blockchain.ledger.DataAccountRegisterOperation;
 import com.jd.blockchain.ledger.DataVersionConflictException;
 import com.jd.blockchain.ledger.EndpointRequest;
 import com.jd.blockchain.ledger.LedgerBlock;
-import com.jd.blockchain.ledger.LedgerInitSetting;
 import com.jd.blockchain.ledger.LedgerPermission;
 import com.jd.blockchain.ledger.LedgerTransaction;
 import com.jd.blockchain.ledger.NodeRequest;
@@ -46,6 +50,10 @@ import com.jd.blockchain.ledger.core.SecurityPolicy;
 import com.jd.blockchain.ledger.core.TransactionBatchProcessor;
 import com.jd.blockchain.ledger.core.UserAccount;
 import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.transaction.DigitalSignatureBlob;
+import com.jd.blockchain.transaction.LedgerInitData;
+import com.jd.blockchain.transaction.TxRequestMessage;
+import com.jd.blockchain.utils.io.BytesUtils;
 
 public class TransactionBatchProcessorTest {
 	static {
@@ -92,6 +100,8 @@ public class TransactionBatchProcessorTest {
 
 		// 生成新区块；
 		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		// 默认的账本设置不开启推测执行；
+		assertFalse(newBlockEditor.isSpeculationSupported());
 
 		OperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
 		LedgerSecurityManager securityManager = getSecurityManager();
@@ -410,9 +420,302 @@ public class TransactionBatchProcessorTest {
 
 	}
 
+	@Test
+	public void testBlockIsolation() {
+		final MemoryKVStorage STORAGE = new MemoryKVStorage();
+
+		// 初始化账本到指定的存储库；
+		ledgerHash = initLedger(STORAGE, true, parti0, parti1, parti2, parti3);
+
+		// 加载账本；
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+		assertTrue(ledgerRepo.getAdminInfo().getSettings().getBlockIsolation());
+
+		// 以区块隔离模式生成新区块；
+		LedgerBlock previousBlock = ledgerRepo.getLatestBlock();
+		LedgerEditor newBlockEditor = LedgerTransactionalEditor.createEditor(previousBlock,
+				ledgerRepo.getAdminInfo().getSettings(), LEDGER_KEY_PREFIX, STORAGE, STORAGE);
+
+		OperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		LedgerSecurityManager securityManager = getSecurityManager();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor,
+				ledgerRepo, opReg);
+
+		// 在同一个区块内注册数据账户并写入数据；
+		BlockchainKeypair dataAccountKeypair = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txreq1 = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair, ledgerHash,
+				parti0, parti0);
+		TransactionRequest txreq2 = LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair.getAddress(),
+				"K1", "V-1-1", -1, ledgerHash, parti0, parti0);
+		TransactionRequest txreq3 = LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair.getAddress(),
+				"K1", "V-1-2", 0, ledgerHash, parti0, parti0);
+		// 指定冲突的版本号，正确的应该是版本1；
+		TransactionRequest txreq4 = LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair.getAddress(),
+				"K1", "V-1-3", 0, ledgerHash, parti0, parti0);
+		// 操作不存在的数据账户，交易被丢弃但仍记录交易结果；
+		BlockchainKeypair userKeypair = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txreq5 = LedgerTestUtils.createTxRequest_MultiOPs_WithNotExistedDataAccount(userKeypair,
+				ledgerHash, parti0, parti0);
+		TransactionRequest txreq6 = LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair.getAddress(),
+				"K2", "V-2-1", -1, ledgerHash, parti0, parti0);
+
+		TransactionResponse txResp1 = txbatchProcessor.schedule(txreq1);
+		TransactionResponse txResp2 = txbatchProcessor.schedule(txreq2);
+		TransactionResponse txResp3 = txbatchProcessor.schedule(txreq3);
+		DataVersionConflictException versionConflictionException = null;
+		try {
+			txbatchProcessor.schedule(txreq4);
+		} catch (DataVersionConflictException e) {
+			versionConflictionException = e;
+		}
+		assertNotNull(versionConflictionException);
+		TransactionResponse txResp5 = txbatchProcessor.schedule(txreq5);
+		TransactionResponse txResp6 = txbatchProcessor.schedule(txreq6);
+
+		assertEquals(TransactionState.SUCCESS, txResp1.getExecutionState());
+		assertEquals(TransactionState.SUCCESS, txResp2.getExecutionState());
+		assertEquals(TransactionState.SUCCESS, txResp3.getExecutionState());
+		assertEquals(TransactionState.DATA_ACCOUNT_DOES_NOT_EXIST, txResp5.getExecutionState());
+		assertEquals(TransactionState.SUCCESS, txResp6.getExecutionState());
+
+		LedgerBlock newBlock = newBlockEditor.prepare();
+		newBlockEditor.commit();
+
+		assertEquals(newBlock.getDataAccountSetHash(),
+				newBlockEditor.getLedgerDataset().getDataAccountSet().getRootHash());
+
+		// 重新加载账本，验证正确性；
+		ledgerManager = new LedgerManager();
+		ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+
+		LedgerBlock latestBlock = ledgerRepo.getLatestBlock();
+		assertEquals(newBlock.getHash(), latestBlock.getHash());
+		assertEquals(1, latestBlock.getHeight());
+
+		assertNotNull(ledgerRepo.getTransactionSet().get(txreq1.getTransactionContent().getHash()));
+		assertNotNull(ledgerRepo.getTransactionSet().get(txreq3.getTransactionContent().getHash()));
+		assertNull(ledgerRepo.getTransactionSet().get(txreq4.getTransactionContent().getHash()));
+		LedgerTransaction tx5 = ledgerRepo.getTransactionSet().get(txreq5.getTransactionContent().getHash());
+		assertNotNull(tx5);
+		assertEquals(TransactionState.DATA_ACCOUNT_DOES_NOT_EXIST, tx5.getExecutionState());
+
+		DataAccount dataAccount = ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair.getAddress());
+		assertNotNull(dataAccount);
+		assertEquals(1, dataAccount.getDataset().getVersion("K1"));
+		assertEquals("V-1-1", dataAccount.getDataset().getValue("K1", 0).getBytes().toUTF8String());
+		assertEquals("V-1-2", dataAccount.getDataset().getValue("K1").getBytes().toUTF8String());
+		assertEquals("V-2-1", dataAccount.getDataset().getValue("K2").getBytes().toUTF8String());
+
+		LedgerDataQuery ledgerDS = ledgerRepo.getLedgerData(latestBlock);
+		assertFalse(ledgerDS.getUserAccountSet().contains(userKeypair.getAddress()));
+	}
+
+	@Test
+	public void testSpeculativeBatch() {
+		final MemoryKVStorage STORAGE = new MemoryKVStorage();
+
+		// 初始化账本到指定的存储库；
+		ledgerHash = initLedger(STORAGE, true, parti0, parti1, parti2, parti3);
+
+		// 加载账本；
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+
+		OperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		LedgerSecurityManager securityManager = getSecurityManager();
+
+		// 注册两个数据账户；
+		BlockchainKeypair dataAccountKeypair1 = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair dataAccountKeypair2 = BlockchainKeyGenerator.getInstance().generate();
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor,
+				ledgerRepo, opReg);
+		txbatchProcessor.schedule(
+				LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair1, ledgerHash, parti0, parti0));
+		txbatchProcessor.schedule(
+				LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair2, ledgerHash, parti0, parti0));
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+
+		BlockchainKeypair dataAccountKeypair3 = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair userKeypair = BlockchainKeyGenerator.getInstance().generate();
+		List<TransactionRequest> requests = Arrays.asList(
+				// 互不冲突的写入；
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair1.getAddress(), "K1", "V-1-1", -1,
+						ledgerHash, parti0, parti0),
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair2.getAddress(), "K1", "V-1-1", -1,
+						ledgerHash, parti0, parti0),
+				// 与前面的交易写入同一个账户，需要按顺序重新执行；
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair1.getAddress(), "K1", "V-1-2", 0,
+						ledgerHash, parti0, parti0),
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair2.getAddress(), "K2", "V-2-1", -1,
+						ledgerHash, parti0, parti0),
+				// 操作不存在的数据账户；
+				LedgerTestUtils.createTxRequest_MultiOPs_WithNotExistedDataAccount(userKeypair, ledgerHash, parti0,
+						parti0),
+				// 注册新的数据账户，并在同一个区块内写入；
+				LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair3, ledgerHash, parti0, parti0),
+				LedgerTestUtils.createTxRequest_DataAccountWrite(dataAccountKeypair3.getAddress(), "K1", "V-1-1", -1,
+						ledgerHash, parti0, parti0));
+
+		// 按顺序逐个执行，作为对照；
+		LedgerBlock previousBlock = ledgerRepo.getLatestBlock();
+		newBlockEditor = LedgerTransactionalEditor.createEditor(previousBlock,
+				ledgerRepo.getAdminInfo().getSettings(), LEDGER_KEY_PREFIX, STORAGE, STORAGE);
+		txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor, ledgerRepo, opReg);
+		TransactionState[] serialStates = new TransactionState[requests.size()];
+		for (int i = 0; i < serialStates.length; i++) {
+			serialStates[i] = txbatchProcessor.schedule(requests.get(i)).getExecutionState();
+		}
+		LedgerBlock serialBlock = newBlockEditor.prepare();
+		newBlockEditor.cancel();
+
+		// 推测执行；
+		newBlockEditor = LedgerTransactionalEditor.createEditor(previousBlock, ledgerRepo.getAdminInfo().getSettings(),
+				LEDGER_KEY_PREFIX, STORAGE, STORAGE);
+		assertTrue(newBlockEditor.isSpeculationSupported());
+		txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor, ledgerRepo, opReg);
+		List<TransactionResponse> responses = txbatchProcessor.scheduleBatch(requests);
+		assertEquals(requests.size(), responses.size());
+		for (int i = 0; i < serialStates.length; i++) {
+			assertEquals(serialStates[i], responses.get(i).getExecutionState());
+		}
+		assertEquals(TransactionState.SUCCESS, responses.get(2).getExecutionState());
+		assertEquals(TransactionState.DATA_ACCOUNT_DOES_NOT_EXIST, responses.get(4).getExecutionState());
+		assertEquals(TransactionState.SUCCESS, responses.get(6).getExecutionState());
+
+		LedgerBlock newBlock = newBlockEditor.prepare();
+		newBlockEditor.commit();
+		assertEquals(serialBlock.getHash(), newBlock.getHash());
+
+		// 重新加载账本，验证正确性；
+		ledgerManager = new LedgerManager();
+		ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+		assertEquals(newBlock.getHash(), ledgerRepo.getLatestBlockHash());
+
+		DataAccount dataAccount1 = ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair1.getAddress());
+		assertEquals(1, dataAccount1.getDataset().getVersion("K1"));
+		assertEquals("V-1-2", dataAccount1.getDataset().getValue("K1").getBytes().toUTF8String());
+		DataAccount dataAccount2 = ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair2.getAddress());
+		assertEquals("V-1-1", dataAccount2.getDataset().getValue("K1").getBytes().toUTF8String());
+		assertEquals("V-2-1", dataAccount2.getDataset().getValue("K2").getBytes().toUTF8String());
+		DataAccount dataAccount3 = ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair3.getAddress());
+		assertNotNull(dataAccount3);
+		assertEquals("V-1-1", dataAccount3.getDataset().getValue("K1").getBytes().toUTF8String());
+	}
+
+	@Test
+	public void testPreVerify() {
+		final MemoryKVStorage STORAGE = new MemoryKVStorage();
+
+		// 初始化账本到指定的存储库；
+		ledgerHash = initLedger(STORAGE, parti0, parti1, parti2, parti3);
+
+		// 加载账本；
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		OperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		LedgerSecurityManager securityManager = getSecurityManager();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor,
+				ledgerRepo, opReg);
+
+		BlockchainKeypair dataAccountKeypair = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txreq1 = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair, ledgerHash,
+				parti0, parti0);
+
+		// 以其它参与方的公钥冒充终端签名；
+		BlockchainKeypair dataAccountKeypair2 = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest validReq = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair2, ledgerHash,
+				parti0, parti0);
+		TxRequestMessage txreq2 = new TxRequestMessage(validReq.getTransactionContent());
+		txreq2.addEndpointSignatures(
+				new DigitalSignatureBlob(parti1.getPubKey(), validReq.getEndpointSignatures()[0].getDigest()));
+		txreq2.addNodeSignatures(validReq.getNodeSignatures());
+		txreq2.setHash(Crypto.getHashFunction("SHA256").hash(BytesUtils.toBytes("forged-request")));
+
+		txbatchProcessor.preVerify(Arrays.asList(txreq1, txreq2));
+
+		TransactionResponse txResp1 = txbatchProcessor.schedule(txreq1);
+		TransactionResponse txResp2 = txbatchProcessor.schedule(txreq2);
+		assertEquals(TransactionState.SUCCESS, txResp1.getExecutionState());
+		assertEquals(TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE, txResp2.getExecutionState());
+
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+
+		assertNotNull(ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair.getAddress()));
+		assertNull(ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair2.getAddress()));
+	}
+
+	@Test
+	public void testPreVerifyBoundToRequest() {
+		final MemoryKVStorage STORAGE = new MemoryKVStorage();
+
+		// 初始化账本到指定的存储库；
+		ledgerHash = initLedger(STORAGE, parti0, parti1, parti2, parti3);
+
+		// 加载账本；
+		LedgerManager ledgerManager = new LedgerManager();
+		LedgerRepository ledgerRepo = ledgerManager.register(ledgerHash, STORAGE);
+
+		LedgerEditor newBlockEditor = ledgerRepo.createNextBlock();
+		OperationHandleRegisteration opReg = new DefaultOperationHandleRegisteration();
+		LedgerSecurityManager securityManager = getSecurityManager();
+		TransactionBatchProcessor txbatchProcessor = new TransactionBatchProcessor(securityManager, newBlockEditor,
+				ledgerRepo, opReg);
+
+		BlockchainKeypair dataAccountKeypair = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txreq1 = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair, ledgerHash,
+				parti0, parti0);
+
+		// 冒用已预先验证的请求的哈希，但签名无效；
+		BlockchainKeypair dataAccountKeypair2 = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest validReq = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair2, ledgerHash,
+				parti0, parti0);
+		TxRequestMessage txreq2 = new TxRequestMessage(validReq.getTransactionContent());
+		txreq2.addEndpointSignatures(
+				new DigitalSignatureBlob(parti1.getPubKey(), validReq.getEndpointSignatures()[0].getDigest()));
+		txreq2.addNodeSignatures(validReq.getNodeSignatures());
+		txreq2.setHash(txreq1.getHash());
+
+		txbatchProcessor.preVerify(Arrays.asList(txreq1));
+
+		// 冒用哈希的请求不能采用预先验证的结果；
+		TransactionResponse txResp2 = txbatchProcessor.schedule(txreq2);
+		assertEquals(TransactionState.IGNORED_BY_WRONG_CONTENT_SIGNATURE, txResp2.getExecutionState());
+
+		// 原请求的预先验证结果已被取出，重新直接验证；
+		TransactionResponse txResp1 = txbatchProcessor.schedule(txreq1);
+		assertEquals(TransactionState.SUCCESS, txResp1.getExecutionState());
+
+		// 重新解码得到的同一请求可以采用预先验证的结果；
+		BlockchainKeypair dataAccountKeypair3 = BlockchainKeyGenerator.getInstance().generate();
+		TransactionRequest txreq3 = LedgerTestUtils.createTxRequest_DataAccountReg(dataAccountKeypair3, ledgerHash,
+				parti0, parti0);
+		txbatchProcessor.preVerify(Arrays.asList(txreq3));
+		TransactionRequest decodedReq3 = BinaryProtocol.decode(BinaryProtocol.encode(txreq3, TransactionRequest.class));
+		TransactionResponse txResp3 = txbatchProcessor.schedule(decodedReq3);
+		assertEquals(TransactionState.SUCCESS, txResp3.getExecutionState());
+
+		newBlockEditor.prepare();
+		newBlockEditor.commit();
+
+		assertNotNull(ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair.getAddress()));
+		assertNull(ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair2.getAddress()));
+		assertNotNull(ledgerRepo.getDataAccountSet().getAccount(dataAccountKeypair3.getAddress()));
+	}
+
 	private HashDigest initLedger(MemoryKVStorage storage, BlockchainKeypair... partiKeys) {
+		return initLedger(storage, false, partiKeys);
+	}
+
+	private HashDigest initLedger(MemoryKVStorage storage, boolean blockIsolation, BlockchainKeypair... partiKeys) {
 		// 创建初始化配置；
-		LedgerInitSetting initSetting = LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		LedgerInitData initSetting = (LedgerInitData) LedgerTestUtils.createLedgerInitSetting(partiKeys);
+		initSetting.setBlockIsolation(blockIsolation);
 
 		// 创建账本；
 		LedgerEditor ldgEdt = LedgerTransactionalEditor.createEditor(initSetting, LEDGER_KEY_PREFIX, storage, storage);
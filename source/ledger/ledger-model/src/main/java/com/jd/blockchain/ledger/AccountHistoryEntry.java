@@ -0,0 +1,67 @@
+package com.jd.blockchain.ledger;
+
+/**
+ * 账户的一次变更记录；<br>
+ *
+ * 通过区块高度和交易在区块中的序号可以定位到变更账户的交易；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class AccountHistoryEntry {
+
+	private long blockHeight;
+
+	private int txIndex;
+
+	private long version;
+
+	public AccountHistoryEntry() {
+	}
+
+	public AccountHistoryEntry(long blockHeight, int txIndex, long version) {
+		this.blockHeight = blockHeight;
+		this.txIndex = txIndex;
+		this.version = version;
+	}
+
+	/**
+	 * 变更账户的交易所在的区块高度；
+	 *
+	 * @return
+	 */
+	public long getBlockHeight() {
+		return blockHeight;
+	}
+
+	public void setBlockHeight(long blockHeight) {
+		this.blockHeight = blockHeight;
+	}
+
+	/**
+	 * 变更账户的交易在区块新增交易中的序号，从 0 开始；
+	 *
+	 * @return
+	 */
+	public int getTxIndex() {
+		return txIndex;
+	}
+
+	public void setTxIndex(int txIndex) {
+		this.txIndex = txIndex;
+	}
+
+	/**
+	 * 写入后的数据版本；只有数据账户的键值的变更记录有版本，其它情况为 -1；
+	 *
+	 * @return
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+}
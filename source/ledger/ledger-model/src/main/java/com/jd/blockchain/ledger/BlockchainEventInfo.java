@@ -0,0 +1,100 @@
+package com.jd.blockchain.ledger;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 一个区块产生的区块链事件；<br>
+ *
+ * 事件码是区块中的所有事件的事件码（{@link BlockchainEventType#CODE}）按位或的结果；<br>
+ *
+ * 按交易或者账户过滤时，事件中只包含与之相关的交易和账户，事件码也只由这些交易和账户的事件计算；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BlockchainEventInfo {
+
+	private int eventCode;
+
+	private long blockHeight;
+
+	private HashDigest blockHash;
+
+	/**
+	 * 成功交易的内容哈希；
+	 */
+	private HashDigest[] txHashes;
+
+	/**
+	 * 成功交易变更的账户地址；
+	 */
+	private Bytes[] accountAddresses;
+
+	/**
+	 * 区块中全部交易的布隆过滤器的编码；区块没有布隆过滤器时为 null；
+	 */
+	private byte[] txBloomFilter;
+
+	/**
+	 * 区块中全部成功交易写入的账户的布隆过滤器的编码；区块没有布隆过滤器时为 null；
+	 */
+	private byte[] accountBloomFilter;
+
+	public int getEventCode() {
+		return eventCode;
+	}
+
+	public void setEventCode(int eventCode) {
+		this.eventCode = eventCode;
+	}
+
+	public long getBlockHeight() {
+		return blockHeight;
+	}
+
+	public void setBlockHeight(long blockHeight) {
+		this.blockHeight = blockHeight;
+	}
+
+	public HashDigest getBlockHash() {
+		return blockHash;
+	}
+
+	public void setBlockHash(HashDigest blockHash) {
+		this.blockHash = blockHash;
+	}
+
+	public HashDigest[] getTxHashes() {
+		return txHashes;
+	}
+
+	public void setTxHashes(HashDigest[] txHashes) {
+		this.txHashes = txHashes;
+	}
+
+	public Bytes[] getAccountAddresses() {
+		return accountAddresses;
+	}
+
+	public void setAccountAddresses(Bytes[] accountAddresses) {
+		this.accountAddresses = accountAddresses;
+	}
+
+	public byte[] getTxBloomFilter() {
+		return txBloomFilter;
+	}
+
+	public void setTxBloomFilter(byte[] txBloomFilter) {
+		this.txBloomFilter = txBloomFilter;
+	}
+
+	public byte[] getAccountBloomFilter() {
+		return accountBloomFilter;
+	}
+
+	public void setAccountBloomFilter(byte[] accountBloomFilter) {
+		this.accountBloomFilter = accountBloomFilter;
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.jd.blockchain.ledger;
+
+/**
+ * 从指定区块高度开始查询的一页区块链事件；<br>
+ *
+ * {@link #getNextHeight()} 是下一次查询的起始高度；没有匹配的事件时也会前移，调用者以此作为游标连续查询，不会遗漏或者重复；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BlockchainEventPage {
+
+	private long nextHeight;
+
+	private BlockchainEventInfo[] events;
+
+	public BlockchainEventPage() {
+	}
+
+	public BlockchainEventPage(long nextHeight, BlockchainEventInfo[] events) {
+		this.nextHeight = nextHeight;
+		this.events = events;
+	}
+
+	public long getNextHeight() {
+		return nextHeight;
+	}
+
+	public void setNextHeight(long nextHeight) {
+		this.nextHeight = nextHeight;
+	}
+
+	public BlockchainEventInfo[] getEvents() {
+		return events;
+	}
+
+	public void setEvents(BlockchainEventInfo[] events) {
+		this.events = events;
+	}
+
+}
@@ -37,6 +37,9 @@ public class LedgerInitProperties {
 	// 创建时间的格式；
 	public static final String CREATED_TIME_FORMAT = Global.DEFAULT_TIME_FORMAT;
 
+	// 是否以区块为隔离级别处理交易；可选；默认为 false；
+	public static final String LEDGER_BLOCK_ISOLATION = "ledger.block-isolation";
+
 	// 角色清单；
 	public static final String ROLES = "security.roles";
 	// 角色的账本权限；用角色名称替代占位符；
@@ -99,6 +102,8 @@ public class LedgerInitProperties {
 
 	private long createdTime;
 
+	private boolean blockIsolation;
+
 	public byte[] getLedgerSeed() {
 		return ledgerSeed.clone();
 	}
@@ -111,6 +116,10 @@ public class LedgerInitProperties {
 		return createdTime;
 	}
 
+	public boolean isBlockIsolation() {
+		return blockIsolation;
+	}
+
 	public Properties getConsensusConfig() {
 		return consensusConfig;
 	}
@@ -219,6 +228,9 @@ public class LedgerInitProperties {
 			throw new IllegalArgumentException(ex.getMessage(), ex);
 		}
 
+		// 交易隔离级别；
+		initProps.blockIsolation = PropertiesUtils.getBooleanOptional(props, LEDGER_BLOCK_ISOLATION, false);
+
 		// 解析角色清单；
 		String strRoleNames = PropertiesUtils.getOptionalProperty(props, ROLES);
 		String[] roles = StringUtils.splitToArray(strRoleNames, ",");
@@ -58,4 +58,12 @@ public interface LedgerInitSetting {
 	@DataField(order = 6, primitiveType = PrimitiveType.INT64)
 	long getCreatedTime();
 
+	/**
+	 * 是否以区块为隔离级别处理交易；
+	 * 
+	 * @return
+	 */
+	@DataField(order = 7, primitiveType = PrimitiveType.BOOLEAN)
+	boolean getBlockIsolation();
+
 }
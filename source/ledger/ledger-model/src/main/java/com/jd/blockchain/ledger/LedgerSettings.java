@@ -19,4 +19,16 @@ public interface LedgerSettings {
     @DataField(order=2, refContract=true)
     CryptoSetting getCryptoSetting();
 
+    /**
+     * 是否以区块为隔离级别处理交易；<br>
+     * 
+     * 开启后同一区块内的交易共享区块起始时的状态快照，默克尔树在区块就绪时统一重新计算；<br>
+     * 
+     * 由于两种模式产生的区块哈希不同，此选项在账本创建时确定，账本的全部节点必须一致；
+     * 
+     * @return
+     */
+    @DataField(order=3, primitiveType=PrimitiveType.BOOLEAN)
+    boolean getBlockIsolation();
+
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.jd.blockchain.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import com.jd.blockchain.ledger.TransactionRequest;
 import com.jd.blockchain.ledger.TransactionResponse;
 import com.jd.blockchain.ledger.TransactionState;
@@ -21,6 +25,37 @@ public interface TransactionBatchProcess {
 	 */
 	TransactionResponse schedule(TransactionRequest request);
 
+	/**
+	 * 预先验证一批交易请求的内容哈希和签名；
+	 * 
+	 * <p>
+	 * 
+	 * 此方法立即返回，验证在后台并行地进行；随后通过 {@link #schedule(TransactionRequest)} 执行这些交易时，直接使用预先验证的结果，而不再重复验证；
+	 * 
+	 * @param requests
+	 *            交易请求；
+	 */
+	void preVerify(Collection<TransactionRequest> requests);
+
+	/**
+	 * 按顺序安排执行一批交易请求；<br>
+	 * 
+	 * 处理结果与按列表顺序逐个调用 {@link #schedule(TransactionRequest)} 一致；实现者可以借此并发地执行互不冲突的交易；<br>
+	 * 
+	 * 默认按顺序逐个调用 {@link #schedule(TransactionRequest)}；
+	 * 
+	 * @param requests
+	 *            交易请求列表；列表的顺序即交易在区块中的顺序；
+	 * @return 与交易请求一一对应的交易执行回复；
+	 */
+	default List<TransactionResponse> scheduleBatch(List<TransactionRequest> requests) {
+		List<TransactionResponse> responses = new ArrayList<>(requests.size());
+		for (TransactionRequest request : requests) {
+			responses.add(schedule(request));
+		}
+		return responses;
+	}
+
 	/**
 	 * 完成本次批量执行；生成待提交的结果；
 	 * 
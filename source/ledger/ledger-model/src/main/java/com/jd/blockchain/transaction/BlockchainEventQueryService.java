@@ -0,0 +1,39 @@
+package com.jd.blockchain.transaction;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.ledger.BlockchainEventType;
+
+/**
+ * 区块链事件查询器；<br>
+ *
+ * 以区块高度作为游标分页查询新区块产生的事件；当起始高度的区块尚未生成时，最多等待指定的时间（长轮询）；
+ *
+ * @author huanghaiquan
+ *
+ */
+public interface BlockchainEventQueryService {
+
+	/**
+	 * 查询区块链事件；
+	 *
+	 * @param ledgerHash
+	 *            账本哈希；
+	 * @param fromHeight
+	 *            起始的区块高度；小于 0 表示从下一个新区块开始；
+	 * @param maxCount
+	 *            返回的事件的最大数量；
+	 * @param timeout
+	 *            起始高度的区块尚未生成时等待的最长时间（毫秒）；为 0 时不等待；
+	 * @param eventTypes
+	 *            要查询的事件类型，即 {@link BlockchainEventType#CODE} 按位或的结果；为 0 时不进行类型过滤；
+	 * @param txHash
+	 *            要查询的交易的内容哈希（Base58 编码）；如果为 null，则不进行交易过滤；
+	 * @param accountAddress
+	 *            要查询的账户地址（Base58 编码）；如果为 null，则不进行账户地址过滤；
+	 * @return
+	 */
+	BlockchainEventPage getEvents(HashDigest ledgerHash, long fromHeight, int maxCount, long timeout, int eventTypes,
+			String txHash, String accountAddress);
+
+}
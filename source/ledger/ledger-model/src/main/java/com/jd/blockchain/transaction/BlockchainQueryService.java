@@ -3,6 +3,7 @@ package com.jd.blockchain.transaction;
 import org.springframework.cglib.core.Block;
 
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.ContractInfo;
 import com.jd.blockchain.ledger.TypedKVEntry;
@@ -327,4 +328,55 @@ public interface BlockchainQueryService {
 	 * @return
 	 */
 	BlockchainIdentity[] getContractAccounts(HashDigest ledgerHash, int fromIndex, int count);
+
+	/**
+	 * 返回账户被成功交易变更的记录的总数； <br>
+	 *
+	 * 只包含开启账户历史索引之后生成的区块；
+	 *
+	 * @param ledgerHash 账本hash；
+	 * @param address    账户地址；
+	 * @return
+	 */
+	long getAccountHistoryCount(HashDigest ledgerHash, String address);
+
+	/**
+	 * 按时间顺序返回账户被成功交易变更的记录； <br>
+	 *
+	 * 每条记录包含交易所在的区块高度和交易在区块中的序号；
+	 *
+	 * @param ledgerHash 账本hash；
+	 * @param address    账户地址；
+	 * @param fromIndex  开始的记录数；
+	 * @param count      本次返回的记录数；<br>
+	 *                   如果参数值为 -1，则返回全部的记录；<br>
+	 * @return
+	 */
+	AccountHistoryEntry[] getAccountHistory(HashDigest ledgerHash, String address, int fromIndex, int count);
+
+	/**
+	 * 返回数据账户中指定的键被写入的记录的总数； <br>
+	 *
+	 * @param ledgerHash 账本hash；
+	 * @param address    数据账户地址；
+	 * @param key        键；
+	 * @return
+	 */
+	long getDataEntryHistoryCount(HashDigest ledgerHash, String address, String key);
+
+	/**
+	 * 按时间顺序返回数据账户中指定的键被写入的记录； <br>
+	 *
+	 * 每条记录包含交易所在的区块高度、交易在区块中的序号以及写入后的版本；
+	 *
+	 * @param ledgerHash 账本hash；
+	 * @param address    数据账户地址；
+	 * @param key        键；
+	 * @param fromIndex  开始的记录数；
+	 * @param count      本次返回的记录数；<br>
+	 *                   如果参数值为 -1，则返回全部的记录；<br>
+	 * @return
+	 */
+	AccountHistoryEntry[] getDataEntryHistory(HashDigest ledgerHash, String address, String key, int fromIndex,
+			int count);
 }
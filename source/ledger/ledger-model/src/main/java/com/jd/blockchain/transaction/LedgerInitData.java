@@ -25,6 +25,8 @@ public class LedgerInitData implements LedgerInitSetting {
 
 	private long createdTime;
 
+	private boolean blockIsolation;
+
 	@Override
 	public byte[] getLedgerSeed() {
 		return ledgerSeed;
@@ -82,4 +84,13 @@ public class LedgerInitData implements LedgerInitSetting {
 	public void setCreatedTime(long createdTime) {
 		this.createdTime = createdTime;
 	}
+
+	@Override
+	public boolean getBlockIsolation() {
+		return blockIsolation;
+	}
+
+	public void setBlockIsolation(boolean blockIsolation) {
+		this.blockIsolation = blockIsolation;
+	}
 }
\ No newline at end of file
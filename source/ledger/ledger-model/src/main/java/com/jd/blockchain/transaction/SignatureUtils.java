@@ -1,5 +1,10 @@
 package com.jd.blockchain.transaction;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.jd.blockchain.crypto.*;
 import com.jd.blockchain.ledger.DigitalSignature;
 import com.jd.blockchain.ledger.TransactionContent;
@@ -25,4 +30,45 @@ public class SignatureUtils {
     public static boolean verifyHashSignature(HashDigest hash, SignatureDigest signDigest, PubKey pubKey) {
         return Crypto.getSignatureFunction(pubKey.getAlgorithm()).verify(signDigest, pubKey, hash.toBytes());
     }
+
+    /**
+     * 批量验证对同一个哈希的多个签名；<br>
+     * 
+     * 按照公钥的算法分组，每组通过 {@link SignatureFunction#verify(SignatureDigest[], PubKey[], byte[][])} 一次性验证；
+     * 
+     * @param hash        被签名的哈希；
+     * @param signDigests 签名摘要列表；
+     * @param pubKeys     与签名摘要一一对应的公钥列表；
+     * @return 与签名摘要一一对应的验证结果；
+     */
+    public static boolean[] verifyHashSignatures(HashDigest hash, SignatureDigest[] signDigests, PubKey[] pubKeys) {
+        boolean[] results = new boolean[signDigests.length];
+        if (signDigests.length == 0) {
+            return results;
+        }
+        byte[] hashBytes = hash.toBytes();
+
+        Map<Short, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < pubKeys.length; i++) {
+            groups.computeIfAbsent(pubKeys[i].getAlgorithm(), k -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<Short, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            int size = indexes.size();
+            SignatureDigest[] digests = new SignatureDigest[size];
+            PubKey[] keys = new PubKey[size];
+            byte[][] data = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                int idx = indexes.get(i);
+                digests[i] = signDigests[idx];
+                keys[i] = pubKeys[idx];
+                data[i] = hashBytes;
+            }
+            boolean[] groupResults = Crypto.getSignatureFunction(group.getKey()).verify(digests, keys, data);
+            for (int i = 0; i < size; i++) {
+                results[indexes.get(i)] = groupResults[i];
+            }
+        }
+        return results;
+    }
 }
@@ -62,6 +62,7 @@ public class TxBuilder implements TransactionBuilder {
 	}
 	
 	public static HashDigest computeTxContentHash(TransactionContent txContent) {
+		// 从字节流解码的交易内容直接输出对应字段的原始字节，无需重新编码；
 		byte[] contentBodyBytes = BinaryProtocol.encode(txContent, TransactionContentBody.class);
 		HashDigest contentHash = Crypto.getHashFunction(DEFAULT_HASH_ALGORITHM).hash(contentBodyBytes);
 		return contentHash;
@@ -2,6 +2,7 @@ package test.com.jd.blockchain.ledger;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -95,6 +96,9 @@ public class LedgerInitPropertiesTest {
 			String createdTimeStr = timeFormat.format(new Date(initProps.getCreatedTime()));
 			assertEquals(expectedCreatedTimeStr, createdTimeStr);
 
+			// 未配置时默认不以区块为隔离级别；
+			assertFalse(initProps.isBlockIsolation());
+
 			// 验证角色配置；
 			RoleInitData[] roles = initProps.getRoles();
 			assertEquals(4, roles.length);
@@ -12,6 +12,8 @@ import com.jd.blockchain.service.TransactionEngine;
 import com.jd.blockchain.utils.codec.Base58Utils;
 import com.jd.blockchain.utils.concurrent.AsyncFuture;
 import com.jd.blockchain.utils.concurrent.CompletableAsyncFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -19,7 +21,9 @@ import com.jd.blockchain.consensus.service.MessageHandle;
 import com.jd.blockchain.consensus.service.StateSnapshot;
 import com.jd.blockchain.crypto.HashDigest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -35,6 +39,8 @@ import java.util.concurrent.locks.ReentrantLock;
 @Component
 public class ConsensusMessageDispatcher implements MessageHandle {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConsensusMessageDispatcher.class);
+
 	@Autowired
 	private TransactionEngine txEngine;
 
@@ -75,6 +81,44 @@ public class ConsensusMessageDispatcher implements MessageHandle {
 		return realmProcessor.schedule(txRequest);
 	}
 
+	@Override
+	public List<AsyncFuture<byte[]>> processOrderedBatch(int startMessageId, byte[][] messages, String realmName,
+			String batchId) {
+		RealmProcessor realmProcessor = realmProcessorMap.get(realmName);
+		if (realmProcessor == null) {
+			throw new IllegalArgumentException("RealmName is not init!");
+		}
+		if (!realmProcessor.getCurrBatchId().equalsIgnoreCase(batchId)) {
+			throw new IllegalArgumentException("BatchId is not begin!");
+		}
+		List<TransactionRequest> txRequests = new ArrayList<>(messages.length);
+		for (byte[] message : messages) {
+			txRequests.add(BinaryProtocol.decode(message));
+		}
+		return realmProcessor.scheduleBatch(txRequests);
+	}
+
+	@Override
+	public void preprocessOrdered(byte[][] messages, String realmName, String batchId) {
+		RealmProcessor realmProcessor = realmProcessorMap.get(realmName);
+		if (realmProcessor == null) {
+			throw new IllegalArgumentException("RealmName is not init!");
+		}
+		if (!realmProcessor.getCurrBatchId().equalsIgnoreCase(batchId)) {
+			throw new IllegalArgumentException("BatchId is not begin!");
+		}
+		List<TransactionRequest> txRequests = new ArrayList<>(messages.length);
+		for (byte[] message : messages) {
+			try {
+				txRequests.add(BinaryProtocol.decode(message));
+			} catch (Exception e) {
+				// 无法解码的消息不做预先验证，由按顺序执行时处理；
+				LOGGER.warn("Skip pre-verifying the undecodable message! --" + e.getMessage());
+			}
+		}
+		realmProcessor.getTxBatchProcess().preVerify(txRequests);
+	}
+
 	@Override
 	public StateSnapshot completeBatch(String realmName, String batchId) {
 		RealmProcessor realmProcessor = realmProcessorMap.get(realmName);
@@ -202,6 +246,23 @@ public class ConsensusMessageDispatcher implements MessageHandle {
 			return asyncTxResult;
 		}
 
+		/**
+		 * 按顺序安排执行一批交易；在区块隔离模式下，批内的交易被并发地推测执行；
+		 * 
+		 * @param txRequests
+		 * @return 与交易一一对应的异步结果；
+		 */
+		public List<AsyncFuture<byte[]>> scheduleBatch(List<TransactionRequest> txRequests) {
+			List<TransactionResponse> resps = getTxBatchProcess().scheduleBatch(txRequests);
+			List<AsyncFuture<byte[]>> asyncTxResults = new ArrayList<>(resps.size());
+			for (TransactionResponse resp : resps) {
+				CompletableAsyncFuture<byte[]> asyncTxResult = new CompletableAsyncFuture<>();
+				txResponseMap.put(resp, asyncTxResult);
+				asyncTxResults.add(asyncTxResult);
+			}
+			return asyncTxResults;
+		}
+
 		public StateSnapshot complete() {
 			batchResultHandle = getTxBatchProcess().prepare();
 			currBlock = batchResultHandle.getBlock();
@@ -233,6 +294,7 @@ public class ConsensusMessageDispatcher implements MessageHandle {
 					throw new IllegalArgumentException("BatchResultHandle is null, complete() is not execute !");
 				}
 				batchResultHandle.commit();
+				batchResultHandle = null;
 				currBatchId = null;
 				txResponseMap = null;
 				txBatchProcess = null;
@@ -244,7 +306,13 @@ public class ConsensusMessageDispatcher implements MessageHandle {
 		public void rollback(int reasonCode) {
 			realmLock.lock();
 			try {
-				batchResultHandle.cancel(TransactionState.valueOf((byte)reasonCode));
+				if (batchResultHandle != null) {
+					batchResultHandle.cancel(TransactionState.valueOf((byte)reasonCode));
+				} else if (txBatchProcess != null) {
+					// 批次尚未完成时即被回滚；
+					txBatchProcess.cancel(TransactionState.valueOf((byte)reasonCode));
+				}
+				batchResultHandle = null;
 				currBatchId = null;
 				txResponseMap = null;
 				txBatchProcess = null;
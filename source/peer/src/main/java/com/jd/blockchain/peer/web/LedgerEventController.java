@@ -0,0 +1,89 @@
+package com.jd.blockchain.peer.web;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.ledger.core.LedgerEventQueryService;
+import com.jd.blockchain.ledger.core.LedgerQuery;
+import com.jd.blockchain.ledger.core.LedgerService;
+
+/**
+ * 区块链事件的长轮询查询；<br>
+ * 
+ * 等待新区块期间不占用 Web 容器的线程，由账本在新区块提交时完成请求；同时等待的请求超过上限时拒绝新的长轮询；
+ * 
+ * @author huanghaiquan
+ *
+ */
+@RestController
+@RequestMapping(path = "/")
+public class LedgerEventController {
+
+	/**
+	 * 同时等待的长轮询的最大数量；
+	 */
+	private static final int MAX_SUBSCRIBERS;
+
+	/**
+	 * 请求超时的余量（毫秒），使查询服务先以游标完成请求；
+	 */
+	private static final long TIMEOUT_MARGIN = 5000;
+
+	static {
+		MAX_SUBSCRIBERS = Integer.parseInt(System.getProperty("event-max-subscribers", "1024"));
+		System.out.println("------ [[ event-max-subscribers=" + MAX_SUBSCRIBERS + " ]] ------");
+	}
+
+	private final AtomicInteger subscribers = new AtomicInteger();
+
+	@Autowired
+	private LedgerService ledgerService;
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/events")
+	public DeferredResult<BlockchainEventPage> getEvents(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@RequestParam(name = "fromHeight", required = false, defaultValue = "-1") long fromHeight,
+			@RequestParam(name = "maxCount", required = false, defaultValue = "100") int maxCount,
+			@RequestParam(name = "timeout", required = false, defaultValue = "0") long timeout,
+			@RequestParam(name = "eventTypes", required = false, defaultValue = "0") int eventTypes,
+			@RequestParam(name = "txHash", required = false) String txHash,
+			@RequestParam(name = "accountAddress", required = false) String accountAddress) {
+		if (subscribers.incrementAndGet() > MAX_SUBSCRIBERS) {
+			subscribers.decrementAndGet();
+			throw new IllegalStateException("Too many blockchain event subscribers! --[Max=" + MAX_SUBSCRIBERS + "]");
+		}
+		CompletableFuture<BlockchainEventPage> result;
+		try {
+			LedgerQuery ledger = ledgerService.getLedger(ledgerHash);
+			result = new LedgerEventQueryService(ledger).getEventsAsync(ledgerHash, fromHeight, maxCount, timeout,
+					eventTypes, txHash, accountAddress);
+		} catch (RuntimeException e) {
+			subscribers.decrementAndGet();
+			throw e;
+		}
+
+		DeferredResult<BlockchainEventPage> deferredResult = new DeferredResult<>(
+				LedgerEventQueryService.MAX_TIMEOUT + TIMEOUT_MARGIN);
+		// 请求结束（包括客户端断开）时取消等待；
+		deferredResult.onCompletion(() -> result.cancel(false));
+		result.whenComplete((page, error) -> {
+			subscribers.decrementAndGet();
+			if (error != null) {
+				deferredResult.setErrorResult(error);
+			} else {
+				deferredResult.setResult(page);
+			}
+		});
+		return deferredResult;
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.jd.blockchain.peer.web;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.jd.blockchain.contract.ContractException;
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.BytesValue;
 import com.jd.blockchain.ledger.ContractInfo;
@@ -29,6 +31,7 @@ import com.jd.blockchain.ledger.TypedKVData;
 import com.jd.blockchain.ledger.TypedKVEntry;
 import com.jd.blockchain.ledger.TypedValue;
 import com.jd.blockchain.ledger.UserInfo;
+import com.jd.blockchain.ledger.core.AccountHistoryIndex;
 import com.jd.blockchain.ledger.core.ContractAccountQuery;
 import com.jd.blockchain.ledger.core.DataAccount;
 import com.jd.blockchain.ledger.core.DataAccountQuery;
@@ -366,14 +369,14 @@ public class LedgerQueryController implements BlockchainQueryService {
 		DataAccount dataAccount = dataAccountSet.getAccount(Bytes.fromBase58(address));
 
 		TypedKVEntry[] entries = new TypedKVEntry[keys.length];
-		long ver;
+		// 批量读取全部的键；
+		List<DataEntry<String, TypedValue>> dataEntries = dataAccount.getDataset().getDataEntries(Arrays.asList(keys));
 		for (int i = 0; i < entries.length; i++) {
-			ver = dataAccount.getDataset().getVersion(keys[i]);
-			if (ver < 0) {
+			DataEntry<String, TypedValue> entry = dataEntries.get(i);
+			if (entry == null) {
 				entries[i] = new TypedKVData(keys[i], -1, null);
 			} else {
-				BytesValue value = dataAccount.getDataset().getValue(keys[i], ver);
-				entries[i] = new TypedKVData(keys[i], ver, value);
+				entries[i] = new TypedKVData(keys[i], entry.getVersion(), entry.getValue());
 			}
 		}
 
@@ -422,12 +425,12 @@ public class LedgerQueryController implements BlockchainQueryService {
 			if (ver < 0) {
 				entries[i] = new TypedKVData(keys[i], -1, null);
 			} else {
-				if (dataAccount.getDataset().getDataCount() == 0
-						|| dataAccount.getDataset().getValue(keys[i], ver) == null) {
+				BytesValue value = dataAccount.getDataset().getDataCount() == 0 ? null
+						: dataAccount.getDataset().getValue(keys[i], ver);
+				if (value == null) {
 					// is the address is not exist; the result is null;
 					entries[i] = new TypedKVData(keys[i], -1, null);
 				} else {
-					BytesValue value = dataAccount.getDataset().getValue(keys[i], ver);
 					entries[i] = new TypedKVData(keys[i], ver, value);
 				}
 			}
@@ -534,4 +537,61 @@ public class LedgerQueryController implements BlockchainQueryService {
 		return contractAccountSet.getHeaders(pages[0], pages[1]);
 	}
 
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/count")
+	@Override
+	public long getAccountHistoryCount(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address) {
+		LedgerQuery ledger = ledgerService.getLedger(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return 0;
+		}
+		return historyIndex.getCount(Bytes.fromBase58(address));
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}")
+	@Override
+	public AccountHistoryEntry[] getAccountHistory(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address,
+			@RequestParam(name = "fromIndex", required = false, defaultValue = "0") int fromIndex,
+			@RequestParam(name = "count", required = false, defaultValue = "-1") int count) {
+		LedgerQuery ledger = ledgerService.getLedger(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return new AccountHistoryEntry[0];
+		}
+		Bytes accountAddress = Bytes.fromBase58(address);
+		int pages[] = QueryUtil.calFromIndexAndCount(fromIndex, count, (int) historyIndex.getCount(accountAddress));
+		return historyIndex.getEntries(accountAddress, pages[0], pages[1]);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries/count")
+	@Override
+	public long getDataEntryHistoryCount(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address, @RequestParam(name = "key") String key) {
+		LedgerQuery ledger = ledgerService.getLedger(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return 0;
+		}
+		return historyIndex.getCount(Bytes.fromBase58(address), key);
+	}
+
+	@RequestMapping(method = RequestMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries")
+	@Override
+	public AccountHistoryEntry[] getDataEntryHistory(@PathVariable(name = "ledgerHash") HashDigest ledgerHash,
+			@PathVariable(name = "address") String address, @RequestParam(name = "key") String key,
+			@RequestParam(name = "fromIndex", required = false, defaultValue = "0") int fromIndex,
+			@RequestParam(name = "count", required = false, defaultValue = "-1") int count) {
+		LedgerQuery ledger = ledgerService.getLedger(ledgerHash);
+		AccountHistoryIndex historyIndex = ledger.getAccountHistoryIndex();
+		if (historyIndex == null) {
+			return new AccountHistoryEntry[0];
+		}
+		Bytes accountAddress = Bytes.fromBase58(address);
+		int pages[] = QueryUtil.calFromIndexAndCount(fromIndex, count,
+				(int) historyIndex.getCount(accountAddress, key));
+		return historyIndex.getEntries(accountAddress, key, pages[0], pages[1]);
+	}
+
 }
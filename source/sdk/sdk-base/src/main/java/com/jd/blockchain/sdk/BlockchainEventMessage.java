@@ -2,7 +2,9 @@ package com.jd.blockchain.sdk;
 
 import java.util.BitSet;
 
+import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.BlockchainEventType;
+import com.jd.blockchain.utils.Bytes;
 
 public interface BlockchainEventMessage {
 
@@ -28,9 +30,43 @@ public interface BlockchainEventMessage {
 	 */
 	long getLedgerNumber();
 
+	/**
+	 * 账本哈希；
+	 * 
+	 * @return
+	 */
+	HashDigest getLedgerHash();
+
+	/**
+	 * 区块哈希；
+	 * 
+	 * @return
+	 */
+	HashDigest getBlockHash();
+
+	/**
+	 * 本次事件中的成功交易的内容哈希；<br>
+	 * 
+	 * 按交易或者账户过滤时，只包含与之相关的交易；
+	 * 
+	 * @return
+	 */
+	HashDigest[] getTxHashes();
+
+	/**
+	 * 本次事件中的成功交易变更的账户地址；<br>
+	 * 
+	 * 按交易或者账户过滤时，只包含与之相关的账户；
+	 * 
+	 * @return
+	 */
+	Bytes[] getAccountAddresses();
+
 	/**
 	 * 包含本次事件中的所有成功交易的布隆过滤器（BloomFilter）的值；
 	 * 
+	 * 过滤器覆盖整个区块，按 {@link com.jd.blockchain.utils.hash.BloomFilter} 的规则置位；区块没有布隆过滤器时返回 null；
+	 * 
 	 * @return
 	 */
 	BitSet getBloomFilterOfTxs();
@@ -38,6 +74,8 @@ public interface BlockchainEventMessage {
 	/**
 	 * 包含本次事件中的所有变更账户的布隆过滤器（BloomFilter）的值；
 	 * 
+	 * 过滤器覆盖整个区块，按 {@link com.jd.blockchain.utils.hash.BloomFilter} 的规则置位；区块没有布隆过滤器时返回 null；
+	 * 
 	 * @return
 	 */
 	BitSet getBloomFilterOfAccounts();
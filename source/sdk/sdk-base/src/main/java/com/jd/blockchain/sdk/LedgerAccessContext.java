@@ -2,6 +2,7 @@ package com.jd.blockchain.sdk;
 
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.CryptoSetting;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 
@@ -15,5 +16,7 @@ public interface LedgerAccessContext {
 	
 	BlockchainQueryService getQueryService();
 	
+	BlockchainEventQueryService getEventQueryService();
+	
 	
 }
@@ -188,6 +188,8 @@ public class ClientResolveUtil {
 
 		ledgerInitSettingData.setConsensusSettings(consensusSettings);
 
+		ledgerInitSettingData.setBlockIsolation(legerInitObj.getBooleanValue("blockIsolation"));
+
 		JSONArray consensusParticipantsArray = legerInitObj.getJSONArray("consensusParticipants");
 
 		if (!consensusParticipantsArray.isEmpty()) {
@@ -0,0 +1,210 @@
+package com.jd.blockchain.sdk.proxy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventInfo;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.sdk.BlockchainEventHandle;
+import com.jd.blockchain.sdk.BlockchainEventListener;
+import com.jd.blockchain.sdk.BlockchainEventMessage;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.hash.BloomFilter;
+
+/**
+ * 以长轮询的方式拉取区块链事件并通知监听器；<br>
+ *
+ * 每个账本一个后台线程，以返回的区块高度作为游标连续查询；监听器处理完一页事件后才拉取下一页，事件不会在客户端堆积；
+ *
+ * @author huanghaiquan
+ *
+ */
+class BlockchainEventPoller implements BlockchainEventHandle {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlockchainEventPoller.class);
+
+	/**
+	 * 每次长轮询的等待时间（毫秒）；需小于 HTTP 连接的读超时；
+	 */
+	static final long POLL_TIMEOUT = Long.getLong("blockchain-event-poll-timeout", 5000);
+
+	/**
+	 * 每次拉取的事件的最大数量；
+	 */
+	static final int POLL_COUNT = 100;
+
+	/**
+	 * 查询出错后重试的间隔（毫秒）；
+	 */
+	static final long RETRY_INTERVAL = 1000;
+
+	private final int filteredEventTypes;
+
+	private final String filteredTxHash;
+
+	private final String filteredAccountAddress;
+
+	private final BlockchainEventListener listener;
+
+	private final List<Thread> pollingThreads = new ArrayList<>();
+
+	private volatile boolean canceled = false;
+
+	BlockchainEventPoller(int filteredEventTypes, String filteredTxHash, String filteredAccountAddress,
+			BlockchainEventListener listener) {
+		this.filteredEventTypes = filteredEventTypes;
+		this.filteredTxHash = filteredTxHash;
+		this.filteredAccountAddress = filteredAccountAddress;
+		this.listener = listener;
+	}
+
+	/**
+	 * 开始监听指定账本从下一个新区块开始的事件；
+	 *
+	 * @param ledgerHash
+	 * @param eventService
+	 */
+	synchronized void start(HashDigest ledgerHash, BlockchainEventQueryService eventService) {
+		if (canceled) {
+			return;
+		}
+		Thread thread = new Thread(() -> poll(ledgerHash, eventService),
+				"blockchain-event-poller-" + ledgerHash.toBase58());
+		thread.setDaemon(true);
+		pollingThreads.add(thread);
+		thread.start();
+	}
+
+	private void poll(HashDigest ledgerHash, BlockchainEventQueryService eventService) {
+		long nextHeight = -1;
+		while (!canceled) {
+			BlockchainEventPage page;
+			try {
+				page = eventService.getEvents(ledgerHash, nextHeight, POLL_COUNT, POLL_TIMEOUT, filteredEventTypes,
+						filteredTxHash, filteredAccountAddress);
+			} catch (Exception e) {
+				if (canceled) {
+					return;
+				}
+				LOGGER.warn("Error occurred while polling blockchain events of ledger[" + ledgerHash.toBase58()
+						+ "] from height[" + nextHeight + "]! --" + e.getMessage(), e);
+				try {
+					Thread.sleep(RETRY_INTERVAL);
+				} catch (InterruptedException e1) {
+					return;
+				}
+				continue;
+			}
+			BlockchainEventInfo[] events = page.getEvents();
+			if (events != null) {
+				for (BlockchainEventInfo event : events) {
+					if (canceled) {
+						return;
+					}
+					try {
+						listener.onEvent(new EventMessage(ledgerHash, event), this);
+					} catch (Exception e) {
+						LOGGER.error("Error occurred while handling blockchain event of ledger[" + ledgerHash.toBase58()
+								+ "] at height[" + event.getBlockHeight() + "]! --" + e.getMessage(), e);
+					}
+				}
+			}
+			nextHeight = page.getNextHeight();
+		}
+	}
+
+	@Override
+	public int getFilteredEventTypes() {
+		return filteredEventTypes;
+	}
+
+	@Override
+	public String getFilteredTxHash() {
+		return filteredTxHash;
+	}
+
+	@Override
+	public String getFilteredAccountAddress() {
+		return filteredAccountAddress;
+	}
+
+	@Override
+	public BlockchainEventListener getListener() {
+		return listener;
+	}
+
+	@Override
+	public synchronized void cancel() {
+		canceled = true;
+		for (Thread thread : pollingThreads) {
+			if (thread != Thread.currentThread()) {
+				thread.interrupt();
+			}
+		}
+		pollingThreads.clear();
+	}
+
+	private static class EventMessage implements BlockchainEventMessage {
+
+		private HashDigest ledgerHash;
+
+		private BlockchainEventInfo event;
+
+		public EventMessage(HashDigest ledgerHash, BlockchainEventInfo event) {
+			this.ledgerHash = ledgerHash;
+			this.event = event;
+		}
+
+		@Override
+		public int getEventCode() {
+			return event.getEventCode();
+		}
+
+		@Override
+		public long getLedgerNumber() {
+			return event.getBlockHeight();
+		}
+
+		@Override
+		public HashDigest getLedgerHash() {
+			return ledgerHash;
+		}
+
+		@Override
+		public HashDigest getBlockHash() {
+			return event.getBlockHash();
+		}
+
+		@Override
+		public HashDigest[] getTxHashes() {
+			return event.getTxHashes();
+		}
+
+		@Override
+		public Bytes[] getAccountAddresses() {
+			return event.getAccountAddresses();
+		}
+
+		@Override
+		public BitSet getBloomFilterOfTxs() {
+			return toBitSet(event.getTxBloomFilter());
+		}
+
+		@Override
+		public BitSet getBloomFilterOfAccounts() {
+			return toBitSet(event.getAccountBloomFilter());
+		}
+
+		private static BitSet toBitSet(byte[] filterBytes) {
+			return filterBytes == null ? null : BloomFilter.fromBytes(filterBytes).toBitSet();
+		}
+
+	}
+
+}
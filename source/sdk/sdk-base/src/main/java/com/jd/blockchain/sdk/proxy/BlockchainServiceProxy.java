@@ -1,6 +1,7 @@
 package com.jd.blockchain.sdk.proxy;
 
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.AccountHistoryEntry;
 import com.jd.blockchain.ledger.BlockchainIdentity;
 import com.jd.blockchain.ledger.ContractInfo;
 import com.jd.blockchain.ledger.TypedKVEntry;
@@ -18,6 +19,7 @@ import com.jd.blockchain.sdk.BlockchainEventHandle;
 import com.jd.blockchain.sdk.BlockchainEventListener;
 import com.jd.blockchain.sdk.BlockchainService;
 import com.jd.blockchain.sdk.converters.ClientResolveUtil;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 import com.jd.blockchain.transaction.TxTemplate;
@@ -29,6 +31,16 @@ public abstract class BlockchainServiceProxy implements BlockchainService {
 
 	protected abstract BlockchainQueryService getQueryService(HashDigest ledgerHash);
 
+	/**
+	 * 返回指定账本的事件查询服务；如果不支持事件监听，则返回 null；
+	 * 
+	 * @param ledgerHash
+	 * @return
+	 */
+	protected BlockchainEventQueryService getEventQueryService(HashDigest ledgerHash) {
+		return null;
+	}
+
 	@Override
 	public TransactionTemplate newTransaction(HashDigest ledgerHash) {
 		return new TxTemplate(ledgerHash, getTransactionService(ledgerHash));
@@ -37,7 +49,20 @@ public abstract class BlockchainServiceProxy implements BlockchainService {
 	@Override
 	public BlockchainEventHandle addBlockchainEventListener(int filteredEventTypes, String filteredTxHash,
 			String filteredAccountAddress, BlockchainEventListener listener) {
-		throw new IllegalStateException("Not implemented!");
+		HashDigest[] ledgerHashs = getLedgerHashs();
+		BlockchainEventQueryService[] eventServices = new BlockchainEventQueryService[ledgerHashs.length];
+		for (int i = 0; i < ledgerHashs.length; i++) {
+			eventServices[i] = getEventQueryService(ledgerHashs[i]);
+			if (eventServices[i] == null) {
+				throw new IllegalStateException("Not implemented!");
+			}
+		}
+		BlockchainEventPoller poller = new BlockchainEventPoller(filteredEventTypes, filteredTxHash,
+				filteredAccountAddress, listener);
+		for (int i = 0; i < ledgerHashs.length; i++) {
+			poller.start(ledgerHashs[i], eventServices[i]);
+		}
+		return poller;
 	}
 
 	@Override
@@ -202,4 +227,25 @@ public abstract class BlockchainServiceProxy implements BlockchainService {
 	public BlockchainIdentity[] getContractAccounts(HashDigest ledgerHash, int fromIndex, int count) {
 		return getQueryService(ledgerHash).getContractAccounts(ledgerHash, fromIndex, count);
 	}
+
+	@Override
+	public long getAccountHistoryCount(HashDigest ledgerHash, String address) {
+		return getQueryService(ledgerHash).getAccountHistoryCount(ledgerHash, address);
+	}
+
+	@Override
+	public AccountHistoryEntry[] getAccountHistory(HashDigest ledgerHash, String address, int fromIndex, int count) {
+		return getQueryService(ledgerHash).getAccountHistory(ledgerHash, address, fromIndex, count);
+	}
+
+	@Override
+	public long getDataEntryHistoryCount(HashDigest ledgerHash, String address, String key) {
+		return getQueryService(ledgerHash).getDataEntryHistoryCount(ledgerHash, address, key);
+	}
+
+	@Override
+	public AccountHistoryEntry[] getDataEntryHistory(HashDigest ledgerHash, String address, String key, int fromIndex,
+			int count) {
+		return getQueryService(ledgerHash).getDataEntryHistory(ledgerHash, address, key, fromIndex, count);
+	}
 }
@@ -0,0 +1,34 @@
+package com.jd.blockchain.sdk.proxy;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventPage;
+import com.jd.blockchain.sdk.converters.HashDigestToStringConverter;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
+import com.jd.blockchain.utils.http.HttpAction;
+import com.jd.blockchain.utils.http.HttpMethod;
+import com.jd.blockchain.utils.http.HttpService;
+import com.jd.blockchain.utils.http.PathParam;
+import com.jd.blockchain.utils.http.RequestParam;
+import com.jd.blockchain.utils.web.client.WebResponseConverterFactory;
+
+/**
+ * 作为内部使用的适配接口，用于声明 HTTP 协议的区块链事件查询请求；
+ * 
+ * @author huanghaiquan
+ *
+ */
+@HttpService(responseConverterFactory = WebResponseConverterFactory.class)
+public interface HttpBlockchainEventService extends BlockchainEventQueryService {
+
+	@HttpAction(method = HttpMethod.GET, path = "ledgers/{ledgerHash}/events")
+	@Override
+	BlockchainEventPage getEvents(
+			@PathParam(name = "ledgerHash", converter = HashDigestToStringConverter.class) HashDigest ledgerHash,
+			@RequestParam(name = "fromHeight") long fromHeight,
+			@RequestParam(name = "maxCount") int maxCount,
+			@RequestParam(name = "timeout") long timeout,
+			@RequestParam(name = "eventTypes") int eventTypes,
+			@RequestParam(name = "txHash", required = false) String txHash,
+			@RequestParam(name = "accountAddress", required = false) String accountAddress);
+
+}
@@ -599,4 +599,60 @@ public interface HttpBlockchainQueryService extends BlockchainExtendQueryService
 									@RequestParam(name="fromIndex", required = false) int fromIndex,
 									@RequestParam(name="count", required = false) int count);
 
+	/**
+	 * 返回账户被成功交易变更的记录的总数；
+	 * @param ledgerHash
+	 * @param address
+	 * @return
+	 */
+	@HttpAction(method = HttpMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/count")
+	@Override
+	long getAccountHistoryCount(@PathParam(name="ledgerHash", converter=HashDigestToStringConverter.class) HashDigest ledgerHash,
+								@PathParam(name="address") String address);
+
+	/**
+	 * 按时间顺序返回账户被成功交易变更的记录；
+	 * @param ledgerHash
+	 * @param address
+	 * @param fromIndex
+	 * @param count
+	 * @return
+	 */
+	@HttpAction(method = HttpMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}")
+	@Override
+	AccountHistoryEntry[] getAccountHistory(@PathParam(name="ledgerHash", converter=HashDigestToStringConverter.class) HashDigest ledgerHash,
+											@PathParam(name="address") String address,
+											@RequestParam(name="fromIndex", required = false) int fromIndex,
+											@RequestParam(name="count", required = false) int count);
+
+	/**
+	 * 返回数据账户中指定的键被写入的记录的总数；
+	 * @param ledgerHash
+	 * @param address
+	 * @param key
+	 * @return
+	 */
+	@HttpAction(method = HttpMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries/count")
+	@Override
+	long getDataEntryHistoryCount(@PathParam(name="ledgerHash", converter=HashDigestToStringConverter.class) HashDigest ledgerHash,
+								  @PathParam(name="address") String address,
+								  @RequestParam(name="key") String key);
+
+	/**
+	 * 按时间顺序返回数据账户中指定的键被写入的记录；
+	 * @param ledgerHash
+	 * @param address
+	 * @param key
+	 * @param fromIndex
+	 * @param count
+	 * @return
+	 */
+	@HttpAction(method = HttpMethod.GET, path = "ledgers/{ledgerHash}/history/address/{address}/entries")
+	@Override
+	AccountHistoryEntry[] getDataEntryHistory(@PathParam(name="ledgerHash", converter=HashDigestToStringConverter.class) HashDigest ledgerHash,
+											  @PathParam(name="address") String address,
+											  @RequestParam(name="key") String key,
+											  @RequestParam(name="fromIndex", required = false) int fromIndex,
+											  @RequestParam(name="count", required = false) int count);
+
 }
@@ -8,9 +8,11 @@ import com.jd.blockchain.crypto.AsymmetricKeypair;
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.ledger.CryptoSetting;
 import com.jd.blockchain.sdk.*;
+import com.jd.blockchain.sdk.proxy.HttpBlockchainEventService;
 import com.jd.blockchain.sdk.proxy.HttpBlockchainQueryService;
 import com.jd.blockchain.setting.GatewayIncomingSetting;
 import com.jd.blockchain.setting.LedgerIncomingSetting;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 import com.jd.blockchain.utils.http.agent.HttpServiceAgent;
@@ -79,6 +81,19 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 		return peerServiceProxy;
 	}
 
+	/**
+	 * 返回事件查询服务；
+	 * 
+	 * <br>
+	 * 
+	 * 返回的事件查询服务聚合了该节点绑定的多个账本，并根据请求中指定的目标账本进行转发；
+	 * 
+	 * @return
+	 */
+	public BlockchainEventQueryService getEventQueryService() {
+		return peerServiceProxy;
+	}
+
 	/**
 	 * 连接到指定的共识节点；
 	 * 
@@ -121,6 +136,8 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 			ServiceConnection httpConnection = httpConnectionManager.create(new ServiceEndpoint(peerAddr));
 			peerManageService = new PeerManageService(httpConnection,
 					HttpServiceAgent.createService(HttpBlockchainQueryService.class,
+							httpConnection, null),
+					HttpServiceAgent.createService(HttpBlockchainEventService.class,
 							httpConnection, null));
 			peerManageServices.put(peerAddr, peerManageService);
 		}
@@ -157,6 +174,7 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 				accCtx.ledgerHash = ledgerSetting.getLedgerHash();
 				accCtx.cryptoSetting = ledgerSetting.getCryptoSetting();
 				accCtx.queryService = queryService;
+				accCtx.eventQueryService = peerManageService.getEventQueryService();
 				accCtx.txProcService = autoSigningTxProcService;
 				accCtx.consensusClient = consensusClient;
 
@@ -287,6 +305,8 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 
 		private BlockchainQueryService queryService;
 
+		private BlockchainEventQueryService eventQueryService;
+
 		private ConsensusClient consensusClient;
 
 		@Override
@@ -309,19 +329,28 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 			return queryService;
 		}
 
+		@Override
+		public BlockchainEventQueryService getEventQueryService() {
+			return eventQueryService;
+		}
+
 	}
 
 	private static final class PeerManageService {
 
-		public PeerManageService(ServiceConnection httpConnection, BlockchainQueryService queryService) {
+		public PeerManageService(ServiceConnection httpConnection, BlockchainQueryService queryService,
+				BlockchainEventQueryService eventQueryService) {
 			this.httpConnection = httpConnection;
 			this.queryService = queryService;
+			this.eventQueryService = eventQueryService;
 		}
 
 		ServiceConnection httpConnection;
 
 		BlockchainQueryService queryService;
 
+		BlockchainEventQueryService eventQueryService;
+
 		public ServiceConnection getHttpConnection() {
 			return httpConnection;
 		}
@@ -337,6 +366,10 @@ public class PeerBlockchainServiceFactory implements BlockchainServiceFactory, C
 		public void setQueryService(BlockchainQueryService queryService) {
 			this.queryService = queryService;
 		}
+
+		public BlockchainEventQueryService getEventQueryService() {
+			return eventQueryService;
+		}
 	}
 
 }
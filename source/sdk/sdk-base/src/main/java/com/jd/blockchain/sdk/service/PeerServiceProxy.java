@@ -1,11 +1,13 @@
 package com.jd.blockchain.sdk.service;
 
 import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.BlockchainEventPage;
 import com.jd.blockchain.ledger.TransactionRequest;
 import com.jd.blockchain.ledger.TransactionResponse;
 import com.jd.blockchain.sdk.BlockchainException;
 import com.jd.blockchain.sdk.LedgerAccessContext;
 import com.jd.blockchain.sdk.proxy.BlockchainServiceProxy;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 
@@ -21,7 +23,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @author huanghaiquan
  *
  */
-public class PeerServiceProxy extends BlockchainServiceProxy implements TransactionService {
+public class PeerServiceProxy extends BlockchainServiceProxy implements TransactionService, BlockchainEventQueryService {
 
 	private final Lock accessLock = new ReentrantLock();
 
@@ -67,6 +69,11 @@ public class PeerServiceProxy extends BlockchainServiceProxy implements Transact
 		return getLedgerAccessContext(ledgerHash).getQueryService();
 	}
 
+	@Override
+	protected BlockchainEventQueryService getEventQueryService(HashDigest ledgerHash) {
+		return getLedgerAccessContext(ledgerHash).getEventQueryService();
+	}
+
 	private LedgerAccessContext getLedgerAccessContext(HashDigest ledgerHash) {
 		LedgerAccessContext lac = ledgerAccessContexts.get(ledgerHash);
 		if (lac == null) {
@@ -88,4 +95,14 @@ public class PeerServiceProxy extends BlockchainServiceProxy implements Transact
 		TransactionService targetTxService = getTransactionService(txRequest.getTransactionContent().getLedgerHash());
 		return targetTxService.process(txRequest);
 	}
+
+	/**
+	 * 处理网关的事件查询转发；
+	 */
+	@Override
+	public BlockchainEventPage getEvents(HashDigest ledgerHash, long fromHeight, int maxCount, long timeout,
+			int eventTypes, String txHash, String accountAddress) {
+		return getEventQueryService(ledgerHash).getEvents(ledgerHash, fromHeight, maxCount, timeout, eventTypes,
+				txHash, accountAddress);
+	}
 }
@@ -2,6 +2,7 @@ package com.jd.blockchain.sdk.client;
 
 import com.jd.blockchain.crypto.HashDigest;
 import com.jd.blockchain.sdk.proxy.BlockchainServiceProxy;
+import com.jd.blockchain.transaction.BlockchainEventQueryService;
 import com.jd.blockchain.transaction.BlockchainQueryService;
 import com.jd.blockchain.transaction.TransactionService;
 
@@ -11,9 +12,17 @@ public class GatewayBlockchainServiceProxy extends BlockchainServiceProxy {
 
 	private TransactionService txService;
 
+	private BlockchainEventQueryService eventQueryService;
+
 	public GatewayBlockchainServiceProxy(TransactionService txService, BlockchainQueryService queryService) {
+		this(txService, queryService, null);
+	}
+
+	public GatewayBlockchainServiceProxy(TransactionService txService, BlockchainQueryService queryService,
+			BlockchainEventQueryService eventQueryService) {
 		this.txService = txService;
 		this.queryService = queryService;
+		this.eventQueryService = eventQueryService;
 	}
 
 	@Override
@@ -30,4 +39,9 @@ public class GatewayBlockchainServiceProxy extends BlockchainServiceProxy {
 	protected BlockchainQueryService getQueryService(HashDigest ledgerHash) {
 		return queryService;
 	}
+
+	@Override
+	protected BlockchainEventQueryService getEventQueryService(HashDigest ledgerHash) {
+		return eventQueryService;
+	}
 }
@@ -15,6 +15,7 @@ import com.jd.blockchain.crypto.SignatureFunction;
 import com.jd.blockchain.ledger.*;
 import com.jd.blockchain.sdk.BlockchainService;
 import com.jd.blockchain.sdk.BlockchainServiceFactory;
+import com.jd.blockchain.sdk.proxy.HttpBlockchainEventService;
 import com.jd.blockchain.sdk.proxy.HttpBlockchainQueryService;
 import com.jd.blockchain.transaction.*;
 import com.jd.blockchain.utils.http.agent.HttpServiceAgent;
@@ -78,7 +79,8 @@ public class GatewayServiceFactory implements BlockchainServiceFactory, Closeabl
 
 		BlockchainQueryService queryService = createQueryService(gatewayEndpoint);
 		TransactionService txProcSrv = createConsensusService(gatewayEndpoint);
-		this.blockchainService = new GatewayBlockchainServiceProxy(txProcSrv, queryService);
+		BlockchainEventQueryService eventQueryService = createEventQueryService(gatewayEndpoint);
+		this.blockchainService = new GatewayBlockchainServiceProxy(txProcSrv, queryService, eventQueryService);
 	}
 	
 	@Override
@@ -152,6 +154,11 @@ public class GatewayServiceFactory implements BlockchainServiceFactory, Closeabl
 		return HttpServiceAgent.createService(HttpBlockchainQueryService.class, conn, null);
 	}
 
+	private BlockchainEventQueryService createEventQueryService(ServiceEndpoint gatewayEndpoint) {
+		ServiceConnection conn = httpConnectionManager.create(gatewayEndpoint);
+		return HttpServiceAgent.createService(HttpBlockchainEventService.class, conn, null);
+	}
+
 	@Override
 	public void close() {
 		httpConnectionManager.close();
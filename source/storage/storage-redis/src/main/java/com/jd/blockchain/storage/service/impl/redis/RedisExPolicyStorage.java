@@ -25,6 +25,20 @@ public class RedisExPolicyStorage implements ExPolicyKVStorage {
 		}
 	}
 	
+	@Override
+	public byte[][] multiGet(Bytes[] keys) {
+		if (keys.length == 0) {
+			return new byte[0][];
+		}
+		byte[][] keyBytes = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			keyBytes[i] = keys[i].toBytes();
+		}
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.mget(keyBytes).toArray(new byte[keys.length][]);
+		}
+	}
+	
 	@Override
 	public boolean exist(Bytes key) {
 		try (Jedis jedis = jedisPool.getResource()) {
@@ -6,6 +6,8 @@ import com.jd.blockchain.utils.DataEntry;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.util.SafeEncoder;
 
 /**
@@ -73,6 +75,58 @@ public class RedisVerioningStorage implements VersioningKVStorage {
 		}
 	}
 
+	/**
+	 * 批量读取；通过管道发送命令，需要查询最新版本时先以一次往返查询全部的版本，再以一次往返读取全部的值；
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public byte[][] multiGet(Bytes[] keys, long[] versions) {
+		if (keys.length != versions.length) {
+			throw new IllegalArgumentException("The count of keys and versions doesn't match!");
+		}
+		byte[][] keyBytes = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			keyBytes[i] = keys[i].toBytes();
+		}
+		try (Jedis jedis = jedisPool.getResource()) {
+			long[] vers = versions.clone();
+			Response<Long>[] lens = new Response[keys.length];
+			Pipeline pipeline = null;
+			for (int i = 0; i < keys.length; i++) {
+				if (vers[i] < 0) {
+					if (pipeline == null) {
+						pipeline = jedis.pipelined();
+					}
+					lens[i] = pipeline.hlen(keyBytes[i]);
+				}
+			}
+			if (pipeline != null) {
+				pipeline.sync();
+				for (int i = 0; i < keys.length; i++) {
+					if (lens[i] != null) {
+						vers[i] = lens[i].get() - 1;
+					}
+				}
+			}
+
+			Response<byte[]>[] responses = new Response[keys.length];
+			pipeline = jedis.pipelined();
+			for (int i = 0; i < keys.length; i++) {
+				if (vers[i] >= 0) {
+					responses[i] = pipeline.hget(keyBytes[i], encodeVersionKey(vers[i]));
+				}
+			}
+			pipeline.sync();
+			byte[][] values = new byte[keys.length][];
+			for (int i = 0; i < keys.length; i++) {
+				if (responses[i] != null) {
+					values[i] = responses[i].get();
+				}
+			}
+			return values;
+		}
+	}
+
 	@Override
 	public long set(Bytes key, byte[] value, long version) {
 		try (Jedis jedis = jedisPool.getResource()) {
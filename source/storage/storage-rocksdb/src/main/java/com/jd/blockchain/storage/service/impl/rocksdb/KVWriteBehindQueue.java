@@ -0,0 +1,538 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+/**
+ * 异步的后写队列；<br>
+ *
+ * 写入先进入队列并立即返回，由后台线程把待写入的数据按照数量或者时间合并为 {@link WriteBatch} 批量写入数据库；
+ *
+ * <p>
+ * 1、写入之后立即可读：尚未写入数据库的数据可以通过 {@link #get(ColumnFamilyHandle, byte[])} 读取，
+ * 也可以通过 {@link #floorKey(ColumnFamilyHandle, byte[], int)} 按照数据库的键顺序定位；<br>
+ * 2、背压：待写入的数据超出内存上限时，写入者被阻塞直到后台线程腾出空间；<br>
+ * 3、屏障：{@link #flush()} 等待调用之前进入队列的全部数据写入数据库；<br>
+ * 4、后台写入出错后，队列不再接受写入，之后的写入和屏障都抛出异常；
+ *
+ * <p>
+ * 通过数据库连接串的查询参数启用，例如：rocksdb:///export/ledger/db?writeBehind=true&amp;writeBehind.memory=64 ；<br>
+ * 参数包括：writeBehind.memory（内存上限，单位为 MB）、writeBehind.batch（每批的最大条数）、writeBehind.delay（凑批的最长等待时间，单位为毫秒）；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class KVWriteBehindQueue implements Closeable {
+
+	public static final String PARAM = "writeBehind";
+
+	private static final String PARAM_PREFIX = PARAM + ".";
+
+	private static final long DEFAULT_MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+	private static final int DEFAULT_MAX_BATCH_COUNT = 1024;
+
+	private static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+	/**
+	 * 条目的固定开销的估计值；
+	 */
+	private static final int ENTRY_OVERHEAD = 64;
+
+	/**
+	 * 与 RocksDB 默认的比较器一致的无符号字节序；
+	 */
+	private static final Comparator<byte[]> KEY_COMPARATOR = new Comparator<byte[]>() {
+		@Override
+		public int compare(byte[] k1, byte[] k2) {
+			int len = Math.min(k1.length, k2.length);
+			for (int i = 0; i < len; i++) {
+				int c = (k1[i] & 0xFF) - (k2[i] & 0xFF);
+				if (c != 0) {
+					return c;
+				}
+			}
+			return k1.length - k2.length;
+		}
+	};
+
+	private final RocksDB db;
+
+	private final WriteOptions writeOptions = new WriteOptions();
+
+	private final long maxPendingBytes;
+
+	private final int maxBatchCount;
+
+	private final long maxDelayNanos;
+
+	/**
+	 * 默认列族中尚未写入数据库的数据；按照键的顺序排列；
+	 */
+	private final ConcurrentSkipListMap<byte[], byte[]> defaultPendings = new ConcurrentSkipListMap<>(
+			KEY_COMPARATOR);
+
+	/**
+	 * 其它列族中尚未写入数据库的数据；
+	 */
+	private final Map<ColumnFamilyHandle, ConcurrentSkipListMap<byte[], byte[]>> familyPendings = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = lock.newCondition();
+
+	private final Condition notFull = lock.newCondition();
+
+	private final Condition written = lock.newCondition();
+
+	private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+
+	private long pendingBytes;
+
+	private long enqueuedSeq;
+
+	private long writtenSeq;
+
+	private long barrierSeq;
+
+	private volatile boolean running = true;
+
+	private volatile Throwable failure;
+
+	private final Thread writer;
+
+	// 统计；
+	private volatile long batchCount;
+
+	private volatile long writtenCount;
+
+	private volatile long totalBatchNanos;
+
+	private volatile long maxBatchNanos;
+
+	private volatile long lastBatchNanos;
+
+	/**
+	 * @param db
+	 * @param maxPendingBytes 待写入数据的内存上限，单位为字节；
+	 * @param maxBatchCount   每批写入的最大条数；
+	 * @param maxDelayMillis  凑批的最长等待时间，单位为毫秒；
+	 */
+	public KVWriteBehindQueue(RocksDB db, long maxPendingBytes, int maxBatchCount, long maxDelayMillis) {
+		this.db = db;
+		this.maxPendingBytes = maxPendingBytes;
+		this.maxBatchCount = Math.max(1, maxBatchCount);
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				doWritingTask();
+			}
+		}, "KVWriteBehindQueue-Thread");
+		writer.setDaemon(true);
+		writer.setContextClassLoader(Thread.currentThread().getContextClassLoader());
+		writer.start();
+	}
+
+	/**
+	 * 按照连接串的查询参数解析后写队列的配置；<br>
+	 *
+	 * 后写队列的参数将从参数表中移除；
+	 *
+	 * @param params
+	 * @return 未启用时返回 null；
+	 */
+	static Setting resolve(Map<String, String> params) {
+		boolean enabled = Boolean.parseBoolean(params.remove(PARAM));
+		Setting setting = new Setting();
+		for (String name : new ArrayList<>(params.keySet())) {
+			if (!name.startsWith(PARAM_PREFIX)) {
+				continue;
+			}
+			String value = params.remove(name);
+			try {
+				switch (name.substring(PARAM_PREFIX.length())) {
+				case "memory":
+					setting.maxPendingBytes = Long.parseLong(value) * 1024 * 1024;
+					break;
+				case "batch":
+					setting.maxBatchCount = Integer.parseInt(value);
+					break;
+				case "delay":
+					setting.maxDelayMillis = Long.parseLong(value);
+					break;
+				default:
+					throw new IllegalArgumentException(String.format("Unknown rocksdb parameter \"%s\"!", name));
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(
+						String.format("Illegal value of rocksdb parameter \"%s\"! --[value=%s]", name, value));
+			}
+		}
+		return enabled ? setting : null;
+	}
+
+	/**
+	 * 返回尚未写入数据库的最新值；
+	 *
+	 * @param family 列族；为 null 表示默认列族；
+	 * @param key
+	 * @return 如果没有待写入的值，则返回 null，调用者应从数据库读取；
+	 */
+	public byte[] get(ColumnFamilyHandle family, byte[] key) {
+		ConcurrentSkipListMap<byte[], byte[]> pendings = pendingsOf(family);
+		if (pendings == null || pendings.isEmpty()) {
+			return null;
+		}
+		return pendings.get(key);
+	}
+
+	/**
+	 * 返回尚未写入数据库的、不大于指定键并且与指定键有相同前缀的最大的键；<br>
+	 *
+	 * 与数据库的反向定位（seekForPrev）语义一致，用于在不等待写入的情况下合并队列中的数据；<br>
+	 *
+	 * 数据先写入数据库再从队列移除，因此调用者应先查询队列再查询数据库，才不会遗漏正在写入的数据；
+	 *
+	 * @param family     列族；为 null 表示默认列族；
+	 * @param key
+	 * @param prefixSize 前缀的长度；
+	 * @return 如果没有符合条件的键，则返回 null；
+	 */
+	public byte[] floorKey(ColumnFamilyHandle family, byte[] key, int prefixSize) {
+		ConcurrentSkipListMap<byte[], byte[]> pendings = pendingsOf(family);
+		if (pendings == null || pendings.isEmpty()) {
+			return null;
+		}
+		byte[] foundKey = pendings.floorKey(key);
+		if (foundKey == null || foundKey.length < prefixSize) {
+			return null;
+		}
+		for (int i = 0; i < prefixSize; i++) {
+			if (foundKey[i] != key[i]) {
+				return null;
+			}
+		}
+		return foundKey;
+	}
+
+	private ConcurrentSkipListMap<byte[], byte[]> pendingsOf(ColumnFamilyHandle family) {
+		return family == null ? defaultPendings : familyPendings.get(family);
+	}
+
+	/**
+	 * 写入队列；待写入的数据超出内存上限时阻塞；
+	 *
+	 * @param family 列族；为 null 表示默认列族；
+	 * @param key
+	 * @param value
+	 */
+	public void put(ColumnFamilyHandle family, byte[] key, byte[] value) {
+		Entry entry = new Entry(family, key, value);
+		lock.lock();
+		try {
+			checkState();
+			// 队列为空时总是允许写入，避免超大的条目永远无法写入；
+			while (pendingBytes > 0 && pendingBytes + entry.size > maxPendingBytes) {
+				notFull.await();
+				checkState();
+			}
+			ConcurrentSkipListMap<byte[], byte[]> pendings = pendingsOf(family);
+			if (pendings == null) {
+				pendings = new ConcurrentSkipListMap<>(KEY_COMPARATOR);
+				familyPendings.put(family, pendings);
+			}
+			pendings.put(key, value);
+			queue.add(entry);
+			pendingBytes += entry.size;
+			entry.seq = ++enqueuedSeq;
+			if (queue.size() == 1 || queue.size() >= maxBatchCount) {
+				notEmpty.signal();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the write-behind queue!", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 屏障：等待调用之前进入队列的全部数据写入数据库；
+	 */
+	public void flush() {
+		lock.lock();
+		try {
+			long seq = enqueuedSeq;
+			if (writtenSeq >= seq) {
+				checkFailure();
+				return;
+			}
+			if (barrierSeq < seq) {
+				barrierSeq = seq;
+				notEmpty.signal();
+			}
+			while (writtenSeq < seq) {
+				checkFailure();
+				if (!writer.isAlive()) {
+					throw new IllegalStateException("The write-behind queue has been closed!");
+				}
+				written.await(100, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while flushing the write-behind queue!", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void checkState() {
+		checkFailure();
+		if (!running) {
+			throw new IllegalStateException("The write-behind queue has been closed!");
+		}
+	}
+
+	private void checkFailure() {
+		Throwable error = failure;
+		if (error != null) {
+			throw new IllegalStateException("Fail on writing behind to rocks db! --" + error.getMessage(), error);
+		}
+	}
+
+	private void doWritingTask() {
+		List<Entry> entries = new ArrayList<>(maxBatchCount);
+		while (true) {
+			entries.clear();
+			lock.lock();
+			try {
+				while (queue.isEmpty() && running) {
+					notEmpty.await();
+				}
+				if (queue.isEmpty()) {
+					// 已关闭并且全部写入；
+					return;
+				}
+				// 凑批：直到数量达到上限、超过等待时间、有屏障在等待或者关闭；
+				long remaining = maxDelayNanos;
+				while (queue.size() < maxBatchCount && barrierSeq <= writtenSeq && running && remaining > 0) {
+					remaining = notEmpty.awaitNanos(remaining);
+				}
+				while (entries.size() < maxBatchCount && !queue.isEmpty()) {
+					entries.add(queue.poll());
+				}
+			} catch (InterruptedException e) {
+				// 关闭时中断等待，继续写完剩余的数据；
+				continue;
+			} finally {
+				lock.unlock();
+			}
+
+			try {
+				writeBatch(entries);
+			} catch (Throwable e) {
+				lock.lock();
+				try {
+					failure = e;
+					running = false;
+					notFull.signalAll();
+					written.signalAll();
+				} finally {
+					lock.unlock();
+				}
+				return;
+			}
+		}
+	}
+
+	private void writeBatch(List<Entry> entries) throws RocksDBException {
+		long startTs = System.nanoTime();
+		long size = 0;
+		try (WriteBatch batch = new WriteBatch()) {
+			for (Entry entry : entries) {
+				if (entry.family == null) {
+					batch.put(entry.key, entry.value);
+				} else {
+					batch.put(entry.family, entry.key, entry.value);
+				}
+				size += entry.size;
+			}
+			db.write(writeOptions, batch);
+		}
+		for (Entry entry : entries) {
+			// 只移除未被更新的值；
+			pendingsOf(entry.family).remove(entry.key, entry.value);
+		}
+		long elapsed = System.nanoTime() - startTs;
+
+		lock.lock();
+		try {
+			pendingBytes -= size;
+			writtenSeq = entries.get(entries.size() - 1).seq;
+			batchCount++;
+			writtenCount += entries.size();
+			lastBatchNanos = elapsed;
+			totalBatchNanos += elapsed;
+			if (elapsed > maxBatchNanos) {
+				maxBatchNanos = elapsed;
+			}
+			notFull.signalAll();
+			written.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 队列中尚未写入的条数；
+	 *
+	 * @return
+	 */
+	public int getQueueDepth() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 尚未写入数据库的数据占用的字节数的估计值；
+	 *
+	 * @return
+	 */
+	public long getPendingBytes() {
+		lock.lock();
+		try {
+			return pendingBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 已写入的批次数；
+	 *
+	 * @return
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * 已写入的条数；
+	 *
+	 * @return
+	 */
+	public long getWrittenCount() {
+		return writtenCount;
+	}
+
+	/**
+	 * 最近一个批次的写入耗时，单位为纳秒；
+	 *
+	 * @return
+	 */
+	public long getLastBatchLatency() {
+		return lastBatchNanos;
+	}
+
+	/**
+	 * 批次的最大写入耗时，单位为纳秒；
+	 *
+	 * @return
+	 */
+	public long getMaxBatchLatency() {
+		return maxBatchNanos;
+	}
+
+	/**
+	 * 批次的平均写入耗时，单位为纳秒；
+	 *
+	 * @return
+	 */
+	public long getAverageBatchLatency() {
+		long count = batchCount;
+		return count == 0 ? 0 : totalBatchNanos / count;
+	}
+
+	/**
+	 * 关闭；等待全部数据写入数据库之后返回；
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			if (!running) {
+				return;
+			}
+			running = false;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writeOptions.close();
+	}
+
+	/**
+	 * 后写队列的配置；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	static class Setting {
+
+		private long maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+
+		private int maxBatchCount = DEFAULT_MAX_BATCH_COUNT;
+
+		private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+		KVWriteBehindQueue create(RocksDB db) {
+			return new KVWriteBehindQueue(db, maxPendingBytes, maxBatchCount, maxDelayMillis);
+		}
+	}
+
+	private static class Entry {
+
+		private final ColumnFamilyHandle family;
+
+		private final byte[] key;
+
+		private final byte[] value;
+
+		private final int size;
+
+		private long seq;
+
+		private Entry(ColumnFamilyHandle family, byte[] key, byte[] value) {
+			this.family = family;
+			this.key = key;
+			this.value = value;
+			this.size = key.length + value.length + ENTRY_OVERHEAD;
+		}
+	}
+}
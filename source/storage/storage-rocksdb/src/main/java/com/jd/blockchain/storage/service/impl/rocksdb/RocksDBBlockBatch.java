@@ -0,0 +1,188 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatchWithIndex;
+import org.rocksdb.WriteOptions;
+
+/**
+ * 区块的批量写入；<br>
+ *
+ * 同一个数据库的各个存储共享同一个实例；在区块批量写入期间，任何线程的写入都被收集到同一个批次中，最终以一次原子的写入提交；<br>
+ *
+ * 批次带有索引，批量写入期间的读取会合并批次中尚未提交的数据，保证写入之后立即可读；<br>
+ *
+ * 开始和提交可以嵌套，只有最外层的提交才会写入数据库；
+ *
+ * @author huanghaiquan
+ *
+ */
+class RocksDBBlockBatch {
+
+	private final RocksDB db;
+
+	private final WriteOptions writeOptions;
+
+	private final KVWriteBehindQueue writeBehind;
+
+	private volatile WriteBatchWithIndex batch;
+
+	private int depth;
+
+	/**
+	 * @param db
+	 * @param walPolicy   预写日志策略；
+	 * @param writeBehind 后写队列；为 null 表示未启用；
+	 */
+	RocksDBBlockBatch(RocksDB db, RocksDBWalPolicy walPolicy, KVWriteBehindQueue writeBehind) {
+		this.db = db;
+		this.writeOptions = walPolicy.createWriteOptions();
+		this.writeBehind = writeBehind;
+	}
+
+	synchronized void begin() {
+		if (depth == 0) {
+			if (writeBehind != null) {
+				// 屏障：区块之前的写入先于区块写入数据库；区块批量写入期间的写入不再进入后写队列；
+				writeBehind.flush();
+			}
+			batch = new WriteBatchWithIndex(true);
+		}
+		depth++;
+	}
+
+	/**
+	 * 提交；只有最外层的提交才会把批次原子地写入数据库；
+	 */
+	synchronized void commit() {
+		if (depth == 0) {
+			return;
+		}
+		depth--;
+		if (depth > 0) {
+			return;
+		}
+		WriteBatchWithIndex batch = this.batch;
+		this.batch = null;
+		try {
+			if (batch.count() > 0) {
+				db.write(writeOptions, batch);
+			}
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} finally {
+			batch.close();
+		}
+	}
+
+	/**
+	 * 丢弃批次中尚未提交的全部写入；
+	 */
+	synchronized void cancel() {
+		depth = 0;
+		WriteBatchWithIndex batch = this.batch;
+		this.batch = null;
+		if (batch != null) {
+			batch.close();
+		}
+	}
+
+	boolean isActive() {
+		return batch != null;
+	}
+
+	/**
+	 * 写入批次；
+	 *
+	 * @param family 列族；为 null 表示默认列族；
+	 * @param key
+	 * @param value
+	 * @return 如果当前没有进行中的批次，则不写入，返回 false；
+	 */
+	boolean put(ColumnFamilyHandle family, byte[] key, byte[] value) {
+		if (batch == null) {
+			return false;
+		}
+		synchronized (this) {
+			WriteBatchWithIndex batch = this.batch;
+			if (batch == null) {
+				return false;
+			}
+			try {
+				if (family == null) {
+					batch.put(key, value);
+				} else {
+					batch.put(family, key, value);
+				}
+			} catch (RocksDBException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 读取数据；批量写入期间合并批次中尚未提交的数据；
+	 *
+	 * @param family      列族；为 null 表示默认列族；
+	 * @param readOptions
+	 * @param key
+	 * @return
+	 */
+	byte[] get(ColumnFamilyHandle family, ReadOptions readOptions, byte[] key) {
+		try {
+			if (batch != null) {
+				synchronized (this) {
+					WriteBatchWithIndex batch = this.batch;
+					if (batch != null) {
+						return family == null ? batch.getFromBatchAndDB(db, readOptions, key)
+								: batch.getFromBatchAndDB(db, family, readOptions, key);
+					}
+				}
+			}
+			return family == null ? db.get(readOptions, key) : db.get(family, readOptions, key);
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 反向定位不大于指定键的最后一个键；批量写入期间合并批次中尚未提交的数据；
+	 *
+	 * @param family      列族；为 null 表示默认列族；
+	 * @param readOptions
+	 * @param target
+	 * @return 找到的键；如果不存在，则返回 null；
+	 */
+	byte[] seekForPrev(ColumnFamilyHandle family, ReadOptions readOptions, byte[] target) {
+		if (batch != null) {
+			synchronized (this) {
+				WriteBatchWithIndex batch = this.batch;
+				if (batch != null) {
+					try (RocksIterator iterator = family == null
+							? batch.newIteratorWithBase(db.newIterator(readOptions))
+							: batch.newIteratorWithBase(family, db.newIterator(family, readOptions))) {
+						return seekForPrev(iterator, target);
+					}
+				}
+			}
+		}
+		try (RocksIterator iterator = family == null ? db.newIterator(readOptions)
+				: db.newIterator(family, readOptions)) {
+			return seekForPrev(iterator, target);
+		}
+	}
+
+	private static byte[] seekForPrev(RocksIterator iterator, byte[] target) {
+		iterator.seekForPrev(target);
+		return iterator.isValid() ? iterator.key() : null;
+	}
+
+	synchronized void close() {
+		cancel();
+		writeOptions.close();
+	}
+}
@@ -0,0 +1,252 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 按照账本数据键的类别把数据路由到不同的列族；
+ *
+ * <p>
+ * 账本的数据键是分层的，例如：LDG://{账本哈希}TXS/MKL/{节点哈希}；<br>
+ * 路由从左到右查找第一个类别标记，按以下规则确定列族：<br>
+ * 1、MKL/ ：默克尔树节点，路由到 merkle 列族；<br>
+ * 2、SN/ ：序号索引，路由到 sn 列族；<br>
+ * 3、STA/ ：交易状态，路由到 state 列族；<br>
+ * 4、BLK/ 和 IDX/ ：区块和账本索引，路由到 block 列族；<br>
+ * 5、KV/ ：键值数据；位于 TXS/ 之后的是交易数据，路由到 tx 列族，其它的路由到 kv 列族；<br>
+ * 6、没有类别标记的，保留在默认列族；
+ *
+ * <p>
+ * 路由只取决于数据键本身，同一个键的全部版本总是在同一个列族中；<br>
+ * 数据键中的二进制部分（如地址）偶然包含类别标记时只会影响数据所在的列族，不影响读写的正确性；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class RocksDBColumnFamilies {
+
+	public static final String DEFAULT = "default";
+
+	public static final String BLOCK = "block";
+
+	public static final String MERKLE = "merkle";
+
+	public static final String KV = "kv";
+
+	public static final String SN = "sn";
+
+	public static final String TX = "tx";
+
+	public static final String STATE = "state";
+
+	/**
+	 * 记录数据库已采用列族布局的键；存储在默认列族中；
+	 */
+	private static final byte[] FAMILIES_KEY = BytesUtils.toBytes("#FAMILIES");
+
+	private static final int MIGRATION_BATCH_SIZE = 4096;
+
+	private final Map<String, ColumnFamilyHandle> handles = new HashMap<>();
+
+	private final ColumnFamilyHandle defaultHandle;
+
+	private final ColumnFamilyHandle blockHandle;
+
+	private final ColumnFamilyHandle merkleHandle;
+
+	private final ColumnFamilyHandle kvHandle;
+
+	private final ColumnFamilyHandle snHandle;
+
+	private final ColumnFamilyHandle txHandle;
+
+	private final ColumnFamilyHandle stateHandle;
+
+	RocksDBColumnFamilies(List<ColumnFamilyDescriptor> descriptors, List<ColumnFamilyHandle> handles) {
+		for (int i = 0; i < descriptors.size(); i++) {
+			byte[] name = descriptors.get(i).columnFamilyName();
+			String family = BytesUtils.equals(RocksDB.DEFAULT_COLUMN_FAMILY, name) ? DEFAULT
+					: BytesUtils.toString(name);
+			this.handles.put(family, handles.get(i));
+		}
+		this.defaultHandle = getHandle(DEFAULT);
+		this.blockHandle = getHandle(BLOCK);
+		this.merkleHandle = getHandle(MERKLE);
+		this.kvHandle = getHandle(KV);
+		this.snHandle = getHandle(SN);
+		this.txHandle = getHandle(TX);
+		this.stateHandle = getHandle(STATE);
+	}
+
+	/**
+	 * 返回指定名称的列族；
+	 *
+	 * @param family
+	 * @return
+	 */
+	public ColumnFamilyHandle getHandle(String family) {
+		ColumnFamilyHandle handle = handles.get(family);
+		if (handle == null) {
+			throw new IllegalArgumentException("Column family not found: " + family);
+		}
+		return handle;
+	}
+
+	/**
+	 * 返回存储数据库键的列族；
+	 *
+	 * @param dbKey 数据库键，即经过版本化编码之后的键；
+	 * @return
+	 */
+	public ColumnFamilyHandle handleOf(byte[] dbKey) {
+		switch (familyOf(dbKey)) {
+		case MERKLE:
+			return merkleHandle;
+		case SN:
+			return snHandle;
+		case STATE:
+			return stateHandle;
+		case BLOCK:
+			return blockHandle;
+		case TX:
+			return txHandle;
+		case KV:
+			return kvHandle;
+		default:
+			return defaultHandle;
+		}
+	}
+
+	/**
+	 * 返回数据库键所属的列族的名称；
+	 *
+	 * @param dbKey 数据库键，即经过版本化编码之后的键；
+	 * @return
+	 */
+	public static String familyOf(byte[] dbKey) {
+		if (dbKey.length == 0) {
+			return DEFAULT;
+		}
+		int offset;
+		int end;
+		switch (dbKey[0]) {
+		case 'V':
+			// 版本记录：'V' + 键；
+			offset = 1;
+			end = dbKey.length;
+			break;
+		case 'D':
+			// 数据记录：'D' + 8 字节的版本 + 键；
+			offset = 9;
+			end = dbKey.length;
+			break;
+		case 'K':
+			// “键+版本”布局：'K' + 4 字节的键长度 + 键 + 8 字节的版本；
+			if (dbKey.length < 5) {
+				return DEFAULT;
+			}
+			offset = 5;
+			end = Math.min(dbKey.length, offset + BytesUtils.toInt(dbKey, 1));
+			break;
+		default:
+			return DEFAULT;
+		}
+
+		boolean inTxSet = false;
+		int tagStart = offset;
+		for (int i = offset; i < end; i++) {
+			if (dbKey[i] != '/') {
+				continue;
+			}
+			int tagLength = i - tagStart;
+			if (tagLength == 3) {
+				if (matches(dbKey, tagStart, 'M', 'K', 'L')) {
+					return MERKLE;
+				}
+				if (matches(dbKey, tagStart, 'S', 'T', 'A')) {
+					return STATE;
+				}
+				if (matches(dbKey, tagStart, 'B', 'L', 'K') || matches(dbKey, tagStart, 'I', 'D', 'X')) {
+					return BLOCK;
+				}
+				if (matches(dbKey, tagStart, 'T', 'X', 'S')) {
+					inTxSet = true;
+				}
+			} else if (tagLength == 2) {
+				if (dbKey[tagStart] == 'S' && dbKey[tagStart + 1] == 'N') {
+					return SN;
+				}
+				if (dbKey[tagStart] == 'K' && dbKey[tagStart + 1] == 'V') {
+					return inTxSet ? TX : KV;
+				}
+			}
+			tagStart = i + 1;
+		}
+		return DEFAULT;
+	}
+
+	private static boolean matches(byte[] bytes, int offset, char c0, char c1, char c2) {
+		return bytes[offset] == c0 && bytes[offset + 1] == c1 && bytes[offset + 2] == c2;
+	}
+
+	/**
+	 * 把单一列族布局的数据迁移到各自的列族；<br>
+	 *
+	 * 迁移以批次进行，每个批次原子地写入目标列族并从默认列族删除，因此中断之后可以重新执行；<br>
+	 * 迁移完成后在默认列族中记录标记，之后的打开不再检查；
+	 *
+	 * @param db
+	 * @return 迁移的数据条数；
+	 */
+	public long migrate(RocksDB db) {
+		try {
+			if (db.get(defaultHandle, FAMILIES_KEY) != null) {
+				return 0;
+			}
+			long count = 0;
+			try (WriteOptions writeOptions = new WriteOptions();
+					RocksIterator iterator = db.newIterator(defaultHandle);
+					WriteBatch batch = new WriteBatch()) {
+				for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+					byte[] key = iterator.key();
+					ColumnFamilyHandle handle = handleOf(key);
+					if (handle == defaultHandle) {
+						continue;
+					}
+					batch.put(handle, key, iterator.value());
+					batch.delete(defaultHandle, key);
+					count++;
+					if (batch.count() >= MIGRATION_BATCH_SIZE * 2) {
+						db.write(writeOptions, batch);
+						batch.clear();
+					}
+				}
+				if (batch.count() > 0) {
+					db.write(writeOptions, batch);
+				}
+			}
+			db.put(defaultHandle, FAMILIES_KEY, BytesUtils.toBytes(1));
+			return count;
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	void close() {
+		for (ColumnFamilyHandle handle : handles.values()) {
+			handle.close();
+		}
+		handles.clear();
+	}
+}
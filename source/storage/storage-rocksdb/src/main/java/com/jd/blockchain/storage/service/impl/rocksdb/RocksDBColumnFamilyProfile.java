@@ -0,0 +1,253 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.RocksDB;
+import org.rocksdb.util.SizeUnit;
+
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 列族布局的参数配置；<br>
+ *
+ * 配置通过数据库连接串的查询参数指定，例如：<br>
+ * rocksdb:///export/ledger/db?cf=true&amp;merkle.cache=512&amp;kv.compression=lz4&amp;block.compaction=universal
+ *
+ * <p>
+ * 参数说明：<br>
+ * 1、cf：是否启用列族布局；默认为 false，即全部数据存储在默认列族中；<br>
+ * 2、&lt;列族&gt;.cache：列族独占的块缓存的大小，单位为 MB；<br>
+ * 3、&lt;列族&gt;.bloom：布隆过滤器每个键的位数；为 0 时不使用布隆过滤器；<br>
+ * 4、&lt;列族&gt;.blockSize：数据块的大小，单位为 KB；<br>
+ * 5、&lt;列族&gt;.compression：压缩算法，可选 none、snappy、lz4、zstd；<br>
+ * 6、&lt;列族&gt;.compaction：压缩合并方式，可选 level、universal；
+ *
+ * <p>
+ * 列族包括：block、merkle、kv、sn、tx、state 以及 default，参见 {@link RocksDBColumnFamilies}；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class RocksDBColumnFamilyProfile {
+
+	public static final String ENABLED_PARAM = "cf";
+
+	private final boolean enabled;
+
+	private final Map<String, FamilySetting> settings = new LinkedHashMap<>();
+
+	private RocksDBColumnFamilyProfile(boolean enabled) {
+		this.enabled = enabled;
+		// 默克尔节点：随机的小数据读取，哈希值不可压缩；
+		settings.put(RocksDBColumnFamilies.MERKLE, new FamilySetting(256, 10, 4, CompressionType.NO_COMPRESSION,
+				CompactionStyle.LEVEL));
+		// 键值数据：随机读取，更新频繁；
+		settings.put(RocksDBColumnFamilies.KV, new FamilySetting(256, 10, 8, CompressionType.LZ4_COMPRESSION,
+				CompactionStyle.LEVEL));
+		// 序号索引和交易状态：小数据的点查询；
+		settings.put(RocksDBColumnFamilies.SN, new FamilySetting(64, 10, 4, CompressionType.SNAPPY_COMPRESSION,
+				CompactionStyle.LEVEL));
+		settings.put(RocksDBColumnFamilies.STATE, new FamilySetting(64, 10, 4, CompressionType.SNAPPY_COMPRESSION,
+				CompactionStyle.LEVEL));
+		// 区块和交易：较大的数据，只追加不更新；
+		settings.put(RocksDBColumnFamilies.TX, new FamilySetting(128, 10, 32, CompressionType.LZ4_COMPRESSION,
+				CompactionStyle.UNIVERSAL));
+		settings.put(RocksDBColumnFamilies.BLOCK, new FamilySetting(64, 0, 32, CompressionType.LZ4_COMPRESSION,
+				CompactionStyle.UNIVERSAL));
+		settings.put(RocksDBColumnFamilies.DEFAULT, new FamilySetting(64, 10, 4, CompressionType.SNAPPY_COMPRESSION,
+				CompactionStyle.UNIVERSAL));
+	}
+
+	/**
+	 * 是否启用列族布局；
+	 *
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 从连接串的查询参数解析配置；
+	 *
+	 * @param params 查询参数；不属于列族配置的参数应在调用前移除；
+	 * @return
+	 */
+	public static RocksDBColumnFamilyProfile resolve(Map<String, String> params) {
+		RocksDBColumnFamilyProfile profile = new RocksDBColumnFamilyProfile(
+				Boolean.parseBoolean(params.get(ENABLED_PARAM)));
+		for (Map.Entry<String, String> param : params.entrySet()) {
+			if (!ENABLED_PARAM.equals(param.getKey())) {
+				profile.setParam(param.getKey(), param.getValue());
+			}
+		}
+		return profile;
+	}
+
+	private void setParam(String name, String value) {
+		int idx = name.indexOf('.');
+		FamilySetting setting = idx < 0 ? null : settings.get(name.substring(0, idx));
+		if (setting == null) {
+			throw new IllegalArgumentException(String.format("Unknown rocksdb column family parameter \"%s\"!", name));
+		}
+		String option = name.substring(idx + 1);
+		try {
+			if ("cache".equals(option)) {
+				setting.cacheSize = Long.parseLong(value);
+			} else if ("bloom".equals(option)) {
+				setting.bloomBits = Integer.parseInt(value);
+			} else if ("blockSize".equals(option)) {
+				setting.blockSize = Long.parseLong(value);
+			} else if ("compression".equals(option)) {
+				setting.compression = parseCompression(value);
+			} else if ("compaction".equals(option)) {
+				setting.compaction = parseCompaction(value);
+			} else {
+				throw new IllegalArgumentException(
+						String.format("Unknown rocksdb column family parameter \"%s\"!", name));
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+					String.format("Illegal value of rocksdb column family parameter \"%s\"! --[value=%s]", name, value));
+		}
+	}
+
+	private static CompressionType parseCompression(String value) {
+		switch (value.toLowerCase()) {
+		case "none":
+			return CompressionType.NO_COMPRESSION;
+		case "snappy":
+			return CompressionType.SNAPPY_COMPRESSION;
+		case "lz4":
+			return CompressionType.LZ4_COMPRESSION;
+		case "zstd":
+			return CompressionType.ZSTD_COMPRESSION;
+		default:
+			throw new IllegalArgumentException("Unsupported rocksdb compression type: " + value);
+		}
+	}
+
+	private static CompactionStyle parseCompaction(String value) {
+		switch (value.toLowerCase()) {
+		case "level":
+			return CompactionStyle.LEVEL;
+		case "universal":
+			return CompactionStyle.UNIVERSAL;
+		default:
+			throw new IllegalArgumentException("Unsupported rocksdb compaction style: " + value);
+		}
+	}
+
+	/**
+	 * 列族的块缓存大小，单位为 MB；
+	 *
+	 * @param family
+	 * @return
+	 */
+	public long getCacheSize(String family) {
+		return settings.get(family).cacheSize;
+	}
+
+	/**
+	 * 列族的压缩算法；
+	 *
+	 * @param family
+	 * @return
+	 */
+	public CompressionType getCompression(String family) {
+		return settings.get(family).compression;
+	}
+
+	/**
+	 * 列族的压缩合并方式；
+	 *
+	 * @param family
+	 * @return
+	 */
+	public CompactionStyle getCompaction(String family) {
+		return settings.get(family).compaction;
+	}
+
+	DBOptions createDBOptions() {
+		return new DBOptions()
+				.setCreateIfMissing(true)
+				.setCreateMissingColumnFamilies(true)
+				.setAllowConcurrentMemtableWrite(true)
+				.setEnableWriteThreadAdaptiveYield(true)
+				.setMaxBackgroundCompactions(10)
+				.setMaxBackgroundFlushes(4)
+				;
+	}
+
+	/**
+	 * 创建全部列族的描述；默认列族总是排在第一个；
+	 *
+	 * @return
+	 */
+	List<ColumnFamilyDescriptor> createDescriptors() {
+		List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(createDescriptor(RocksDBColumnFamilies.DEFAULT));
+		for (String family : settings.keySet()) {
+			if (!RocksDBColumnFamilies.DEFAULT.equals(family)) {
+				descriptors.add(createDescriptor(family));
+			}
+		}
+		return descriptors;
+	}
+
+	private ColumnFamilyDescriptor createDescriptor(String family) {
+		FamilySetting setting = settings.get(family);
+		BlockBasedTableConfig tableOptions = new BlockBasedTableConfig()
+				.setBlockSize(setting.blockSize * SizeUnit.KB)
+				.setBlockCache(new LRUCache(setting.cacheSize * SizeUnit.MB))
+				.setNoBlockCache(false)
+				.setCacheIndexAndFilterBlocks(true)
+				.setPinL0FilterAndIndexBlocksInCache(true)
+				;
+		if (setting.bloomBits > 0) {
+			tableOptions.setFilter(new BloomFilter(setting.bloomBits, false));
+		}
+		ColumnFamilyOptions options = new ColumnFamilyOptions()
+				.setTableFormatConfig(tableOptions)
+				.setCompressionType(setting.compression)
+				.setCompactionStyle(setting.compaction)
+				.setMaxWriteBufferNumber(3)
+				;
+		byte[] name = RocksDBColumnFamilies.DEFAULT.equals(family) ? RocksDB.DEFAULT_COLUMN_FAMILY
+				: BytesUtils.toBytes(family);
+		return new ColumnFamilyDescriptor(name, options);
+	}
+
+	private static class FamilySetting {
+
+		private long cacheSize;
+
+		private int bloomBits;
+
+		private long blockSize;
+
+		private CompressionType compression;
+
+		private CompactionStyle compaction;
+
+		private FamilySetting(long cacheSize, int bloomBits, long blockSize, CompressionType compression,
+				CompactionStyle compaction) {
+			this.cacheSize = cacheSize;
+			this.bloomBits = bloomBits;
+			this.blockSize = blockSize;
+			this.compression = compression;
+			this.compaction = compaction;
+		}
+	}
+}
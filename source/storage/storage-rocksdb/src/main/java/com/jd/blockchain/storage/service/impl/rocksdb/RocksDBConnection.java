@@ -1,7 +1,12 @@
 package com.jd.blockchain.storage.service.impl.rocksdb;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.DBOptions;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -14,11 +19,26 @@ public class RocksDBConnection implements DbConnection {
 
 	private Options options;
 
+	private DBOptions dbOptions;
+
+	private RocksDBColumnFamilies families;
+
 	private RocksDB db;
 
 	private RocksDBStorageService storage;
 
 	public RocksDBConnection(String dbPath, Options options) {
+		this(dbPath, options, RocksDBWalPolicy.SYNC, null);
+	}
+
+	/**
+	 * @param dbPath
+	 * @param options
+	 * @param walPolicy   区块批量提交的预写日志策略；
+	 * @param writeBehind 后写队列的配置；为 null 表示不启用；
+	 */
+	RocksDBConnection(String dbPath, Options options, RocksDBWalPolicy walPolicy,
+			KVWriteBehindQueue.Setting writeBehind) {
 		try {
 			String parentDir = FileUtils.getParent(dbPath);
 			if (!FileUtils.existDirectory(parentDir)) {
@@ -28,7 +48,35 @@ public class RocksDBConnection implements DbConnection {
 		} catch (RocksDBException e) {
 			throw new IllegalStateException(e.getMessage(), e);
 		}
-		this.storage = new RocksDBStorageService(db);
+		this.storage = new RocksDBStorageService(db, null, walPolicy,
+				writeBehind == null ? null : writeBehind.create(db));
+	}
+
+	/**
+	 * 以列族布局打开数据库；
+	 * 
+	 * @param dbPath
+	 * @param profile     列族的参数配置；
+	 * @param walPolicy   区块批量提交的预写日志策略；
+	 * @param writeBehind 后写队列的配置；为 null 表示不启用；
+	 */
+	RocksDBConnection(String dbPath, RocksDBColumnFamilyProfile profile, RocksDBWalPolicy walPolicy,
+			KVWriteBehindQueue.Setting writeBehind) {
+		List<ColumnFamilyDescriptor> descriptors = profile.createDescriptors();
+		List<ColumnFamilyHandle> handles = new ArrayList<>();
+		this.dbOptions = profile.createDBOptions();
+		try {
+			String parentDir = FileUtils.getParent(dbPath);
+			if (!FileUtils.existDirectory(parentDir)) {
+				FileUtils.makeDirectory(parentDir);
+			}
+			this.db = RocksDB.open(dbOptions, dbPath, descriptors, handles);
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		this.families = new RocksDBColumnFamilies(descriptors, handles);
+		this.storage = new RocksDBStorageService(db, families, walPolicy,
+				writeBehind == null ? null : writeBehind.create(db));
 	}
 
 	@Override
@@ -46,12 +94,28 @@ public class RocksDBConnection implements DbConnection {
 	public void dbClose() {
 		Options options = this.options;
 		this.options = null;
+		DBOptions dbOptions = this.dbOptions;
+		this.dbOptions = null;
+		RocksDBColumnFamilies families = this.families;
+		this.families = null;
 		RocksDB db = this.db;
 		this.db = null;
+		RocksDBStorageService storage = this.storage;
+		this.storage = null;
 
+		if (storage != null) {
+			storage.close();
+		}
 		if (options != null) {
 			options.close();
 		}
+		if (dbOptions != null) {
+			dbOptions.close();
+		}
+		// 列族要在数据库之前关闭；
+		if (families != null) {
+			families.close();
+		}
 		if (db != null) {
 			db.close();
 		}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,7 +27,7 @@ public class RocksDBConnectionFactory implements DbConnectionFactory {
 	public static final String URI_SCHEME = "rocksdb";
 
 	public static final Pattern URI_PATTER = Pattern
-			.compile("^\\w+\\://(/)?\\w+(/.*)*$");
+			.compile("^\\w+\\://(/)?\\w+(/[^?]*)?(\\?.*)?$");
 
 	private Map<String, RocksDBConnection> connections = new ConcurrentHashMap<>();
 
@@ -49,6 +50,11 @@ public class RocksDBConnectionFactory implements DbConnectionFactory {
 		String uriHead = dbPrefix();
 		int beginIndex = dbConnectionString.indexOf(uriHead);
 		String dbPath = dbConnectionString.substring(beginIndex + uriHead.length());
+		// 查询参数是数据库的配置，不属于数据库路径；
+		int queryIndex = dbPath.indexOf('?');
+		if (queryIndex > -1) {
+			dbPath = dbPath.substring(0, queryIndex);
+		}
 		if (!dbPath.startsWith(File.separator)) {
 			dbPath = File.separator + dbPath;
 		}
@@ -58,15 +64,47 @@ public class RocksDBConnectionFactory implements DbConnectionFactory {
 			return conn;
 		}
 
-		Options options = initOptions();
-
-		conn = new RocksDBConnection(dbPath, options);
+		Map<String, String> params = parseQuery(dbUri.getRawQuery());
+		RocksDBWalPolicy walPolicy = RocksDBWalPolicy.resolve(params.remove(RocksDBWalPolicy.PARAM));
+		KVWriteBehindQueue.Setting writeBehind = KVWriteBehindQueue.resolve(params);
+		RocksDBColumnFamilyProfile profile = RocksDBColumnFamilyProfile.resolve(params);
+		if (profile.isEnabled()) {
+			conn = new RocksDBConnection(dbPath, profile, walPolicy, writeBehind);
+		} else {
+			Options options = initOptions();
+			conn = new RocksDBConnection(dbPath, options, walPolicy, writeBehind);
+		}
 		connections.put(dbPath, conn);
 
 		return conn;
 	}
 
 
+	/**
+	 * 解析连接串的查询参数；没有值的参数视为 "true"；
+	 * 
+	 * @param query
+	 * @return
+	 */
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> params = new LinkedHashMap<>();
+		if (query == null) {
+			return params;
+		}
+		for (String pair : query.split("&")) {
+			if (pair.length() == 0) {
+				continue;
+			}
+			int idx = pair.indexOf('=');
+			if (idx < 0) {
+				params.put(pair.trim(), "true");
+			} else {
+				params.put(pair.substring(0, idx).trim(), pair.substring(idx + 1).trim());
+			}
+		}
+		return params;
+	}
+
 	@Override
 	public String dbPrefix() {
 		return URI_SCHEME + "://";
@@ -16,6 +16,11 @@ public class RocksDBExPolicyStorage implements ExPolicyKVStorage {
 		return versioningStorage.get(key, 0);
 	}
 
+	@Override
+	public byte[][] multiGet(Bytes[] keys) {
+		return versioningStorage.multiGet(keys, new long[keys.length]);
+	}
+
 	@Override
 	public boolean exist(Bytes key) {
 		long ver = versioningStorage.getVersion(key);
@@ -52,4 +57,23 @@ public class RocksDBExPolicyStorage implements ExPolicyKVStorage {
 	public void batchCommit() {
 		versioningStorage.batchCommit();
 	}
+
+	@Override
+	public void blockBegin() {
+		versioningStorage.blockBegin();
+	}
+
+	@Override
+	public void blockCommit() {
+		versioningStorage.blockCommit();
+	}
+
+	@Override
+	public void blockCancel() {
+		versioningStorage.blockCancel();
+	}
+
+	void close() {
+		versioningStorage.close();
+	}
 }
\ No newline at end of file
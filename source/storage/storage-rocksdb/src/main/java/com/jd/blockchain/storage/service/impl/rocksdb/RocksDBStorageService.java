@@ -1,20 +1,114 @@
 package com.jd.blockchain.storage.service.impl.rocksdb;
 
 import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
 
 import com.jd.blockchain.storage.service.ExPolicyKVStorage;
 import com.jd.blockchain.storage.service.KVStorageService;
 import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.utils.io.BytesUtils;
 
 public class RocksDBStorageService implements KVStorageService {
 
-	private ExPolicyKVStorage exStorage;
+	/**
+	 * 记录数据库的存储布局的键；
+	 */
+	private static final byte[] LAYOUT_KEY = BytesUtils.toBytes("#LAYOUT");
 
-	private VersioningKVStorage verStorage;
+	private static final String LAYOUT_VERSIONED_KEY = "versioned-key";
+
+	/**
+	 * 系统属性：新建的数据库是否采用“键+版本”的数据键布局；已存在的数据库沿用其创建时的布局；
+	 */
+	public static final String VERSIONED_KEY_PROPERTY = "rocksdb-versioned-key";
+
+	private RocksDBExPolicyStorage exStorage;
+
+	private RocksDBVersioningStorage verStorage;
+
+	private RocksDBBlockBatch blockBatch;
+
+	private KVWriteBehindQueue writeBehind;
 
 	public RocksDBStorageService(RocksDB db) {
-		this.verStorage = new RocksDBVersioningStorage(db);
-		this.exStorage = new RocksDBExPolicyStorage(new RocksDBVersioningStorage(db));
+		this(db, null, RocksDBWalPolicy.SYNC, null);
+	}
+
+	/**
+	 * @param db
+	 * @param families    列族路由；为 null 时全部数据存储在默认列族；非 null 时，单一列族布局的已有数据将被迁移到各自的列族；
+	 * @param walPolicy   区块批量提交的预写日志策略；
+	 * @param writeBehind 后写队列；为 null 时直接写入数据库；
+	 */
+	public RocksDBStorageService(RocksDB db, RocksDBColumnFamilies families, RocksDBWalPolicy walPolicy,
+			KVWriteBehindQueue writeBehind) {
+		// 布局的判断要在迁移之前，迁移会在默认列族中写入标记；
+		boolean versionedKeyLayout = isVersionedKeyLayout(db);
+		if (families != null) {
+			families.migrate(db);
+		}
+		// 两类存储共享同一个区块批次，区块的全部写入一起原子地提交；
+		this.writeBehind = writeBehind;
+		this.blockBatch = new RocksDBBlockBatch(db, walPolicy, writeBehind);
+		if (versionedKeyLayout) {
+			this.verStorage = new RocksDBVersionedKeyStorage(db, families, blockBatch, writeBehind);
+			this.exStorage = new RocksDBExPolicyStorage(
+					new RocksDBVersionedKeyStorage(db, families, blockBatch, writeBehind));
+		} else {
+			this.verStorage = new RocksDBVersioningStorage(db, families, blockBatch, writeBehind);
+			this.exStorage = new RocksDBExPolicyStorage(
+					new RocksDBVersioningStorage(db, families, blockBatch, writeBehind));
+		}
+	}
+
+	/**
+	 * 后写队列；未启用时返回 null；
+	 * 
+	 * @return
+	 */
+	public KVWriteBehindQueue getWriteBehindQueue() {
+		return writeBehind;
+	}
+
+	void close() {
+		if (writeBehind != null) {
+			// 关闭之前写完队列中的数据；
+			writeBehind.close();
+		}
+		blockBatch.close();
+		exStorage.close();
+		verStorage.close();
+	}
+
+	/**
+	 * 判断数据库是否采用“键+版本”的数据键布局；<br>
+	 * 
+	 * 空的数据库按照系统属性 {@link #VERSIONED_KEY_PROPERTY} 选择布局并记录下来；没有布局记录的非空数据库是早期版本创建的，采用原有的布局；
+	 * 
+	 * @param db
+	 * @return
+	 */
+	private static boolean isVersionedKeyLayout(RocksDB db) {
+		try {
+			byte[] layout = db.get(LAYOUT_KEY);
+			if (layout != null) {
+				return LAYOUT_VERSIONED_KEY.equals(BytesUtils.toString(layout));
+			}
+			if (!Boolean.getBoolean(VERSIONED_KEY_PROPERTY)) {
+				return false;
+			}
+			try (RocksIterator iterator = db.newIterator()) {
+				iterator.seekToFirst();
+				if (iterator.isValid()) {
+					return false;
+				}
+			}
+			db.put(LAYOUT_KEY, BytesUtils.toBytes(LAYOUT_VERSIONED_KEY));
+			return true;
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
 	}
 
 	@Override
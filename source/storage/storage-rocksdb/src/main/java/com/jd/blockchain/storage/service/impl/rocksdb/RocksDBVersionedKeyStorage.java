@@ -0,0 +1,287 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 以“键+版本”作为数据键的版本化KV存储；
+ *
+ * <p>
+ *
+ * 每个版本的数据键编码为：前缀 'K' + 4 字节的键长度 + 键 + 8 字节大端序的版本号；<br>
+ * 同一个键的全部版本在 RocksDB 中按版本顺序相邻排列，最新版本通过一次反向定位（seekForPrev）得到，因此不再需要单独写入版本记录；
+ *
+ * <p>
+ *
+ * 版本号的解析不再使用全局锁：<br>
+ * 1、最新版本号缓存在分段的 LRU 缓存中，命中时只锁定所在的分段；<br>
+ * 2、未命中时的加载以及写入，按照键的哈希锁定对应的条带锁，不同键之间的操作可以并发地进行；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class RocksDBVersionedKeyStorage extends RocksDBVersioningStorage {
+
+	private static final byte KEY_PREFIX = 'K';
+
+	private static final int KEY_LENGTH_SIZE = 4;
+
+	private static final int VERSION_SIZE = 8;
+
+	private static final int STRIPE_COUNT = 64;
+
+	private static final int VERSION_CACHE_CAPACITY = 1024 * 128;
+
+	private final Object[] stripes = new Object[STRIPE_COUNT];
+
+	private final VersionCache versions = new VersionCache(VERSION_CACHE_CAPACITY);
+
+	public RocksDBVersionedKeyStorage(RocksDB db) {
+		this(db, null, null, null);
+	}
+
+	RocksDBVersionedKeyStorage(RocksDB db, RocksDBColumnFamilies families, RocksDBBlockBatch blockBatch,
+			KVWriteBehindQueue writeBehind) {
+		super(db, families, blockBatch, writeBehind);
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Object();
+		}
+	}
+
+	protected static byte[] encodeVersionedKey(Bytes key, long version) {
+		int keySize = key.size();
+		byte[] keyBytes = new byte[1 + KEY_LENGTH_SIZE + keySize + VERSION_SIZE];
+		keyBytes[0] = KEY_PREFIX;
+		int offset = 1;
+		offset += BytesUtils.toBytes(keySize, keyBytes, offset);
+		offset += key.copyTo(keyBytes, offset, keySize);
+		BytesUtils.toBytes(version, keyBytes, offset);
+		return keyBytes;
+	}
+
+	private Object stripeOf(Bytes key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return stripes[h & (STRIPE_COUNT - 1)];
+	}
+
+	@Override
+	public long getVersion(Bytes key) {
+		Long ver = versions.get(key);
+		if (ver != null) {
+			return ver.longValue();
+		}
+		synchronized (stripeOf(key)) {
+			return loadVersion(key);
+		}
+	}
+
+	/**
+	 * 加载最新版本；调用者应持有键对应的条带锁；
+	 *
+	 * @param key
+	 * @return
+	 */
+	private long loadVersion(Bytes key) {
+		Long ver = versions.get(key);
+		if (ver != null) {
+			return ver.longValue();
+		}
+		long v = seekLatestVersion(key);
+		versions.put(key, v);
+		return v;
+	}
+
+	private long seekLatestVersion(Bytes key) {
+		byte[] maxKey = encodeVersionedKey(key, Long.MAX_VALUE);
+		ColumnFamilyHandle family = families == null ? null : families.handleOf(maxKey);
+		int prefixSize = maxKey.length - VERSION_SIZE;
+		// 迭代器看不到后写队列中的数据，因此合并队列中该键的最新版本；队列中的数据先写入数据库再移除，所以先查询队列；
+		long pendingVersion = -1;
+		if (writeBehind != null) {
+			byte[] pendingKey = writeBehind.floorKey(family, maxKey, prefixSize);
+			if (pendingKey != null) {
+				pendingVersion = decodeVersion(key, pendingKey, maxKey.length, prefixSize);
+			}
+		}
+		byte[] foundKey;
+		if (blockBatch != null) {
+			foundKey = blockBatch.seekForPrev(family, readOptions, maxKey);
+		} else {
+			try (RocksIterator iterator = family == null ? db.newIterator(readOptions)
+					: db.newIterator(family, readOptions)) {
+				iterator.seekForPrev(maxKey);
+				foundKey = iterator.isValid() ? iterator.key() : null;
+			}
+		}
+		if (foundKey == null || !startsWith(foundKey, maxKey, prefixSize)) {
+			return pendingVersion;
+		}
+		return Math.max(pendingVersion, decodeVersion(key, foundKey, maxKey.length, prefixSize));
+	}
+
+	private static long decodeVersion(Bytes key, byte[] versionedKey, int keySize, int prefixSize) {
+		if (versionedKey.length != keySize) {
+			return -1;
+		}
+		long v = BytesUtils.toLong(versionedKey, prefixSize);
+		if (v < 0) {
+			throw new IllegalStateException(
+					String.format("Illegal format of version bytes in rocks db! --[key=%s]", key));
+		}
+		return v;
+	}
+
+	private static boolean startsWith(byte[] bytes, byte[] prefix, int prefixSize) {
+		if (bytes.length < prefixSize) {
+			return false;
+		}
+		for (int i = 0; i < prefixSize; i++) {
+			if (bytes[i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public byte[] get(Bytes key, long version) {
+		long latestVersion = getVersion(key);
+		if (latestVersion < 0) {
+			return null;
+		}
+		if (version > latestVersion) {
+			return null;
+		}
+		long targetVersion = version < 0 ? latestVersion : version;
+		byte[] dataKey = encodeVersionedKey(key, targetVersion);
+		ColumnFamilyHandle family = families == null ? null : families.handleOf(dataKey);
+		if (writeBehind != null) {
+			byte[] value = writeBehind.get(family, dataKey);
+			if (value != null) {
+				return value;
+			}
+		}
+		if (blockBatch != null) {
+			return blockBatch.get(family, readOptions, dataKey);
+		}
+		try {
+			if (family != null) {
+				return db.get(family, readOptions, dataKey);
+			}
+			return db.get(readOptions, dataKey);
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected long[] getVersions(Bytes[] keys) {
+		long[] latestVersions = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			latestVersions[i] = getVersion(keys[i]);
+		}
+		return latestVersions;
+	}
+
+	@Override
+	protected byte[] dataKeyOf(Bytes key, long version) {
+		return encodeVersionedKey(key, version);
+	}
+
+	@Override
+	public long set(Bytes key, byte[] value, long version) {
+		synchronized (stripeOf(key)) {
+			long latestVersion = loadVersion(key);
+			if (latestVersion != version) {
+				return -1;
+			}
+			long newVer = version + 1;
+			dbSetData(key, value, newVer);
+			versions.put(key, newVer);
+			return newVer;
+		}
+	}
+
+	@Override
+	protected void dbSetData(Bytes key, byte[] value, long version) {
+		dbSet(encodeVersionedKey(key, version), value);
+	}
+
+	@Override
+	protected void clearVersions() {
+		versions.clear();
+	}
+
+	/**
+	 * 分段的最新版本号缓存；每个分段独立加锁，按照最近最少使用的顺序淘汰；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	private static class VersionCache {
+
+		private static final int SEGMENT_COUNT = 16;
+
+		private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+		public VersionCache(int capacity) {
+			int segmentCapacity = Math.max(1, capacity / SEGMENT_COUNT);
+			for (int i = 0; i < segments.length; i++) {
+				segments[i] = new Segment(segmentCapacity);
+			}
+		}
+
+		private Segment segmentOf(Bytes key) {
+			int h = key.hashCode();
+			h ^= (h >>> 16);
+			return segments[(h >>> 8) & (SEGMENT_COUNT - 1)];
+		}
+
+		public Long get(Bytes key) {
+			Segment segment = segmentOf(key);
+			synchronized (segment) {
+				return segment.get(key);
+			}
+		}
+
+		public void put(Bytes key, long version) {
+			Segment segment = segmentOf(key);
+			synchronized (segment) {
+				segment.put(key, version);
+			}
+		}
+
+		public void clear() {
+			for (Segment segment : segments) {
+				synchronized (segment) {
+					segment.clear();
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Segment extends LinkedHashMap<Bytes, Long> {
+
+		private final int capacity;
+
+		public Segment(int capacity) {
+			super(64, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Bytes, Long> eldest) {
+			return size() > capacity;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.jd.blockchain.storage.service.impl.rocksdb;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
@@ -43,7 +45,7 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 
 	private final WriteOptions writeOptions = new WriteOptions();
 
-	private final ReadOptions readOptions = new ReadOptions()
+	protected final ReadOptions readOptions = new ReadOptions()
 			.setFillCache(true)
 			.setVerifyChecksums(false)
 			;
@@ -51,10 +53,33 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 	private Map<Bytes, AtomicLong> versions = new LRUMap<>(1024 * 128);
 //	private Map<Bytes, AtomicLong> versions = new LRUMap<>(1024);
 
-	private RocksDB db;
+	protected final RocksDB db;
+
+	/**
+	 * 列族路由；为 null 时全部数据存储在默认列族；
+	 */
+	protected final RocksDBColumnFamilies families;
+
+	/**
+	 * 区块的批量写入；为 null 时不支持区块批量写入；
+	 */
+	protected final RocksDBBlockBatch blockBatch;
+
+	/**
+	 * 后写队列；为 null 时直接写入数据库；
+	 */
+	protected final KVWriteBehindQueue writeBehind;
 
 	public RocksDBVersioningStorage(RocksDB db) {
+		this(db, null, null, null);
+	}
+
+	RocksDBVersioningStorage(RocksDB db, RocksDBColumnFamilies families, RocksDBBlockBatch blockBatch,
+			KVWriteBehindQueue writeBehind) {
 		this.db = db;
+		this.families = families;
+		this.blockBatch = blockBatch;
+		this.writeBehind = writeBehind;
 	}
 
 	protected static Bytes encodeVersionKey(Bytes dataKey) {
@@ -68,26 +93,111 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 	private byte[] dbGet(Bytes key) {
 		try {
 			byte[] keyBytes = key.toBytes();
+			ColumnFamilyHandle family = families == null ? null : families.handleOf(keyBytes);
+			if (writeBehind != null) {
+				byte[] value = writeBehind.get(family, keyBytes);
+				if (value != null) {
+					return value;
+				}
+			}
+			if (blockBatch != null) {
+				return blockBatch.get(family, readOptions, keyBytes);
+			}
+			if (family != null) {
+				return db.get(family, readOptions, keyBytes);
+			}
 			return db.get(readOptions, keyBytes);
 		} catch (RocksDBException e) {
 			throw new IllegalStateException(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * 批量读取数据库；<br>
+	 * 
+	 * 后写队列中尚未写入的数据直接返回；区块批量写入进行中时需要合并批次中的数据，逐个读取；其余的键以一次 multiGet 读取；
+	 * 
+	 * @param keys
+	 * @return 与键一一对应的值；不存在的键对应 null；
+	 */
+	protected byte[][] dbMultiGet(byte[][] keys) {
+		byte[][] values = new byte[keys.length][];
+		List<byte[]> dbKeys = new ArrayList<>(keys.length);
+		List<ColumnFamilyHandle> dbFamilies = families == null ? null : new ArrayList<>(keys.length);
+		boolean inBlockBatch = blockBatch != null && blockBatch.isActive();
+		for (int i = 0; i < keys.length; i++) {
+			byte[] keyBytes = keys[i];
+			if (keyBytes == null) {
+				continue;
+			}
+			ColumnFamilyHandle family = families == null ? null : families.handleOf(keyBytes);
+			if (writeBehind != null) {
+				values[i] = writeBehind.get(family, keyBytes);
+				if (values[i] != null) {
+					continue;
+				}
+			}
+			if (inBlockBatch) {
+				values[i] = blockBatch.get(family, readOptions, keyBytes);
+				continue;
+			}
+			dbKeys.add(keyBytes);
+			if (dbFamilies != null) {
+				dbFamilies.add(family);
+			}
+		}
+		if (dbKeys.isEmpty()) {
+			return values;
+		}
+		Map<byte[], byte[]> dbValues;
+		try {
+			dbValues = dbFamilies == null ? db.multiGet(readOptions, dbKeys)
+					: db.multiGet(readOptions, dbFamilies, dbKeys);
+		} catch (RocksDBException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		// 返回的映射以传入的键数组的引用为键；
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null && values[i] == null) {
+				values[i] = dbValues.get(keys[i]);
+			}
+		}
+		return values;
+	}
+
 	protected void dbSet(Bytes key, byte[] value) {
-		byte[] keyBytes = key.toBytes();
+		dbSet(key.toBytes(), value);
+	}
 
+	protected void dbSet(byte[] keyBytes, byte[] value) {
+		ColumnFamilyHandle family = families == null ? null : families.handleOf(keyBytes);
+		if (blockBatch != null && blockBatch.put(family, keyBytes, value)) {
+			// 区块批量写入；
+			return;
+		}
 		WriteBatch writeBatch = writeBatchThreadLocal.get();
 		if (writeBatch != null) {
 			// 表示批量
 			try {
-				writeBatch.put(keyBytes, value);
+				if (family != null) {
+					writeBatch.put(family, keyBytes, value);
+				} else {
+					writeBatch.put(keyBytes, value);
+				}
 			} catch (RocksDBException e) {
 				throw new IllegalStateException(e.getMessage(), e);
 			}
 		} else {
+			if (writeBehind != null) {
+				writeBehind.put(family, keyBytes, value);
+				return;
+			}
 			try {
-				this.db.put(keyBytes, value);
+				if (family != null) {
+					this.db.put(family, keyBytes, value);
+				} else {
+					this.db.put(keyBytes, value);
+				}
 			} catch (RocksDBException e) {
 				throw new IllegalStateException(e.getMessage(), e);
 			}
@@ -126,6 +236,58 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 		return ver;
 	}
 
+	/**
+	 * 批量返回最新版本；未缓存的版本记录以一次批量读取加载；
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	protected long[] getVersions(Bytes[] keys) {
+		long[] latestVersions = new long[keys.length];
+		try {
+			lock.lock();
+			byte[][] vkeys = null;
+			for (int i = 0; i < keys.length; i++) {
+				AtomicLong ver = versions.get(keys[i]);
+				if (ver != null) {
+					latestVersions[i] = ver.get();
+					continue;
+				}
+				if (vkeys == null) {
+					vkeys = new byte[keys.length][];
+				}
+				vkeys[i] = encodeVersionKey(keys[i]).toBytes();
+			}
+			if (vkeys == null) {
+				return latestVersions;
+			}
+			byte[][] verBytes = dbMultiGet(vkeys);
+			for (int i = 0; i < keys.length; i++) {
+				if (vkeys[i] == null) {
+					continue;
+				}
+				AtomicLong ver = versions.get(keys[i]);
+				if (ver == null) {
+					if (verBytes[i] == null) {
+						ver = new AtomicLong(-1);
+					} else {
+						long v = BytesUtils.toLong(verBytes[i]);
+						if (v < 0) {
+							throw new IllegalStateException(String
+									.format("Illegal format of version bytes in rocks db! --[key=%s]", keys[i]));
+						}
+						ver = new AtomicLong(v);
+					}
+					versions.put(keys[i], ver);
+				}
+				latestVersions[i] = ver.get();
+			}
+		} finally {
+			lock.unlock();
+		}
+		return latestVersions;
+	}
+
 	@Override
 	public DataEntry getEntry(Bytes key, long version) {
 		byte[] value = get(key, version);
@@ -150,6 +312,38 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 		return value;
 	}
 
+	/**
+	 * 批量读取；先批量解析最新版本，再以一次 multiGet 读取全部的数据键；
+	 */
+	@Override
+	public byte[][] multiGet(Bytes[] keys, long[] versions) {
+		if (keys.length != versions.length) {
+			throw new IllegalArgumentException("The count of keys and versions doesn't match!");
+		}
+		long[] latestVersions = getVersions(keys);
+		byte[][] dataKeys = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			long latestVersion = latestVersions[i];
+			long version = versions[i];
+			if (latestVersion < 0 || version > latestVersion) {
+				continue;
+			}
+			dataKeys[i] = dataKeyOf(keys[i], version < 0 ? latestVersion : version);
+		}
+		return dbMultiGet(dataKeys);
+	}
+
+	/**
+	 * 返回指定版本的数据在数据库中的键；
+	 * 
+	 * @param key
+	 * @param version
+	 * @return
+	 */
+	protected byte[] dataKeyOf(Bytes key, long version) {
+		return encodeDataKey(key, version).toBytes();
+	}
+
 	@Override
 	public synchronized long set(Bytes key, byte[] value, long version) {
 		AtomicLong ver = innerGetVersion(key);
@@ -216,8 +410,54 @@ public class RocksDBVersioningStorage implements VersioningKVStorage {
 		}
 	}
 
+	@Override
+	public void blockBegin() {
+		if (blockBatch != null) {
+			blockBatch.begin();
+		}
+	}
+
+	@Override
+	public void blockCommit() {
+		if (blockBatch != null) {
+			blockBatch.commit();
+		}
+	}
+
+	@Override
+	public void blockCancel() {
+		if (blockBatch != null) {
+			blockBatch.cancel();
+			clearVersions();
+		}
+	}
+
+	/**
+	 * 清除缓存的版本；区块批量写入被丢弃后，缓存的版本可能已经超前于数据库；
+	 */
+	protected void clearVersions() {
+		try {
+			lock.lock();
+			versions.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 释放读写选项的本地资源；在数据库关闭时调用；
+	 */
+	void close() {
+		readOptions.close();
+		writeOptions.close();
+	}
+
 	private void writeBatch(WriteBatch writeBatch) {
 		try {
+			if (writeBehind != null) {
+				// 屏障：先于批次的写入先写入数据库；
+				writeBehind.flush();
+			}
 			db.write(writeOptions, writeBatch);
 		} catch (RocksDBException e) {
 			throw new IllegalStateException(e.getMessage(), e);
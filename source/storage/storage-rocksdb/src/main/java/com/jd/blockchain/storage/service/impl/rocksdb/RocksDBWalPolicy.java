@@ -0,0 +1,64 @@
+package com.jd.blockchain.storage.service.impl.rocksdb;
+
+import org.rocksdb.WriteOptions;
+
+/**
+ * 区块批量提交时的预写日志（WAL）策略；<br>
+ *
+ * 通过数据库连接串的查询参数 "wal" 指定，例如：rocksdb:///export/ledger/db?wal=async ；
+ *
+ * @author huanghaiquan
+ *
+ */
+public enum RocksDBWalPolicy {
+
+	/**
+	 * 每个区块提交时同步刷盘一次；崩溃后不丢失已提交的区块；
+	 */
+	SYNC,
+
+	/**
+	 * 写入预写日志但不等待刷盘；进程崩溃不丢数据，操作系统崩溃可能丢失最近提交的区块；
+	 */
+	ASYNC,
+
+	/**
+	 * 不写预写日志；崩溃后可能丢失尚未落盘的区块，但不会出现写入一半的区块；
+	 */
+	DISABLED;
+
+	public static final String PARAM = "wal";
+
+	/**
+	 * 解析策略；
+	 *
+	 * @param value 参数值；为 null 时返回默认的 {@link #SYNC}；
+	 * @return
+	 */
+	public static RocksDBWalPolicy resolve(String value) {
+		if (value == null) {
+			return SYNC;
+		}
+		for (RocksDBWalPolicy policy : values()) {
+			if (policy.name().equalsIgnoreCase(value)) {
+				return policy;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported rocksdb wal policy: " + value);
+	}
+
+	WriteOptions createWriteOptions() {
+		WriteOptions options = new WriteOptions();
+		switch (this) {
+		case SYNC:
+			options.setSync(true);
+			break;
+		case DISABLED:
+			options.setDisableWAL(true);
+			break;
+		default:
+			break;
+		}
+		return options;
+	}
+}
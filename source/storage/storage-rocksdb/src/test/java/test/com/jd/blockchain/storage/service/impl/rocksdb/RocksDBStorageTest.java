@@ -8,20 +8,36 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.jd.blockchain.storage.service.DbConnection;
 import com.jd.blockchain.storage.service.DbConnectionFactory;
 import com.jd.blockchain.storage.service.ExPolicyKVStorage;
 import com.jd.blockchain.storage.service.ExPolicyKVStorage.ExPolicy;
 import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.storage.service.impl.rocksdb.KVWriteBehindQueue;
+import com.jd.blockchain.storage.service.impl.rocksdb.RocksDBColumnFamilies;
 import com.jd.blockchain.storage.service.impl.rocksdb.RocksDBConnectionFactory;
+import com.jd.blockchain.storage.service.impl.rocksdb.RocksDBStorageService;
+import com.jd.blockchain.storage.service.impl.rocksdb.RocksDBVersionedKeyStorage;
+import com.jd.blockchain.storage.service.utils.BufferedKVStorage;
 import com.jd.blockchain.utils.Bytes;
 import com.jd.blockchain.utils.io.BytesUtils;
 import com.jd.blockchain.utils.io.FileUtils;
 
 public class RocksDBStorageTest {
 
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@After
+	public void cleanup() {
+		FileUtils.deleteFile(tempFolder.getRoot());
+	}
+
 	@Test
 	public void test() {
 		String dbUri = initEmptyDB("rocksdb_storage_test");
@@ -41,6 +57,8 @@ public class RocksDBStorageTest {
 			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
 			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
 
+			testMultiGet(verStorage, exStorage);
+
 			testAfterReload(verStorage, expectedVersion);
 
 			testAfterReload(exStorage);
@@ -48,6 +66,256 @@ public class RocksDBStorageTest {
 
 	}
 
+	@Test
+	public void testVersionedKey() {
+		String dbUri = initEmptyDB("rocksdb_versioned_key_test");
+		System.setProperty("rocksdb-versioned-key", "true");
+		long expectedVersion;
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
+			assertTrue(verStorage instanceof RocksDBVersionedKeyStorage);
+
+			expectedVersion = test(verStorage);
+
+			test(exStorage);
+
+			// 以已有的键为前缀的键，版本相互独立；
+			Bytes key = Bytes.fromString("k12");
+			assertEquals(-1, verStorage.getVersion(key));
+			assertEquals(0, verStorage.set(key, BytesUtils.toBytes("data-k12-0"), -1));
+			assertEquals(1, verStorage.set(key, BytesUtils.toBytes("data-k12-1"), 0));
+			assertEquals(2, verStorage.set(key, BytesUtils.toBytes("data-k12-2"), 1));
+			assertEquals(expectedVersion, verStorage.getVersion(Bytes.fromString("k1")));
+			assertEquals(-1, verStorage.getVersion(Bytes.fromString("k")));
+		}
+
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
+
+			testMultiGet(verStorage, exStorage);
+
+			testAfterReload(verStorage, expectedVersion);
+
+			testAfterReload(exStorage);
+
+			Bytes key = Bytes.fromString("k12");
+			assertEquals(2, verStorage.getVersion(key));
+			assertEquals("data-k12-2", BytesUtils.toString(verStorage.get(key, -1)));
+			assertEquals("data-k12-0", BytesUtils.toString(verStorage.get(key, 0)));
+			assertNull(verStorage.get(key, 3));
+		} finally {
+			System.clearProperty("rocksdb-versioned-key");
+		}
+	}
+
+	@Test
+	public void testColumnFamilies() {
+		assertEquals(RocksDBColumnFamilies.MERKLE, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/TXS/MKL/n1")));
+		assertEquals(RocksDBColumnFamilies.TX, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/TXS/KV/t1")));
+		assertEquals(RocksDBColumnFamilies.STATE, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/TXS/STA/t1")));
+		assertEquals(RocksDBColumnFamilies.SN, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/DATS/SN/1")));
+		assertEquals(RocksDBColumnFamilies.KV, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/DATS/KV/a1")));
+		assertEquals(RocksDBColumnFamilies.BLOCK, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/BLK/b1")));
+		assertEquals(RocksDBColumnFamilies.DEFAULT, RocksDBColumnFamilies.familyOf(dbKey("LDG://L1/k1")));
+		assertEquals(RocksDBColumnFamilies.DEFAULT, RocksDBColumnFamilies.familyOf(BytesUtils.toBytes("#LAYOUT")));
+
+		String dbUri = initEmptyDB("rocksdb_column_family_test");
+		String[] keys = { "LDG://L1/TXS/MKL/n1", "LDG://L1/TXS/KV/t1", "LDG://L1/TXS/STA/t1", "LDG://L1/DATS/SN/1",
+				"LDG://L1/DATS/KV/a1", "LDG://L1/BLK/b1", "LDG://L1/k1" };
+
+		// 以单一列族布局写入数据；
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			for (String k : keys) {
+				assertEquals(0, verStorage.set(Bytes.fromString(k), BytesUtils.toBytes(k + "-0"), -1));
+				assertEquals(1, verStorage.set(Bytes.fromString(k), BytesUtils.toBytes(k + "-1"), 0));
+			}
+		}
+
+		// 以列族布局打开，已有的数据被迁移到各自的列族；
+		String cfUri = dbUri + "?cf=true&merkle.cache=8&kv.compression=none&block.compaction=level";
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(cfUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			for (String k : keys) {
+				Bytes key = Bytes.fromString(k);
+				assertEquals(1, verStorage.getVersion(key));
+				assertEquals(k + "-0", BytesUtils.toString(verStorage.get(key, 0)));
+				assertEquals(k + "-1", BytesUtils.toString(verStorage.get(key, -1)));
+				assertEquals(2, verStorage.set(key, BytesUtils.toBytes(k + "-2"), 1));
+			}
+			test(conn.getStorageService().getExPolicyKVStorage());
+		}
+
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(cfUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			for (String k : keys) {
+				Bytes key = Bytes.fromString(k);
+				assertEquals(2, verStorage.getVersion(key));
+				assertEquals(k + "-0", BytesUtils.toString(verStorage.get(key, 0)));
+				assertEquals(k + "-2", BytesUtils.toString(verStorage.get(key, -1)));
+			}
+			testAfterReload(conn.getStorageService().getExPolicyKVStorage());
+		}
+	}
+
+	@Test
+	public void testBlockBatch() {
+		String dbUri = initEmptyDB("rocksdb_block_batch_test") + "?wal=async";
+		int count = 2000;
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
+
+			// 丢弃的区块批量写入不会写入数据库；
+			Bytes key = Bytes.fromString("kc");
+			verStorage.blockBegin();
+			assertEquals(0, verStorage.set(key, BytesUtils.toBytes("data-kc-0"), -1));
+			assertEquals(0, verStorage.getVersion(key));
+			assertEquals("data-kc-0", BytesUtils.toString(verStorage.get(key, 0)));
+			byte[][] values = verStorage.multiGet(new Bytes[] { key, Bytes.fromString("kd") }, new long[] { -1, -1 });
+			assertEquals("data-kc-0", BytesUtils.toString(values[0]));
+			assertNull(values[1]);
+			verStorage.blockCancel();
+			assertEquals(-1, verStorage.getVersion(key));
+			assertNull(verStorage.get(key, 0));
+
+			// 并行输出的写入被收集到同一个区块批次中；
+			BufferedKVStorage bufferedStorage = new BufferedKVStorage(exStorage, verStorage, true);
+			for (int i = 0; i < count; i++) {
+				Bytes k = Bytes.fromString("kb-" + i);
+				assertEquals(0, bufferedStorage.set(k, BytesUtils.toBytes("data-" + i + "-0"), -1));
+				assertEquals(1, bufferedStorage.set(k, BytesUtils.toBytes("data-" + i + "-1"), 0));
+				assertTrue(bufferedStorage.set(Bytes.fromString("kx-" + i), BytesUtils.toBytes("ex-" + i),
+						ExPolicy.NOT_EXISTING));
+			}
+			bufferedStorage.flush();
+			for (int i = 0; i < count; i++) {
+				assertEquals(1, verStorage.getVersion(Bytes.fromString("kb-" + i)));
+			}
+		}
+
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
+			for (int i = 0; i < count; i++) {
+				Bytes k = Bytes.fromString("kb-" + i);
+				assertEquals(1, verStorage.getVersion(k));
+				assertEquals("data-" + i + "-0", BytesUtils.toString(verStorage.get(k, 0)));
+				assertEquals("data-" + i + "-1", BytesUtils.toString(verStorage.get(k, 1)));
+				assertEquals("ex-" + i, BytesUtils.toString(exStorage.get(Bytes.fromString("kx-" + i))));
+			}
+			assertEquals(-1, verStorage.getVersion(Bytes.fromString("kc")));
+		}
+	}
+
+	@Test
+	public void testWriteBehind() {
+		String dbUri = initEmptyDB("rocksdb_write_behind_test")
+				+ "?writeBehind=true&writeBehind.memory=1&writeBehind.batch=64&writeBehind.delay=1";
+		int count = 3000;
+		byte[] padding = new byte[1024];
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			ExPolicyKVStorage exStorage = conn.getStorageService().getExPolicyKVStorage();
+			KVWriteBehindQueue writeBehind = ((RocksDBStorageService) conn.getStorageService())
+					.getWriteBehindQueue();
+			assertNotNull(writeBehind);
+
+			// 超出内存上限的写入被阻塞，写入之后立即可读；
+			for (int i = 0; i < count; i++) {
+				Bytes key = Bytes.fromString("kw-" + i);
+				byte[] value = BytesUtils.concat(BytesUtils.toBytes("data-" + i + "-"), padding);
+				assertEquals(0, verStorage.set(key, value, -1));
+				assertEquals(0, verStorage.getVersion(key));
+				assertTrue(BytesUtils.equals(value, verStorage.get(key, 0)));
+				assertTrue(writeBehind.getPendingBytes() <= 1024 * 1024 + 2 * 1024);
+			}
+
+			writeBehind.flush();
+			assertEquals(0, writeBehind.getQueueDepth());
+			assertEquals(0, writeBehind.getPendingBytes());
+			assertTrue(writeBehind.getBatchCount() > 1);
+			// 每个键写入版本和数据两条记录；
+			assertEquals(count * 2, writeBehind.getWrittenCount());
+			assertTrue(writeBehind.getMaxBatchLatency() >= writeBehind.getAverageBatchLatency());
+
+			// 区块批量写入之前先写完队列中的数据；
+			BufferedKVStorage bufferedStorage = new BufferedKVStorage(exStorage, verStorage, true);
+			for (int i = 0; i < count; i++) {
+				Bytes key = Bytes.fromString("kw-" + i);
+				assertEquals(1, bufferedStorage.set(key, BytesUtils.toBytes("data-" + i + "-1"), 0));
+			}
+			bufferedStorage.flush();
+			assertEquals(count * 2, writeBehind.getWrittenCount());
+		}
+
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			VersioningKVStorage verStorage = conn.getStorageService().getVersioningKVStorage();
+			for (int i = 0; i < count; i++) {
+				Bytes key = Bytes.fromString("kw-" + i);
+				assertEquals(1, verStorage.getVersion(key));
+				assertEquals("data-" + i + "-1", BytesUtils.toString(verStorage.get(key, 1)));
+			}
+		}
+	}
+
+	@Test
+	public void testVersionedKeyWriteBehind() {
+		// 凑批的等待时间足够长，写入在测试期间停留在队列中；
+		String dbUri = initEmptyDB("rocksdb_versioned_key_write_behind_test")
+				+ "?writeBehind=true&writeBehind.batch=100000&writeBehind.delay=60000";
+		System.setProperty("rocksdb-versioned-key", "true");
+		try (DbConnectionFactory dbConnFactory = new RocksDBConnectionFactory();) {
+			DbConnection conn = dbConnFactory.connect(dbUri);
+			RocksDBStorageService storageService = (RocksDBStorageService) conn.getStorageService();
+			VersioningKVStorage verStorage = storageService.getVersioningKVStorage();
+			assertTrue(verStorage instanceof RocksDBVersionedKeyStorage);
+			KVWriteBehindQueue writeBehind = storageService.getWriteBehindQueue();
+
+			Bytes key = Bytes.fromString("kv");
+			Bytes prefixedKey = Bytes.fromString("kv1");
+			assertEquals(0, verStorage.set(key, BytesUtils.toBytes("data-kv-0"), -1));
+			assertEquals(1, verStorage.set(key, BytesUtils.toBytes("data-kv-1"), 0));
+			assertEquals(2, verStorage.set(key, BytesUtils.toBytes("data-kv-2"), 1));
+			assertEquals(0, verStorage.set(prefixedKey, BytesUtils.toBytes("data-kv1-0"), -1));
+			int queueDepth = writeBehind.getQueueDepth();
+			assertEquals(4, queueDepth);
+
+			// 清除缓存的版本后，从队列中解析最新版本，不等待写入；
+			((RocksDBVersionedKeyStorage) verStorage).blockCancel();
+			assertEquals(2, verStorage.getVersion(key));
+			assertEquals(0, verStorage.getVersion(prefixedKey));
+			assertEquals(-1, verStorage.getVersion(Bytes.fromString("k")));
+			assertEquals(queueDepth, writeBehind.getQueueDepth());
+			assertEquals("data-kv-2", BytesUtils.toString(verStorage.get(key, -1)));
+			assertEquals(3, verStorage.set(key, BytesUtils.toBytes("data-kv-3"), 2));
+
+			// 部分版本已写入数据库时，取数据库与队列中较大的版本；
+			writeBehind.flush();
+			assertEquals(4, verStorage.set(key, BytesUtils.toBytes("data-kv-4"), 3));
+			((RocksDBVersionedKeyStorage) verStorage).blockCancel();
+			assertEquals(4, verStorage.getVersion(key));
+			assertEquals(1, writeBehind.getQueueDepth());
+		} finally {
+			System.clearProperty("rocksdb-versioned-key");
+		}
+	}
+
+	private static byte[] dbKey(String key) {
+		return BytesUtils.concat(BytesUtils.toBytes("V"), BytesUtils.toBytes(key));
+	}
+
 	private void test(ExPolicyKVStorage exStorage) {
 		Bytes key = Bytes.fromString("kex");
 		assertFalse(exStorage.exist(key));
@@ -125,10 +393,29 @@ public class RocksDBStorageTest {
 		assertEquals("data", strData);
 	}
 
+	/**
+	 * 批量读取由 {@link #test(VersioningKVStorage)} 和 {@link #test(ExPolicyKVStorage)} 写入的数据；
+	 */
+	private void testMultiGet(VersioningKVStorage verStorage, ExPolicyKVStorage exStorage) {
+		Bytes k1 = Bytes.fromString("k1");
+		Bytes absent = Bytes.fromString("k-absent");
+		byte[][] values = verStorage.multiGet(new Bytes[] { k1, absent, k1, k1, k1 }, new long[] { -1, -1, 0, 1, 2 });
+		assertEquals(5, values.length);
+		assertEquals("data", BytesUtils.toString(values[0]));
+		assertNull(values[1]);
+		assertEquals("data", BytesUtils.toString(values[2]));
+		assertEquals("data", BytesUtils.toString(values[3]));
+		assertNull(values[4]);
+
+		values = exStorage.multiGet(new Bytes[] { absent, Bytes.fromString("kex") });
+		assertNull(values[0]);
+		assertEquals("data", BytesUtils.toString(values[1]));
+
+		assertEquals(0, verStorage.multiGet(new Bytes[0], new long[0]).length);
+	}
+
 	private String initEmptyDB(String name) {
-		String currDir = FileUtils.getCurrentDir();
-		String dbDir = new File(currDir, name + ".db").getAbsolutePath();
-		FileUtils.deleteFile(dbDir);
+		String dbDir = new File(tempFolder.getRoot(), name + ".db").getAbsolutePath();
 		String dbURI = "rocksdb://" + dbDir;
 		return dbURI;
 	}
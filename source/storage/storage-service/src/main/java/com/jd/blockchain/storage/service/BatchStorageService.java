@@ -20,4 +20,29 @@ public interface BatchStorageService {
     void batchBegin();
 
     void batchCommit();
+
+    /**
+     * 开始区块的批量写入；<br>
+     *
+     * 此后由任何线程写入的数据都被收集到同一个批次中，直到 {@link #blockCommit()} 原子地提交，或者 {@link #blockCancel()} 丢弃；<br>
+     * 批量写入期间写入的数据对读取是立即可见的；<br>
+     *
+     * 开始和提交可以嵌套，只有最外层的提交才会真正写入；<br>
+     *
+     * 不支持区块批量写入的存储直接写入，默认实现不做任何处理；
+     */
+    default void blockBegin() {
+    }
+
+    /**
+     * 原子地提交区块批量写入的全部数据；
+     */
+    default void blockCommit() {
+    }
+
+    /**
+     * 丢弃区块批量写入中尚未提交的全部数据；
+     */
+    default void blockCancel() {
+    }
 }
\ No newline at end of file
@@ -18,6 +18,23 @@ public interface ExPolicyKVStorage extends BatchStorageService{
 	 * @return
 	 */
 	byte[] get(Bytes key);
+
+	/**
+	 * 批量返回多个“键”对应的“值”；<br>
+	 * 返回的数组与参数中的“键”一一对应，不存在的“键”对应的值为 null；<br>
+	 * 
+	 * 默认实现逐个读取；支持一次往返读取多个“键”的存储应当重写此方法；
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	default byte[][] multiGet(Bytes[] keys) {
+		byte[][] values = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			values[i] = get(keys[i]);
+		}
+		return values;
+	}
 	
 	/**
 	 * 如果满足指定的存在性策略，则创建/更新指定的“键-值”；
@@ -56,6 +56,31 @@ public interface VersioningKVStorage extends BatchStorageService {
 	 * @return
 	 */
 	byte[] get(Bytes key, long version);
+
+	/**
+	 * Return the values of the specified keys and versions in one batch; <br>
+	 * 
+	 * The value at index i is the value of keys[i] at versions[i], with the same
+	 * semantics as {@link #get(Bytes, long)}: version -1 stands for the latest
+	 * version, and null is returned for the absent key or version;<br>
+	 * 
+	 * The default implementation reads the keys one by one; storages which can
+	 * read multiple keys in a single round-trip should override it.
+	 * 
+	 * @param keys
+	 * @param versions
+	 * @return
+	 */
+	default byte[][] multiGet(Bytes[] keys, long[] versions) {
+		if (keys.length != versions.length) {
+			throw new IllegalArgumentException("The count of keys and versions doesn't match!");
+		}
+		byte[][] values = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			values[i] = get(keys[i], versions[i]);
+		}
+		return values;
+	}
 	
 	/**
 	 * Update the value of the key;<br>
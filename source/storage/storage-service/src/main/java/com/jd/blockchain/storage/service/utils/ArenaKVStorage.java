@@ -0,0 +1,833 @@
+package com.jd.blockchain.storage.service.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.jd.blockchain.storage.service.ExPolicyKVStorage;
+import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.DataEntry;
+
+/**
+ * {@link ArenaKVStorage} 基于堆外内存暂存写入的KV存储；<br>
+ *
+ * 与 {@link BufferedKVStorage} 的语义相同，区别在于暂存数据的组织方式：<br>
+ * 1、键和值以记录的形式顺序追加到堆外的内存块（slab）中，不保留写入的 byte[] 对象；<br>
+ * 2、索引是以键的哈希为键的开放寻址表，条目的属性保存在基本类型的数组中，不为每个键创建条目对象；<br>
+ * 3、同一个键的多个版本通过记录中指向前一个版本的引用串联；<br>
+ * 4、输出或者丢弃之后，内存块归还到全局的内存块池中重用，丢弃嵌套的交易存储层只需重置计数；<br>
+ *
+ * 读取时仍然需要把值复制为 byte[] 返回；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class ArenaKVStorage implements StagedKVStorage {
+
+	private static final int SLAB_SIZE = 64 * 1024;
+
+	private static final int MAX_POOLED_SLABS = 1024;
+
+	private static final int MAX_PARALLEL_DB_WRITE_SIZE = 500;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * 全局的内存块池；
+	 */
+	private static final ConcurrentLinkedQueue<ByteBuffer> SLAB_POOL = new ConcurrentLinkedQueue<>();
+
+	private static final AtomicInteger POOLED_SLABS = new AtomicInteger();
+
+	private static final ThreadLocal<byte[]> KEY_BUFFER = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[256];
+		}
+	};
+
+	private final boolean parallel;
+
+	private final VersioningKVStorage origVersioningStorage;
+
+	private final ExPolicyKVStorage origExistanceStorage;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Arena arena = new Arena();
+
+	/**
+	 * 版本化KV数据的索引；
+	 */
+	private final Index versionings = new Index();
+
+	/**
+	 * 版本化KV数据：每个条目的起始版本（即原始存储的最新版本）；
+	 */
+	private long[] startingVersions = new long[INITIAL_CAPACITY];
+
+	/**
+	 * 版本化KV数据：每个条目的最新的值记录；
+	 */
+	private long[] latestValueRefs = new long[INITIAL_CAPACITY];
+
+	/**
+	 * 版本化KV数据：每个条目暂存的版本数；为 0 表示条目已被撤销；
+	 */
+	private int[] valueCounts = new int[INITIAL_CAPACITY];
+
+	private int liveVersionings;
+
+	/**
+	 * 存在性KV数据的索引；
+	 */
+	private final Index existances = new Index();
+
+	/**
+	 * 存在性KV数据：每个条目的值记录；为 -1 表示条目已被撤销；
+	 */
+	private long[] exValueRefs = new long[INITIAL_CAPACITY];
+
+	/**
+	 * 存在性KV数据：每个条目的初始写入策略；
+	 */
+	private ExPolicy[] exPolicies = new ExPolicy[INITIAL_CAPACITY];
+
+	private int liveExistances;
+
+	/**
+	 * 创建实例；
+	 *
+	 * @param origExPolicyStorage   原始的存储；
+	 * @param origVersioningStorage 原始的存储；
+	 * @param parallel              是否并行写入；
+	 */
+	public ArenaKVStorage(ExPolicyKVStorage origExPolicyStorage, VersioningKVStorage origVersioningStorage,
+			boolean parallel) {
+		this.origExistanceStorage = origExPolicyStorage;
+		this.origVersioningStorage = origVersioningStorage;
+		this.parallel = parallel;
+	}
+
+	// =============================================================
+	// 版本化KV存储；
+
+	@Override
+	public long getVersion(Bytes key) {
+		lock.readLock().lock();
+		try {
+			int entry = findVersioning(key);
+			if (entry >= 0) {
+				return startingVersions[entry] + valueCounts[entry];
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return origVersioningStorage.getVersion(key);
+	}
+
+	@Override
+	public DataEntry<Bytes, byte[]> getEntry(Bytes key, long version) {
+		lock.readLock().lock();
+		try {
+			int entry = findVersioning(key);
+			if (entry >= 0) {
+				long startingVersion = startingVersions[entry];
+				if (version > startingVersion) {
+					byte[] value = getValue(entry, version);
+					return value == null ? null : new VersioningKVData<Bytes, byte[]>(key, version, value);
+				}
+				version = version < 0 ? startingVersion : version;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return origVersioningStorage.getEntry(key, version);
+	}
+
+	@Override
+	public byte[] get(Bytes key, long version) {
+		lock.readLock().lock();
+		try {
+			int entry = findVersioning(key);
+			if (entry >= 0) {
+				long startingVersion = startingVersions[entry];
+				if (version > startingVersion) {
+					return getValue(entry, version);
+				}
+				version = version < 0 ? startingVersion : version;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return origVersioningStorage.get(key, version);
+	}
+
+	/**
+	 * 批量读取；暂存的数据在读锁内直接读取，其余的键合并为一次批量读取从原始存储读取；
+	 */
+	@Override
+	public byte[][] multiGet(Bytes[] keys, long[] versions) {
+		if (keys.length != versions.length) {
+			throw new IllegalArgumentException("The count of keys and versions doesn't match!");
+		}
+		byte[][] values = new byte[keys.length][];
+		int[] origIndexes = new int[keys.length];
+		Bytes[] origKeys = new Bytes[keys.length];
+		long[] origVersions = new long[keys.length];
+		int origCount = 0;
+		lock.readLock().lock();
+		try {
+			for (int i = 0; i < keys.length; i++) {
+				long version = versions[i];
+				int entry = findVersioning(keys[i]);
+				if (entry >= 0) {
+					long startingVersion = startingVersions[entry];
+					if (version > startingVersion) {
+						values[i] = getValue(entry, version);
+						continue;
+					}
+					version = version < 0 ? startingVersion : version;
+				}
+				origIndexes[origCount] = i;
+				origKeys[origCount] = keys[i];
+				origVersions[origCount] = version;
+				origCount++;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (origCount > 0) {
+			byte[][] origValues = origVersioningStorage.multiGet(Arrays.copyOf(origKeys, origCount),
+					Arrays.copyOf(origVersions, origCount));
+			for (int i = 0; i < origCount; i++) {
+				values[origIndexes[i]] = origValues[i];
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * 读取暂存的指定版本的值；
+	 */
+	private byte[] getValue(int entry, long version) {
+		long latestVersion = startingVersions[entry] + valueCounts[entry];
+		if (version > latestVersion) {
+			return null;
+		}
+		long ref = latestValueRefs[entry];
+		for (long v = latestVersion; v > version; v--) {
+			ref = arena.getLong(ref);
+		}
+		return arena.readValue(ref);
+	}
+
+	@Override
+	public long set(Bytes key, byte[] value, long version) {
+		if (value == null) {
+			throw new IllegalArgumentException("Value is null!");
+		}
+		if (version < -1) {
+			version = -1;
+		}
+		lock.writeLock().lock();
+		try {
+			int entry = findVersioning(key);
+			if (entry < 0) {
+				long latestVersion = origVersioningStorage.getVersion(key);
+				if (version != latestVersion) {
+					return -1;
+				}
+				entry = versionings.find(key, true);
+				if (entry == versionings.size() - 1 && valueCounts.length <= entry) {
+					growVersionings();
+				}
+				startingVersions[entry] = latestVersion;
+				latestValueRefs[entry] = arena.writeValue(-1, value);
+				valueCounts[entry] = 1;
+				liveVersionings++;
+				return version + 1;
+			}
+			if (startingVersions[entry] + valueCounts[entry] != version) {
+				return -1;
+			}
+			latestValueRefs[entry] = arena.writeValue(latestValueRefs[entry], value);
+			valueCounts[entry]++;
+			return version + 1;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean revert(Bytes key, long version) {
+		lock.writeLock().lock();
+		try {
+			int entry = findVersioning(key);
+			if (entry < 0 || startingVersions[entry] + valueCounts[entry] != version) {
+				return false;
+			}
+			// 被撤销的值记录留在内存块中，直到输出或者丢弃时一起释放；
+			latestValueRefs[entry] = arena.getLong(latestValueRefs[entry]);
+			valueCounts[entry]--;
+			if (valueCounts[entry] == 0) {
+				liveVersionings--;
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 返回暂存了数据的条目；如果不存在或者已被撤销，则返回 -1；
+	 */
+	private int findVersioning(Bytes key) {
+		int entry = versionings.find(key, false);
+		return entry >= 0 && valueCounts[entry] > 0 ? entry : -1;
+	}
+
+	private void growVersionings() {
+		int capacity = valueCounts.length * 2;
+		startingVersions = Arrays.copyOf(startingVersions, capacity);
+		latestValueRefs = Arrays.copyOf(latestValueRefs, capacity);
+		valueCounts = Arrays.copyOf(valueCounts, capacity);
+	}
+
+	// =============================================================
+	// 存在性KV存储；
+
+	@Override
+	public byte[] get(Bytes key) {
+		lock.readLock().lock();
+		try {
+			int entry = findExistance(key);
+			if (entry >= 0) {
+				return arena.readValue(exValueRefs[entry]);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return origExistanceStorage.get(key);
+	}
+
+	@Override
+	public byte[][] multiGet(Bytes[] keys) {
+		byte[][] values = new byte[keys.length][];
+		int[] origIndexes = new int[keys.length];
+		Bytes[] origKeys = new Bytes[keys.length];
+		int origCount = 0;
+		lock.readLock().lock();
+		try {
+			for (int i = 0; i < keys.length; i++) {
+				int entry = findExistance(keys[i]);
+				if (entry >= 0) {
+					values[i] = arena.readValue(exValueRefs[entry]);
+					continue;
+				}
+				origIndexes[origCount] = i;
+				origKeys[origCount] = keys[i];
+				origCount++;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (origCount > 0) {
+			byte[][] origValues = origExistanceStorage.multiGet(Arrays.copyOf(origKeys, origCount));
+			for (int i = 0; i < origCount; i++) {
+				values[origIndexes[i]] = origValues[i];
+			}
+		}
+		return values;
+	}
+
+	@Override
+	public boolean exist(Bytes key) {
+		lock.readLock().lock();
+		try {
+			if (findExistance(key) >= 0) {
+				return true;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return origExistanceStorage.exist(key);
+	}
+
+	@Override
+	public boolean set(Bytes key, byte[] value, ExPolicy ex) {
+		if (value == null) {
+			throw new IllegalArgumentException("Value is null!");
+		}
+		if (ex != ExPolicy.EXISTING && ex != ExPolicy.NOT_EXISTING) {
+			throw new IllegalArgumentException("Unsupported ExistancePolicy[" + ex + "]!");
+		}
+		lock.writeLock().lock();
+		try {
+			int entry = findExistance(key);
+			if (entry >= 0) {
+				if (ex == ExPolicy.NOT_EXISTING) {
+					// 已经存在；
+					return false;
+				}
+				exValueRefs[entry] = arena.writeValue(-1, value);
+				return true;
+			}
+			boolean exist = origExistanceStorage.exist(key);
+			if (exist != (ex == ExPolicy.EXISTING)) {
+				return false;
+			}
+			entry = existances.find(key, true);
+			if (entry == existances.size() - 1 && exValueRefs.length <= entry) {
+				exValueRefs = Arrays.copyOf(exValueRefs, exValueRefs.length * 2);
+				exPolicies = Arrays.copyOf(exPolicies, exPolicies.length * 2);
+			}
+			exValueRefs[entry] = arena.writeValue(-1, value);
+			exPolicies[entry] = ex;
+			liveExistances++;
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean revert(Bytes key) {
+		lock.writeLock().lock();
+		try {
+			int entry = findExistance(key);
+			if (entry < 0) {
+				return false;
+			}
+			exValueRefs[entry] = -1;
+			liveExistances--;
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private int findExistance(Bytes key) {
+		int entry = existances.find(key, false);
+		return entry >= 0 && exValueRefs[entry] >= 0 ? entry : -1;
+	}
+
+	// =============================================================
+	// 输出和丢弃；
+
+	/**
+	 * 输出已暂存的所有写入数据到原始存储，并释放暂存的数据；<br>
+	 *
+	 * 全部写入在原始存储的区块批量写入（{@link #blockBegin()}）中进行，原始存储支持时以一次原子的写入提交；
+	 */
+	@Override
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			origVersioningStorage.blockBegin();
+			origExistanceStorage.blockBegin();
+			try {
+				if (parallel) {
+					ForkJoinPool.commonPool().invoke(new WritingTask(0, versionings.size() + existances.size()));
+				} else {
+					flushEntries(0, versionings.size() + existances.size());
+				}
+			} catch (RuntimeException e) {
+				origExistanceStorage.blockCancel();
+				origVersioningStorage.blockCancel();
+				throw e;
+			}
+			origExistanceStorage.blockCommit();
+			origVersioningStorage.blockCommit();
+
+			clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 输出指定范围的条目；版本化条目排在存在性条目之前；
+	 */
+	private void flushEntries(int from, int to) {
+		int versioningSize = versionings.size();
+		for (int i = from; i < to; i++) {
+			if (i < versioningSize) {
+				flushVersioning(i);
+			} else {
+				flushExistance(i - versioningSize);
+			}
+		}
+	}
+
+	private void flushVersioning(int entry) {
+		int count = valueCounts[entry];
+		if (count == 0) {
+			return;
+		}
+		// 值记录从新到旧串联，按照从旧到新的顺序输出；
+		long[] refs = new long[count];
+		long ref = latestValueRefs[entry];
+		for (int i = count - 1; i >= 0; i--) {
+			refs[i] = ref;
+			ref = arena.getLong(ref);
+		}
+		Bytes key = versionings.key(entry);
+		long expVersion = startingVersions[entry];
+		for (int i = 0; i < count; i++) {
+			if (origVersioningStorage.set(key, arena.readValue(refs[i]), expVersion) < 0) {
+				throw new IllegalStateException(String.format(
+						"Fail on flushing data to original storage! Expected version doesn't match! --[KEY=%s][EXPECTED_VERSION=%s]",
+						key, expVersion));
+			}
+			expVersion++;
+		}
+	}
+
+	private void flushExistance(int entry) {
+		long ref = exValueRefs[entry];
+		if (ref < 0) {
+			return;
+		}
+		Bytes key = existances.key(entry);
+		if (!origExistanceStorage.set(key, arena.readValue(ref), exPolicies[entry])) {
+			throw new IllegalStateException(String.format(
+					"Fail on flushing data to original storage! The existance policy doesn't match --[KEY=%s][POLICY=%s]",
+					key, exPolicies[entry]));
+		}
+	}
+
+	private void clear() {
+		versionings.clear();
+		existances.clear();
+		Arrays.fill(exPolicies, null);
+		liveVersionings = 0;
+		liveExistances = 0;
+		arena.release();
+	}
+
+	/**
+	 * 丢弃暂存的数据，并把内存块归还到内存块池；
+	 */
+	@Override
+	public void cancel() {
+		lock.writeLock().lock();
+		try {
+			clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isUpdated() {
+		lock.readLock().lock();
+		try {
+			return liveVersionings > 0 || liveExistances > 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void commit() {
+		flush();
+	}
+
+	@Override
+	public void batchBegin() {
+		// un support!!!
+	}
+
+	@Override
+	public void batchCommit() {
+		// un support!!!
+	}
+
+	/**
+	 * 暂存数据占用的堆外内存的字节数；
+	 *
+	 * @return
+	 */
+	public long getArenaSize() {
+		lock.readLock().lock();
+		try {
+			return arena.capacity();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private class WritingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 4286417893046517297L;
+
+		private final int from;
+
+		private final int to;
+
+		private WritingTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > MAX_PARALLEL_DB_WRITE_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new WritingTask(from, middle), new WritingTask(middle, to));
+			} else {
+				flushEntries(from, to);
+			}
+		}
+	}
+
+	// =============================================================
+
+	private static byte[] keyBuffer(int size) {
+		byte[] buffer = KEY_BUFFER.get();
+		if (buffer.length < size) {
+			buffer = new byte[Math.max(size, buffer.length * 2)];
+			KEY_BUFFER.set(buffer);
+		}
+		return buffer;
+	}
+
+	private static int hash(byte[] bytes, int length) {
+		int h = 1;
+		for (int i = 0; i < length; i++) {
+			h = 31 * h + bytes[i];
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * 以键的哈希为键的开放寻址索引；条目的序号按照插入的顺序分配，条目一旦分配就不会被移除，直到清空；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	private class Index {
+
+		/**
+		 * 哈希槽；保存条目序号加 1，0 表示空槽；
+		 */
+		private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+		private int[] hashes = new int[INITIAL_CAPACITY];
+
+		private long[] keyRefs = new long[INITIAL_CAPACITY];
+
+		/**
+		 * 首次写入时的键；{@link Bytes} 的相等性与其前缀结构有关，输出到原始存储时应使用调用者的键对象；
+		 */
+		private Bytes[] keys = new Bytes[INITIAL_CAPACITY];
+
+		private int size;
+
+		public int size() {
+			return size;
+		}
+
+		public Bytes key(int entry) {
+			return keys[entry];
+		}
+
+		/**
+		 * 查找键对应的条目；
+		 *
+		 * @param key
+		 * @param create 不存在时是否创建；
+		 * @return 条目的序号；不存在且不创建时返回 -1；
+		 */
+		public int find(Bytes key, boolean create) {
+			int length = key.size();
+			byte[] keyBytes = keyBuffer(length);
+			key.copyTo(keyBytes, 0, length);
+			int h = hash(keyBytes, length);
+
+			int mask = slots.length - 1;
+			int slot = h & mask;
+			while (slots[slot] != 0) {
+				int entry = slots[slot] - 1;
+				if (hashes[entry] == h && arena.keyEquals(keyRefs[entry], keyBytes, length)) {
+					return entry;
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (!create) {
+				return -1;
+			}
+			int entry = size;
+			if (entry == hashes.length) {
+				hashes = Arrays.copyOf(hashes, entry * 2);
+				keyRefs = Arrays.copyOf(keyRefs, entry * 2);
+				keys = Arrays.copyOf(keys, entry * 2);
+			}
+			hashes[entry] = h;
+			keys[entry] = key;
+			keyRefs[entry] = arena.writeKey(keyBytes, length);
+			slots[slot] = entry + 1;
+			size++;
+			if (size * 2 > slots.length) {
+				rehash(slots.length * 2);
+			}
+			return entry;
+		}
+
+		private void rehash(int capacity) {
+			int[] newSlots = new int[capacity];
+			int mask = capacity - 1;
+			for (int entry = 0; entry < size; entry++) {
+				int slot = hashes[entry] & mask;
+				while (newSlots[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				newSlots[slot] = entry + 1;
+			}
+			slots = newSlots;
+		}
+
+		public void clear() {
+			if (size > 0) {
+				Arrays.fill(slots, 0);
+				Arrays.fill(keys, 0, size, null);
+				size = 0;
+			}
+		}
+	}
+
+	/**
+	 * 由堆外内存块组成的追加写入的内存区；<br>
+	 *
+	 * 记录的引用由内存块的序号（高 32 位）和块内偏移（低 32 位）组成；<br>
+	 * 键记录：4 字节长度 + 键；值记录：8 字节的前一个版本的引用 + 4 字节长度 + 值；
+	 *
+	 * @author huanghaiquan
+	 *
+	 */
+	private static class Arena {
+
+		private final ArrayList<ByteBuffer> slabs = new ArrayList<>();
+
+		private ByteBuffer current;
+
+		private int position;
+
+		private long allocate(int size) {
+			if (current == null || SLAB_SIZE - position < size) {
+				if (size > SLAB_SIZE) {
+					// 超出内存块大小的记录独占一个不回收到池中的内存块；
+					slabs.add(ByteBuffer.allocateDirect(size));
+					current = null;
+					return ((long) (slabs.size() - 1)) << 32;
+				}
+				ByteBuffer slab = SLAB_POOL.poll();
+				if (slab == null) {
+					slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+				} else {
+					POOLED_SLABS.decrementAndGet();
+				}
+				slabs.add(slab);
+				current = slab;
+				position = 0;
+			}
+			long ref = (((long) (slabs.size() - 1)) << 32) | position;
+			position += size;
+			return ref;
+		}
+
+		private ByteBuffer slab(long ref) {
+			return slabs.get((int) (ref >>> 32));
+		}
+
+		private static int offset(long ref) {
+			return (int) ref;
+		}
+
+		public long writeKey(byte[] key, int length) {
+			long ref = allocate(4 + length);
+			ByteBuffer slab = slab(ref);
+			int offset = offset(ref);
+			slab.putInt(offset, length);
+			ByteBuffer dup = slab.duplicate();
+			dup.position(offset + 4);
+			dup.put(key, 0, length);
+			return ref;
+		}
+
+		public boolean keyEquals(long ref, byte[] key, int length) {
+			ByteBuffer slab = slab(ref);
+			int offset = offset(ref);
+			if (slab.getInt(offset) != length) {
+				return false;
+			}
+			offset += 4;
+			for (int i = 0; i < length; i++) {
+				if (slab.get(offset + i) != key[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public long writeValue(long previousRef, byte[] value) {
+			long ref = allocate(12 + value.length);
+			ByteBuffer slab = slab(ref);
+			int offset = offset(ref);
+			slab.putLong(offset, previousRef);
+			slab.putInt(offset + 8, value.length);
+			ByteBuffer dup = slab.duplicate();
+			dup.position(offset + 12);
+			dup.put(value);
+			return ref;
+		}
+
+		/**
+		 * 返回值记录中前一个版本的引用；
+		 */
+		public long getLong(long ref) {
+			return slab(ref).getLong(offset(ref));
+		}
+
+		public byte[] readValue(long ref) {
+			ByteBuffer slab = slab(ref);
+			int offset = offset(ref);
+			byte[] value = new byte[slab.getInt(offset + 8)];
+			ByteBuffer dup = slab.duplicate();
+			dup.position(offset + 12);
+			dup.get(value);
+			return value;
+		}
+
+		public long capacity() {
+			long capacity = 0;
+			for (ByteBuffer slab : slabs) {
+				capacity += slab.capacity();
+			}
+			return capacity;
+		}
+
+		/**
+		 * 释放全部内存块；标准大小的内存块归还到池中；
+		 */
+		public void release() {
+			for (ByteBuffer slab : slabs) {
+				if (slab.capacity() == SLAB_SIZE && POOLED_SLABS.incrementAndGet() <= MAX_POOLED_SLABS) {
+					SLAB_POOL.offer(slab);
+				} else if (slab.capacity() == SLAB_SIZE) {
+					POOLED_SLABS.decrementAndGet();
+				}
+			}
+			slabs.clear();
+			current = null;
+			position = 0;
+		}
+	}
+}
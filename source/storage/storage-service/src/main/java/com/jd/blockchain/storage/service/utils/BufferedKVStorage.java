@@ -1,6 +1,7 @@
 package com.jd.blockchain.storage.service.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
@@ -9,7 +10,6 @@ import java.util.concurrent.RecursiveTask;
 import com.jd.blockchain.storage.service.ExPolicyKVStorage;
 import com.jd.blockchain.storage.service.VersioningKVStorage;
 import com.jd.blockchain.utils.Bytes;
-import com.jd.blockchain.utils.Transactional;
 import com.jd.blockchain.utils.DataEntry;
 
 /**
@@ -18,7 +18,7 @@ import com.jd.blockchain.utils.DataEntry;
  * @author huanghaiquan
  *
  */
-public class BufferedKVStorage implements VersioningKVStorage, ExPolicyKVStorage, Transactional {
+public class BufferedKVStorage implements StagedKVStorage {
 
 	private static int MAX_PARALLEL_DB_WRITE_SIZE = 500;
 	static {
@@ -114,6 +114,51 @@ public class BufferedKVStorage implements VersioningKVStorage, ExPolicyKVStorage
 		return ws.get(version);
 	}
 
+	/**
+	 * 批量读取；缓冲区中的数据直接返回，其余的键合并为一次批量读取从原始存储读取；
+	 */
+	@Override
+	public byte[][] multiGet(Bytes[] keys, long[] versions) {
+		if (keys.length != versions.length) {
+			throw new IllegalArgumentException("The count of keys and versions doesn't match!");
+		}
+		byte[][] values = new byte[keys.length][];
+		int[] origIndexes = new int[keys.length];
+		Bytes[] origKeys = new Bytes[keys.length];
+		long[] origVersions = new long[keys.length];
+		int origCount = 0;
+		for (int i = 0; i < keys.length; i++) {
+			long version = versions[i];
+			VersioningWritingSet ws = versioningCache.get(keys[i]);
+			if (ws != null) {
+				long latestVersion = ws.getStartingVersion();
+				if (version > latestVersion) {
+					// 返回缓冲的新数据；超出缓冲的最新版本时为 null；
+					values[i] = ws.get(version);
+					continue;
+				}
+				version = version < 0 ? latestVersion : version;
+			}
+			origIndexes[origCount] = i;
+			origKeys[origCount] = keys[i];
+			origVersions[origCount] = version;
+			origCount++;
+		}
+		if (origCount > 0) {
+			byte[][] origValues;
+			if (origCount == keys.length) {
+				origValues = origVersioningStorage.multiGet(origKeys, origVersions);
+			} else {
+				origValues = origVersioningStorage.multiGet(Arrays.copyOf(origKeys, origCount),
+						Arrays.copyOf(origVersions, origCount));
+			}
+			for (int i = 0; i < origCount; i++) {
+				values[origIndexes[i]] = origValues[i];
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public long set(Bytes key, byte[] value, long version) {
 		if (value == null) {
@@ -146,14 +191,61 @@ public class BufferedKVStorage implements VersioningKVStorage, ExPolicyKVStorage
 	}
 
 	/**
-	 * 输出已缓冲的所有写入数据到原始存储，并清空缓冲区；
+	 * 撤销指定 key 的最新一个缓冲版本；<br>
+	 * 
+	 * 只有当指定的版本是该 key 在缓冲区中的最新版本时才执行撤销；已经输出到原始存储的数据不受影响；
+	 * 
+	 * @param key
+	 *            键；
+	 * @param version
+	 *            要撤销的版本；
+	 * @return 撤销成功则返回 true；否则返回 false；
+	 */
+	public boolean revert(Bytes key, long version) {
+		synchronized (versioningMutex) {
+			VersioningWritingSet ws = versioningCache.get(key);
+			if (ws == null || !ws.revert(version)) {
+				return false;
+			}
+			if (ws.isEmpty()) {
+				versioningCache.remove(key);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 撤销指定 key 在“存在性KV存储”中的缓冲写入；已经输出到原始存储的数据不受影响；
+	 * 
+	 * @param key
+	 *            键；
+	 * @return 撤销成功则返回 true；如果缓冲区中没有该 key 的写入，则返回 false；
+	 */
+	public boolean revert(Bytes key) {
+		return existanceCache.remove(key) != null;
+	}
+
+	/**
+	 * 输出已缓冲的所有写入数据到原始存储，并清空缓冲区；<br>
+	 * 
+	 * 全部写入在原始存储的区块批量写入（{@link #blockBegin()}）中进行，原始存储支持时以一次原子的写入提交；
 	 */
 	public void flush() {
-		if (parallel) {
-			parallelFlush();
-		} else {
-			syncFlush();
+		origVersioningStorage.blockBegin();
+		origExistanceStorage.blockBegin();
+		try {
+			if (parallel) {
+				parallelFlush();
+			} else {
+				syncFlush();
+			}
+		} catch (RuntimeException e) {
+			origExistanceStorage.blockCancel();
+			origVersioningStorage.blockCancel();
+			throw e;
 		}
+		origExistanceStorage.blockCommit();
+		origVersioningStorage.blockCommit();
 
 		clear();
 	}
@@ -329,6 +421,32 @@ public class BufferedKVStorage implements VersioningKVStorage, ExPolicyKVStorage
 		return ws.get();
 	}
 
+	@Override
+	public byte[][] multiGet(Bytes[] keys) {
+		byte[][] values = new byte[keys.length][];
+		int[] origIndexes = new int[keys.length];
+		Bytes[] origKeys = new Bytes[keys.length];
+		int origCount = 0;
+		for (int i = 0; i < keys.length; i++) {
+			ExistanceWritingSet ws = existanceCache.get(keys[i]);
+			if (ws != null) {
+				values[i] = ws.get();
+				continue;
+			}
+			origIndexes[origCount] = i;
+			origKeys[origCount] = keys[i];
+			origCount++;
+		}
+		if (origCount > 0) {
+			byte[][] origValues = origExistanceStorage
+					.multiGet(origCount == keys.length ? origKeys : Arrays.copyOf(origKeys, origCount));
+			for (int i = 0; i < origCount; i++) {
+				values[origIndexes[i]] = origValues[i];
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public boolean set(Bytes key, byte[] value, ExPolicy ex) {
 		if (value == null) {
@@ -463,6 +581,24 @@ public class BufferedKVStorage implements VersioningKVStorage, ExPolicyKVStorage
 			return -1;
 		}
 
+		/**
+		 * 撤销最新的一个版本；只有当指定的版本等于当前最新版本时才执行；
+		 * 
+		 * @param version
+		 * @return
+		 */
+		public synchronized boolean revert(long version) {
+			if (values.isEmpty() || getLatestVersion() != version) {
+				return false;
+			}
+			values.remove(values.size() - 1);
+			return true;
+		}
+
+		public boolean isEmpty() {
+			return values.isEmpty();
+		}
+
 		/**
 		 * 当前写入序列的最新版本；<br>
 		 * 
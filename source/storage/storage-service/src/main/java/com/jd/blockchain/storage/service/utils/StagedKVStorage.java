@@ -0,0 +1,42 @@
+package com.jd.blockchain.storage.service.utils;
+
+import com.jd.blockchain.storage.service.ExPolicyKVStorage;
+import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.Transactional;
+
+/**
+ * 暂存写入的KV存储；<br>
+ * 
+ * 写入先暂存在当前存储中，通过 {@link #flush()} 输出到原始存储，或者通过 {@link #cancel()} 丢弃；
+ * 
+ * @author huanghaiquan
+ *
+ */
+public interface StagedKVStorage extends VersioningKVStorage, ExPolicyKVStorage, Transactional {
+
+	/**
+	 * 输出已暂存的所有写入数据到原始存储，并清空暂存的数据；
+	 */
+	void flush();
+
+	/**
+	 * 撤销指定 key 的最新一个暂存版本；<br>
+	 * 
+	 * 只有当指定的版本是该 key 暂存的最新版本时才执行撤销；已经输出到原始存储的数据不受影响；
+	 * 
+	 * @param key     键；
+	 * @param version 要撤销的版本；
+	 * @return 撤销成功则返回 true；否则返回 false；
+	 */
+	boolean revert(Bytes key, long version);
+
+	/**
+	 * 撤销指定 key 在“存在性KV存储”中的暂存写入；已经输出到原始存储的数据不受影响；
+	 * 
+	 * @param key 键；
+	 * @return 撤销成功则返回 true；如果没有该 key 的暂存写入，则返回 false；
+	 */
+	boolean revert(Bytes key);
+
+}
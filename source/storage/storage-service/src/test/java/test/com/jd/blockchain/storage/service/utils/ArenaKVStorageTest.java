@@ -0,0 +1,167 @@
+package test.com.jd.blockchain.storage.service.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.jd.blockchain.storage.service.ExPolicyKVStorage;
+import com.jd.blockchain.storage.service.ExPolicyKVStorage.ExPolicy;
+import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.storage.service.utils.ArenaKVStorage;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+
+public class ArenaKVStorageTest {
+
+	@Test
+	public void test() throws UnsupportedEncodingException {
+		ExPolicyKVStorage exStorage = Mockito.mock(ExPolicyKVStorage.class);
+		when(exStorage.get(any())).thenReturn(null);
+		when(exStorage.set(any(), any(), any())).thenReturn(true);
+
+		VersioningKVStorage verStorage = Mockito.mock(VersioningKVStorage.class);
+		when(verStorage.getVersion(any())).thenReturn(-1L);
+		when(verStorage.get(any(), anyLong())).thenReturn(null);
+		when(verStorage.getEntry(any(), anyLong())).thenReturn(null);
+		when(verStorage.set(any(), any(), anyLong())).thenAnswer(new Answer<Long>() {
+			@Override
+			public Long answer(InvocationOnMock invocation) throws Throwable {
+				long ver = (long) invocation.getArguments()[2];
+				return ver + 1;
+			}
+		});
+
+		ArenaKVStorage arenaStorage = new ArenaKVStorage(exStorage, verStorage, false);
+
+		Bytes keyA = Bytes.fromString("A");
+		long v = arenaStorage.set(keyA, "A0".getBytes("UTF-8"), -1);
+		assertEquals(0, v);
+		v = arenaStorage.set(keyA, "A1".getBytes("UTF-8"), v);
+		assertEquals(1, v);
+		v = arenaStorage.set(keyA, "A2".getBytes("UTF-8"), v);
+		assertEquals(2, v);
+		assertEquals(-1, arenaStorage.set(keyA, "A2".getBytes("UTF-8"), 1));
+
+		assertEquals(2, arenaStorage.getVersion(keyA));
+		assertArrayEquals("A0".getBytes("UTF-8"), arenaStorage.get(keyA, 0));
+		assertArrayEquals("A1".getBytes("UTF-8"), arenaStorage.get(keyA, 1));
+		assertArrayEquals("A2".getBytes("UTF-8"), arenaStorage.getEntry(keyA, 2).getValue());
+		assertNull(arenaStorage.get(keyA, 3));
+
+		byte[] data = "ABC".getBytes("UTF-8");
+		assertTrue(arenaStorage.set(Bytes.fromString("B"), data, ExPolicy.NOT_EXISTING));
+		assertTrue(arenaStorage.set(Bytes.fromString("C"), data, ExPolicy.NOT_EXISTING));
+		assertTrue(arenaStorage.set(Bytes.fromString("D"), data, ExPolicy.NOT_EXISTING));
+		assertFalse(arenaStorage.set(Bytes.fromString("D"), data, ExPolicy.NOT_EXISTING));
+		assertArrayEquals(data, arenaStorage.get(Bytes.fromString("C")));
+		assertTrue(arenaStorage.isUpdated());
+
+		verify(verStorage, times(0)).set(any(), any(), anyLong());
+		verify(exStorage, times(0)).set(any(), any(), any());
+
+		arenaStorage.flush();
+
+		verify(verStorage, times(3)).set(any(), any(), anyLong());
+		verify(verStorage, times(1)).set(eq(keyA), eq("A0".getBytes("UTF-8")), eq(-1L));
+		verify(verStorage, times(1)).set(eq(keyA), eq("A1".getBytes("UTF-8")), eq(0L));
+		verify(verStorage, times(1)).set(eq(keyA), eq("A2".getBytes("UTF-8")), eq(1L));
+
+		verify(exStorage, times(3)).set(any(), any(), any());
+		verify(exStorage, times(1)).set(eq(Bytes.fromString("B")), any(), eq(ExPolicy.NOT_EXISTING));
+		verify(exStorage, times(1)).set(eq(Bytes.fromString("C")), any(), eq(ExPolicy.NOT_EXISTING));
+		verify(exStorage, times(1)).set(eq(Bytes.fromString("D")), any(), eq(ExPolicy.NOT_EXISTING));
+
+		assertFalse(arenaStorage.isUpdated());
+		assertEquals(0, arenaStorage.getArenaSize());
+	}
+
+	@Test
+	public void testRevert() throws UnsupportedEncodingException {
+		ExPolicyKVStorage exStorage = Mockito.mock(ExPolicyKVStorage.class);
+		when(exStorage.get(any())).thenReturn(null);
+		when(exStorage.exist(any())).thenReturn(false);
+
+		VersioningKVStorage verStorage = Mockito.mock(VersioningKVStorage.class);
+		when(verStorage.getVersion(any())).thenReturn(-1L);
+		when(verStorage.get(any(), anyLong())).thenReturn(null);
+
+		ArenaKVStorage arenaStorage = new ArenaKVStorage(exStorage, verStorage, false);
+
+		Bytes keyA = Bytes.fromString("A");
+		byte[] data = "ABC".getBytes("UTF-8");
+		long v = arenaStorage.set(keyA, data, -1);
+		assertEquals(0, v);
+		v = arenaStorage.set(keyA, data, v);
+		assertEquals(1, v);
+
+		// 只能撤销最新的版本；
+		assertFalse(arenaStorage.revert(keyA, 0));
+		assertTrue(arenaStorage.revert(keyA, 1));
+		assertEquals(0, arenaStorage.getVersion(keyA));
+		assertNull(arenaStorage.get(keyA, 1));
+		assertTrue(arenaStorage.revert(keyA, 0));
+		assertEquals(-1, arenaStorage.getVersion(keyA));
+
+		// 撤销之后可以重新写入；
+		assertEquals(0, arenaStorage.set(keyA, data, -1));
+		assertTrue(arenaStorage.revert(keyA, 0));
+
+		Bytes keyB = Bytes.fromString("B");
+		assertTrue(arenaStorage.set(keyB, data, ExPolicy.NOT_EXISTING));
+		assertTrue(arenaStorage.revert(keyB));
+		assertFalse(arenaStorage.revert(keyB));
+		assertFalse(arenaStorage.exist(keyB));
+
+		assertFalse(arenaStorage.isUpdated());
+	}
+
+	/**
+	 * 验证大量的键、超出内存块大小的值以及并行输出；
+	 */
+	@Test
+	public void testFlushToStorage() {
+		MemoryKVStorage memoryStorage = new MemoryKVStorage();
+		Random rand = new Random();
+
+		Bytes prefix = Bytes.fromString("LDG://test/");
+		byte[][] values = new byte[3000][];
+		ArenaKVStorage arenaStorage = new ArenaKVStorage(memoryStorage, memoryStorage, true);
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = new byte[i == 100 ? 100 * 1024 : 1 + rand.nextInt(64)];
+				rand.nextBytes(values[i]);
+				Bytes key = prefix.concat(Bytes.fromString("K" + i));
+				assertEquals(round, arenaStorage.set(key, values[i], round - 1));
+				assertTrue(arenaStorage.set(prefix.concat(Bytes.fromString("E" + round + "-" + i)), values[i],
+						ExPolicy.NOT_EXISTING));
+			}
+			for (int i = 0; i < values.length; i++) {
+				assertArrayEquals(values[i], arenaStorage.get(prefix.concat(Bytes.fromString("K" + i)), round));
+			}
+			arenaStorage.flush();
+
+			for (int i = 0; i < values.length; i++) {
+				Bytes key = prefix.concat(Bytes.fromString("K" + i));
+				assertEquals(round, memoryStorage.getVersion(key));
+				assertArrayEquals(values[i], memoryStorage.get(key, round));
+				assertArrayEquals(values[i], memoryStorage.get(prefix.concat(Bytes.fromString("E" + round + "-" + i))));
+			}
+		}
+	}
+}
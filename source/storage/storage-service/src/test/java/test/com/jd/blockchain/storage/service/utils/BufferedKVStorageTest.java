@@ -1,6 +1,8 @@
 package test.com.jd.blockchain.storage.service.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
@@ -20,6 +22,7 @@ import com.jd.blockchain.storage.service.ExPolicyKVStorage;
 import com.jd.blockchain.storage.service.ExPolicyKVStorage.ExPolicy;
 import com.jd.blockchain.storage.service.VersioningKVStorage;
 import com.jd.blockchain.storage.service.utils.BufferedKVStorage;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
 import com.jd.blockchain.utils.Bytes;
 
 public class BufferedKVStorageTest {
@@ -74,4 +77,74 @@ public class BufferedKVStorageTest {
 		verify(exStorage, times(1)).set(eq(Bytes.fromString("C")), any(), eq(ExPolicy.NOT_EXISTING));
 		verify(exStorage, times(1)).set(eq(Bytes.fromString("D")), any(), eq(ExPolicy.NOT_EXISTING));
 	}
+
+	@Test
+	public void testRevert() throws UnsupportedEncodingException {
+		ExPolicyKVStorage exStorage = Mockito.mock(ExPolicyKVStorage.class);
+		when(exStorage.get(any())).thenReturn(null);
+		when(exStorage.exist(any())).thenReturn(false);
+
+		VersioningKVStorage verStorage = Mockito.mock(VersioningKVStorage.class);
+		when(verStorage.getVersion(any())).thenReturn(-1L);
+		when(verStorage.get(any(), anyLong())).thenReturn(null);
+
+		BufferedKVStorage bufStorage = new BufferedKVStorage(exStorage, verStorage, false);
+
+		Bytes keyA = Bytes.fromString("A");
+		byte[] data = "ABC".getBytes("UTF-8");
+		long v = bufStorage.set(keyA, data, -1);
+		assertEquals(0, v);
+		v = bufStorage.set(keyA, data, v);
+		assertEquals(1, v);
+
+		// 只能撤销最新的版本；
+		assertFalse(bufStorage.revert(keyA, 0));
+		assertTrue(bufStorage.revert(keyA, 1));
+		assertEquals(0, bufStorage.getVersion(keyA));
+		assertNull(bufStorage.get(keyA, 1));
+		assertTrue(bufStorage.revert(keyA, 0));
+		assertEquals(-1, bufStorage.getVersion(keyA));
+
+		Bytes keyB = Bytes.fromString("B");
+		assertTrue(bufStorage.set(keyB, data, ExPolicy.NOT_EXISTING));
+		assertTrue(bufStorage.revert(keyB));
+		assertFalse(bufStorage.revert(keyB));
+		assertFalse(bufStorage.exist(keyB));
+
+		assertFalse(bufStorage.isUpdated());
+	}
+
+	@Test
+	public void testMultiGet() throws UnsupportedEncodingException {
+		MemoryKVStorage origStorage = Mockito.spy(new MemoryKVStorage());
+		Bytes keyA = Bytes.fromString("A");
+		Bytes keyB = Bytes.fromString("B");
+		Bytes keyC = Bytes.fromString("C");
+		Bytes keyX = Bytes.fromString("X");
+		origStorage.set(keyA, "A0".getBytes("UTF-8"), -1);
+		origStorage.set(keyA, "A1".getBytes("UTF-8"), 0);
+		origStorage.set(keyX, "X".getBytes("UTF-8"), ExPolicy.NOT_EXISTING);
+
+		BufferedKVStorage bufStorage = new BufferedKVStorage(origStorage, origStorage, false);
+		assertEquals(2, bufStorage.set(keyA, "A2".getBytes("UTF-8"), 1));
+		assertEquals(0, bufStorage.set(keyB, "B0".getBytes("UTF-8"), -1));
+		assertTrue(bufStorage.set(keyC, "C".getBytes("UTF-8"), ExPolicy.NOT_EXISTING));
+
+		// 缓冲的数据直接返回，其余的键以一次批量读取从原始存储读取；
+		byte[][] values = bufStorage.multiGet(new Bytes[] { keyA, keyA, keyA, keyB, keyB, keyC },
+				new long[] { 2, 0, 1, 0, 1, -1 });
+		assertEquals("A2", new String(values[0], "UTF-8"));
+		assertEquals("A0", new String(values[1], "UTF-8"));
+		assertEquals("A1", new String(values[2], "UTF-8"));
+		assertEquals("B0", new String(values[3], "UTF-8"));
+		assertNull(values[4]);
+		assertNull(values[5]);
+		verify(origStorage, times(1)).multiGet(any(Bytes[].class), any(long[].class));
+
+		values = bufStorage.multiGet(new Bytes[] { keyX, keyC, keyA });
+		assertEquals("X", new String(values[0], "UTF-8"));
+		assertEquals("C", new String(values[1], "UTF-8"));
+		assertNull(values[2]);
+		verify(origStorage, times(1)).multiGet(any(Bytes[].class));
+	}
 }
@@ -0,0 +1,137 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * 以基线结果校验基准测试的结果；<br>
+ *
+ * 基线和当前结果都是 JMH 以 JSON 格式输出的结果文件；以测试方法和参数作为标识，对两边都存在的测试逐一比较得分：<br>
+ * 吞吐量模式（thrpt）的得分越高越好，低于基线超出容差即为退化；其它模式（平均时间等）的得分越低越好，高于基线超出容差即为退化；
+ *
+ * @author huanghaiquan
+ *
+ */
+public final class BenchmarkBaseline {
+
+	private static final String THROUGHPUT_MODE = "thrpt";
+
+	private BenchmarkBaseline() {
+	}
+
+	/**
+	 * 比较基线和当前的结果文件，返回退化的测试的描述；
+	 *
+	 * @param baselineFile 基线结果文件；
+	 * @param currentFile  当前结果文件；
+	 * @param tolerance    容差，即允许的得分变化的比例，例如 0.1 表示 10%；
+	 * @return 退化的测试的描述；如果没有退化，则返回空列表；
+	 * @throws IOException
+	 */
+	public static List<String> compare(File baselineFile, File currentFile, double tolerance) throws IOException {
+		return compare(load(baselineFile), load(currentFile), tolerance);
+	}
+
+	static List<String> compare(Map<String, Score> baseline, Map<String, Score> current, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, Score> entry : current.entrySet()) {
+			Score baseScore = baseline.get(entry.getKey());
+			if (baseScore == null) {
+				continue;
+			}
+			Score score = entry.getValue();
+			boolean regressed;
+			if (THROUGHPUT_MODE.equals(score.mode)) {
+				regressed = score.value < baseScore.value * (1 - tolerance);
+			} else {
+				regressed = score.value > baseScore.value * (1 + tolerance);
+			}
+			if (regressed) {
+				regressions.add(String.format("%s : baseline=%.3f, current=%.3f %s", entry.getKey(), baseScore.value,
+						score.value, score.unit));
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * 加载 JMH 以 JSON 格式输出的结果文件；
+	 *
+	 * @param resultFile
+	 * @return 以测试方法和参数为键的得分；
+	 * @throws IOException
+	 */
+	static Map<String, Score> load(File resultFile) throws IOException {
+		String json = new String(Files.readAllBytes(resultFile.toPath()), StandardCharsets.UTF_8);
+		return parse(json);
+	}
+
+	static Map<String, Score> parse(String json) {
+		Map<String, Score> scores = new LinkedHashMap<>();
+		JSONArray results = JSON.parseArray(json);
+		for (int i = 0; i < results.size(); i++) {
+			JSONObject result = results.getJSONObject(i);
+			JSONObject primaryMetric = result.getJSONObject("primaryMetric");
+
+			Score score = new Score();
+			score.mode = result.getString("mode");
+			score.value = primaryMetric.getDoubleValue("score");
+			score.unit = primaryMetric.getString("scoreUnit");
+
+			scores.put(keyOf(result), score);
+		}
+		return scores;
+	}
+
+	private static String keyOf(JSONObject result) {
+		StringBuilder key = new StringBuilder(result.getString("benchmark"));
+		JSONObject params = result.getJSONObject("params");
+		if (params != null && !params.isEmpty()) {
+			// 参数按名称排序，以免参数的输出顺序影响比较；
+			key.append(new TreeMap<>(params).toString());
+		}
+		return key.toString();
+	}
+
+	static class Score {
+
+		String mode;
+
+		double value;
+
+		String unit;
+
+	}
+
+	/**
+	 * 比较两个结果文件；存在退化时以状态码 1 退出；<br>
+	 *
+	 * 参数：基线结果文件 当前结果文件 [容差，默认 0.1]
+	 *
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BenchmarkBaseline <baseline.json> <current.json> [tolerance]");
+			System.exit(2);
+		}
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : BenchmarkRunner.DEFAULT_TOLERANCE;
+		List<String> regressions = compare(new File(args[0]), new File(args[1]), tolerance);
+		BenchmarkRunner.report(regressions, tolerance);
+		if (!regressions.isEmpty()) {
+			System.exit(1);
+		}
+	}
+}
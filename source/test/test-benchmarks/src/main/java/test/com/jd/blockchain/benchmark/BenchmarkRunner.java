@@ -0,0 +1,70 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.io.File;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行基准测试，以 JSON 格式输出结果，并可与基线结果比较；<br>
+ *
+ * 用法：java [-Dbenchmark.result=结果文件] [-Dbenchmark.baseline=基线结果文件] [-Dbenchmark.tolerance=容差]
+ * -jar benchmarks.jar [测试的正则表达式]<br>
+ *
+ * 1、未指定测试的正则表达式时运行全部测试；<br>
+ * 2、结果文件默认为 target/jmh-result.json ；<br>
+ * 3、指定了基线结果文件时，与之比较，存在退化的测试时以状态码 1 退出；容差默认为 0.1，即 10%；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BenchmarkRunner {
+
+	static final double DEFAULT_TOLERANCE = 0.1;
+
+	public static void main(String[] args) throws Exception {
+		String resultPath = System.getProperty("benchmark.result", "target/jmh-result.json");
+		String baselinePath = System.getProperty("benchmark.baseline");
+		double tolerance = Double
+				.parseDouble(System.getProperty("benchmark.tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+
+		File resultFile = new File(resultPath).getAbsoluteFile();
+		resultFile.getParentFile().mkdirs();
+
+		OptionsBuilder optionsBuilder = new OptionsBuilder();
+		if (args.length > 0) {
+			for (String include : args) {
+				optionsBuilder.include(include);
+			}
+		} else {
+			optionsBuilder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+		}
+		Options options = optionsBuilder.resultFormat(ResultFormatType.JSON).result(resultFile.getPath()).build();
+
+		new Runner(options).run();
+		System.out.println("------ [[ benchmark.result=" + resultFile + " ]] ------");
+
+		if (baselinePath != null) {
+			List<String> regressions = BenchmarkBaseline.compare(new File(baselinePath), resultFile, tolerance);
+			report(regressions, tolerance);
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+		}
+	}
+
+	static void report(List<String> regressions, double tolerance) {
+		if (regressions.isEmpty()) {
+			System.out.println(String.format("No regression beyond the tolerance[%.2f] of baseline.", tolerance));
+			return;
+		}
+		System.err.println(String.format("%s benchmarks regressed beyond the tolerance[%.2f] of baseline:",
+				regressions.size(), tolerance));
+		for (String regression : regressions) {
+			System.err.println("  " + regression);
+		}
+	}
+}
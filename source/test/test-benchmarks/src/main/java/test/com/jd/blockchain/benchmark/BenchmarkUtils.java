@@ -0,0 +1,44 @@
+package test.com.jd.blockchain.benchmark;
+
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.CryptoProvider;
+import com.jd.blockchain.crypto.service.classic.ClassicAlgorithm;
+import com.jd.blockchain.crypto.service.classic.ClassicCryptoService;
+import com.jd.blockchain.crypto.service.sm.SMCryptoService;
+import com.jd.blockchain.ledger.CryptoSetting;
+import com.jd.blockchain.ledger.core.CryptoConfig;
+
+/**
+ * 基准测试的公共设置；
+ *
+ * @author huanghaiquan
+ *
+ */
+final class BenchmarkUtils {
+
+	private static final String[] SUPPORTED_PROVIDERS = { ClassicCryptoService.class.getName(),
+			SMCryptoService.class.getName() };
+
+	private BenchmarkUtils() {
+	}
+
+	/**
+	 * 创建采用 SHA256 哈希算法的密码设置；
+	 *
+	 * @param autoVerifyHash 是否在加载数据时自动校验哈希；
+	 * @return
+	 */
+	static CryptoSetting createCryptoSetting(boolean autoVerifyHash) {
+		CryptoProvider[] supportedProviders = new CryptoProvider[SUPPORTED_PROVIDERS.length];
+		for (int i = 0; i < SUPPORTED_PROVIDERS.length; i++) {
+			supportedProviders[i] = Crypto.getProvider(SUPPORTED_PROVIDERS[i]);
+		}
+
+		CryptoConfig cryptoConfig = new CryptoConfig();
+		cryptoConfig.setSupportedProviders(supportedProviders);
+		cryptoConfig.setAutoVerifyHash(autoVerifyHash);
+		cryptoConfig.setHashAlgorithm(ClassicAlgorithm.SHA256);
+		return cryptoConfig;
+	}
+
+}
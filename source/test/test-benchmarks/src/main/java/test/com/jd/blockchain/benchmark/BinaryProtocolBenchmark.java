@@ -0,0 +1,127 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.binaryproto.BinaryProtocol;
+import com.jd.blockchain.binaryproto.DataContractRegistry;
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.ledger.BlockchainKeyGenerator;
+import com.jd.blockchain.ledger.BlockchainKeypair;
+import com.jd.blockchain.ledger.DataAccountKVSetOperation;
+import com.jd.blockchain.ledger.DataAccountRegisterOperation;
+import com.jd.blockchain.ledger.LedgerBlock;
+import com.jd.blockchain.ledger.TransactionContent;
+import com.jd.blockchain.ledger.TransactionContentBody;
+import com.jd.blockchain.ledger.TransactionRequest;
+import com.jd.blockchain.ledger.TransactionRequestBuilder;
+import com.jd.blockchain.ledger.core.LedgerBlockData;
+import com.jd.blockchain.transaction.TxBuilder;
+
+/**
+ * 交易请求和区块的编码、解码的性能；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryProtocolBenchmark {
+
+	static {
+		DataContractRegistry.register(TransactionContent.class);
+		DataContractRegistry.register(TransactionContentBody.class);
+		DataContractRegistry.register(TransactionRequest.class);
+		DataContractRegistry.register(DataAccountRegisterOperation.class);
+		DataContractRegistry.register(DataAccountKVSetOperation.class);
+		DataContractRegistry.register(LedgerBlock.class);
+	}
+
+	private TransactionRequest txRequest;
+
+	private byte[] txRequestBytes;
+
+	private LedgerBlock block;
+
+	private byte[] blockBytes;
+
+	@Setup
+	public void setup() {
+		HashFunction hashFunc = Crypto.getHashFunction("SHA256");
+		Random random = new Random(1000);
+		byte[] seed = new byte[32];
+		random.nextBytes(seed);
+		HashDigest ledgerHash = hashFunc.hash(seed);
+
+		// 一个包含 10 个写操作、1 个终端签名和 1 个节点签名的交易；
+		BlockchainKeypair dataAccount = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair endpoint = BlockchainKeyGenerator.getInstance().generate();
+		BlockchainKeypair node = BlockchainKeyGenerator.getInstance().generate();
+
+		TxBuilder txBuilder = new TxBuilder(ledgerHash);
+		txBuilder.dataAccounts().register(dataAccount.getIdentity());
+		for (int i = 0; i < 10; i++) {
+			txBuilder.dataAccount(dataAccount.getAddress()).setText("KEY-" + i, "VALUE-" + i, -1);
+		}
+		TransactionRequestBuilder txReqBuilder = txBuilder.prepareRequest();
+		txReqBuilder.signAsEndpoint(endpoint);
+		txReqBuilder.signAsNode(node);
+		txRequest = txReqBuilder.buildRequest();
+		txRequestBytes = BinaryProtocol.encode(txRequest, TransactionRequest.class);
+
+		LedgerBlockData blockData = new LedgerBlockData(1000, ledgerHash, hashFunc.hash(bytesOf(1)));
+		blockData.setAdminAccountHash(hashFunc.hash(bytesOf(2)));
+		blockData.setUserAccountSetHash(hashFunc.hash(bytesOf(3)));
+		blockData.setDataAccountSetHash(hashFunc.hash(bytesOf(4)));
+		blockData.setContractAccountSetHash(hashFunc.hash(bytesOf(5)));
+		blockData.setTransactionSetHash(hashFunc.hash(bytesOf(6)));
+		blockData.setTimestamp(System.currentTimeMillis());
+		blockData.setHash(hashFunc.hash(bytesOf(7)));
+		block = blockData;
+		blockBytes = BinaryProtocol.encode(block, LedgerBlock.class);
+	}
+
+	private static byte[] bytesOf(int value) {
+		return new byte[] { (byte) value };
+	}
+
+	@Benchmark
+	public byte[] encodeTransactionRequest() {
+		return BinaryProtocol.encode(txRequest, TransactionRequest.class);
+	}
+
+	@Benchmark
+	public HashDigest decodeTransactionRequest() {
+		TransactionRequest request = BinaryProtocol.decode(txRequestBytes);
+		return request.getTransactionContent().getHash();
+	}
+
+	@Benchmark
+	public byte[] encodeLedgerBlock() {
+		return BinaryProtocol.encode(block, LedgerBlock.class);
+	}
+
+	@Benchmark
+	public HashDigest decodeLedgerBlock() {
+		LedgerBlock decodedBlock = BinaryProtocol.decode(blockBytes);
+		return decodedBlock.getHash();
+	}
+
+}
@@ -0,0 +1,67 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.crypto.HashFunction;
+import com.jd.blockchain.utils.io.BytesSlice;
+
+/**
+ * 各种哈希算法的性能；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashFunctionBenchmark {
+
+	@Param({ "SHA256", "RIPEMD160", "SM3" })
+	public String algorithm;
+
+	@Param({ "64", "1024" })
+	public int dataSize;
+
+	private HashFunction hashFunc;
+
+	private byte[] data;
+
+	private BytesSlice dataSlice;
+
+	@Setup
+	public void setup() {
+		hashFunc = Crypto.getHashFunction(algorithm);
+		data = new byte[dataSize];
+		new Random(1000).nextBytes(data);
+		dataSlice = new BytesSlice(data);
+	}
+
+	@Benchmark
+	public HashDigest hash() {
+		return hashFunc.hash(data);
+	}
+
+	@Benchmark
+	public HashDigest hashIncrementally() {
+		return hashFunc.beginHash().update(dataSlice).complete();
+	}
+
+}
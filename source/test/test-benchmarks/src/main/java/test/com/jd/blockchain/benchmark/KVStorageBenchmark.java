@@ -0,0 +1,126 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.storage.service.DbConnection;
+import com.jd.blockchain.storage.service.DbConnectionFactory;
+import com.jd.blockchain.storage.service.VersioningKVStorage;
+import com.jd.blockchain.storage.service.impl.rocksdb.RocksDBConnectionFactory;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.io.FileUtils;
+
+/**
+ * 内存存储与 RocksDB 存储的版本化读写的性能；<br>
+ *
+ * RocksDB 数据库创建在临时目录中，测试结束之后删除；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KVStorageBenchmark {
+
+	// 预先写入的键的数量；
+	private static final int PRELOAD_COUNT = 10000;
+
+	@Param({ "memory", "rocksdb" })
+	public String storageType;
+
+	@Param({ "128", "1024" })
+	public int valueSize;
+
+	private DbConnectionFactory dbConnFactory;
+
+	private DbConnection dbConn;
+
+	private String dbDir;
+
+	private VersioningKVStorage storage;
+
+	private Bytes[] keys;
+
+	private byte[] value;
+
+	private Random random;
+
+	private long nextKeyId;
+
+	@Setup
+	public void setup() {
+		if ("rocksdb".equals(storageType)) {
+			dbDir = new File(System.getProperty("java.io.tmpdir"), "jdchain-benchmark-" + System.nanoTime() + ".db")
+					.getAbsolutePath();
+			dbConnFactory = new RocksDBConnectionFactory();
+			dbConn = dbConnFactory.connect("rocksdb://" + dbDir);
+			storage = dbConn.getStorageService().getVersioningKVStorage();
+		} else {
+			storage = new MemoryKVStorage();
+		}
+
+		random = new Random(1000);
+		value = new byte[valueSize];
+		random.nextBytes(value);
+
+		keys = new Bytes[PRELOAD_COUNT];
+		for (int i = 0; i < PRELOAD_COUNT; i++) {
+			keys[i] = Bytes.fromString("PRELOAD-KEY-" + i);
+			storage.set(keys[i], value, -1);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (dbConnFactory != null) {
+			dbConn.close();
+			dbConnFactory.close();
+			FileUtils.deleteFile(dbDir, true);
+		}
+	}
+
+	/**
+	 * 写入一个新的键的首个版本；
+	 */
+	@Benchmark
+	public long setNewKey() {
+		return storage.set(Bytes.fromString("NEW-KEY-" + (nextKeyId++)), value, -1);
+	}
+
+	/**
+	 * 读取已存在的键的最新版本；
+	 */
+	@Benchmark
+	public byte[] getLatest() {
+		return storage.get(keys[random.nextInt(PRELOAD_COUNT)], -1);
+	}
+
+	/**
+	 * 读取已存在的键的最新版本号；
+	 */
+	@Benchmark
+	public long getVersion() {
+		return storage.getVersion(keys[random.nextInt(PRELOAD_COUNT)]);
+	}
+
+}
@@ -0,0 +1,101 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.CryptoSetting;
+import com.jd.blockchain.ledger.core.MerkleDataSet;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+import com.jd.blockchain.utils.DataEntry;
+
+/**
+ * 从已提交的默克尔数据集读取数据的性能；<br>
+ *
+ * 数据集写入 dataCount 个键并提交之后，以根哈希重新加载为只读的数据集，随机读取已存在的键；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MerkleDataSetBenchmark {
+
+	private static final Bytes KEY_PREFIX = Bytes.fromString("DATASET-BENCHMARK/");
+
+	// 批量读取的键的数量；
+	private static final int BATCH_SIZE = 16;
+
+	@Param({ "1000", "100000" })
+	public int dataCount;
+
+	private MerkleDataSet dataset;
+
+	private Bytes[] keys;
+
+	private Random random;
+
+	@Setup
+	public void setup() {
+		CryptoSetting cryptoSetting = BenchmarkUtils.createCryptoSetting(false);
+		MemoryKVStorage storage = new MemoryKVStorage();
+
+		MerkleDataSet writingDataset = new MerkleDataSet(cryptoSetting, KEY_PREFIX, storage, storage);
+		keys = new Bytes[dataCount];
+		byte[] value = new byte[128];
+		random = new Random(1000);
+		for (int i = 0; i < dataCount; i++) {
+			keys[i] = Bytes.fromString("KEY-" + i);
+			random.nextBytes(value);
+			writingDataset.setValue(keys[i], value.clone(), -1);
+		}
+		writingDataset.commit();
+		HashDigest rootHash = writingDataset.getRootHash();
+
+		dataset = new MerkleDataSet(rootHash, cryptoSetting, KEY_PREFIX, storage, storage, true);
+	}
+
+	@Benchmark
+	public byte[] getValue() {
+		return dataset.getValue(keys[random.nextInt(dataCount)]);
+	}
+
+	@Benchmark
+	public long getVersion() {
+		return dataset.getVersion(keys[random.nextInt(dataCount)]);
+	}
+
+	@Benchmark
+	public DataEntry<Bytes, byte[]> getDataEntry() {
+		return dataset.getDataEntry(keys[random.nextInt(dataCount)]);
+	}
+
+	@Benchmark
+	public List<DataEntry<Bytes, byte[]>> getDataEntries() {
+		List<Bytes> batchKeys = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batchKeys.add(keys[random.nextInt(dataCount)]);
+		}
+		return dataset.getDataEntries(batchKeys);
+	}
+
+}
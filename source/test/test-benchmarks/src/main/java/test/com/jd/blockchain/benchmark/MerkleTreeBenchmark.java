@@ -0,0 +1,85 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.crypto.HashDigest;
+import com.jd.blockchain.ledger.CryptoSetting;
+import com.jd.blockchain.ledger.core.MerkleTree;
+import com.jd.blockchain.storage.service.utils.MemoryKVStorage;
+import com.jd.blockchain.utils.Bytes;
+
+/**
+ * 默克尔树写入数据节点并提交的性能；<br>
+ *
+ * 默克尔树的分叉数固定为 {@link MerkleTree#TREE_DEGREE}，以每次提交的数据节点数量（batchSize）作为变化的参数：<br>
+ * 数量越少，每个数据节点分摊的路径节点重新计算哈希的开销越大；<br>
+ *
+ * 每一轮迭代从一棵空的树开始，每次调用写入 batchSize 个新的数据节点并提交，得分为每秒提交的次数；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MerkleTreeBenchmark {
+
+	private static final Bytes KEY_PREFIX = Bytes.fromString("MKT-BENCHMARK/");
+
+	@Param({ "1", "16", "256", "4096" })
+	public int batchSize;
+
+	private CryptoSetting cryptoSetting;
+
+	private byte[][] hashedData;
+
+	private MerkleTree merkleTree;
+
+	private long nextSN;
+
+	@Setup
+	public void setup() {
+		cryptoSetting = BenchmarkUtils.createCryptoSetting(false);
+
+		Random random = new Random(1000);
+		hashedData = new byte[1024][];
+		for (int i = 0; i < hashedData.length; i++) {
+			hashedData[i] = new byte[32];
+			random.nextBytes(hashedData[i]);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void newTree() {
+		merkleTree = new MerkleTree(cryptoSetting, KEY_PREFIX, new MemoryKVStorage());
+		nextSN = 0;
+	}
+
+	@Benchmark
+	public HashDigest setDataAndCommit() {
+		for (int i = 0; i < batchSize; i++) {
+			long sn = nextSN++;
+			merkleTree.setData(sn, "KEY-" + sn, 0, hashedData[(int) (sn % hashedData.length)]);
+		}
+		merkleTree.commit();
+		return merkleTree.getRootHash();
+	}
+
+}
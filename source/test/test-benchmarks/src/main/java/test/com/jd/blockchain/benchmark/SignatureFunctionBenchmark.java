@@ -0,0 +1,67 @@
+package test.com.jd.blockchain.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jd.blockchain.crypto.AsymmetricKeypair;
+import com.jd.blockchain.crypto.Crypto;
+import com.jd.blockchain.crypto.SignatureDigest;
+import com.jd.blockchain.crypto.SignatureFunction;
+
+/**
+ * 各种签名算法的签名和验签的性能；
+ *
+ * @author huanghaiquan
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SignatureFunctionBenchmark {
+
+	@Param({ "ED25519", "ECDSA", "SM2" })
+	public String algorithm;
+
+	private SignatureFunction signatureFunc;
+
+	private AsymmetricKeypair keypair;
+
+	private byte[] data;
+
+	private SignatureDigest signature;
+
+	@Setup
+	public void setup() {
+		signatureFunc = Crypto.getSignatureFunction(algorithm);
+		keypair = signatureFunc.generateKeypair();
+		data = new byte[1024];
+		new Random(1000).nextBytes(data);
+		signature = signatureFunc.sign(keypair.getPrivKey(), data);
+	}
+
+	@Benchmark
+	public SignatureDigest sign() {
+		return signatureFunc.sign(keypair.getPrivKey(), data);
+	}
+
+	@Benchmark
+	public boolean verify() {
+		return signatureFunc.verify(signature, keypair.getPubKey(), data);
+	}
+
+}
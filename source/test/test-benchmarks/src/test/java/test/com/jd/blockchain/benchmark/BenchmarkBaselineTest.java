@@ -0,0 +1,47 @@
+package test.com.jd.blockchain.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import test.com.jd.blockchain.benchmark.BenchmarkBaseline.Score;
+
+public class BenchmarkBaselineTest {
+
+	private static String result(String benchmark, String mode, String params, double score) {
+		return String.format(
+				"{\"benchmark\":\"%s\",\"mode\":\"%s\",\"params\":{%s},\"primaryMetric\":{\"score\":%s,\"scoreUnit\":\"ops/s\"}}",
+				benchmark, mode, params, score);
+	}
+
+	@Test
+	public void testCompare() {
+		String baselineJson = "[" + result("HashFunctionBenchmark.hash", "thrpt", "\"algorithm\":\"SHA256\",\"dataSize\":\"64\"", 1000)
+				+ "," + result("HashFunctionBenchmark.hash", "thrpt", "\"algorithm\":\"SM3\",\"dataSize\":\"64\"", 1000)
+				+ "," + result("BinaryProtocolBenchmark.encode", "avgt", "", 10) + "]";
+		// 参数的顺序不同不影响比较；
+		String currentJson = "[" + result("HashFunctionBenchmark.hash", "thrpt", "\"dataSize\":\"64\",\"algorithm\":\"SHA256\"", 950)
+				+ "," + result("HashFunctionBenchmark.hash", "thrpt", "\"dataSize\":\"64\",\"algorithm\":\"SM3\"", 800)
+				+ "," + result("BinaryProtocolBenchmark.encode", "avgt", "", 12)
+				+ "," + result("MerkleTreeBenchmark.setDataAndCommit", "thrpt", "\"batchSize\":\"1\"", 1) + "]";
+
+		Map<String, Score> baseline = BenchmarkBaseline.parse(baselineJson);
+		Map<String, Score> current = BenchmarkBaseline.parse(currentJson);
+		assertEquals(3, baseline.size());
+		assertEquals(4, current.size());
+
+		// 吞吐量下降 5% 在容差之内，下降 20% 为退化；平均时间增加 20% 为退化；基线中不存在的测试不比较；
+		List<String> regressions = BenchmarkBaseline.compare(baseline, current, 0.1);
+		assertEquals(2, regressions.size());
+		assertTrue(regressions.get(0).contains("SM3"));
+		assertTrue(regressions.get(1).startsWith("BinaryProtocolBenchmark.encode"));
+
+		regressions = BenchmarkBaseline.compare(baseline, current, 0.25);
+		assertTrue(regressions.isEmpty());
+	}
+
+}
@@ -202,6 +202,8 @@ public class LedgerInitConfiguration {
 
 		initSetting.setCreatedTime(ledgerProps.getCreatedTime());
 
+		initSetting.setBlockIsolation(ledgerProps.isBlockIsolation());
+
 		// 创建共识配置；
 		try {
 			byte[] consensusSettingsBytes = encodeConsensusSettings(consensusConfig.getProvider(),
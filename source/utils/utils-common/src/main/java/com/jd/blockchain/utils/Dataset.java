@@ -1,5 +1,8 @@
 package com.jd.blockchain.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Key-Value data set;
  * 
@@ -84,6 +87,26 @@ public interface Dataset<K, V> {
 	 */
 	DataEntry<K, V> getDataEntry(K key, long version);
 
+	/**
+	 * Return the latest data entries of the specified keys in one batch;<br>
+	 * 
+	 * The returned list has the same size and order as the keys, and the entry of
+	 * the absent key is null;<br>
+	 * 
+	 * The default implementation reads the keys one by one; the dataset which can
+	 * read multiple keys in a single storage round-trip should override it.
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	default List<DataEntry<K, V>> getDataEntries(List<K> keys) {
+		List<DataEntry<K, V>> entries = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			entries.add(getDataEntry(key));
+		}
+		return entries;
+	}
+
 	/**
 	 * Ascending iterator；
 	 * 
@@ -1,5 +1,8 @@
 package com.jd.blockchain.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Helper for {@link Dataset};
  * 
@@ -190,6 +193,11 @@ public class DatasetHelper {
 			return dataset.getDataEntry(key, version);
 		}
 
+		@Override
+		public List<DataEntry<K, V>> getDataEntries(List<K> keys) {
+			return dataset.getDataEntries(keys);
+		}
+
 		@Override
 		public DataIterator<K, V> iterator() {
 			return dataset.iterator();
@@ -283,6 +291,26 @@ public class DatasetHelper {
 			return new KeyValueEntry<K2, V2>(key, v, entry.getVersion());
 		}
 
+		@Override
+		public List<DataEntry<K2, V2>> getDataEntries(List<K2> keys) {
+			List<K1> keys1 = new ArrayList<>(keys.size());
+			for (K2 key : keys) {
+				keys1.add(keyMapper.encode(key));
+			}
+			List<DataEntry<K1, V1>> entries1 = dataset.getDataEntries(keys1);
+			List<DataEntry<K2, V2>> entries = new ArrayList<>(entries1.size());
+			for (int i = 0; i < entries1.size(); i++) {
+				DataEntry<K1, V1> entry = entries1.get(i);
+				if (entry == null) {
+					entries.add(null);
+					continue;
+				}
+				V2 v = valueMapper.decode(entry.getValue());
+				entries.add(new KeyValueEntry<K2, V2>(keys.get(i), v, entry.getVersion()));
+			}
+			return entries;
+		}
+
 		@Override
 		public DataIterator<K2, V2> iterator() {
 			DataIterator<K1, V1> it = dataset.iterator();
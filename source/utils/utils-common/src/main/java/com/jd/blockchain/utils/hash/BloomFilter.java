@@ -0,0 +1,178 @@
+package com.jd.blockchain.utils.hash;
+
+import java.util.BitSet;
+
+import com.jd.blockchain.utils.io.BytesUtils;
+
+/**
+ * 基于 {@link MurmurHash3} 的布隆过滤器；<br>
+ *
+ * 对每个元素计算一次 128 位的 MurmurHash3，以两个 64 位的结果按 h1 + i * h2 的方式生成各个位的索引；<br>
+ *
+ * 位数组的第 i 位对应 {@link BitSet#valueOf(long[])} 的第 i 位，因此 {@link #toBitSet()}
+ * 的结果结合位数和哈希函数的数量即可在其它地方重建过滤器；
+ *
+ * @author huanghaiquan
+ *
+ */
+public class BloomFilter {
+
+	private static final int SEED = 0x2C4B1E3D;
+
+	/**
+	 * 位数的下限；
+	 */
+	private static final int MIN_BITS = 512;
+
+	/**
+	 * 哈希函数数量的上限；
+	 */
+	private static final int MAX_HASHES = 16;
+
+	private final long[] words;
+
+	private final int numHashes;
+
+	/**
+	 * @param numBits   位数；向上对齐到 64 的整数倍；
+	 * @param numHashes 哈希函数的数量；
+	 */
+	public BloomFilter(int numBits, int numHashes) {
+		if (numBits <= 0) {
+			throw new IllegalArgumentException("The number of bits must be positive!");
+		}
+		if (numHashes <= 0 || numHashes > MAX_HASHES) {
+			throw new IllegalArgumentException("The number of hashes is out of range[1, " + MAX_HASHES + "]!");
+		}
+		this.words = new long[(numBits + 63) >>> 6];
+		this.numHashes = numHashes;
+	}
+
+	private BloomFilter(long[] words, int numHashes) {
+		this.words = words;
+		this.numHashes = numHashes;
+	}
+
+	/**
+	 * 按预期的元素数量和误判率创建过滤器；
+	 *
+	 * @param expectedCount 预期的元素数量；
+	 * @param fpp           误判率，取值范围 (0, 1)；
+	 * @return
+	 */
+	public static BloomFilter create(int expectedCount, double fpp) {
+		if (fpp <= 0 || fpp >= 1) {
+			throw new IllegalArgumentException("The false positive probability is out of range(0, 1)!");
+		}
+		int n = Math.max(1, expectedCount);
+		long numBits = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		numBits = Math.max(MIN_BITS, Math.min(numBits, Integer.MAX_VALUE - 63));
+		int numHashes = (int) Math.round((double) numBits / n * Math.log(2));
+		numHashes = Math.max(1, Math.min(numHashes, MAX_HASHES));
+		return new BloomFilter((int) numBits, numHashes);
+	}
+
+	/**
+	 * 位数；
+	 *
+	 * @return
+	 */
+	public int getNumBits() {
+		return words.length << 6;
+	}
+
+	/**
+	 * 哈希函数的数量；
+	 *
+	 * @return
+	 */
+	public int getNumHashes() {
+		return numHashes;
+	}
+
+	public void add(byte[] element) {
+		MurmurHash3.LongPair hash = new MurmurHash3.LongPair();
+		MurmurHash3.murmurhash3_x64_128(element, 0, element.length, SEED, hash);
+		long numBits = getNumBits();
+		long combined = hash.val1;
+		for (int i = 0; i < numHashes; i++) {
+			long index = (combined & Long.MAX_VALUE) % numBits;
+			words[(int) (index >>> 6)] |= 1L << index;
+			combined += hash.val2;
+		}
+	}
+
+	/**
+	 * 元素是否可能存在；<br>
+	 *
+	 * 返回 false 时元素一定不存在；返回 true 时元素可能存在；
+	 *
+	 * @param element
+	 * @return
+	 */
+	public boolean mightContain(byte[] element) {
+		MurmurHash3.LongPair hash = new MurmurHash3.LongPair();
+		MurmurHash3.murmurhash3_x64_128(element, 0, element.length, SEED, hash);
+		long numBits = getNumBits();
+		long combined = hash.val1;
+		for (int i = 0; i < numHashes; i++) {
+			long index = (combined & Long.MAX_VALUE) % numBits;
+			if ((words[(int) (index >>> 6)] & (1L << index)) == 0) {
+				return false;
+			}
+			combined += hash.val2;
+		}
+		return true;
+	}
+
+	/**
+	 * 返回位数组的副本；
+	 *
+	 * @return
+	 */
+	public BitSet toBitSet() {
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * 编码为字节数组；<br>
+	 *
+	 * 格式为：哈希函数的数量（1 字节）+ 位数组（每 64 位 8 字节，大端）；
+	 *
+	 * @return
+	 */
+	public byte[] toBytes() {
+		byte[] bytes = new byte[1 + words.length * 8];
+		bytes[0] = (byte) numHashes;
+		for (int i = 0; i < words.length; i++) {
+			BytesUtils.toBytes(words[i], bytes, 1 + i * 8);
+		}
+		return bytes;
+	}
+
+	/**
+	 * 从 {@link #toBytes()} 的结果解码；
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	public static BloomFilter fromBytes(byte[] bytes) {
+		return fromBytes(bytes, 0, bytes.length);
+	}
+
+	public static BloomFilter fromBytes(byte[] bytes, int offset, int length) {
+		if (length < 9 || (length - 1) % 8 != 0) {
+			throw new IllegalArgumentException("Illegal length of bloom filter bytes!");
+		}
+		int numHashes = bytes[offset] & 0xFF;
+		if (numHashes <= 0 || numHashes > MAX_HASHES) {
+			throw new IllegalArgumentException("Illegal number of hashes of bloom filter!");
+		}
+		long[] words = new long[(length - 1) / 8];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = BytesUtils.toLong(bytes, offset + 1 + i * 8);
+		}
+		return new BloomFilter(words, numHashes);
+	}
+
+}
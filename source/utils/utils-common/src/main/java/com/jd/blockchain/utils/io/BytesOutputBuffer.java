@@ -2,6 +2,7 @@ package com.jd.blockchain.utils.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * 字节输出缓冲区；<br>
@@ -17,6 +18,9 @@ public class BytesOutputBuffer {
 
 	private static final int DEFAULT_CAPACITY = 8;
 
+	// 重置时保留的最大容量；超出时重新分配，以免复用的缓冲区长期占用过多的内存；
+	private static final int MAX_RETAINED_CAPACITY = 1024;
+
 	private volatile int size = 0;
 
 	private int capacity = 0;
@@ -84,6 +88,34 @@ public class BytesOutputBuffer {
 		}
 	}
 
+	/**
+	 * 写入另一个缓冲区从指定位置开始的内容；<br>
+	 * 
+	 * 与 {@link #write(BytesOutputBuffer)} 一样直接引用另一个缓冲区的数组，只复制指定位置所在的数组的剩余部分；
+	 * 
+	 * @param buffer buffer
+	 * @param offset 开始写入的位置；
+	 */
+	public void write(BytesOutputBuffer buffer, int offset) {
+		if (offset < 0 || offset > buffer.size) {
+			throw new IndexOutOfBoundsException("The offset is out of the bounds of buffer!");
+		}
+		byte[][] fromBuffers = buffer.buffers;
+		for (int i = 0; i < buffer.cursor; i++) {
+			byte[] data = fromBuffers[i];
+			if (offset >= data.length) {
+				offset -= data.length;
+				continue;
+			}
+			if (offset > 0) {
+				writeCopy(data, offset, data.length - offset);
+				offset = 0;
+				continue;
+			}
+			write(data);
+		}
+	}
+
 	/**
 	 * 复制写入；<br>
 	 * 
@@ -137,6 +169,21 @@ public class BytesOutputBuffer {
 		return len;
 	}
 	
+	/**
+	 * 把结果输出到指定的缓冲区，并返回写入的长度；
+	 * <p>
+	 * 指定的缓冲区可以是直接缓冲区（Direct ByteBuffer）；剩余空间不足时抛出 {@link java.nio.BufferOverflowException}；
+	 * 
+	 * @param out out
+	 * @return int
+	 */
+	public synchronized int writeTo(ByteBuffer out) {
+		for (int i = 0; i < cursor; i++) {
+			out.put(buffers[i]);
+		}
+		return size;
+	}
+
 	public synchronized int writeTo(OutputStream out) {
 		try {
 			for (int i = 0; i < cursor; i++) {
@@ -159,4 +206,22 @@ public class BytesOutputBuffer {
 		return data;
 	}
 
+	/**
+	 * 清空缓冲区以便复用；<br>
+	 * 
+	 * 释放对已写入的数组的引用；
+	 */
+	public synchronized void reset() {
+		if (capacity > MAX_RETAINED_CAPACITY) {
+			capacity = DEFAULT_CAPACITY;
+			buffers = new byte[capacity][];
+		} else {
+			for (int i = 0; i < cursor; i++) {
+				buffers[i] = null;
+			}
+		}
+		cursor = 0;
+		size = 0;
+	}
+
 }
@@ -1,5 +1,8 @@
 package com.jd.blockchain.utils.io;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author huanghaiquan
  *
@@ -158,6 +161,23 @@ public class BytesSlice implements BytesSerializable {
 		return copy;
 	}
 
+	/**
+	 * 把数据输出到指定的输出流，并返回输出的长度；<br>
+	 * 
+	 * 直接输出原始数组中的片段，不产生副本；
+	 * 
+	 * @param out out
+	 * @return int
+	 */
+	public int writeTo(OutputStream out) {
+		try {
+			out.write(bytes, dataOffset, size);
+			return size;
+		} catch (IOException e) {
+			throw new RuntimeIOException(e.getMessage(), e);
+		}
+	}
+
 	protected byte[] getOriginBytes() {
 		return bytes;
 	}